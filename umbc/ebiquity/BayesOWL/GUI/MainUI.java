@@ -299,8 +299,9 @@ public class MainUI {
 	private void startParseFile(String filePathOrURL){
 		TaxoParser taxoParser = new TaxoParser(filePathOrURL);
 		//taxoParser.startParsing(filePathOrURL);
+		TaxonomyIndex index = taxoParser.getIndex();
 		BNConstructor constructBN = new BNConstructor();
-		constructBN.constructBN(taxoParser.getNames(), taxoParser.getTags(), taxoParser.getParents());
+		constructBN.constructBN(index.getNames(), index.getTags(), index.getParentStart(), index.getParentIds());
 		net = constructBN.getNet();
 		FileDialog fd = new FileDialog(shell, SWT.SAVE);
 		fd.setFilterPath("./");
@@ -312,7 +313,7 @@ public class MainUI {
 			fd.setFileName(fd.getFileName() + ".dne");
 		}		
 		nodes = constructBN.getNodes();
-		parents = taxoParser.getParents();
+		parents = index.getParents();
 	}
 	
 	/**
@@ -213,6 +213,17 @@ public class CondProbDistribution extends ProbDistribution {
 		return probEntries.getElement(indices);
 	}
 			
+	/**
+	 * Gets one conditional probability value given its position in the conditional probability
+	 * distribution table (row-major, conditions first).
+	 * 
+	 * @param offset	entry position
+	 * @return	entry
+	 */
+	public double getCondProbEntry (int offset) {
+		return probEntries.getElement(offset);
+	}
+			
 	/**
 	 * Takes an int which represents the position in the distribution entries and 
 	 * computes the corresponding 'indices' in the multi-dimensional array.
@@ -0,0 +1,571 @@
+/**
+ * DiscreteNet.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+
+package umbc.ebiquity.BayesOWL.commonDefine;
+
+import java.util.*;
+
+/**
+ * This class implements a Bayesian Belief Network of discrete variables in pure Java, which includes:<br>
+ * 	(1) n nodes {vi}, i = 0 to n-1, each node vi has di states<br>
+ * 	(2) the parents of each node, in the same order as in the Netica net<br>
+ * 	(3) the CPT of each node, as a one-dimensional array in row-major order<br>
+ * 	(4) the hard findings of each node, -1 means no finding<br>
+ * <br>
+ * A binary node may be a logic node (L-Node) instead: its CPT is the boolean function of its
+ * binary parents given by its tag (see LogicFunction), evaluated symbolically. Its table is
+ * built on each call of "getCPT" and never kept, and can not be changed.<br>
+ * <br>
+ * The CPT of node v with parents p1, ..., pk is stored as "d(p1) x ... x d(pk) x d(v)" values,
+ * i.e., one row per assignment of the parents, the last parent changing fastest
+ * (the same order as MultiDimensionalArray and Netica's getCPTable).<br>
+ * e.g.<br>
+ * 	binary A with parent B: cpt = {P(A=T|B=T), P(A=F|B=T), P(A=T|B=F), P(A=F|B=F)}<br>
+ *
+ */
+public class DiscreteNet {
+	String[] nodeNames;		//node names, the index in this array is the node id
+	String[][] nodeStates;	//state names of each node
+	int[][] parents;		//parent ids of each node
+	int[][] children;		//children ids of each node
+	int[][] parentFactors;	//for each node, the row stride of each parent in its CPT
+	int[] numOfRows;		//number of rows (parent assignments) of each node's CPT
+	double[][] cpts;		//CPT of each node, null for an L-Node
+	ExNode.TAG[] logicTags;	//logic function of each node, null if its CPT is a table
+	int[] findings;			//hard finding (state index) of each node, -1 if none
+	int[] topoOrder;		//node ids in a topological order, parents first
+	Hashtable name_idx_map;	//key: node name, value: node id
+	int[] cptVersions;		//increased whenever the CPT of a node changes
+	int cptVersion;			//increased whenever any CPT changes
+
+	/**
+	 * Constructor - 1:
+	 * Constructs the structure of a network, with all the CPTs uniform and no findings.
+	 *
+	 * @param names	node names
+	 * @param states	state names of each node
+	 * @param parentIds	parent ids of each node
+	 */
+	public DiscreteNet(String[] names, String[][] states, int[][] parentIds) {
+		this(names, states, parentIds, null);
+	}
+
+	/**
+	 * Constructor - 2:
+	 * Constructs the structure of a network with L-Nodes, the other CPTs uniform and no findings.
+	 * A node with a logic tag (not NORMALNODE) and at least one parent is an L-Node;
+	 * it and its parents must be binary.
+	 *
+	 * @param names	node names
+	 * @param states	state names of each node
+	 * @param parentIds	parent ids of each node
+	 * @param tags	tag of each node, may be null
+	 */
+	public DiscreteNet(String[] names, String[][] states, int[][] parentIds, ExNode.TAG[] tags) {
+		if (names == null || states == null || parentIds == null || names.length != states.length || names.length != parentIds.length) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonDefine.DiscreteNet.java: Wrong network structure provided!");
+		}
+		else {
+			int n = names.length;
+			nodeNames = new String[n];
+			nodeStates = new String[n][];
+			parents = new int[n][];
+			name_idx_map = new Hashtable();
+			for (int i = 0; i < n; i++) {
+				if (states[i] == null || states[i].length == 0) {
+					throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonDefine.DiscreteNet.java: A node has at least one state!");
+				}
+				nodeNames[i] = names[i];
+				nodeStates[i] = states[i];
+				parents[i] = parentIds[i] == null ? new int[0] : parentIds[i];
+				Object previousValue = name_idx_map.put(names[i], Integer.valueOf(i));
+				if (previousValue != null) {
+					throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonDefine.DiscreteNet.java: Two nodes can not have the same name!");
+				}
+			}
+			buildStructure();
+			if (tags != null && tags.length != n) {
+				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonDefine.DiscreteNet.java: Wrong number of node tags provided!");
+			}
+			cpts = new double[n][];
+			logicTags = new ExNode.TAG[n];
+			for (int i = 0; i < n; i++) {
+				int d = nodeStates[i].length;
+				if (tags != null && LogicFunction.isLogic(tags[i]) && parents[i].length > 0) {
+					boolean binary = d == 2;
+					for (int j = 0; j < parents[i].length; j++)
+						binary = binary && nodeStates[parents[i][j]].length == 2;
+					if (!binary) {
+						throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonDefine.DiscreteNet.java: L-Node " + nodeNames[i] + " and its parents must be binary!");
+					}
+					logicTags[i] = tags[i];
+				}
+				else {
+					cpts[i] = new double[numOfRows[i] * d];
+					Arrays.fill(cpts[i], 1.0 / d);
+				}
+			}
+			findings = new int[n];
+			Arrays.fill(findings, -1);
+			cptVersions = new int[n];
+			cptVersion = 0;
+		}
+	}
+
+	/**
+	 * Copy Constructor.
+	 * The structure is shared (it is never changed), the CPTs and findings are copied.
+	 *
+	 * @param dn	network
+	 */
+	public DiscreteNet(DiscreteNet dn) {
+		if (dn == null) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonDefine.DiscreteNet.java: NULL is provided!");
+		}
+		else {
+			nodeNames = dn.nodeNames;
+			nodeStates = dn.nodeStates;
+			parents = dn.parents;
+			children = dn.children;
+			parentFactors = dn.parentFactors;
+			numOfRows = dn.numOfRows;
+			topoOrder = dn.topoOrder;
+			name_idx_map = dn.name_idx_map;
+			logicTags = dn.logicTags;
+			cpts = new double[dn.cpts.length][];
+			for (int i = 0; i < cpts.length; i++)
+				cpts[i] = logicTags[i] != null ? null : (double[]) dn.cpts[i].clone();
+			findings = (int[]) dn.findings.clone();
+			cptVersions = (int[]) dn.cptVersions.clone();
+			cptVersion = dn.cptVersion;
+		}
+	}
+
+	/**
+	 * Computes children, CPT row strides and a topological order from the parents.
+	 */
+	private void buildStructure() {
+		int n = nodeNames.length;
+		int[] numOfChildren = new int[n];
+		numOfRows = new int[n];
+		parentFactors = new int[n][];
+		for (int i = 0; i < n; i++) {
+			int rows = 1;
+			parentFactors[i] = new int[parents[i].length];
+			for (int j = parents[i].length - 1; j >= 0; --j) {
+				int p = parents[i][j];
+				if (p < 0 || p >= n || p == i) {
+					throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonDefine.DiscreteNet.java: Wrong parent of node " + nodeNames[i] + " !");
+				}
+				parentFactors[i][j] = rows;
+				rows *= nodeStates[p].length;
+				numOfChildren[p]++;
+			}
+			numOfRows[i] = rows;
+		}
+		children = new int[n][];
+		for (int i = 0; i < n; i++)
+			children[i] = new int[numOfChildren[i]];
+		int[] filled = new int[n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < parents[i].length; j++) {
+				int p = parents[i][j];
+				children[p][filled[p]++] = i;
+			}
+		}
+		//Kahn's algorithm
+		topoOrder = new int[n];
+		int[] inDegree = new int[n];
+		int head = 0, tail = 0;
+		for (int i = 0; i < n; i++) {
+			inDegree[i] = parents[i].length;
+			if (inDegree[i] == 0)
+				topoOrder[tail++] = i;
+		}
+		while (head < tail) {
+			int v = topoOrder[head++];
+			for (int j = 0; j < children[v].length; j++) {
+				int c = children[v][j];
+				if (--inDegree[c] == 0)
+					topoOrder[tail++] = c;
+			}
+		}
+		if (tail != n) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonDefine.DiscreteNet.java: The network is not a DAG!");
+		}
+	}
+
+	/**
+	 * Gets the number of nodes.
+	 *
+	 * @return	number of nodes
+	 */
+	public int getNumOfNodes() {
+		return nodeNames.length;
+	}
+
+	/**
+	 * Gets the name of a node.
+	 *
+	 * @param node	node id
+	 * @return	node name
+	 */
+	public String getName(int node) {
+		return nodeNames[node];
+	}
+
+	/**
+	 * Gets the id of a node given its name.
+	 *
+	 * @param name	node name
+	 * @return	node id, -1 if there is no such node
+	 */
+	public int getNodeIndex(String name) {
+		Integer obj = (Integer) name_idx_map.get(name);
+		if (obj == null) {
+			return -1;
+		}
+		else {
+			return obj.intValue();
+		}
+	}
+
+	/**
+	 * Gets the number of states of a node.
+	 *
+	 * @param node	node id
+	 * @return	number of states
+	 */
+	public int getNumOfStates(int node) {
+		return nodeStates[node].length;
+	}
+
+	/**
+	 * Gets the state names of a node.
+	 *
+	 * @param node	node id
+	 * @return	state names
+	 */
+	public String[] getStates(int node) {
+		return nodeStates[node];
+	}
+
+	/**
+	 * Gets the parent ids of a node, in CPT order.
+	 *
+	 * @param node	node id
+	 * @return	parent ids
+	 */
+	public int[] getParents(int node) {
+		return parents[node];
+	}
+
+	/**
+	 * Gets the children ids of a node.
+	 *
+	 * @param node	node id
+	 * @return	children ids
+	 */
+	public int[] getChildren(int node) {
+		return children[node];
+	}
+
+	/**
+	 * Gets all node ids in a topological order (every parent before its children).
+	 *
+	 * @return	topological order
+	 */
+	public int[] getTopologicalOrder() {
+		return topoOrder;
+	}
+
+	/**
+	 * Gets the number of rows (parent assignments) of a node's CPT.
+	 *
+	 * @param node	node id
+	 * @return	number of rows
+	 */
+	public int getNumOfRows(int node) {
+		return numOfRows[node];
+	}
+
+	/**
+	 * Gets the row index of a node's CPT for the given parent states (in CPT order).
+	 *
+	 * @param node	node id
+	 * @param parentStates	parent state indices
+	 * @return	row index
+	 */
+	public int getRowIndex(int node, int[] parentStates) {
+		int row = 0;
+		int[] f = parentFactors[node];
+		for (int j = 0; j < f.length; j++)
+			row += parentStates[j] * f[j];
+		return row;
+	}
+
+	/**
+	 * Gets the row index of a node's CPT given a full assignment of the network.
+	 *
+	 * @param node	node id
+	 * @param assignment	state index of every node
+	 * @return	row index
+	 */
+	public int getRowIndexOf(int node, int[] assignment) {
+		int row = 0;
+		int[] p = parents[node];
+		int[] f = parentFactors[node];
+		for (int j = 0; j < p.length; j++)
+			row += assignment[p[j]] * f[j];
+		return row;
+	}
+
+	/**
+	 * Gets the CPT of a node. The returned array is the one stored, do not modify it directly, use setCPT().
+	 * The table of an L-Node (2^k rows) is built on each call, and not kept: the inference backends
+	 * use its logic function (see getLogicFunction and expandLogicNodes) instead.
+	 *
+	 * @param node	node id
+	 * @return	CPT
+	 */
+	public double[] getCPT(int node) {
+		if (logicTags[node] != null)
+			return LogicFunction.toTable(logicTags[node], parents[node].length);
+		return cpts[node];
+	}
+
+	/**
+	 * Gets the logic function of a node.
+	 *
+	 * @param node	node id
+	 * @return	tag of the L-Node, null if the node's CPT is a table
+	 */
+	public ExNode.TAG getLogicFunction(int node) {
+		return logicTags[node];
+	}
+
+	/**
+	 * Tells if the network has any L-Node.
+	 *
+	 * @return	true if some node's CPT is a logic function
+	 */
+	public boolean hasLogicNodes() {
+		for (int i = 0; i < logicTags.length; i++) {
+			if (logicTags[i] != null)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Checks that a node's CPT can be changed.
+	 *
+	 * @param node	node id
+	 */
+	private void checkTabular(int node) {
+		if (logicTags[node] != null) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonDefine.DiscreteNet.java: The CPT of L-Node " + nodeNames[node] + " is a function of its parents, and can not be changed!");
+		}
+	}
+
+	/**
+	 * Replaces the CPT of a node.
+	 *
+	 * @param node	node id
+	 * @param table	CPT, in row-major order
+	 */
+	public void setCPT(int node, double[] table) {
+		checkTabular(node);
+		if (table == null || table.length != cpts[node].length) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonDefine.DiscreteNet.java: Wrong CPT size for node " + nodeNames[node] + " !");
+		}
+		else {
+			System.arraycopy(table, 0, cpts[node], 0, table.length);
+			cptVersions[node]++;
+			cptVersion++;
+		}
+	}
+
+	/**
+	 * Replaces one row of a node's CPT.
+	 *
+	 * @param node	node id
+	 * @param row	row index
+	 * @param probs	probabilities of the node states
+	 */
+	public void setCPTRow(int node, int row, double[] probs) {
+		checkTabular(node);
+		int d = nodeStates[node].length;
+		if (probs == null || probs.length != d || row < 0 || row >= numOfRows[node]) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonDefine.DiscreteNet.java: Wrong CPT row for node " + nodeNames[node] + " !");
+		}
+		else {
+			System.arraycopy(probs, 0, cpts[node], row * d, d);
+			cptVersions[node]++;
+			cptVersion++;
+		}
+	}
+
+	/**
+	 * Gets P(node = state | parents), given a full assignment of the network.
+	 *
+	 * @param node	node id
+	 * @param assignment	state index of every node
+	 * @return	conditional probability
+	 */
+	public double getCondProb(int node, int[] assignment) {
+		if (logicTags[node] != null)
+			return LogicFunction.stateOf(logicTags[node], parents[node], assignment) == assignment[node] ? 1.0 : 0.0;
+		return cpts[node][getRowIndexOf(node, assignment) * nodeStates[node].length + assignment[node]];
+	}
+
+	/**
+	 * Gets the probability of a full assignment by the chain rule, ignoring the findings.
+	 *
+	 * @param assignment	state index of every node
+	 * @return	joint probability
+	 */
+	public double getJointProbability(int[] assignment) {
+		double p = 1.0;
+		for (int i = 0; i < nodeNames.length && p > 0; i++)
+			p *= getCondProb(i, assignment);
+		return p;
+	}
+
+	/**
+	 * Makes an equivalent network where the family of every L-Node with k > 1 parents is replaced
+	 * by a chain of k - 1 summary nodes (see LogicFunction):<br>
+	 * 	S1 has parent C1, Sj has parents Sj-1 and Cj, and the L-Node has parents C0 and Sk-1.<br>
+	 * Every new family has at most 3 nodes, so the inference backends build tables linear in k.
+	 * The summary nodes are deterministic, so the joint of the original nodes is unchanged.
+	 * The original nodes keep their ids, names, CPTs and findings; the summary nodes come after them.
+	 *
+	 * @return	expanded network, with no L-Node
+	 */
+	public DiscreteNet expandLogicNodes() {
+		int n = nodeNames.length;
+		int numOfNodes = n;
+		for (int i = 0; i < n; i++) {
+			if (logicTags[i] != null)
+				numOfNodes += parents[i].length - 1;
+		}
+		String[] names = new String[numOfNodes];
+		String[][] states = new String[numOfNodes][];
+		int[][] parentIds = new int[numOfNodes][];
+		System.arraycopy(nodeNames, 0, names, 0, n);
+		System.arraycopy(nodeStates, 0, states, 0, n);
+		System.arraycopy(parents, 0, parentIds, 0, n);
+		int next = n;
+		for (int i = 0; i < n; i++) {
+			if (logicTags[i] == null || parents[i].length == 1)
+				continue;
+			for (int j = 1; j < parents[i].length; j++) {
+				names[next] = nodeNames[i] + "$S" + j;
+				states[next] = LogicFunction.SUMMARY_STATES;
+				parentIds[next] = j == 1 ? new int[]{parents[i][1]} : new int[]{next - 1, parents[i][j]};
+				next++;
+			}
+			parentIds[i] = new int[]{parents[i][0], next - 1};
+		}
+		DiscreteNet result = new DiscreteNet(names, states, parentIds);
+		next = n;
+		for (int i = 0; i < n; i++) {
+			if (logicTags[i] == null) {
+				result.setCPT(i, cpts[i]);
+			}
+			else if (parents[i].length == 1) {
+				result.setCPT(i, getCPT(i));
+			}
+			else {
+				for (int j = 1; j < parents[i].length; j++) {
+					double[] table = new double[result.numOfRows[next] * 3];
+					if (j == 1) {
+						for (int c = 0; c < 2; c++)
+							table[c * 3 + LogicFunction.summarize(LogicFunction.EMPTY, c)] = 1.0;
+					}
+					else {
+						for (int s = 0; s < 3; s++) {
+							for (int c = 0; c < 2; c++)
+								table[(s * 2 + c) * 3 + LogicFunction.summarize(s, c)] = 1.0;
+						}
+					}
+					result.setCPT(next++, table);
+				}
+				double[] table = new double[2 * 3 * 2];
+				for (int c = 0; c < 2; c++) {
+					for (int s = 0; s < 3; s++)
+						table[(c * 3 + s) * 2 + LogicFunction.stateOf(logicTags[i], c, s)] = 1.0;
+				}
+				result.setCPT(i, table);
+			}
+			if (findings[i] >= 0)
+				result.setFinding(i, findings[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the version of a node's CPT, increased on every change.
+	 *
+	 * @param node	node id
+	 * @return	CPT version
+	 */
+	public int getCPTVersion(int node) {
+		return cptVersions[node];
+	}
+
+	/**
+	 * Gets the version of all the CPTs, increased on every change.
+	 *
+	 * @return	CPT version
+	 */
+	public int getCPTVersion() {
+		return cptVersion;
+	}
+
+	/**
+	 * Enters a hard finding.
+	 *
+	 * @param node	node id
+	 * @param state	state index, -1 to retract
+	 */
+	public void setFinding(int node, int state) {
+		if (state < -1 || state >= nodeStates[node].length) {
+			throw new IndexOutOfBoundsException("Class umbc.ebiquity.BayesOWL.commonDefine.DiscreteNet.java: Wrong finding for node " + nodeNames[node] + " !");
+		}
+		else {
+			findings[node] = state;
+		}
+	}
+
+	/**
+	 * Gets the hard finding of a node.
+	 *
+	 * @param node	node id
+	 * @return	state index, -1 if none
+	 */
+	public int getFinding(int node) {
+		return findings[node];
+	}
+
+	/**
+	 * Gets the hard findings of all the nodes.
+	 *
+	 * @return	state index of each node, -1 if none
+	 */
+	public int[] getFindings() {
+		return findings;
+	}
+
+	/**
+	 * Retracts all the findings.
+	 */
+	public void retractFindings() {
+		Arrays.fill(findings, -1);
+	}
+
+}
@@ -175,6 +175,26 @@ public class JointProbDistribution extends ProbDistribution {
 		return probEntries.getElement(indices);
 	}
 
+	/**
+	 * This method puts one probability value by its position in the distribution entries.
+	 * 
+	 * @param offset	position of entry(integer)
+	 * @param pv	entry value
+	 */
+	public void addProbEntry (int offset, double pv) {
+		probEntries.putElement(offset,pv);
+	}
+
+	/**
+	 * This method returns one probability value by its position in the distribution entries.
+	 * 
+	 * @param offset	position of entry(integer)
+	 * @return	entry value
+	 */
+	public double getProbEntry (int offset) {
+		return probEntries.getElement(offset);
+	}
+
 	/**
 	 * This method checks whether this is a valid JPD table.
 	 * 
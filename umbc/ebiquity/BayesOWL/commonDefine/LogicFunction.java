@@ -0,0 +1,149 @@
+/**
+ * LogicFunction.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+
+package umbc.ebiquity.BayesOWL.commonDefine;
+
+/**
+ * This class evaluates the deterministic CPTs of the logic nodes (L-Nodes) of BayesOWL
+ * as boolean functions of their parents, instead of tables of 2^k rows.<br>
+ * State 0 is "True", state 1 is "False", for the L-Node and for its parents C0, C1, ..., Ck-1
+ * (in CPT order). The functions are those of constructor.InitializeCPT:<br>
+ * 	(1) COMPLEMENT: L is False iff the Ci are all True or all False<br>
+ * 	(2) DISJOINT: L is False iff the Ci are all True<br>
+ * 	(3) EQUIVALENT: L is True iff the Ci are all True or all False<br>
+ * 	(4) INTERSECTION: L is True iff "C0 = C1 AND ... AND Ck-1"<br>
+ * 	(5) UNION: L is True iff "C0 = C1 OR ... OR Ck-1"<br>
+ * <br>
+ * Every function depends on C0 and on a summary of C1, ..., Ck-1 only: whether they are
+ * all True, all False, or mixed. The summary is computed one parent at a time (see "summarize"),
+ * so that the inference backends can replace the family of an L-Node by a chain of small
+ * families (see DiscreteNet.expandLogicNodes()).<br>
+ *
+ */
+public class LogicFunction {
+	public static final int TRUE = 0;
+	public static final int FALSE = 1;
+	//summaries of C1, ..., Ck-1
+	public static final int EMPTY = -1;		//no parent summarized yet
+	public static final int ALL_TRUE = 0;
+	public static final int ALL_FALSE = 1;
+	public static final int MIXED = 2;
+	public static final String[] SUMMARY_STATES = {"AllTrue", "AllFalse", "Mixed"};
+
+	/**
+	 * Tells if a tag is a logic function (i.e., not NORMALNODE).
+	 *
+	 * @param tag	node tag, may be null
+	 * @return	true for a logic function
+	 */
+	public static boolean isLogic(ExNode.TAG tag) {
+		return tag != null && tag != ExNode.TAG.NORMALNODE;
+	}
+
+	/**
+	 * Adds the state of one more parent to a summary.
+	 *
+	 * @param summary	summary of the previous parents, EMPTY if none
+	 * @param state	state of the parent
+	 * @return	new summary
+	 */
+	public static int summarize(int summary, int state) {
+		if (summary == EMPTY)
+			return state == TRUE ? ALL_TRUE : ALL_FALSE;
+		else if (summary == ALL_TRUE && state == TRUE)
+			return ALL_TRUE;
+		else if (summary == ALL_FALSE && state == FALSE)
+			return ALL_FALSE;
+		else
+			return MIXED;
+	}
+
+	/**
+	 * Gets the state of an L-Node given its first parent and the summary of the others.
+	 *
+	 * @param tag	node tag
+	 * @param first	state of the first parent
+	 * @param summary	summary of the other parents, EMPTY if none
+	 * @return	state of the L-Node
+	 */
+	public static int stateOf(ExNode.TAG tag, int first, int summary) {
+		boolean restAllTrue = summary == EMPTY || summary == ALL_TRUE;
+		boolean restAllFalse = summary == EMPTY || summary == ALL_FALSE;
+		boolean allTrue = first == TRUE && restAllTrue;
+		boolean allFalse = first == FALSE && restAllFalse;
+		boolean value;
+		switch (tag) {
+		case COMPLEMENT:
+			value = !(allTrue || allFalse);
+			break;
+		case DISJOINT:
+			value = !allTrue;
+			break;
+		case EQUIVALENT:
+			value = allTrue || allFalse;
+			break;
+		case INTERSECTION:
+			value = (first == TRUE) == restAllTrue;
+			break;
+		case UNION:
+			value = (first == TRUE) == !restAllFalse;
+			break;
+		default:
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonDefine.LogicFunction.java: " + tag + " is not a logic function!");
+		}
+		return value ? TRUE : FALSE;
+	}
+
+	/**
+	 * Gets the state of an L-Node given the states of its parents, in time linear in their number.
+	 *
+	 * @param tag	node tag
+	 * @param parentStates	state of each parent, in CPT order
+	 * @return	state of the L-Node
+	 */
+	public static int stateOf(ExNode.TAG tag, int[] parentStates) {
+		int summary = EMPTY;
+		for (int j = 1; j < parentStates.length; j++)
+			summary = summarize(summary, parentStates[j]);
+		return stateOf(tag, parentStates[0], summary);
+	}
+
+	/**
+	 * Gets the state of an L-Node given a full assignment of the network.
+	 *
+	 * @param tag	node tag
+	 * @param parents	parent ids, in CPT order
+	 * @param assignment	state index of every node
+	 * @return	state of the L-Node
+	 */
+	public static int stateOf(ExNode.TAG tag, int[] parents, int[] assignment) {
+		int summary = EMPTY;
+		for (int j = 1; j < parents.length; j++)
+			summary = summarize(summary, assignment[parents[j]]);
+		return stateOf(tag, assignment[parents[0]], summary);
+	}
+
+	/**
+	 * Builds the dense CPT of an L-Node, in the row-major order of DiscreteNet.
+	 * Its size is exponential in the number of parents; it is only for the code reading CPT tables.
+	 *
+	 * @param tag	node tag
+	 * @param numOfParents	number of parents, at least 1
+	 * @return	CPT, 2^(numOfParents + 1) values
+	 */
+	public static double[] toTable(ExNode.TAG tag, int numOfParents) {
+		double[] table = new double[2 << numOfParents];
+		int[] parentStates = new int[numOfParents];
+		for (int row = 0; row < table.length / 2; row++) {
+			for (int j = 0; j < numOfParents; j++)
+				parentStates[j] = (row >> (numOfParents - 1 - j)) & 1;
+			table[row * 2 + stateOf(tag, parentStates)] = 1.0;
+		}
+		return table;
+	}
+
+}
@@ -39,8 +39,6 @@ public class MultiDimensionalArray {
 	double[] data;		//an one-dimensional array of length "m = d1 * d2 * ... * dn", used to hold the elements of the simulated multi-dimensional array in row-major order
 	int numOfRows;		//the number of data stored in this multiarray, i.e., the value of 'm'
 	int numOfDims;		//the number of dimensions of this multiarray, i.e., the value of 'n'
-	Hashtable pos_indices_map;	//a mapping between position in the one-dimensional array and its corresponding indices in the multiarray   
-	Hashtable indices_pos_map;	//a mapping between indices in the multiarray and its corresponding position in the one-dimensional array 
 	
 	/**
 	 * Constructor.
@@ -75,23 +73,6 @@ public class MultiDimensionalArray {
 			}
 			data = new double[production];
 			numOfRows = production;
-			pos_indices_map = new Hashtable();
-			indices_pos_map = new Hashtable();
-			generateMap();
-		}
-	}
-
-	/**
-	 * This method computes and stores the two hashtable mappings between a position k of 
-	 * the one-dimensional array and the corresponding indices "idx1, idx2, ..., idxn" of 
-	 * the simulated multi-dimensional array.
-	 */
-	private void generateMap () {
-		for (int i=0; i<numOfRows; i++) {
-			int[] indices = new int[numOfDims];
-			indices = getIndices(i);
-			pos_indices_map.put(new Integer(i),indices);
-			indices_pos_map.put(intArray2String(indices),new Integer(i));
 		}
 	}
 
@@ -117,19 +98,6 @@ public class MultiDimensionalArray {
 		}
 	}
 	
-	/**
-	 * This method takes an array of integers and outputs a string, with separator '#'.
-	 * 
-	 * @param ints	multi-dimensional array index
-	 * @return	string of the index
-	 */
-	private String intArray2String (int[] ints) {
-		String str = "";
-		for (int i = 0; i < ints.length; i++)
-			str += ints[i] + "#";
-		return str;
-	}
-
 	/**
 	 * This method gets a 'double' element of the multi-dimensional array in the specified indices.
 	 * 
@@ -152,18 +120,18 @@ public class MultiDimensionalArray {
 
 	/**
 	 * Takes an array of ints which represents one 'indices' of the multi-dimensional array as argument,
-	 * and returns the corresponding offset in the one-dimensional array, by checking the hashtable.
+	 * and returns the corresponding offset in the one-dimensional array.
+	 * The offset is computed from the factors, a position map would cost one string key per entry.
 	 * 
 	 * @param indices	multi-dimensional array index
 	 * @return	one-dimensional array position
 	 */
 	private int lookupOffset (int[] indices) {
-		Integer obj = (Integer)indices_pos_map.get(intArray2String(indices));
-		if (obj == null) {
+		if (indices == null) {
 			throw new NullPointerException("Class BayesOWL.IPFP.DiscreteProb.MultiDimensionalArray.java: Wrong indices provided!");
 		}
 		else {
-			return obj.intValue();
+			return getOffset(indices);
 		}
 	}
 
@@ -194,21 +162,33 @@ public class MultiDimensionalArray {
 		
 	/**
 	 * Takes an int which represents the offset in the one-dimensional arrary as argument and 
-	 * returns the corresponding 'indices' in the multi-dimensional array, by checking the hashtable.
+	 * returns the corresponding 'indices' in the multi-dimensional array (a new array on each call).
 	 * 
 	 * @param offset	one-dimensional array position
 	 * @return	multi-dimensional array index
 	 */
 	public int[] lookupIndices (int offset) {
-		Object obj = pos_indices_map.get(new Integer(offset));
-		if (obj == null) {
-			throw new NullPointerException("Class BayesOWL.IPFP.DiscreteProb.MultiDimensionalArray.java: Wrong offset provided!");
-		}
-		else {
-			int[] indices = new int[numOfDims];
-			indices = (int[])obj;
-			return indices;
-		}
+		return getIndices(offset);
+	}
+
+	/**
+	 * This method gets a 'double' element by its position in the one-dimensional array.
+	 * 
+	 * @param offset	one-dimensional array position
+	 * @return	value
+	 */
+	public double getElement (int offset) {
+		return data[offset];
+	}
+
+	/**
+	 * This method stores a 'double' element by its position in the one-dimensional array.
+	 * 
+	 * @param offset	one-dimensional array position
+	 * @param value		value to be stored
+	 */
+	public void putElement (int offset, double value) {
+		data[offset] = value;
 	}
 	
 	/**
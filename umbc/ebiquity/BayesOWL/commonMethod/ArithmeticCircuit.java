@@ -0,0 +1,566 @@
+/**
+ * ArithmeticCircuit.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+
+package umbc.ebiquity.BayesOWL.commonMethod;
+
+import java.util.*;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+
+/**
+ * This class compiles a DiscreteNet into an arithmetic circuit (the network polynomial,
+ * "f = sum over x of product of lambda(x_v) * theta(x_v|Pi(x_v))"), for a network which is
+ * queried many times and never changed, e.g. the final net of CPTConstructor.<br>
+ * <br>
+ * The circuit is built by variable elimination on symbolic factors whose entries are circuit
+ * nodes. While building:<br>
+ * 	(1) parameters are constants, folded whenever both operands are constants;<br>
+ * 	(2) a 0 (e.g. a deterministic zero of a logic node's CPT) removes the whole product, and
+ * 		a 1 disappears from products;<br>
+ * 	(3) identical nodes are shared (hash-consing), so the contexts in which a CPT does not depend
+ * 		on some parents (context-specific independence) give one sub-circuit instead of many.<br>
+ * <br>
+ * The circuit is a flat program of binary additions and multiplications in topological order.
+ * One upward pass gives P(findings); one downward pass (the partial derivatives with respect to
+ * the indicators lambda) gives P(x, findings) for every state x of every node at once. An
+ * Evaluator holds the value and derivative arrays, so a query allocates nothing; use one
+ * Evaluator per thread.<br>
+ * <br>
+ * The L-Nodes of the network are compiled through their chains of summary nodes
+ * (see DiscreteNet.expandLogicNodes()), so an L-Node adds a circuit linear in its number of parents.<br>
+ *
+ */
+public class ArithmeticCircuit implements InferenceEngine {
+	static final byte OP_CONST = 0;
+	static final byte OP_INDICATOR = 1;
+	static final byte OP_ADD = 2;
+	static final byte OP_MUL = 3;
+	static final int ZERO = -1;			//the constant 0, never stored
+	static final int DEFAULT_MAX_FACTOR_SIZE = 1 << 22;
+
+	DiscreteNet net;
+	DiscreteNet model;		//the network compiled, with L-Nodes expanded
+	int maxFactorSize;
+	//the program, node i is computed from nodes before i
+	byte[] op;
+	int[] left;				//OP_INDICATOR: node id; OP_ADD, OP_MUL: first operand
+	int[] right;			//OP_INDICATOR: state index; OP_ADD, OP_MUL: second operand
+	double[] constants;		//OP_CONST: value
+	int size;
+	int root;				//ZERO if the polynomial is 0
+	int[][] indicators;		//indicators[v][x]: circuit node of lambda(v = x)
+	Hashtable constMap;		//key: Double, value: Integer
+	Hashtable addMap;		//key: Long (operands), value: Integer
+	Hashtable mulMap;		//key: Long (operands), value: Integer
+	Evaluator evaluator;	//used by the InferenceEngine methods
+	boolean compiled;
+
+	/**
+	 * The values and derivatives of one evaluation of the circuit.
+	 */
+	public class Evaluator {
+		double[] values;
+		double[] derivs;
+		int[] findings;		//findings of the last evaluation
+		double probOfFindings;
+		boolean differentiated;
+
+		/**
+		 * Constructor.
+		 */
+		Evaluator() {
+			values = new double[size];
+			derivs = new double[size];
+			findings = new int[net.getNumOfNodes()];
+		}
+
+		/**
+		 * Evaluates the circuit given hard findings (upward pass).
+		 *
+		 * @param e	state index of each node, -1 for no finding
+		 * @return	probability of the findings
+		 */
+		public double evaluate(int[] e) {
+			System.arraycopy(e, 0, findings, 0, findings.length);
+			for (int i = 0; i < size; i++) {
+				switch (op[i]) {
+				case OP_CONST:
+					values[i] = constants[i];
+					break;
+				case OP_INDICATOR:
+					values[i] = findings[left[i]] < 0 || findings[left[i]] == right[i] ? 1.0 : 0.0;
+					break;
+				case OP_ADD:
+					values[i] = values[left[i]] + values[right[i]];
+					break;
+				default:
+					values[i] = values[left[i]] * values[right[i]];
+				}
+			}
+			probOfFindings = root == ZERO ? 0.0 : values[root];
+			differentiated = false;
+			return probOfFindings;
+		}
+
+		/**
+		 * Computes the derivatives of the last evaluation (downward pass).
+		 */
+		private void differentiate() {
+			Arrays.fill(derivs, 0.0);
+			if (root != ZERO)
+				derivs[root] = 1.0;
+			for (int i = size - 1; i >= 0; --i) {
+				double d = derivs[i];
+				if (d == 0.0)
+					continue;
+				if (op[i] == OP_ADD) {
+					derivs[left[i]] += d;
+					derivs[right[i]] += d;
+				}
+				else if (op[i] == OP_MUL) {
+					derivs[left[i]] += d * values[right[i]];
+					derivs[right[i]] += d * values[left[i]];
+				}
+			}
+			differentiated = true;
+		}
+
+		/**
+		 * Gets the beliefs of a node given the findings of the last evaluation.
+		 *
+		 * @param node	node id
+		 * @param beliefs	filled with the belief of each state
+		 * @return	false if the findings have probability 0 (beliefs not filled)
+		 */
+		public boolean getBeliefs(int node, double[] beliefs) {
+			if (probOfFindings <= 0.0)
+				return false;
+			if (findings[node] >= 0) {
+				Arrays.fill(beliefs, 0.0);
+				beliefs[findings[node]] = 1.0;
+				return true;
+			}
+			if (!differentiated)
+				differentiate();
+			for (int x = 0; x < beliefs.length; x++) {
+				int ind = indicators[node][x];
+				beliefs[x] = ind == ZERO ? 0.0 : derivs[ind] / probOfFindings;
+			}
+			return true;
+		}
+
+		/**
+		 * Gets the probability of the findings of the last evaluation.
+		 *
+		 * @return	probability of the findings
+		 */
+		public double getProbOfFindings() {
+			return probOfFindings;
+		}
+	}
+
+	/**
+	 * A factor of the symbolic variable elimination: circuit nodes over sorted variables.
+	 */
+	static class Factor {
+		int[] vars;
+		int[] entries;
+	}
+
+	/**
+	 * Constructor.
+	 * The circuit is compiled at once; the network's findings are used by the InferenceEngine methods.
+	 *
+	 * @param dn	network
+	 * @param maxSize	max number of entries of an intermediate factor
+	 */
+	public ArithmeticCircuit(DiscreteNet dn, int maxSize) {
+		if (dn == null || dn.getNumOfNodes() == 0 || maxSize <= 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.ArithmeticCircuit.java: Wrong network provided!");
+		}
+		else {
+			net = dn;
+			maxFactorSize = maxSize;
+			compile();
+		}
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param dn	network
+	 */
+	public ArithmeticCircuit(DiscreteNet dn) {
+		this(dn, DEFAULT_MAX_FACTOR_SIZE);
+	}
+
+	/**
+	 * Compiles the network's CPTs into the circuit.
+	 */
+	private void compile() {
+		int n = net.getNumOfNodes();
+		model = net.hasLogicNodes() ? net.expandLogicNodes() : net;
+		op = new byte[1024];
+		left = new int[1024];
+		right = new int[1024];
+		constants = new double[1024];
+		size = 0;
+		constMap = new Hashtable();
+		addMap = new Hashtable();
+		mulMap = new Hashtable();
+		indicators = new int[n][];
+		for (int v = 0; v < n; v++) {
+			indicators[v] = new int[net.getNumOfStates(v)];
+			for (int x = 0; x < indicators[v].length; x++)
+				indicators[v][x] = newNode(OP_INDICATOR, v, x, 0.0);
+		}
+		//one factor per family: lambda(x_v) * theta(x_v|Pi(x_v)), no lambda for the summary nodes
+		Vector factors = new Vector();
+		for (int v = 0; v < model.getNumOfNodes(); v++) {
+			int[] parents = model.getParents(v);
+			int[] family = new int[parents.length + 1];
+			System.arraycopy(parents, 0, family, 0, parents.length);
+			family[parents.length] = v;
+			Factor f = new Factor();
+			f.vars = (int[]) family.clone();
+			Arrays.sort(f.vars);
+			f.entries = new int[tableSize(f.vars)];
+			int[] map = indexMap(f.vars, family);
+			double[] cpt = model.getCPT(v);
+			int d = model.getNumOfStates(v);
+			for (int i = 0; i < f.entries.length; i++)
+				f.entries[i] = v < n ? mul(indicators[v][map[i] % d], constant(cpt[map[i]])) : constant(cpt[map[i]]);
+			factors.addElement(f);
+		}
+		int[] order = eliminationOrder(factors);
+		for (int k = 0; k < order.length; k++) {
+			Vector bucket = new Vector();
+			for (int i = factors.size() - 1; i >= 0; --i) {
+				Factor f = (Factor) factors.get(i);
+				if (Arrays.binarySearch(f.vars, order[k]) >= 0) {
+					bucket.addElement(f);
+					factors.removeElementAt(i);
+				}
+			}
+			factors.addElement(eliminate(bucket, order[k]));
+		}
+		root = constant(1.0);
+		for (int i = 0; i < factors.size(); i++)
+			root = mul(root, ((Factor) factors.get(i)).entries[0]);
+		constMap = null;
+		addMap = null;
+		mulMap = null;
+		evaluator = new Evaluator();
+		compiled = true;
+	}
+
+	/**
+	 * Finds an elimination order, greedily by the smallest factor created.
+	 *
+	 * @param factors	initial factors
+	 * @return	variable ids
+	 */
+	private int[] eliminationOrder(Vector factors) {
+		int n = model.getNumOfNodes();
+		BitSet[] adj = new BitSet[n];
+		for (int v = 0; v < n; v++)
+			adj[v] = new BitSet(n);
+		for (int i = 0; i < factors.size(); i++) {
+			int[] vars = ((Factor) factors.get(i)).vars;
+			for (int a = 0; a < vars.length; a++) {
+				for (int b = 0; b < vars.length; b++) {
+					if (a != b)
+						adj[vars[a]].set(vars[b]);
+				}
+			}
+		}
+		int[] order = new int[n];
+		boolean[] eliminated = new boolean[n];
+		for (int k = 0; k < n; k++) {
+			int best = -1;
+			double bestWeight = 0;
+			for (int v = 0; v < n; v++) {
+				if (eliminated[v])
+					continue;
+				double weight = model.getNumOfStates(v);
+				for (int u = adj[v].nextSetBit(0); u >= 0; u = adj[v].nextSetBit(u + 1))
+					weight *= model.getNumOfStates(u);
+				if (best < 0 || weight < bestWeight) {
+					best = v;
+					bestWeight = weight;
+				}
+			}
+			if (bestWeight > maxFactorSize) {
+				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.ArithmeticCircuit.java: A factor of " + (long) bestWeight + " entries is needed, more than " + maxFactorSize + " !");
+			}
+			for (int u = adj[best].nextSetBit(0); u >= 0; u = adj[best].nextSetBit(u + 1)) {
+				adj[u].or(adj[best]);
+				adj[u].clear(u);
+				adj[u].clear(best);
+			}
+			eliminated[best] = true;
+			order[k] = best;
+		}
+		return order;
+	}
+
+	/**
+	 * Multiplies the factors of a bucket and sums out one variable, symbolically.
+	 *
+	 * @param bucket	factors containing the variable
+	 * @param var	variable id
+	 * @return	new factor
+	 */
+	private Factor eliminate(Vector bucket, int var) {
+		BitSet scope = new BitSet();
+		for (int i = 0; i < bucket.size(); i++) {
+			int[] vars = ((Factor) bucket.get(i)).vars;
+			for (int j = 0; j < vars.length; j++)
+				scope.set(vars[j]);
+		}
+		int[] all = new int[scope.cardinality()];
+		int k = 0;
+		for (int v = scope.nextSetBit(0); v >= 0; v = scope.nextSetBit(v + 1))
+			all[k++] = v;
+		scope.clear(var);
+		Factor result = new Factor();
+		result.vars = new int[all.length - 1];
+		k = 0;
+		for (int v = scope.nextSetBit(0); v >= 0; v = scope.nextSetBit(v + 1))
+			result.vars[k++] = v;
+		result.entries = new int[tableSize(result.vars)];
+		Arrays.fill(result.entries, ZERO);
+		int[][] maps = new int[bucket.size()][];
+		for (int i = 0; i < maps.length; i++)
+			maps[i] = indexMap(all, ((Factor) bucket.get(i)).vars);
+		int[] resultMap = indexMap(all, result.vars);
+		for (int a = 0; a < resultMap.length; a++) {
+			int product = ((Factor) bucket.get(0)).entries[maps[0][a]];
+			for (int i = 1; i < maps.length && product != ZERO; i++)
+				product = mul(product, ((Factor) bucket.get(i)).entries[maps[i][a]]);
+			result.entries[resultMap[a]] = add(result.entries[resultMap[a]], product);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the number of entries of a table over the given variables.
+	 *
+	 * @param vars	variable ids
+	 * @return	number of entries
+	 */
+	private int tableSize(int[] vars) {
+		long s = 1;
+		for (int i = 0; i < vars.length; i++)
+			s *= model.getNumOfStates(vars[i]);
+		if (s > maxFactorSize) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.ArithmeticCircuit.java: A factor of " + s + " entries is needed, more than " + maxFactorSize + " !");
+		}
+		return (int) s;
+	}
+
+	/**
+	 * Maps each entry of a table over sorted variables to the entry of a table over some of them.
+	 *
+	 * @param vars	sorted variable ids
+	 * @param subVars	variable ids of the other table, in its row-major order
+	 * @return	for each entry, the other table's offset
+	 */
+	private int[] indexMap(int[] vars, int[] subVars) {
+		int[] strideOf = new int[vars.length];
+		int stride = 1;
+		for (int j = subVars.length - 1; j >= 0; --j) {
+			strideOf[Arrays.binarySearch(vars, subVars[j])] = stride;
+			stride *= model.getNumOfStates(subVars[j]);
+		}
+		int[] map = new int[tableSize(vars)];
+		int[] x = new int[vars.length];
+		int offset = 0;
+		for (int i = 0; i < map.length; i++) {
+			map[i] = offset;
+			for (int k = vars.length - 1; k >= 0; --k) {
+				if (++x[k] < model.getNumOfStates(vars[k])) {
+					offset += strideOf[k];
+					break;
+				}
+				offset -= (x[k] - 1) * strideOf[k];
+				x[k] = 0;
+			}
+		}
+		return map;
+	}
+
+	/**
+	 * Appends a node to the program.
+	 *
+	 * @param o	operation
+	 * @param l	first operand
+	 * @param r	second operand
+	 * @param c	constant value
+	 * @return	node id
+	 */
+	private int newNode(byte o, int l, int r, double c) {
+		if (size == op.length) {
+			op = copyOf(op, size * 2);
+			left = copyOf(left, size * 2);
+			right = copyOf(right, size * 2);
+			double[] cs = new double[size * 2];
+			System.arraycopy(constants, 0, cs, 0, size);
+			constants = cs;
+		}
+		op[size] = o;
+		left[size] = l;
+		right[size] = r;
+		constants[size] = c;
+		return size++;
+	}
+
+	private static byte[] copyOf(byte[] a, int length) {
+		byte[] b = new byte[length];
+		System.arraycopy(a, 0, b, 0, Math.min(a.length, length));
+		return b;
+	}
+
+	private static int[] copyOf(int[] a, int length) {
+		int[] b = new int[length];
+		System.arraycopy(a, 0, b, 0, Math.min(a.length, length));
+		return b;
+	}
+
+	/**
+	 * Gets the node of a constant.
+	 *
+	 * @param c	value
+	 * @return	node id, ZERO for 0
+	 */
+	private int constant(double c) {
+		if (c == 0.0)
+			return ZERO;
+		Double key = Double.valueOf(c);
+		Integer obj = (Integer) constMap.get(key);
+		if (obj == null) {
+			obj = Integer.valueOf(newNode(OP_CONST, 0, 0, c));
+			constMap.put(key, obj);
+		}
+		return obj.intValue();
+	}
+
+	/**
+	 * Gets the node of a sum, simplified and shared.
+	 *
+	 * @param a	node id
+	 * @param b	node id
+	 * @return	node id
+	 */
+	private int add(int a, int b) {
+		if (a == ZERO)
+			return b;
+		if (b == ZERO)
+			return a;
+		if (op[a] == OP_CONST && op[b] == OP_CONST)
+			return constant(constants[a] + constants[b]);
+		return shared(addMap, OP_ADD, Math.min(a, b), Math.max(a, b));
+	}
+
+	/**
+	 * Gets the node of a product, simplified and shared.
+	 *
+	 * @param a	node id
+	 * @param b	node id
+	 * @return	node id
+	 */
+	private int mul(int a, int b) {
+		if (a == ZERO || b == ZERO)
+			return ZERO;
+		if (op[a] == OP_CONST && constants[a] == 1.0)
+			return b;
+		if (op[b] == OP_CONST && constants[b] == 1.0)
+			return a;
+		if (op[a] == OP_CONST && op[b] == OP_CONST)
+			return constant(constants[a] * constants[b]);
+		return shared(mulMap, OP_MUL, Math.min(a, b), Math.max(a, b));
+	}
+
+	/**
+	 * Gets the node of an operation, adding it unless the same one exists.
+	 *
+	 * @param map	nodes of this operation
+	 * @param o	operation
+	 * @param a	first operand
+	 * @param b	second operand
+	 * @return	node id
+	 */
+	private int shared(Hashtable map, byte o, int a, int b) {
+		Long key = Long.valueOf(((long) a << 32) | b);
+		Integer obj = (Integer) map.get(key);
+		if (obj == null) {
+			obj = Integer.valueOf(newNode(o, a, b, 0.0));
+			map.put(key, obj);
+		}
+		return obj.intValue();
+	}
+
+	/**
+	 * Makes a new evaluator; each thread evaluating the circuit needs its own.
+	 *
+	 * @return	evaluator
+	 */
+	public Evaluator newEvaluator() {
+		if (!compiled)
+			compile();
+		return new Evaluator();
+	}
+
+	/**
+	 * Gets the number of nodes of the circuit.
+	 *
+	 * @return	number of nodes
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	public DiscreteNet getNet() {
+		return net;
+	}
+
+	/**
+	 * The CPTs changed: the circuit is compiled again before the next query.
+	 */
+	public void invalidate() {
+		compiled = false;
+	}
+
+	public double[] getBeliefs(int node) {
+		if (!compiled)
+			compile();
+		double[] beliefs = new double[net.getNumOfStates(node)];
+		evaluator.evaluate(net.getFindings());
+		if (!evaluator.getBeliefs(node, beliefs))
+			Arrays.fill(beliefs, 1.0 / beliefs.length);
+		return beliefs;
+	}
+
+	public double getJointProbability(int[] nodes, int[] states) {
+		if (nodes == null || states == null || nodes.length != states.length) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.ArithmeticCircuit.java: Wrong query provided!");
+		}
+		if (!compiled)
+			compile();
+		int[] e = (int[]) net.getFindings().clone();
+		double pe = evaluator.evaluate(e);
+		if (pe <= 0.0)
+			return 0.0;
+		for (int i = 0; i < nodes.length; i++) {
+			if (e[nodes[i]] >= 0 && e[nodes[i]] != states[i])
+				return 0.0;
+			e[nodes[i]] = states[i];
+		}
+		return evaluator.evaluate(e) / pe;
+	}
+
+}
@@ -0,0 +1,160 @@
+/**
+ * BN2DiscreteNet.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+
+package umbc.ebiquity.BayesOWL.commonMethod;
+
+import java.util.*;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+
+import norsys.netica.*;
+
+/**
+ * This class copies a given BBN (structure, CPTs and hard findings) into a DiscreteNet,
+ * so that it can be handled by the pure Java inference backends.<br>
+ * Node ids follow the order of net.getNodes().<br>
+ *
+ */
+public class BN2DiscreteNet {
+	DiscreteNet dn;
+
+	/**
+	 * Constructor - 1:
+	 * Takes a BN as argument.
+	 *
+	 * @param net	Bayesian Net
+	 */
+	public BN2DiscreteNet(Net net) {
+		if (net == null) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.BN2DiscreteNet.java: Wrong BBN provided!");
+		}
+		else {
+			dn = convert(net, null);
+		}
+	}
+
+	/**
+	 * Constructor - 3:
+	 * Takes a BN built by BNConstructor, with the tags of its nodes.
+	 * The tagged L-Nodes become logic functions of their parents (see LogicFunction), their CPTs are not read.
+	 *
+	 * @param net	Bayesian Net
+	 * @param exNodes	tagged nodes, e.g. BNConstructor.getNodes()
+	 */
+	public BN2DiscreteNet(Net net, ExNode[] exNodes) {
+		if (net == null || exNodes == null) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.BN2DiscreteNet.java: Wrong BBN or node tags provided!");
+		}
+		else {
+			dn = convert(net, exNodes);
+		}
+	}
+
+	/**
+	 * Constructor - 2:
+	 * Takes a BN file name as argument.
+	 *
+	 * @param fname	BN file name
+	 */
+	public BN2DiscreteNet(String fname) {
+		try {
+			dn = convert(new Net(new Streamer(fname)), null);
+		}
+		catch (Exception e) {
+			System.out.println("Class umbc.ebiquity.BayesOWL.commonMethod.BN2DiscreteNet.java: Wrong BN file name provided!");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Copies the BBN.
+	 *
+	 * @param net	Bayesian Net
+	 * @param exNodes	tagged nodes, may be null
+	 * @return	network
+	 */
+	private DiscreteNet convert(Net net, ExNode[] exNodes) {
+		DiscreteNet result = null;
+		try {
+			NodeList nodes = net.getNodes();
+			int n = nodes.size();
+			String[] names = new String[n];
+			String[][] states = new String[n][];
+			Hashtable name_idx_map = new Hashtable();
+			for (int i = 0; i < n; i++) {
+				Node node = (Node) nodes.elementAt(i);
+				names[i] = node.getName();
+				name_idx_map.put(names[i], Integer.valueOf(i));
+				states[i] = new String[node.getNumStates()];
+				for (int j = 0; j < states[i].length; j++)
+					states[i][j] = node.state(j).getName();
+			}
+			int[][] parentIds = new int[n][];
+			for (int i = 0; i < n; i++) {
+				NodeList parents = ((Node) nodes.elementAt(i)).getParents();
+				parentIds[i] = new int[parents.size()];
+				for (int j = 0; j < parents.size(); j++) {
+					String parentName = ((Node) parents.elementAt(j)).getName();
+					parentIds[i][j] = ((Integer) name_idx_map.get(parentName)).intValue();
+				}
+			}
+			ExNode.TAG[] tags = new ExNode.TAG[n];
+			for (int i = 0; exNodes != null && i < exNodes.length; i++) {
+				Integer obj = (Integer) name_idx_map.get(exNodes[i].getName());
+				if (obj != null)
+					tags[obj.intValue()] = exNodes[i].getNodeTag();
+			}
+			result = new DiscreteNet(names, states, parentIds, tags);
+			for (int i = 0; i < n; i++) {
+				Node node = (Node) nodes.elementAt(i);
+				int finding = node.getFinding();
+				if (finding >= 0)
+					result.setFinding(i, finding);
+				if (result.getLogicFunction(i) != null)
+					continue;
+				int d = states[i].length;
+				int[] dims = new int[parentIds[i].length];
+				for (int j = 0; j < dims.length; j++)
+					dims[j] = states[parentIds[i][j]].length;
+				double[] table = new double[result.getNumOfRows(i) * d];
+				for (int r = 0; r < result.getNumOfRows(i); r++) {
+					float[] row;
+					if (dims.length == 0) {
+						row = node.getCPTable("", null);
+					}
+					else {
+						int[] parentStates = new int[dims.length];
+						int offset = r;
+						for (int j = dims.length - 1; j >= 0; --j) {
+							parentStates[j] = offset % dims[j];
+							offset = offset / dims[j];
+						}
+						row = node.getCPTable(parentStates, null);
+					}
+					for (int x = 0; x < d; x++)
+						table[r * d + x] = row[x];
+				}
+				result.setCPT(i, table);
+			}
+		}
+		catch (Exception e) {
+			System.out.println("Class umbc.ebiquity.BayesOWL.commonMethod.BN2DiscreteNet.java: Wrong BN provided!");
+			e.printStackTrace();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the network obtained.
+	 *
+	 * @return	network
+	 */
+	public DiscreteNet getDiscreteNet() {
+		return dn;
+	}
+
+}
@@ -33,7 +33,18 @@ public class BN2JPD {
 	 * @param net:	Bayesian Net
 	 */
 	public BN2JPD (Net net) {
-		constructJPD(net);
+		constructJPD(net, Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Constructor - 3:
+	 * Takes a BN as argument and gets the underlying joint probability distribution, using at most the given number of threads.
+	 * 
+	 * @param net:	Bayesian Net
+	 * @param threads:	max number of threads
+	 */
+	public BN2JPD (Net net, int threads) {
+		constructJPD(net, threads);
 	}
 	
 	/**
@@ -46,7 +57,7 @@ public class BN2JPD {
 		try {
 			//Environ env = new Environ("+PengY/UMarylandBC/120,310-2-A/27700");
 			Net net = new Net(new Streamer(fname));
-			constructJPD(net);
+			constructJPD(net, Runtime.getRuntime().availableProcessors());
 			//env.finalize();
 		}
 		catch (Exception e) {
@@ -57,36 +68,22 @@ public class BN2JPD {
 
 	/**
 	 * Recovers the underlying joint probability distribution from the given BBN.
+	 * All the CPTs are read once, and the entries are computed by the chain rule (see ChainRuleEnumeration),
+	 * instead of one inference call per entry. As with Netica's joint probabilities, it is conditioned on the findings.
 	 * 
 	 * @param net:	Bayesian net
+	 * @param threads:	max number of threads
 	 */
-	private void constructJPD (Net net) {
+	private void constructJPD (Net net, int threads) {
 		try {
-			net.compile();
-			NodeList nodes = net.getNodes();
-			RandomVariable[] rndVars = new RandomVariable[nodes.size()];
-			int idx = 0;
-			int numOfProbEntries = 1;
-			Enumeration enum_enum = nodes.elements(); //enum_enum original: enum  Oct. 30 2007 Shenyong
-			while (enum_enum.hasMoreElements()) {
-				Node node = (Node) enum_enum.nextElement();
-				int numOfStates = node.getNumStates();
-				numOfProbEntries *= numOfStates;
-				String nodeName = node.getName();
-				String[] states = new String[numOfStates];
-				for (int i=0; i<numOfStates; i++) {
-					states[i] = node.state(i).getName();
-				}
-				RandomVariable rndVar = new RandomVariable(nodeName, states);
-				rndVars[idx] = rndVar;
-				idx++;
-			}
+			DiscreteNet dn = new BN2DiscreteNet(net).getDiscreteNet();
+			RandomVariable[] rndVars = new RandomVariable[dn.getNumOfNodes()];
+			for (int i=0; i<rndVars.length; i++)
+				rndVars[i] = new RandomVariable(dn.getName(i), dn.getStates(i));
 			jpd = new JointProbDistribution(rndVars);
-			for (int i=0; i<numOfProbEntries; i++) {
-				int[] indices = jpd.getIndices(i);
-				double pv = net.getJointProbability(nodes,indices);
-				jpd.addProbEntry(indices,pv);
-			}
+			double[] joint = new ChainRuleEnumeration(dn, threads).getJoint();
+			for (int i=0; i<joint.length; i++)
+				jpd.addProbEntry(i,joint[i]);
 		}
 		catch (Exception e) {
 			System.out.println("Class umbc.ebiquity.BayesOWL.commonMethod.BN2JPD.java: Wrong BN provided!");
@@ -0,0 +1,225 @@
+/**
+ * BatchPosterior.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+
+package umbc.ebiquity.BayesOWL.commonMethod;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+
+import norsys.netica.*;
+
+/**
+ * This class answers posterior queries of one BBN under many sets of hard evidence at once,
+ * e.g. a translated ontology asked for the same concepts under thousands of observations.<br>
+ * <br>
+ * The junction tree of the network is built and calibrated once (without findings) and shared.
+ * Evidence rows are processed in parallel; each thread owns one workspace (a copy of the clique
+ * and separator potentials), reused for all its rows: the calibrated potentials are copied in,
+ * the findings zero the entries against them, and one collect and one distribute pass give
+ * the posteriors. Netica is not involved, so the threads do not share any native state.<br>
+ *
+ */
+public class BatchPosterior {
+	static final int ROWS_PER_TASK = 16;
+
+	DiscreteNet net;
+	JunctionTree tree;
+	int numOfThreads;
+	double[] evidenceProbs;	//probability of each evidence row of the last query
+
+	/**
+	 * Constructor - 1:
+	 * Takes a network; its findings are ignored.
+	 *
+	 * @param dn	network
+	 * @param threads	number of threads
+	 */
+	public BatchPosterior(DiscreteNet dn, int threads) {
+		if (dn == null || threads <= 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.BatchPosterior.java: Wrong network or number of threads provided!");
+		}
+		else {
+			net = new DiscreteNet(dn);
+			net.retractFindings();
+			tree = new JunctionTree(net, null, Integer.MAX_VALUE);
+			tree.calibrate();
+			numOfThreads = threads;
+		}
+	}
+
+	/**
+	 * Constructor - 2:
+	 * Takes a BBN; its findings are ignored.
+	 *
+	 * @param bbn	Bayesian Net
+	 * @param threads	number of threads
+	 */
+	public BatchPosterior(Net bbn, int threads) {
+		this(new BN2DiscreteNet(bbn).getDiscreteNet(), threads);
+	}
+
+	/**
+	 * Computes the posteriors of the query nodes for every evidence row.
+	 *
+	 * @param evidence	evidence matrix: evidence[r][v] is the state index of node v in row r, -1 for no finding
+	 * @param queryNodes	ids of the nodes asked for
+	 * @return	posteriors: result[r][q] are the beliefs of queryNodes[q] given row r; result[r] is null if row r has probability 0
+	 */
+	public double[][][] query(final int[][] evidence, final int[] queryNodes) {
+		if (evidence == null || queryNodes == null) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.BatchPosterior.java: Wrong evidence or query nodes provided!");
+		}
+		int n = net.getNumOfNodes();
+		for (int r = 0; r < evidence.length; r++) {
+			if (evidence[r] == null || evidence[r].length != n) {
+				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.BatchPosterior.java: Evidence row " + r + " does not have one entry per node!");
+			}
+			for (int v = 0; v < n; v++) {
+				if (evidence[r][v] >= net.getNumOfStates(v)) {
+					throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.BatchPosterior.java: Wrong state of node " + net.getName(v) + " in evidence row " + r + " !");
+				}
+			}
+		}
+		for (int q = 0; q < queryNodes.length; q++) {
+			if (queryNodes[q] < 0 || queryNodes[q] >= n) {
+				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.BatchPosterior.java: Wrong query node " + queryNodes[q] + " !");
+			}
+		}
+		final double[][][] result = new double[evidence.length][][];
+		final double[] probs = new double[evidence.length];
+		final int[] next = new int[]{0};	//next row to take, shared by the threads
+		int threads = Math.max(1, Math.min(numOfThreads, (evidence.length + ROWS_PER_TASK - 1) / ROWS_PER_TASK));
+		if (threads == 1) {
+			processRows(evidence, queryNodes, result, probs, next);
+		}
+		else {
+			ExecutorService pool = Executors.newFixedThreadPool(threads);
+			try {
+				Vector tasks = new Vector();
+				for (int t = 0; t < threads; t++) {
+					tasks.addElement(new Callable() {
+						public Object call() {
+							processRows(evidence, queryNodes, result, probs, next);
+							return null;
+						}
+					});
+				}
+				List futures = pool.invokeAll(tasks);
+				for (int t = 0; t < futures.size(); t++)
+					((Future) futures.get(t)).get();
+			}
+			catch (Exception e) {
+				e.printStackTrace();
+			}
+			finally {
+				pool.shutdown();
+			}
+		}
+		evidenceProbs = probs;
+		return result;
+	}
+
+	/**
+	 * Computes the posteriors of the query nodes by names, for every set of hard evidences.
+	 *
+	 * @param evidences	one set of hard evidences per row
+	 * @param queryNames	names of the nodes asked for
+	 * @return	posteriors: result[r][q] are the beliefs of queryNames[q] given evidences[r]; result[r] is null if row r has probability 0
+	 */
+	public double[][][] query(HardEvidence[][] evidences, String[] queryNames) {
+		if (evidences == null || queryNames == null) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.BatchPosterior.java: Wrong evidence or query nodes provided!");
+		}
+		int n = net.getNumOfNodes();
+		int[][] evidence = new int[evidences.length][n];
+		for (int r = 0; r < evidences.length; r++) {
+			Arrays.fill(evidence[r], -1);
+			for (int i = 0; evidences[r] != null && i < evidences[r].length; i++) {
+				int v = indexOf(evidences[r][i].getName());
+				String[] states = net.getStates(v);
+				for (int x = 0; x < states.length; x++) {
+					if (states[x].equals(evidences[r][i].getState()))
+						evidence[r][v] = x;
+				}
+				if (evidence[r][v] < 0) {
+					throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.BatchPosterior.java: Node " + net.getName(v) + " has no state " + evidences[r][i].getState() + " !");
+				}
+			}
+		}
+		int[] queryNodes = new int[queryNames.length];
+		for (int q = 0; q < queryNames.length; q++)
+			queryNodes[q] = indexOf(queryNames[q]);
+		return query(evidence, queryNodes);
+	}
+
+	/**
+	 * Processes rows taken one block at a time from the shared counter, in one workspace.
+	 *
+	 * @param evidence	evidence matrix
+	 * @param queryNodes	ids of the nodes asked for
+	 * @param result	posteriors, filled
+	 * @param probs	probability of each row, filled
+	 * @param next	shared counter of the next row
+	 */
+	private void processRows(int[][] evidence, int[] queryNodes, double[][][] result, double[] probs, int[] next) {
+		JunctionTree.Workspace w = tree.newWorkspace();
+		while (true) {
+			int start;
+			synchronized (next) {
+				start = next[0];
+				next[0] += ROWS_PER_TASK;
+			}
+			if (start >= evidence.length)
+				break;
+			int end = Math.min(evidence.length, start + ROWS_PER_TASK);
+			for (int r = start; r < end; r++) {
+				tree.enterEvidence(w, evidence[r]);
+				probs[r] = tree.getEvidenceProbability(w);
+				if (probs[r] > 0.0) {
+					result[r] = new double[queryNodes.length][];
+					for (int q = 0; q < queryNodes.length; q++)
+						result[r][q] = tree.getBeliefs(w, queryNodes[q]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the id of a node.
+	 *
+	 * @param name	node name
+	 * @return	node id
+	 */
+	private int indexOf(String name) {
+		int v = net.getNodeIndex(name);
+		if (v < 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.BatchPosterior.java: The network does not contain a node named " + name + " !");
+		}
+		return v;
+	}
+
+	/**
+	 * Gets the probability of each evidence row of the last query.
+	 *
+	 * @return	probabilities of the evidence rows
+	 */
+	public double[] getEvidenceProbabilities() {
+		return evidenceProbs;
+	}
+
+	/**
+	 * Gets the network queried (a copy without findings).
+	 *
+	 * @return	network
+	 */
+	public DiscreteNet getNet() {
+		return net;
+	}
+
+}
@@ -0,0 +1,210 @@
+/**
+ * BeliefCache.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+
+package umbc.ebiquity.BayesOWL.commonMethod;
+
+import java.util.*;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+
+import norsys.netica.*;
+
+/**
+ * This class caches the beliefs of the nodes of a BBN given sets of hard findings, Q(V | findings),
+ * for the queries going through a CPTBatch.<br>
+ * <br>
+ * An entry is keyed by its findings (hard evidences plus optional findings on some other nodes,
+ * e.g. the condition variables of a conditional constraint). On a miss, the findings are entered
+ * once, the beliefs of all the nodes asked for (by default, all the nodes) are read in this one
+ * propagation, and the findings are retracted. All the entries are dropped as soon as the CPT
+ * version of the batch changes, i.e., a CPT row was staged.<br>
+ * <br>
+ * e.g. in SDIPFP, the beliefs given the hard evidences at the end of an iteration are those
+ * at the start of the next one, and are not propagated again.<br>
+ *
+ */
+public class BeliefCache {
+	CPTBatch batch;
+	Net net;
+	NodeList nodes;
+	Hashtable name_idx_map;	//key: node name, value: node id (index in net.getNodes())
+	Hashtable entries;		//key: findings, value: double[][] beliefs of each node, null if not read
+	int version;			//CPT version of the batch the entries were computed at
+	int numOfPropagations;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param b	CPT batch of the BBN, through which the queries are answered
+	 */
+	public BeliefCache(CPTBatch b) {
+		if (b == null) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.BeliefCache.java: Wrong CPT batch provided!");
+		}
+		else {
+			try {
+				batch = b;
+				net = b.getNet();
+				nodes = net.getNodes();
+				name_idx_map = new Hashtable();
+				for (int i = 0; i < nodes.size(); i++)
+					name_idx_map.put(((Node) nodes.elementAt(i)).getName(), Integer.valueOf(i));
+			}
+			catch (NeticaException e) {
+				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.BeliefCache.java: Wrong BBN provided!");
+			}
+			entries = new Hashtable();
+			version = b.getCPTVersion();
+			numOfPropagations = 0;
+		}
+	}
+
+	/**
+	 * Gets the id of a node.
+	 *
+	 * @param name	node name
+	 * @return	node id
+	 */
+	private int indexOf(String name) {
+		Integer obj = (Integer) name_idx_map.get(name);
+		if (obj == null) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.BeliefCache.java: The BBN does not contain a node named " + name + " !");
+		}
+		return obj.intValue();
+	}
+
+	/**
+	 * Makes the cache key of a set of findings.
+	 *
+	 * @param evidences	hard evidences, may be null
+	 * @param condNames	names of other nodes with a finding, may be null
+	 * @param condStates	state index of each of the other nodes
+	 * @return	key
+	 */
+	private static String keyOf(HardEvidence[] evidences, String[] condNames, int[] condStates) {
+		StringBuffer key = new StringBuffer();
+		if (evidences != null) {
+			for (int i = 0; i < evidences.length; i++)
+				key.append(evidences[i].getName()).append('=').append(evidences[i].getState()).append('\n');
+		}
+		if (condNames != null) {
+			for (int i = 0; i < condNames.length; i++)
+				key.append(condNames[i]).append('#').append(condStates[i]).append('\n');
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Gets the beliefs of the given nodes given the findings, propagating once if any of them is not cached.
+	 *
+	 * @param evidences	hard evidences, may be null
+	 * @param condNames	names of other nodes with a finding, may be null
+	 * @param condStates	state index of each of the other nodes
+	 * @param ids	ids of the nodes asked for, null for all the nodes
+	 * @return	beliefs of each node (in the order of net.getNodes()), null for the nodes not asked for
+	 * @throws NeticaException
+	 */
+	private double[][] lookup(HardEvidence[] evidences, String[] condNames, int[] condStates, int[] ids) throws NeticaException {
+		if (batch.getCPTVersion() != version) {
+			entries.clear();
+			version = batch.getCPTVersion();
+		}
+		String key = keyOf(evidences, condNames, condStates);
+		double[][] beliefs = (double[][]) entries.get(key);
+		if (beliefs == null) {
+			beliefs = new double[nodes.size()][];
+			entries.put(key, beliefs);
+		}
+		boolean missing = false;
+		for (int i = 0; i < (ids == null ? beliefs.length : ids.length) && !missing; i++)
+			missing = beliefs[ids == null ? i : ids[i]] == null;
+		if (missing) {
+			batch.ensureCompiled();
+			if (evidences != null) {
+				for (int i = 0; i < evidences.length; i++)
+					batch.enterFinding(net.getNode(evidences[i].getName()), evidences[i].getState());
+			}
+			if (condNames != null) {
+				for (int i = 0; i < condNames.length; i++)
+					batch.enterFinding(net.getNode(condNames[i]), condStates[i]);
+			}
+			for (int i = 0; i < (ids == null ? beliefs.length : ids.length); i++) {
+				int id = ids == null ? i : ids[i];
+				if (beliefs[id] == null) {
+					Node node = (Node) nodes.elementAt(id);
+					beliefs[id] = new double[node.getNumStates()];
+					for (int t = 0; t < beliefs[id].length; t++)
+						beliefs[id][t] = batch.getBelief(node, t);
+				}
+			}
+			batch.retractFindings();
+			numOfPropagations++;
+		}
+		return beliefs;
+	}
+
+	/**
+	 * Gets the beliefs of one node given hard evidences and findings on some other nodes.
+	 *
+	 * @param evidences	hard evidences, may be null
+	 * @param condNames	names of other nodes with a finding, may be null
+	 * @param condStates	state index of each of the other nodes
+	 * @param nodeName	name of the node asked for
+	 * @return	belief of each state of the node
+	 * @throws NeticaException
+	 */
+	public double[] getBeliefs(HardEvidence[] evidences, String[] condNames, int[] condStates, String nodeName) throws NeticaException {
+		int id = indexOf(nodeName);
+		return (double[]) lookup(evidences, condNames, condStates, new int[]{id})[id].clone();
+	}
+
+	/**
+	 * Gets the beliefs of one node given hard evidences.
+	 *
+	 * @param evidences	hard evidences, may be null
+	 * @param nodeName	name of the node asked for
+	 * @return	belief of each state of the node
+	 * @throws NeticaException
+	 */
+	public double[] getBeliefs(HardEvidence[] evidences, String nodeName) throws NeticaException {
+		return getBeliefs(evidences, null, null, nodeName);
+	}
+
+	/**
+	 * Gets the beliefs of all the nodes given hard evidences.
+	 *
+	 * @param evidences	hard evidences, may be null
+	 * @return	beliefs of each node, in the order of net.getNodes()
+	 * @throws NeticaException
+	 */
+	public double[][] getAllBeliefs(HardEvidence[] evidences) throws NeticaException {
+		double[][] beliefs = lookup(evidences, null, null, null);
+		double[][] copy = new double[beliefs.length][];
+		for (int i = 0; i < beliefs.length; i++)
+			copy[i] = (double[]) beliefs[i].clone();
+		return copy;
+	}
+
+	/**
+	 * Gets the underlying CPT batch.
+	 *
+	 * @return	CPT batch
+	 */
+	public CPTBatch getBatch() {
+		return batch;
+	}
+
+	/**
+	 * Gets the number of propagations done, i.e., the number of cache misses.
+	 *
+	 * @return	number of propagations
+	 */
+	public int getNumOfPropagations() {
+		return numOfPropagations;
+	}
+
+}
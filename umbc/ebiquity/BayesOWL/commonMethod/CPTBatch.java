@@ -0,0 +1,411 @@
+/**
+ * CPTBatch.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+
+package umbc.ebiquity.BayesOWL.commonMethod;
+
+import java.util.*;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+
+import norsys.netica.*;
+
+/**
+ * This class stages CPT writes of a given BBN and defers the compilation of the net.<br>
+ * <br>
+ * Outside a batch, "commit()" writes the staged tables and compiles the net at once,
+ * which is what the one-step classes used to do after each update.<br>
+ * Inside a batch (between "beginBatch()" and "endBatch()"), "commit()" only writes the
+ * staged tables, and the net is compiled once, lazily, on the next "ensureCompiled()",
+ * i.e., right before the next query.<br>
+ * <br>
+ * e.g. in D-IPFP, one compilation is paid per constraint step instead of one per node.<br>
+ * <br>
+ * If an approximate inference engine is set, the staged tables are also written into the
+ * engine's network, "compiling" only invalidates the engine, and the belief and marginal
+ * queries are answered by the engine instead of Netica.<br>
+ *
+ */
+public class CPTBatch {
+	static final int[] WHOLE_TABLE = new int[0];	//marks a staged whole CPT instead of a row
+
+	Net net;
+	Vector stagedNodes;		//nodes whose CPT rows are staged
+	Vector stagedParents;	//parent state indices (int[]) of the staged rows, null for a node without parents, WHOLE_TABLE for a whole CPT
+	Vector stagedTables;	//the staged CPT rows (float[])
+	boolean inBatch;		//whether compilation is deferred to the next query
+	boolean needsCompile;	//whether CPTs were written since the last compilation
+	int numOfCompiles;
+	int cptVersion;			//increased whenever a CPT may have changed
+	InferenceEngine engine;	//answers the queries instead of Netica, null for exact inference
+
+	/**
+	 * Constructor.
+	 *
+	 * @param bbn	Bayesian Net
+	 */
+	public CPTBatch(Net bbn) {
+		if (bbn == null) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.CPTBatch.java: Wrong BBN provided!");
+		}
+		else {
+			net = bbn;
+			stagedNodes = new Vector();
+			stagedParents = new Vector();
+			stagedTables = new Vector();
+			inBatch = false;
+			needsCompile = true;
+			numOfCompiles = 0;
+			cptVersion = 0;
+		}
+	}
+
+	/**
+	 * Sets the inference engine answering the queries; null restores Netica's exact inference.
+	 * The engine's network must be a copy of the BBN, e.g. made by BN2DiscreteNet.
+	 *
+	 * @param e	inference engine
+	 */
+	public void setInferenceEngine(InferenceEngine e) {
+		engine = e;
+		needsCompile = true;
+	}
+
+	/**
+	 * Gets the inference engine answering the queries.
+	 *
+	 * @return	inference engine, null for Netica's exact inference
+	 */
+	public InferenceEngine getInferenceEngine() {
+		return engine;
+	}
+
+	/**
+	 * Starts a batch: from now on, "commit()" does not compile the net.
+	 */
+	public void beginBatch() {
+		inBatch = true;
+	}
+
+	/**
+	 * Ends a batch: writes all the staged tables and compiles the net once if needed.
+	 *
+	 * @throws NeticaException
+	 */
+	public void endBatch() throws NeticaException {
+		inBatch = false;
+		ensureCompiled();
+	}
+
+	/**
+	 * Whether a batch is open.
+	 *
+	 * @return	true: in a batch
+	 * 			false: otherwise
+	 */
+	public boolean isInBatch() {
+		return inBatch;
+	}
+
+	/**
+	 * Stages one row of a node's CPT.
+	 *
+	 * @param node	node
+	 * @param parentStates	parent state indices of this row
+	 * @param table	conditional probabilities of the node states
+	 */
+	public void setCPTable(Node node, int[] parentStates, float[] table) {
+		stagedNodes.addElement(node);
+		stagedParents.addElement(parentStates == null ? null : (int[]) parentStates.clone());
+		stagedTables.addElement((float[]) table.clone());
+		cptVersion++;
+	}
+
+	/**
+	 * Stages the CPT of a node which has no parents.
+	 *
+	 * @param node	node
+	 * @param parentStates	must be "" (Netica's convention for no parents)
+	 * @param table	probabilities of the node states
+	 */
+	public void setCPTable(Node node, String parentStates, float[] table) {
+		setCPTable(node, (int[]) null, table);
+	}
+
+	/**
+	 * Stages the whole CPT of a node, in row-major order (one row per assignment of the parents,
+	 * the last parent changing fastest, as in DiscreteNet). The table is not copied; it is written
+	 * row by row at the next flush with no allocation per row.
+	 *
+	 * @param node	node
+	 * @param table	conditional probabilities, "number of rows x number of node states" values
+	 */
+	public void setCPT(Node node, float[] table) {
+		stagedNodes.addElement(node);
+		stagedParents.addElement(WHOLE_TABLE);
+		stagedTables.addElement(table);
+		cptVersion++;
+	}
+
+	/**
+	 * Writes a whole CPT into the net, row by row.
+	 *
+	 * @param node	node
+	 * @param table	conditional probabilities, in row-major order
+	 * @throws NeticaException
+	 */
+	private static void writeCPT(Node node, float[] table) throws NeticaException {
+		NodeList parents = node.getParents();
+		int d = node.getNumStates();
+		float[] row = new float[d];
+		if (parents.size() == 0) {
+			System.arraycopy(table, 0, row, 0, d);
+			node.setCPTable("", row);
+			return;
+		}
+		int[] dims = new int[parents.size()];
+		for (int j = 0; j < dims.length; j++)
+			dims[j] = ((Node) parents.elementAt(j)).getNumStates();
+		int[] parentStates = new int[dims.length];
+		for (int offset = 0; offset < table.length; offset += d) {
+			System.arraycopy(table, offset, row, 0, d);
+			node.setCPTable(parentStates, row);
+			for (int j = dims.length - 1; j >= 0; --j) {
+				if (++parentStates[j] < dims[j])
+					break;
+				parentStates[j] = 0;
+			}
+		}
+	}
+
+	/**
+	 * Writes a staged CPT row, or whole CPT, into the engine's network.
+	 * The L-Nodes are skipped: their CPTs are functions of their parents there.
+	 *
+	 * @param node	node
+	 * @param parentStates	parent state indices of the row, null for a node without parents, WHOLE_TABLE for a whole CPT
+	 * @param table	staged table
+	 * @throws NeticaException
+	 */
+	private void writeEngineCPT(Node node, int[] parentStates, float[] table) throws NeticaException {
+		DiscreteNet dn = engine.getNet();
+		int idx = indexOf(node);
+		if (dn.getLogicFunction(idx) != null)
+			return;
+		double[] values = new double[table.length];
+		for (int x = 0; x < table.length; x++)
+			values[x] = table[x];
+		if (parentStates == WHOLE_TABLE) {
+			dn.setCPT(idx, values);
+		}
+		else {
+			dn.setCPTRow(idx, parentStates == null ? 0 : dn.getRowIndex(idx, parentStates), values);
+		}
+	}
+
+	/**
+	 * Writes all the staged tables into the net (and the engine's network), without compiling it.
+	 *
+	 * @throws NeticaException
+	 */
+	public void flush() throws NeticaException {
+		int numOfStaged = stagedNodes.size();
+		for (int i = 0; i < numOfStaged; i++) {
+			Node node = (Node) stagedNodes.get(i);
+			int[] parentStates = (int[]) stagedParents.get(i);
+			float[] table = (float[]) stagedTables.get(i);
+			if (parentStates == WHOLE_TABLE) {
+				writeCPT(node, table);
+			}
+			else if (parentStates == null) {
+				node.setCPTable("", table);
+			}
+			else {
+				node.setCPTable(parentStates, table);
+			}
+			if (engine != null)
+				writeEngineCPT(node, parentStates, table);
+		}
+		if (numOfStaged > 0) {
+			needsCompile = true;
+			stagedNodes.clear();
+			stagedParents.clear();
+			stagedTables.clear();
+		}
+	}
+
+	/**
+	 * Writes the staged tables; compiles the net at once unless a batch is open.
+	 *
+	 * @throws NeticaException
+	 */
+	public void commit() throws NeticaException {
+		flush();
+		if (!inBatch) {
+			ensureCompiled();
+		}
+	}
+
+	/**
+	 * Makes the net ready to be queried: writes the staged tables and compiles
+	 * the net if anything has been written since the last compilation.
+	 *
+	 * @throws NeticaException
+	 */
+	public void ensureCompiled() throws NeticaException {
+		flush();
+		if (needsCompile) {
+			if (engine == null) {
+				net.compile();
+			}
+			else {
+				engine.invalidate();
+			}
+			numOfCompiles++;
+			needsCompile = false;
+		}
+	}
+
+	/**
+	 * Gets the joint probability that the nodes are in the states, given the findings.
+	 * The net must be ready, see "ensureCompiled()".
+	 *
+	 * @param nodes	nodes
+	 * @param states	state index of each node
+	 * @return	joint probability
+	 * @throws NeticaException
+	 */
+	public double getJointProbability(NodeList nodes, int[] states) throws NeticaException {
+		if (engine == null) {
+			return net.getJointProbability(nodes, states);
+		}
+		else {
+			int[] ids = new int[nodes.size()];
+			for (int i = 0; i < ids.length; i++)
+				ids[i] = indexOf((Node) nodes.elementAt(i));
+			return engine.getJointProbability(ids, states);
+		}
+	}
+
+	/**
+	 * Gets the belief of one state of a node, given the findings.
+	 * The net must be ready, see "ensureCompiled()".
+	 *
+	 * @param node	node
+	 * @param state	state index
+	 * @return	belief
+	 * @throws NeticaException
+	 */
+	public double getBelief(Node node, int state) throws NeticaException {
+		if (engine == null) {
+			return node.getBelief(node.state(state).getName());
+		}
+		else {
+			return engine.getBeliefs(indexOf(node))[state];
+		}
+	}
+
+	/**
+	 * Enters a hard finding into the net (and the engine's network).
+	 *
+	 * @param node	node
+	 * @param state	state index
+	 * @throws NeticaException
+	 */
+	public void enterFinding(Node node, int state) throws NeticaException {
+		node.enterFinding(state);
+		if (engine != null) {
+			engine.getNet().setFinding(indexOf(node), state);
+			engine.invalidate();
+		}
+	}
+
+	/**
+	 * Enters a hard finding into the net (and the engine's network).
+	 *
+	 * @param node	node
+	 * @param state	state name
+	 * @throws NeticaException
+	 */
+	public void enterFinding(Node node, String state) throws NeticaException {
+		enterFinding(node, node.state(state).getIndex());
+	}
+
+	/**
+	 * Retracts all the findings of the net (and the engine's network).
+	 *
+	 * @throws NeticaException
+	 */
+	public void retractFindings() throws NeticaException {
+		net.retractFindings();
+		if (engine != null) {
+			engine.getNet().retractFindings();
+			engine.invalidate();
+		}
+	}
+
+	/**
+	 * Gets the id of a node in the engine's network.
+	 *
+	 * @param node	node
+	 * @return	node id
+	 * @throws NeticaException
+	 */
+	private int indexOf(Node node) throws NeticaException {
+		int idx = engine.getNet().getNodeIndex(node.getName());
+		if (idx < 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.CPTBatch.java: Node " + node.getName() + " is not in the engine's network!");
+		}
+		return idx;
+	}
+
+	/**
+	 * Marks the net as changed by someone else (e.g. findings retracted, tables written directly),
+	 * so that the next "ensureCompiled()" compiles it again.
+	 */
+	public void invalidate() {
+		needsCompile = true;
+		cptVersion++;
+	}
+
+	/**
+	 * Gets the CPT version of the net, increased whenever a CPT row is staged or the net is invalidated;
+	 * beliefs computed at the same version are still valid (see BeliefCache).
+	 *
+	 * @return	CPT version
+	 */
+	public int getCPTVersion() {
+		return cptVersion;
+	}
+
+	/**
+	 * Gets the number of staged CPT rows not yet written into the net.
+	 *
+	 * @return	number of staged rows
+	 */
+	public int getNumOfStaged() {
+		return stagedNodes.size();
+	}
+
+	/**
+	 * Gets the number of compilations done through this batch.
+	 *
+	 * @return	number of compilations
+	 */
+	public int getNumOfCompiles() {
+		return numOfCompiles;
+	}
+
+	/**
+	 * Returns the underlying BBN.
+	 *
+	 * @return	Bayesian Net
+	 */
+	public Net getNet() {
+		return net;
+	}
+
+}
@@ -0,0 +1,182 @@
+/**
+ * CPTDelta.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+
+package umbc.ebiquity.BayesOWL.commonMethod;
+
+import java.util.*;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+
+/**
+ * This class measures how much a BBN changed between two snapshots of its CPTs (same structure),
+ * without enumerating the joint as DiffBN does:<br>
+ * 	(1) the max row change: the largest total variation "1/2 * sum_x |P(x|pi) - Q(x|pi)|" of one CPT row;<br>
+ * 	(2) the KL bound: "sum over nodes v of max over rows pi of KL(P(v|pi) || Q(v|pi))", an upper bound
+ * 		of KL(P || Q) of the two joints, since that KL is the sum over v of the rows' KLs weighted
+ * 		by P(pi); by Pinsker's inequality "sqrt(KL/2)" then bounds the total variation of the joints;<br>
+ * 	(3) a sampled total variation: "TV(P, Q) = E_P[max(0, 1 - Q(x)/P(x))]", estimated by forward sampling
+ * 		from P, with a Hoeffding half-width at a given confidence.<br>
+ * <br>
+ * (1) and (2) cost one pass over the CPTs; (3) costs one chain-rule product per sample and node.
+ * Findings are ignored, i.e., the joints compared are the prior ones.<br>
+ *
+ */
+public class CPTDelta {
+	DiscreteNet before;
+	DiscreteNet after;
+	double maxRowChange;
+	double klBound;
+	double sampledTV;
+	double sampledTVError;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param p	network before the change
+	 * @param q	network after the change, with the same structure
+	 */
+	public CPTDelta(DiscreteNet p, DiscreteNet q) {
+		if (p == null || q == null || p.getNumOfNodes() != q.getNumOfNodes()) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.CPTDelta.java: The two networks do not have the same structure!");
+		}
+		else {
+			before = p;
+			after = q;
+			compare();
+			sampledTV = -1.0;
+			sampledTVError = -1.0;
+		}
+	}
+
+	/**
+	 * Computes the max row change and the KL bound, in one pass over the CPTs.
+	 */
+	private void compare() {
+		maxRowChange = 0.0;
+		klBound = 0.0;
+		for (int v = 0; v < before.getNumOfNodes(); v++) {
+			if (before.getLogicFunction(v) != null && before.getLogicFunction(v) == after.getLogicFunction(v))
+				continue;	//the same function, no table is built
+			double[] p = before.getCPT(v);
+			double[] q = after.getCPT(v);
+			int d = before.getNumOfStates(v);
+			if (q.length != p.length || after.getNumOfStates(v) != d) {
+				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.CPTDelta.java: Node " + before.getName(v) + " does not have the same CPT in the two networks!");
+			}
+			double maxKL = 0.0;
+			for (int row = 0; row < p.length / d; row++) {
+				double change = 0.0;
+				double kl = 0.0;
+				for (int x = row * d; x < (row + 1) * d; x++) {
+					change += Math.abs(p[x] - q[x]);
+					if (p[x] > 0.0)
+						kl += q[x] > 0.0 ? p[x] * Math.log(p[x] / q[x]) : Double.POSITIVE_INFINITY;
+				}
+				maxRowChange = Math.max(maxRowChange, change / 2);
+				maxKL = Math.max(maxKL, kl);
+			}
+			klBound += maxKL;
+		}
+	}
+
+	/**
+	 * Gets the largest total variation of one CPT row.
+	 *
+	 * @return	max row change
+	 */
+	public double getMaxRowChange() {
+		return maxRowChange;
+	}
+
+	/**
+	 * Gets the upper bound of KL(P || Q) of the two joints, summed over the families.
+	 *
+	 * @return	KL bound, may be infinite
+	 */
+	public double getKLBound() {
+		return klBound;
+	}
+
+	/**
+	 * Gets the upper bound of the total variation of the two joints from the KL bound (Pinsker).
+	 *
+	 * @return	total variation bound
+	 */
+	public double getTotalVarianceBound() {
+		return Math.min(1.0, Math.sqrt(klBound / 2));
+	}
+
+	/**
+	 * Estimates the total variation of the two joints by forward sampling from the network before the change.
+	 * With probability at least "1 - delta", the true total variation is within the estimate
+	 * plus or minus "getSampledTVError()".
+	 *
+	 * @param numOfSamples	number of samples
+	 * @param delta	confidence parameter, in (0, 1)
+	 * @param seed	seed of the random generator
+	 * @return	estimated total variation
+	 */
+	public double sampleTotalVariance(int numOfSamples, double delta, long seed) {
+		if (numOfSamples <= 0 || delta <= 0 || delta >= 1) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.CPTDelta.java: Wrong number of samples or confidence provided!");
+		}
+		Random random = new Random(seed);
+		int n = before.getNumOfNodes();
+		int[] order = before.getTopologicalOrder();
+		int[] x = new int[n];
+		double sum = 0.0;
+		for (int s = 0; s < numOfSamples; s++) {
+			double p = 1.0;
+			for (int i = 0; i < n; i++) {
+				int v = order[i];
+				if (before.getLogicFunction(v) != null) {
+					//an L-Node is a function of its parents, no table is read
+					x[v] = LogicFunction.stateOf(before.getLogicFunction(v), before.getParents(v), x);
+					continue;
+				}
+				int d = before.getNumOfStates(v);
+				int base = before.getRowIndexOf(v, x) * d;
+				double[] cpt = before.getCPT(v);
+				double u = random.nextDouble();
+				int state = d - 1;
+				for (int k = 0; k < d - 1; k++) {
+					u -= cpt[base + k];
+					if (u < 0) {
+						state = k;
+						break;
+					}
+				}
+				x[v] = state;
+				p *= cpt[base + state];
+			}
+			if (p > 0.0)
+				sum += Math.max(0.0, 1.0 - after.getJointProbability(x) / p);
+		}
+		sampledTV = sum / numOfSamples;
+		sampledTVError = Math.sqrt(Math.log(2 / delta) / (2.0 * numOfSamples));
+		return sampledTV;
+	}
+
+	/**
+	 * Gets the total variation estimated by the last "sampleTotalVariance".
+	 *
+	 * @return	estimated total variation, -1 if not sampled
+	 */
+	public double getSampledTV() {
+		return sampledTV;
+	}
+
+	/**
+	 * Gets the half-width of the confidence interval of the last "sampleTotalVariance" (Hoeffding).
+	 *
+	 * @return	half-width, -1 if not sampled
+	 */
+	public double getSampledTVError() {
+		return sampledTVError;
+	}
+
+}
@@ -0,0 +1,208 @@
+/**
+ * ChainRuleEnumeration.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+
+package umbc.ebiquity.BayesOWL.commonMethod;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+
+/**
+ * This class enumerates the joint probability distribution of a DiscreteNet by the chain rule,
+ * "P(v1, ..., vn) = P(v1|Pi(v1)) * ... * P(vn|Pi(vn))", without any inference call.<br>
+ * <br>
+ * The entries are visited in odometer (row-major) order of the node ids, the last node changing
+ * fastest, which is the storage order of JointProbDistribution. The factor of node v is known as
+ * soon as the nodes up to level(v) = max(v, Pi(v)) are assigned, so a running product is kept per
+ * position: "prefix(i+1) = prefix(i) * product of the factors of level i". When the odometer moves
+ * position k, only the factors of level k and above are multiplied again. A zero prefix (e.g. a
+ * state against a finding, or a deterministic logic node) skips the whole block below it.<br>
+ * <br>
+ * With findings, entries against them are 0 and the result is normalized, i.e., it is the JPD
+ * given the findings (the same as Netica's getJointProbability).<br>
+ * The entries are split into contiguous ranges (i.e., on the top variables) filled in parallel.<br>
+ *
+ */
+public class ChainRuleEnumeration {
+	static final int MIN_ENTRIES_PER_THREAD = 1 << 16;
+
+	DiscreteNet net;
+	int numOfNodes;
+	int[] dims;			//number of states of each node
+	int[] strides;		//strides[i]: number of entries for one state of node i, the product of dims after i
+	int[][] byLevel;	//byLevel[i]: the nodes whose factors are known once the nodes 0 to i are assigned
+	double[] joint;
+
+	/**
+	 * Constructor.
+	 * Enumerates the JPD of the given network.
+	 *
+	 * @param dn	network
+	 * @param threads	max number of threads
+	 */
+	public ChainRuleEnumeration(DiscreteNet dn, int threads) {
+		if (dn == null || dn.getNumOfNodes() == 0 || threads <= 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.ChainRuleEnumeration.java: Wrong network or number of threads provided!");
+		}
+		else {
+			net = dn;
+			numOfNodes = dn.getNumOfNodes();
+			dims = new int[numOfNodes];
+			strides = new int[numOfNodes];
+			long total = 1;
+			for (int i = numOfNodes - 1; i >= 0; --i) {
+				dims[i] = dn.getNumOfStates(i);
+				strides[i] = (int) total;
+				total *= dims[i];
+				if (total > Integer.MAX_VALUE) {
+					throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.ChainRuleEnumeration.java: The JPD is too large to be enumerated!");
+				}
+			}
+			int[] numAtLevel = new int[numOfNodes];
+			int[] level = new int[numOfNodes];
+			for (int v = 0; v < numOfNodes; v++) {
+				level[v] = v;
+				int[] parents = dn.getParents(v);
+				for (int j = 0; j < parents.length; j++)
+					level[v] = Math.max(level[v], parents[j]);
+				numAtLevel[level[v]]++;
+			}
+			byLevel = new int[numOfNodes][];
+			for (int i = 0; i < numOfNodes; i++)
+				byLevel[i] = new int[numAtLevel[i]];
+			int[] filled = new int[numOfNodes];
+			for (int v = 0; v < numOfNodes; v++)
+				byLevel[level[v]][filled[level[v]]++] = v;
+			joint = new double[(int) total];
+			enumerate(threads);
+		}
+	}
+
+	/**
+	 * Fills the JPD, in parallel ranges, and normalizes it if there are findings.
+	 *
+	 * @param threads	max number of threads
+	 */
+	private void enumerate(int threads) {
+		final int total = joint.length;
+		int numOfRanges = (int) Math.max(1, Math.min(threads, total / MIN_ENTRIES_PER_THREAD));
+		double sum = 0.0;
+		if (numOfRanges == 1) {
+			sum = fillRange(0, total);
+		}
+		else {
+			ExecutorService pool = Executors.newFixedThreadPool(numOfRanges);
+			try {
+				Vector tasks = new Vector();
+				for (int r = 0; r < numOfRanges; r++) {
+					final int start = (int) ((long) total * r / numOfRanges);
+					final int end = (int) ((long) total * (r + 1) / numOfRanges);
+					tasks.addElement(new Callable() {
+						public Object call() {
+							return Double.valueOf(fillRange(start, end));
+						}
+					});
+				}
+				List results = pool.invokeAll(tasks);
+				for (int r = 0; r < results.size(); r++)
+					sum += ((Double) ((Future) results.get(r)).get()).doubleValue();
+			}
+			catch (Exception e) {
+				e.printStackTrace();
+			}
+			finally {
+				pool.shutdown();
+			}
+		}
+		boolean hasFindings = false;
+		for (int v = 0; v < numOfNodes && !hasFindings; v++)
+			hasFindings = net.getFinding(v) >= 0;
+		if (hasFindings && sum > 0) {
+			for (int i = 0; i < total; i++)
+				joint[i] /= sum;
+		}
+	}
+
+	/**
+	 * Fills the entries in [start, end) of the JPD.
+	 *
+	 * @param start	first offset
+	 * @param end	offset after the last one
+	 * @return	sum of the entries filled
+	 */
+	private double fillRange(int start, int end) {
+		int n = numOfNodes;
+		int[] x = new int[n];
+		int offset = start;
+		for (int i = n - 1; i >= 0; --i) {
+			x[i] = offset % dims[i];
+			offset = offset / dims[i];
+		}
+		double[] prefix = new double[n + 1];
+		prefix[0] = 1.0;
+		double sum = 0.0;
+		int off = start;
+		int k = 0;
+		while (true) {
+			//multiply again the factors of the levels from k on, stop at the first zero
+			int zero = -1;
+			for (int i = k; i < n; i++) {
+				double p = prefix[i];
+				int[] nodes = byLevel[i];
+				for (int j = 0; j < nodes.length && p != 0; j++)
+					p *= factor(nodes[j], x);
+				prefix[i + 1] = p;
+				if (p == 0) {
+					zero = i;
+					break;
+				}
+			}
+			if (zero < 0) {
+				joint[off] = prefix[n];
+				sum += prefix[n];
+				zero = n - 1;
+			}
+			//next entry: zero the positions after 'zero', then increment position 'zero' with carry
+			off = (off / strides[zero] + 1) * strides[zero];
+			if (off >= end)
+				break;
+			for (int i = zero + 1; i < n; i++)
+				x[i] = 0;
+			k = zero;
+			while (++x[k] == dims[k]) {
+				x[k] = 0;
+				k--;
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Gets the factor P(v|Pi(v)) of the current assignment, 0 if v is against its finding.
+	 *
+	 * @param v	node id
+	 * @param x	state of each node
+	 * @return	factor
+	 */
+	private double factor(int v, int[] x) {
+		int finding = net.getFinding(v);
+		if (finding >= 0 && finding != x[v])
+			return 0.0;
+		return net.getCondProb(v, x);
+	}
+
+	/**
+	 * Returns the JPD, in row-major order of the node ids.
+	 *
+	 * @return	joint probabilities
+	 */
+	public double[] getJoint() {
+		return joint;
+	}
+
+}
@@ -0,0 +1,573 @@
+/**
+ * CompiledModel.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+
+package umbc.ebiquity.BayesOWL.commonMethod;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.zip.CRC32;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+
+import norsys.netica.*;
+
+/**
+ * This class saves a translated and fitted network, with its constraints, in a versioned binary file,
+ * and loads it back without parsing the ontology or the probability file and without fitting.<br>
+ * The file holds a header and a payload:<br>
+ * 	header: magic "BOWL", format version, checksum of the source files, checksum and length of the payload<br>
+ * 	payload: nodes (name, states, tag, parent ids, fitted CPT of the tabular nodes, finding),
+ * 	then constraints (kind, variables with their states, entries in offset order)<br>
+ * The node ids are the variable registry: they follow the order of the saved network.
+ * Strings are stored as their length followed by their UTF-8 bytes.<br>
+ * The file is memory-mapped when loaded, and the CPTs are read in bulk from the mapped buffer.
+ * A file is stale when the checksum of the source files (e.g. the OWL file and prob.owl) differs
+ * from the one saved in its header, see isUpToDate().<br>
+ *
+ */
+public class CompiledModel {
+	static final int MAGIC = 0x424F574C;	//"BOWL"
+	static final int FORMAT_VERSION = 1;
+	static final int HEADER_LENGTH = 32;
+
+	//kinds of constraints
+	static final byte LOCAL_MARGINAL = 0;
+	static final byte LOCAL_CONDITIONAL = 1;
+	static final byte NONLOCAL_MARGINAL = 2;
+	static final byte NONLOCAL_CONDITIONAL = 3;
+
+	DiscreteNet dn;
+	ExNode.TAG[] tags;			//tag of each node, null if none
+	Constraint[] constraints;
+	long sourceChecksum;		//checksum of the source files, 0 if not saved or loaded
+	long execTime;
+
+	/**
+	 * Constructor - 1:
+	 * Takes a network with the tags of its nodes, and the constraints fitted into it.
+	 *
+	 * @param dn	network
+	 * @param tags	tag of each node, may be null
+	 * @param constraints	constraints, may be null
+	 */
+	public CompiledModel(DiscreteNet dn, ExNode.TAG[] tags, Constraint[] constraints) {
+		if (dn == null || (tags != null && tags.length != dn.getNumOfNodes())) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.CompiledModel.java: Wrong network or node tags provided!");
+		}
+		else {
+			this.dn = dn;
+			this.tags = tags == null ? new ExNode.TAG[dn.getNumOfNodes()] : tags;
+			this.constraints = constraints == null ? new Constraint[0] : constraints;
+			for (int i = 0; i < this.constraints.length; i++) {
+				if (getKind(this.constraints[i]) < 0) {
+					throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.CompiledModel.java: Not a supported constraint: " + this.constraints[i] + "!");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Constructor - 2:
+	 * Takes a BN built by BNConstructor (and fitted), the tags of its nodes and its constraints.
+	 *
+	 * @param net	Bayesian Net
+	 * @param exNodes	tagged nodes, e.g. BNConstructor.getNodes()
+	 * @param constraints	constraints, may be null
+	 */
+	public CompiledModel(Net net, ExNode[] exNodes, Constraint[] constraints) {
+		this(new BN2DiscreteNet(net, exNodes).getDiscreteNet(), getTags(net, exNodes), constraints);
+	}
+
+	/**
+	 * Gets the tag of each node of a BN, in the order of net.getNodes().
+	 *
+	 * @param net	Bayesian Net
+	 * @param exNodes	tagged nodes
+	 * @return	tag of each node, null if none
+	 */
+	private static ExNode.TAG[] getTags(Net net, ExNode[] exNodes) {
+		ExNode.TAG[] result = null;
+		try {
+			NodeList nodes = net.getNodes();
+			Hashtable name_idx_map = new Hashtable();
+			for (int i = 0; i < nodes.size(); i++)
+				name_idx_map.put(((Node) nodes.elementAt(i)).getName(), Integer.valueOf(i));
+			result = new ExNode.TAG[nodes.size()];
+			for (int i = 0; i < exNodes.length; i++) {
+				Integer obj = (Integer) name_idx_map.get(exNodes[i].getName());
+				if (obj != null)
+					result[obj.intValue()] = exNodes[i].getNodeTag();
+			}
+		}
+		catch (NeticaException e) {
+			System.out.println("Class umbc.ebiquity.BayesOWL.commonMethod.CompiledModel.java: Wrong BN provided!");
+			e.printStackTrace();
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the kind of a constraint, as saved in the file.
+	 *
+	 * @param c	constraint
+	 * @return	kind, -1 if not supported
+	 */
+	private static byte getKind(Constraint c) {
+		if (c instanceof LocalMarginalConstraint)
+			return LOCAL_MARGINAL;
+		else if (c instanceof LocalConditionalConstraint)
+			return LOCAL_CONDITIONAL;
+		else if (c instanceof NonlocalMarginalConstraint)
+			return NONLOCAL_MARGINAL;
+		else if (c instanceof NonlocalConditionalConstraint)
+			return NONLOCAL_CONDITIONAL;
+		return -1;
+	}
+
+	/**
+	 * Saves the model in a binary file.
+	 *
+	 * @param fileName	file name
+	 * @param sourceFiles	files the model was built from, may be null
+	 * @throws IOException
+	 */
+	public void save(String fileName, String[] sourceFiles) throws IOException {
+		long startTime = new Date().getTime();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(bytes));
+
+		//nodes
+		int n = dn.getNumOfNodes();
+		out.writeInt(n);
+		for (int i = 0; i < n; i++) {
+			writeString(out, dn.getName(i));
+			writeStrings(out, dn.getStates(i));
+			out.writeByte(tags[i] == null ? 0 : tags[i].ordinal() + 1);
+			int[] parents = dn.getParents(i);
+			out.writeInt(parents.length);
+			for (int j = 0; j < parents.length; j++)
+				out.writeInt(parents[j]);
+			boolean hasTable = dn.getLogicFunction(i) == null;
+			out.writeBoolean(hasTable);
+			if (hasTable) {
+				double[] cpt = dn.getCPT(i);
+				out.writeInt(cpt.length);
+				for (int k = 0; k < cpt.length; k++)
+					out.writeDouble(cpt[k]);
+			}
+			out.writeInt(dn.getFinding(i));
+		}
+
+		//constraints
+		out.writeInt(constraints.length);
+		for (int i = 0; i < constraints.length; i++) {
+			byte kind = getKind(constraints[i]);
+			out.writeByte(kind);
+			if (kind == LOCAL_MARGINAL || kind == NONLOCAL_MARGINAL) {
+				JointProbDistribution jpd = ((MarginalConstraint) constraints[i]).getDistribution();
+				writeString(out, kind == LOCAL_MARGINAL ? ((LocalMarginalConstraint) constraints[i]).getConceptName() : "");
+				out.writeInt(jpd.getNumOfVariables());
+				for (int j = 0; j < jpd.getNumOfVariables(); j++)
+					writeVariable(out, jpd.getVariable(j));
+				out.writeInt(jpd.getNumOfEntries());
+				for (int k = 0; k < jpd.getNumOfEntries(); k++)
+					out.writeDouble(jpd.getProbEntry(k));
+			}
+			else {
+				CondProbDistribution cpd = ((ConditionalConstraint) constraints[i]).getDistribution();
+				out.writeInt(cpd.getNumOfPriorVariables());
+				for (int j = 0; j < cpd.getNumOfPriorVariables(); j++)
+					writeVariable(out, cpd.getPriorVariable(j));
+				out.writeInt(cpd.getNumOfCondVariables());
+				for (int j = 0; j < cpd.getNumOfCondVariables(); j++)
+					writeVariable(out, cpd.getCondVariable(j));
+				out.writeInt(cpd.getNumOfEntries());
+				for (int k = 0; k < cpd.getNumOfEntries(); k++)
+					out.writeDouble(cpd.getCondProbEntry(k));
+			}
+		}
+		out.close();
+		byte[] payload = bytes.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+
+		sourceChecksum = checksum(sourceFiles);
+		DataOutputStream file = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)));
+		try {
+			file.writeInt(MAGIC);
+			file.writeInt(FORMAT_VERSION);
+			file.writeLong(sourceChecksum);
+			file.writeLong(crc.getValue());
+			file.writeLong(payload.length);
+			file.write(payload);
+		}
+		finally {
+			file.close();
+		}
+		execTime = new Date().getTime() - startTime;
+	}
+
+	/**
+	 * Loads a model from a binary file, memory-mapped.
+	 *
+	 * @param fileName	file name
+	 * @return	model
+	 * @throws IOException
+	 */
+	public static CompiledModel load(String fileName) throws IOException {
+		long startTime = new Date().getTime();
+		FileInputStream in = new FileInputStream(fileName);
+		try {
+			FileChannel channel = in.getChannel();
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			long sourceChecksum = readHeader(buffer, fileName);
+			long payloadChecksum = buffer.getLong();
+			long payloadLength = buffer.getLong();
+			if (payloadLength != buffer.remaining()) {
+				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.CompiledModel.java: Truncated model file " + fileName + "!");
+			}
+			CRC32 crc = new CRC32();
+			byte[] chunk = new byte[65536];
+			while (buffer.hasRemaining()) {
+				int length = Math.min(chunk.length, buffer.remaining());
+				buffer.get(chunk, 0, length);
+				crc.update(chunk, 0, length);
+			}
+			if (crc.getValue() != payloadChecksum) {
+				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.CompiledModel.java: Corrupted model file " + fileName + "!");
+			}
+			buffer.position(HEADER_LENGTH);
+
+			//nodes
+			int n = buffer.getInt();
+			String[] names = new String[n];
+			String[][] states = new String[n][];
+			int[][] parents = new int[n][];
+			ExNode.TAG[] tags = new ExNode.TAG[n];
+			double[][] cpts = new double[n][];
+			int[] findings = new int[n];
+			ExNode.TAG[] values = ExNode.TAG.values();
+			for (int i = 0; i < n; i++) {
+				names[i] = readString(buffer);
+				states[i] = readStrings(buffer);
+				int tag = buffer.get();
+				tags[i] = tag == 0 ? null : values[tag - 1];
+				parents[i] = new int[buffer.getInt()];
+				buffer.asIntBuffer().get(parents[i]);
+				buffer.position(buffer.position() + 4 * parents[i].length);
+				if (buffer.get() != 0) {
+					cpts[i] = new double[buffer.getInt()];
+					buffer.asDoubleBuffer().get(cpts[i]);
+					buffer.position(buffer.position() + 8 * cpts[i].length);
+				}
+				findings[i] = buffer.getInt();
+			}
+			DiscreteNet dn = new DiscreteNet(names, states, parents, tags);
+			for (int i = 0; i < n; i++) {
+				if (cpts[i] != null)
+					dn.setCPT(i, cpts[i]);
+				if (findings[i] >= 0)
+					dn.setFinding(i, findings[i]);
+			}
+
+			//constraints
+			Constraint[] constraints = new Constraint[buffer.getInt()];
+			for (int i = 0; i < constraints.length; i++) {
+				byte kind = buffer.get();
+				if (kind == LOCAL_MARGINAL || kind == NONLOCAL_MARGINAL) {
+					String concept = readString(buffer);
+					RandomVariable[] variables = new RandomVariable[buffer.getInt()];
+					for (int j = 0; j < variables.length; j++)
+						variables[j] = readVariable(buffer);
+					JointProbDistribution jpd = new JointProbDistribution(variables);
+					int numOfEntries = buffer.getInt();
+					for (int k = 0; k < numOfEntries; k++)
+						jpd.addProbEntry(k, buffer.getDouble());
+					constraints[i] = kind == LOCAL_MARGINAL ? (Constraint) new LocalMarginalConstraint(jpd, concept) : new NonlocalMarginalConstraint(jpd);
+				}
+				else if (kind == LOCAL_CONDITIONAL || kind == NONLOCAL_CONDITIONAL) {
+					RandomVariable[] priorVariables = new RandomVariable[buffer.getInt()];
+					for (int j = 0; j < priorVariables.length; j++)
+						priorVariables[j] = readVariable(buffer);
+					RandomVariable[] condVariables = new RandomVariable[buffer.getInt()];
+					for (int j = 0; j < condVariables.length; j++)
+						condVariables[j] = readVariable(buffer);
+					CondProbDistribution cpd = new CondProbDistribution(priorVariables, condVariables);
+					int numOfEntries = buffer.getInt();
+					for (int k = 0; k < numOfEntries; k++)
+						cpd.addCondProbEntry(cpd.getIndices(k), buffer.getDouble());
+					constraints[i] = kind == LOCAL_CONDITIONAL ? (Constraint) new LocalConditionalConstraint(cpd) : new NonlocalConditionalConstraint(cpd);
+				}
+				else {
+					throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.CompiledModel.java: Unknown constraint kind in model file " + fileName + "!");
+				}
+			}
+
+			CompiledModel model = new CompiledModel(dn, tags, constraints);
+			model.sourceChecksum = sourceChecksum;
+			model.execTime = new Date().getTime() - startTime;
+			return model;
+		}
+		catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.CompiledModel.java: Truncated model file " + fileName + "!");
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Checks whether a model file exists, has the current format and was built from the given source files
+	 * as they are now. Only the header is read.
+	 *
+	 * @param fileName	file name
+	 * @param sourceFiles	files the model was built from, may be null
+	 * @return	true if the model file can be loaded in place of the source files
+	 */
+	public static boolean isUpToDate(String fileName, String[] sourceFiles) {
+		File file = new File(fileName);
+		if (!file.isFile() || file.length() < HEADER_LENGTH)
+			return false;
+		try {
+			DataInputStream in = new DataInputStream(new FileInputStream(file));
+			try {
+				if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION)
+					return false;
+				return in.readLong() == checksum(sourceFiles);
+			}
+			finally {
+				in.close();
+			}
+		}
+		catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Computes the checksum (CRC32) of the contents of the source files, in the given order.
+	 *
+	 * @param sourceFiles	file names, may be null
+	 * @return	checksum
+	 * @throws IOException
+	 */
+	public static long checksum(String[] sourceFiles) throws IOException {
+		CRC32 crc = new CRC32();
+		byte[] chunk = new byte[65536];
+		for (int i = 0; sourceFiles != null && i < sourceFiles.length; i++) {
+			InputStream in = new FileInputStream(sourceFiles[i]);
+			try {
+				int length;
+				while ((length = in.read(chunk)) > 0)
+					crc.update(chunk, 0, length);
+			}
+			finally {
+				in.close();
+			}
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Checks the magic number and the format version, and reads the source checksum.
+	 *
+	 * @param buffer	mapped file, at its start
+	 * @param fileName	file name
+	 * @return	checksum of the source files
+	 */
+	private static long readHeader(ByteBuffer buffer, String fileName) {
+		if (buffer.remaining() < HEADER_LENGTH || buffer.getInt() != MAGIC) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.CompiledModel.java: " + fileName + " is not a model file!");
+		}
+		int version = buffer.getInt();
+		if (version != FORMAT_VERSION) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.CompiledModel.java: Unsupported format version " + version + " of model file " + fileName + "!");
+		}
+		return buffer.getLong();
+	}
+
+	/**
+	 * Rebuilds a compiled Netica net from the model, with its CPTs and findings.
+	 * The CPTs of the L-Nodes are their logic functions.
+	 *
+	 * @return	Bayesian Net
+	 * @throws NeticaException
+	 */
+	public Net toNet() throws NeticaException {
+		int n = dn.getNumOfNodes();
+		Net net = new Net();
+		Node[] nodes = new Node[n];
+		for (int i = 0; i < n; i++) {
+			String[] states = dn.getStates(i);
+			String s = states[0];
+			for (int x = 1; x < states.length; x++)
+				s = s + ", " + states[x];
+			nodes[i] = new Node(dn.getName(i), s, net);
+		}
+		for (int i = 0; i < n; i++) {
+			int[] parents = dn.getParents(i);
+			for (int j = 0; j < parents.length; j++)
+				nodes[i].addLink(nodes[parents[j]]);
+		}
+		CPTBatch batch = new CPTBatch(net);
+		for (int i = 0; i < n; i++) {
+			double[] cpt = dn.getCPT(i);
+			float[] table = new float[cpt.length];
+			for (int k = 0; k < cpt.length; k++)
+				table[k] = (float) cpt[k];
+			batch.setCPT(nodes[i], table);
+		}
+		batch.flush();
+		for (int i = 0; i < n; i++) {
+			if (dn.getFinding(i) >= 0)
+				nodes[i].enterFinding(dn.getFinding(i));
+		}
+		net.compile();
+		return net;
+	}
+
+	/**
+	 * Gets the tagged nodes of the model, as BNConstructor.getNodes() gives them.
+	 *
+	 * @return	tagged nodes
+	 */
+	public ExNode[] getNodes() {
+		Vector result = new Vector();
+		for (int i = 0; i < tags.length; i++) {
+			if (tags[i] != null)
+				result.addElement(new ExNode(dn.getName(i), tags[i]));
+		}
+		ExNode[] nodes = new ExNode[result.size()];
+		result.copyInto(nodes);
+		return nodes;
+	}
+
+	/**
+	 * Writes a string, as its length followed by its UTF-8 bytes.
+	 *
+	 * @param out	output
+	 * @param s	string
+	 * @throws IOException
+	 */
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] b = s.getBytes("UTF-8");
+		out.writeInt(b.length);
+		out.write(b);
+	}
+
+	/**
+	 * Writes an array of strings, as its length followed by the strings.
+	 *
+	 * @param out	output
+	 * @param s	strings
+	 * @throws IOException
+	 */
+	private static void writeStrings(DataOutputStream out, String[] s) throws IOException {
+		out.writeInt(s.length);
+		for (int i = 0; i < s.length; i++)
+			writeString(out, s[i]);
+	}
+
+	/**
+	 * Writes a random variable, as its name followed by its states.
+	 *
+	 * @param out	output
+	 * @param rv	random variable
+	 * @throws IOException
+	 */
+	private static void writeVariable(DataOutputStream out, RandomVariable rv) throws IOException {
+		writeString(out, rv.getName());
+		writeStrings(out, rv.getStates());
+	}
+
+	/**
+	 * Reads a string written by writeString().
+	 *
+	 * @param buffer	input
+	 * @return	string
+	 * @throws IOException
+	 */
+	private static String readString(ByteBuffer buffer) throws IOException {
+		byte[] b = new byte[buffer.getInt()];
+		buffer.get(b);
+		return new String(b, "UTF-8");
+	}
+
+	/**
+	 * Reads an array of strings written by writeStrings().
+	 *
+	 * @param buffer	input
+	 * @return	strings
+	 * @throws IOException
+	 */
+	private static String[] readStrings(ByteBuffer buffer) throws IOException {
+		String[] s = new String[buffer.getInt()];
+		for (int i = 0; i < s.length; i++)
+			s[i] = readString(buffer);
+		return s;
+	}
+
+	/**
+	 * Reads a random variable written by writeVariable().
+	 *
+	 * @param buffer	input
+	 * @return	random variable
+	 * @throws IOException
+	 */
+	private static RandomVariable readVariable(ByteBuffer buffer) throws IOException {
+		String name = readString(buffer);
+		return new RandomVariable(name, readStrings(buffer));
+	}
+
+	/**
+	 * Returns the network of the model.
+	 *
+	 * @return	network
+	 */
+	public DiscreteNet getDiscreteNet() {
+		return dn;
+	}
+
+	/**
+	 * Returns the tag of each node, null if none.
+	 *
+	 * @return	tags
+	 */
+	public ExNode.TAG[] getTags() {
+		return tags;
+	}
+
+	/**
+	 * Returns the constraints of the model.
+	 *
+	 * @return	constraints
+	 */
+	public Constraint[] getConstraints() {
+		return constraints;
+	}
+
+	/**
+	 * Returns the checksum of the source files saved with the model, 0 if the model was not saved or loaded.
+	 *
+	 * @return	checksum
+	 */
+	public long getSourceChecksum() {
+		return sourceChecksum;
+	}
+
+	/**
+	 * Returns the time of the last save or load, in milliseconds.
+	 *
+	 * @return	time
+	 */
+	public long getExecTime() {
+		return execTime;
+	}
+
+}
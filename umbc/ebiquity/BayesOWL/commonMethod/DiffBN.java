@@ -46,6 +46,48 @@ public class DiffBN {
 		}
 	}
 	
+	/**
+	 * Constructor - 2:
+	 * Compares the beliefs of the nodes of one network before and after its CPTs are changed, as answered
+	 * by an approximate inference engine, when the nets can not be compiled and the JPDs can not be enumerated.
+	 * The total variance is not available, it is bounded by the beliefs only, so it is set to the sum of differences.
+	 * 
+	 * @param beliefs1:	beliefs of each node before, see getAllBeliefs()
+	 * @param beliefs2:	beliefs of each node after, see getAllBeliefs()
+	 * @param dn:	the network, nodes with a finding are skipped; may be null, e.g. for beliefs read from a BeliefCache
+	 */
+	public DiffBN(double[][] beliefs1, double[][] beliefs2, DiscreteNet dn) {
+		if (beliefs1 == null || beliefs2 == null || beliefs1.length != beliefs2.length) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.DiffBN.java: Wrong beliefs provided!");
+		}
+		else {
+			diff_sum = 0.0;
+			for (int i = 0; i < beliefs1.length; i++) {
+				if (dn == null || dn.getFinding(i) < 0) {
+					double diff_over_all_states = 0.0;
+					for (int j = 0; j < beliefs1[i].length; j++)
+						diff_over_all_states += Math.abs(beliefs1[i][j] - beliefs2[i][j]);
+					diff_sum += diff_over_all_states / beliefs1[i].length;
+				}
+			}
+			totalVariance = diff_sum;
+		}
+	}
+
+	/**
+	 * This method gets the beliefs of all the nodes from an inference engine.
+	 * 
+	 * @param engine:	inference engine
+	 * @return	beliefs of each node
+	 */
+	public static double[][] getAllBeliefs(InferenceEngine engine) {
+		int n = engine.getNet().getNumOfNodes();
+		double[][] beliefs = new double[n][];
+		for (int i = 0; i < n; i++)
+			beliefs[i] = engine.getBeliefs(i);
+		return beliefs;
+	}
+
 	/**
 	 * This method compares two Bayesian networks (same DAG, different CPT) node by node, 
 	 * and returns the sum of the 'absolute' difference value between each pair of nodes' posterior 
@@ -119,35 +161,12 @@ public class DiffBN {
 	private double computeTotalVariance(Net net1, Net net2) {
 		double tv = 0.0;
 		try {
-			net1.compile();
-			net2.compile();
-			NodeList nodes1 = net1.getNodes();
-			NodeList nodes2 = net2.getNodes();
-			RandomVariable[] rndVars1 = new RandomVariable[nodes1.size()];
-			int idx = 0;
-			int numOfProbEntries = 1;
-			Enumeration enum1 = nodes1.elements();
-			while (enum1.hasMoreElements()) {
-				Node node1 = (Node) enum1.nextElement();
-				int numOfStates1 = node1.getNumStates();
-				numOfProbEntries *= numOfStates1;
-				String nodeName1 = node1.getName();
-				String[] states1 = new String[numOfStates1];
-				for (int i=0; i<numOfStates1; i++) {
-					states1[i] = node1.state(i).getName();
-				}
-				RandomVariable rndVar1 = new RandomVariable(nodeName1,states1);
-				rndVars1[idx] = rndVar1;				
-				idx++;
-			}
-			JointProbDistribution jpd1 = new JointProbDistribution(rndVars1);
-			for (int i=0; i<numOfProbEntries; i++) {
-				int[] indices = jpd1.getIndices(i);
-				double pv1 = net1.getJointProbability(nodes1,indices);
-				double pv2 = net2.getJointProbability(nodes2,indices);
-				tv += Math.abs(pv1 - pv2);
-			}
-			
+			//both JPDs by the chain rule, instead of two inference calls per entry
+			int threads = Runtime.getRuntime().availableProcessors();
+			double[] joint1 = new ChainRuleEnumeration(new BN2DiscreteNet(net1).getDiscreteNet(), threads).getJoint();
+			double[] joint2 = new ChainRuleEnumeration(new BN2DiscreteNet(net2).getDiscreteNet(), threads).getJoint();
+			for (int i=0; i<joint1.length; i++)
+				tv += Math.abs(joint1[i] - joint2[i]);
 		}
 		catch (Exception e) {
 			e.printStackTrace();
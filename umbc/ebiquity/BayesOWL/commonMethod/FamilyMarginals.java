@@ -0,0 +1,210 @@
+/**
+ * FamilyMarginals.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+
+package umbc.ebiquity.BayesOWL.commonMethod;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+
+/**
+ * This class extracts the marginal tables of many families (e.g. a node and its parents, for every node
+ * of a BBN) from a joint probability distribution in one single pass over the joint.<br>
+ * <br>
+ * The joint is visited in its storage order, and the position of the current entry in every family
+ * table is updated incrementally when a variable changes, so no entry is decoded. Zero entries are
+ * skipped. Contiguous blocks of the joint are accumulated in parallel, each thread into its own
+ * tables, which are summed at the end.<br>
+ * <br>
+ * A family table is stored in row-major order of the family's variables, so for a family
+ * "{P1, ..., Pk, C}" each row (one assignment of the parents) holds the states of C, the layout of a CPT.<br>
+ *
+ */
+public class FamilyMarginals {
+	static final int MIN_ENTRIES_PER_THREAD = 1 << 16;
+
+	JointProbDistribution jpd;
+	int numOfVars;
+	int[] dims;				//number of states of each variable of the joint
+	int[][] familyDims;		//number of states of each variable of each family
+	int[][][] occurrences;	//for each variable of the joint, {family, stride of the variable in the family table}
+	double[][] marginals;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param joint	JPD
+	 * @param families	variable names of each family
+	 * @param threads	max number of threads
+	 */
+	public FamilyMarginals(JointProbDistribution joint, String[][] families, int threads) {
+		if (joint == null || families == null || threads <= 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.FamilyMarginals.java: Wrong JPD or families provided!");
+		}
+		else {
+			jpd = joint;
+			numOfVars = jpd.getNumOfVariables();
+			dims = new int[numOfVars];
+			for (int i = 0; i < numOfVars; i++)
+				dims[i] = jpd.getVariable(i).getNumOfStates();
+			int numOfFamilies = families.length;
+			familyDims = new int[numOfFamilies][];
+			marginals = new double[numOfFamilies][];
+			Vector[] occ = new Vector[numOfVars];
+			for (int i = 0; i < numOfVars; i++)
+				occ[i] = new Vector();
+			for (int f = 0; f < numOfFamilies; f++) {
+				int size = 1;
+				familyDims[f] = new int[families[f].length];
+				for (int j = families[f].length - 1; j >= 0; --j) {
+					if (!jpd.containsVariable(families[f][j])) {
+						throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.FamilyMarginals.java: The JPD does not contain the variable " + families[f][j] + " !");
+					}
+					int dim = jpd.getDimension(families[f][j]);
+					familyDims[f][j] = dims[dim];
+					occ[dim].addElement(new int[]{f, size});
+					size *= dims[dim];
+				}
+				marginals[f] = new double[size];
+			}
+			occurrences = new int[numOfVars][][];
+			for (int i = 0; i < numOfVars; i++) {
+				occurrences[i] = new int[occ[i].size()][];
+				occ[i].copyInto(occurrences[i]);
+			}
+			extract(threads);
+		}
+	}
+
+	/**
+	 * Accumulates all the family tables, in parallel blocks of the joint.
+	 *
+	 * @param threads	max number of threads
+	 */
+	private void extract(int threads) {
+		final int total = jpd.getNumOfEntries();
+		int numOfBlocks = Math.max(1, Math.min(threads, total / MIN_ENTRIES_PER_THREAD));
+		if (numOfBlocks == 1) {
+			accumulate(0, total, marginals);
+		}
+		else {
+			ExecutorService pool = Executors.newFixedThreadPool(numOfBlocks);
+			try {
+				Vector tasks = new Vector();
+				for (int b = 0; b < numOfBlocks; b++) {
+					final int start = (int) ((long) total * b / numOfBlocks);
+					final int end = (int) ((long) total * (b + 1) / numOfBlocks);
+					tasks.addElement(new Callable() {
+						public Object call() {
+							double[][] tables = new double[marginals.length][];
+							for (int f = 0; f < tables.length; f++)
+								tables[f] = new double[marginals[f].length];
+							accumulate(start, end, tables);
+							return tables;
+						}
+					});
+				}
+				List results = pool.invokeAll(tasks);
+				for (int b = 0; b < results.size(); b++) {
+					double[][] tables = (double[][]) ((Future) results.get(b)).get();
+					for (int f = 0; f < tables.length; f++) {
+						for (int i = 0; i < tables[f].length; i++)
+							marginals[f][i] += tables[f][i];
+					}
+				}
+			}
+			catch (Exception e) {
+				e.printStackTrace();
+			}
+			finally {
+				pool.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Adds the entries in [start, end) of the joint into the family tables.
+	 *
+	 * @param start	first offset
+	 * @param end	offset after the last one
+	 * @param tables	family tables
+	 */
+	private void accumulate(int start, int end, double[][] tables) {
+		int[] x = new int[numOfVars];
+		int offset = start;
+		for (int i = numOfVars - 1; i >= 0; --i) {
+			x[i] = offset % dims[i];
+			offset = offset / dims[i];
+		}
+		int[] pos = new int[tables.length];	//position of the current entry in each family table
+		for (int i = 0; i < numOfVars; i++) {
+			for (int j = 0; j < occurrences[i].length; j++)
+				pos[occurrences[i][j][0]] += x[i] * occurrences[i][j][1];
+		}
+		for (int off = start; off < end; off++) {
+			double pv = jpd.getProbEntry(off);
+			if (pv != 0) {
+				for (int f = 0; f < tables.length; f++)
+					tables[f][pos[f]] += pv;
+			}
+			//next entry: odometer, moving the family positions of every variable that changes
+			for (int k = numOfVars - 1; k >= 0; --k) {
+				int[][] occ = occurrences[k];
+				if (x[k] + 1 < dims[k]) {
+					x[k]++;
+					for (int j = 0; j < occ.length; j++)
+						pos[occ[j][0]] += occ[j][1];
+					break;
+				}
+				for (int j = 0; j < occ.length; j++)
+					pos[occ[j][0]] -= x[k] * occ[j][1];
+				x[k] = 0;
+			}
+		}
+	}
+
+	/**
+	 * Gets the marginal table of a family, in row-major order of its variables.
+	 *
+	 * @param f	family index
+	 * @return	marginal probabilities
+	 */
+	public double[] getMarginal(int f) {
+		return marginals[f];
+	}
+
+	/**
+	 * Gets one row of the conditional table of the last variable of a family given the others,
+	 * i.e., a CPT row. A row whose parent assignment has probability 0 is uniform.
+	 *
+	 * @param f	family index
+	 * @param row	assignment of the other variables, as an offset in row-major order
+	 * @return	conditional probabilities of the states of the last variable
+	 */
+	public float[] getCondProbRow(int f, int row) {
+		int d = familyDims[f][familyDims[f].length - 1];
+		float[] table = new float[d];
+		double sum = 0;
+		for (int t = 0; t < d; t++)
+			sum += marginals[f][row * d + t];
+		for (int t = 0; t < d; t++)
+			table[t] = (float) (sum > 0 ? marginals[f][row * d + t] / sum : 1.0 / d);
+		return table;
+	}
+
+	/**
+	 * Gets the number of rows of the conditional table of a family.
+	 *
+	 * @param f	family index
+	 * @return	number of rows
+	 */
+	public int getNumOfRows(int f) {
+		return marginals[f].length / familyDims[f][familyDims[f].length - 1];
+	}
+
+}
@@ -0,0 +1,53 @@
+/**
+ * InferenceEngine.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+
+package umbc.ebiquity.BayesOWL.commonMethod;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+
+/**
+ * This interface defines the belief and marginal queries the IPFP family of algorithms
+ * asks a Bayesian network, so that an inference backend other than Netica's compiled
+ * junction tree can answer them (e.g. for networks whose treewidth is too large).<br>
+ * <br>
+ * An engine answers queries about its DiscreteNet, given the findings entered in it.
+ * Whenever CPTs or findings of the DiscreteNet change, "invalidate()" must be called,
+ * the engine recomputes (lazily) on the next query.<br>
+ *
+ */
+public interface InferenceEngine {
+
+	/**
+	 * Returns the network the engine answers queries about.
+	 *
+	 * @return	network
+	 */
+	public DiscreteNet getNet();
+
+	/**
+	 * Tells the engine that CPTs or findings of its network changed.
+	 */
+	public void invalidate();
+
+	/**
+	 * Gets the posterior probabilities of a node, given the findings.
+	 *
+	 * @param node	node id
+	 * @return	probability of each state
+	 */
+	public double[] getBeliefs(int node);
+
+	/**
+	 * Gets the joint probability that the nodes are in the states, given the findings.
+	 *
+	 * @param nodes	node ids
+	 * @param states	state index of each node
+	 * @return	joint probability
+	 */
+	public double getJointProbability(int[] nodes, int[] states);
+
+}
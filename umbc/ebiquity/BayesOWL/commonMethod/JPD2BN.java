@@ -57,6 +57,7 @@ public class JPD2BN {
 	
 	/**
 	 * Revises the CPTs of the given BBN based on the given joint probability distribution.
+	 * The family tables of all the nodes are extracted from the JPD in one single pass, see FamilyMarginals.
 	 * 
 	 * @param jpd: JPD
 	 * @param net:	Bayesian Net
@@ -66,75 +67,42 @@ public class JPD2BN {
 		Net currNet = net;
 		try {
 			NodeList nodes = currNet.getNodes();
-			Enumeration enum_enum = nodes.elements();//enum_enum original: enum  Oct. 30 2007 Shenyong
-			while (enum_enum.hasMoreElements()) {
-				Node node = (Node) enum_enum.nextElement();
-				int numOfStates = node.getNumStates();
-				String nodeName = node.getName();
-				String[] states = new String[numOfStates];
-				for (int i = 0; i < numOfStates; i++) {
-					states[i] = node.state(i).getName();
-				}
-				RandomVariable rndVar = new RandomVariable(nodeName, states);				
+			int numOfNodes = nodes.size();
+			String[][] families = new String[numOfNodes][]; //parents in Netica's order, then the node: the CPT layout
+			for (int i = 0; i < numOfNodes; i++) {
+				Node node = (Node) nodes.elementAt(i);
 				NodeList parents = node.getParents();
-				// start - revise CPTs
-				if (parents.size() == 0) { // if this node has no parents
-					JointProbDistribution marginalDist = jpd.getMarginalDist(new RandomVariable[]{rndVar});
-					float[] table = new float[numOfStates];
-					float sum = 0;
-					for (int i = 0; i < numOfStates; i++) {
-						table[i] = (float) marginalDist.getProbEntry(marginalDist.getIndices(i));
-						sum += table[i];
-					}
-					for (int i = 0; i < numOfStates; i++) //normalization
-						table[i] = table[i] / sum;
-					node.setCPTable("", table);
+				families[i] = new String[parents.size() + 1];
+				for (int j = 0; j < parents.size(); j++)
+					families[i][j] = parents.getNode(j).getName();
+				families[i][parents.size()] = node.getName();
+			}
+			FamilyMarginals marginals = new FamilyMarginals(jpd, families, Runtime.getRuntime().availableProcessors());
+			// start - revise CPTs
+			for (int i = 0; i < numOfNodes; i++) {
+				Node node = (Node) nodes.elementAt(i);
+				NodeList parents = node.getParents();
+				int numOfParents = parents.size();
+				int[] numOfStates_of_parents = new int[numOfParents]; //stores the number of states for each parent
+				for (int j = 0; j < numOfParents; j++)
+					numOfStates_of_parents[j] = parents.getNode(j).getNumStates();
+				if (numOfParents == 0) { // if this node has no parents
+					node.setCPTable("", marginals.getCondProbRow(i, 0));
+					continue;
 				}
-				else { // if this node has some parents
-					int numOfParents = parents.size();
-					RandomVariable[] rndVars_parents = new RandomVariable[numOfParents];
-					Enumeration enup = parents.elements();
-					int idx = 0;
-					int numOfTableEntries = 1;
-					int[] numOfStates_of_parents = new int[numOfParents]; //stores the number of states for each parent
-					while (enup.hasMoreElements()) {
-						Node p = (Node) enup.nextElement();
-						int numOfParentStates = p.getNumStates();
-						numOfTableEntries *= numOfParentStates;
-						numOfStates_of_parents[idx] = numOfParentStates;
-						String parentName = p.getName();
-						String[] parentStates = new String[numOfParentStates];
-						for (int i=0; i<numOfParentStates; i++) {
-							parentStates[i] = p.state(i).getName();
-						}
-						rndVars_parents[idx] = new RandomVariable(parentName, parentStates);
-						idx++;
-					}
-					CondProbDistribution marginalCondDist = jpd.getMarginalCondDist(new RandomVariable[]{rndVar},rndVars_parents);
-					for (int i=0; i<numOfTableEntries; i++) {
-						int[] parentStateIndices = new int[numOfParents];
-						int[] allStateIndices = new int[numOfParents+1];
-						int offset = i;
-						for (int j=numOfParents-1; j>=0; --j) {
-							parentStateIndices[j] = offset % numOfStates_of_parents[j];
-							offset = offset  / numOfStates_of_parents[j];
-							allStateIndices[j] = parentStateIndices[j];
-						}
-						float[] table = new float[numOfStates];
-						float sum = 0;
-						for (int j=0; j<numOfStates; j++) {
-							allStateIndices[numOfParents] = j;
-							table[j] = (float) marginalCondDist.getCondProbEntry(allStateIndices);
-							sum += table[j];
-						}
-						for (int j = 0; j < numOfStates; j++) //normalization
-							table[j] = table[j] / sum;
-						node.setCPTable(parentStateIndices, table);
+				for (int row = 0; row < marginals.getNumOfRows(i); row++) {
+					int[] parentStateIndices = new int[numOfParents];
+					int offset = row;
+					for (int j = numOfParents - 1; j >= 0; --j) {
+						parentStateIndices[j] = offset % numOfStates_of_parents[j];
+						offset = offset / numOfStates_of_parents[j];
 					}
+					node.setCPTable(parentStateIndices, marginals.getCondProbRow(i, row));
 				}
-				// end - revise CPTs
-				currNet.compile();
 			}
+			// end - revise CPTs
+			// nothing is queried while revising, so the net is compiled once for all the nodes
+			currNet.compile();
 		}
 		catch (Exception e) {
 			System.out.println("Class umbc.ebiquity.BayesOWL.commonMethod.JPD2BN.java: Wrong BN provided!");
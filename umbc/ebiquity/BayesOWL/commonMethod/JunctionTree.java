@@ -0,0 +1,663 @@
+/**
+ * JunctionTree.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+
+package umbc.ebiquity.BayesOWL.commonMethod;
+
+import java.util.*;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+
+/**
+ * This class implements exact inference on a DiscreteNet by a junction tree (Hugin architecture):<br>
+ * 	(1) the moral graph, plus a clique over each extra scope asked for, is triangulated by greedy
+ * 		min-weight elimination;<br>
+ * 	(2) the maximal cliques are joined into a tree by a maximum spanning tree on the separator sizes;<br>
+ * 	(3) each CPT (and each finding) is multiplied into one clique containing its family, and the
+ * 		tree is calibrated by one collect and one distribute pass.<br>
+ * <br>
+ * Once calibrated, the potential of every clique is proportional to the marginal of its variables.
+ * A factor over variables inside one clique can be multiplied in with "multiplyFactor", which
+ * distributes from that clique only, so the tree stays calibrated; the tree then holds
+ * "P(X) * factor" instead of the BBN's joint. This is what a factored IPFP step needs.<br>
+ * <br>
+ * Cliques are stored in row-major order of their variable ids, the last one changing fastest.<br>
+ * <br>
+ * The tree is built on the network with each L-Node's family replaced by a chain of summary
+ * nodes (see DiscreteNet.expandLogicNodes()), so the cliques stay small however many parents
+ * an L-Node has. The summary nodes are not visible to the callers.<br>
+ *
+ */
+public class JunctionTree implements InferenceEngine {
+	DiscreteNet net;
+	DiscreteNet model;		//the network the tree is built on, with L-Nodes expanded
+	int[][] cliques;		//variable ids of each clique, sorted
+	double[][] potentials;	//potential of each clique
+	int[] homeOfFamily;		//the clique the CPT of each node is multiplied into
+	int[][] neighbors;		//for each clique, the cliques next to it in the tree
+	int[][] neighborEdges;	//for each clique, the edges to its neighbors
+	int[][] edgeEnds;		//the two cliques of each edge
+	int[][][] edgeMaps;		//for each edge and each of its ends, the separator offset of each clique entry
+	double[][] separators;	//potential of each separator
+	double[][] spareSeparators;	//scratch space of the separator updates
+	int[] homeOfNode;		//the smallest clique containing each node
+	int[][] nodeStateMaps;	//for each node, its state in each entry of its home clique
+	int[] bfsOrder;			//cliques in breadth-first order from clique 0
+	int[] parentEdge;		//edge to the parent clique in bfsOrder, -1 for the root
+	boolean calibrated;
+
+	/**
+	 * The potentials of one evidence propagation, so that several threads can propagate
+	 * on the same tree at once (see BatchPosterior).
+	 */
+	static class Workspace {
+		double[][] potentials;
+		double[][] separators;
+		double[][] spare;
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param dn	network
+	 * @param extraScopes	sets of node ids which must fall inside one clique, may be null
+	 * @param maxCliqueSize	max number of entries of one clique
+	 */
+	public JunctionTree(DiscreteNet dn, int[][] extraScopes, int maxCliqueSize) {
+		if (dn == null || dn.getNumOfNodes() == 0 || maxCliqueSize <= 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.JunctionTree.java: Wrong network provided!");
+		}
+		else {
+			net = dn;
+			model = dn.hasLogicNodes() ? dn.expandLogicNodes() : dn;
+			buildCliques(extraScopes == null ? new int[0][] : extraScopes, maxCliqueSize);
+			buildTree();
+			calibrated = false;
+		}
+	}
+
+	/**
+	 * Triangulates the moral graph (plus the extra scopes) and collects the maximal cliques.
+	 *
+	 * @param extraScopes	sets of node ids which must fall inside one clique
+	 * @param maxCliqueSize	max number of entries of one clique
+	 */
+	private void buildCliques(int[][] extraScopes, int maxCliqueSize) {
+		int n = model.getNumOfNodes();
+		BitSet[] adj = new BitSet[n];
+		for (int i = 0; i < n; i++)
+			adj[i] = new BitSet(n);
+		int[][] scopes = new int[n + extraScopes.length][];
+		for (int v = 0; v < n; v++) {
+			int[] parents = model.getParents(v);
+			scopes[v] = new int[parents.length + 1];
+			System.arraycopy(parents, 0, scopes[v], 0, parents.length);
+			scopes[v][parents.length] = v;
+		}
+		System.arraycopy(extraScopes, 0, scopes, n, extraScopes.length);
+		for (int s = 0; s < scopes.length; s++) {
+			for (int i = 0; i < scopes[s].length; i++) {
+				if (scopes[s][i] < 0 || scopes[s][i] >= n) {
+					throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.JunctionTree.java: Wrong node id " + scopes[s][i] + " in a scope!");
+				}
+				for (int j = 0; j < scopes[s].length; j++) {
+					if (i != j)
+						adj[scopes[s][i]].set(scopes[s][j]);
+				}
+			}
+		}
+		//greedy elimination: the node whose clique has the fewest entries first, fewest fill-ins on ties
+		boolean[] eliminated = new boolean[n];
+		Vector found = new Vector();	//BitSet
+		for (int step = 0; step < n; step++) {
+			int best = -1;
+			double bestWeight = 0;
+			int bestFill = 0;
+			for (int v = 0; v < n; v++) {
+				if (eliminated[v])
+					continue;
+				double weight = model.getNumOfStates(v);
+				int fill = 0;
+				for (int u = adj[v].nextSetBit(0); u >= 0; u = adj[v].nextSetBit(u + 1)) {
+					weight *= model.getNumOfStates(u);
+					BitSet missing = (BitSet) adj[v].clone();
+					missing.andNot(adj[u]);
+					missing.clear(u);
+					fill += missing.cardinality();
+				}
+				if (best < 0 || weight < bestWeight || (weight == bestWeight && fill < bestFill)) {
+					best = v;
+					bestWeight = weight;
+					bestFill = fill;
+				}
+			}
+			if (bestWeight > maxCliqueSize) {
+				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.JunctionTree.java: A clique of " + (long) bestWeight + " entries is needed, more than " + maxCliqueSize + " !");
+			}
+			BitSet clique = (BitSet) adj[best].clone();
+			clique.set(best);
+			boolean maximal = true;
+			for (int c = 0; c < found.size() && maximal; c++) {
+				BitSet rest = (BitSet) clique.clone();
+				rest.andNot((BitSet) found.get(c));
+				maximal = !rest.isEmpty();
+			}
+			if (maximal)
+				found.addElement(clique);
+			for (int u = adj[best].nextSetBit(0); u >= 0; u = adj[best].nextSetBit(u + 1)) {
+				adj[u].or(adj[best]);
+				adj[u].clear(u);
+				adj[u].clear(best);
+			}
+			eliminated[best] = true;
+		}
+		cliques = new int[found.size()][];
+		for (int c = 0; c < cliques.length; c++) {
+			BitSet clique = (BitSet) found.get(c);
+			cliques[c] = new int[clique.cardinality()];
+			int k = 0;
+			for (int v = clique.nextSetBit(0); v >= 0; v = clique.nextSetBit(v + 1))
+				cliques[c][k++] = v;
+		}
+		homeOfFamily = new int[n];
+		homeOfNode = new int[n];
+		nodeStateMaps = new int[n][];
+		for (int v = 0; v < n; v++) {
+			homeOfFamily[v] = findClique(scopes[v]);
+			homeOfNode[v] = findClique(new int[]{v});
+			nodeStateMaps[v] = indexMap(cliques[homeOfNode[v]], new int[]{v});
+		}
+	}
+
+	/**
+	 * Joins the cliques into a tree, by a maximum spanning tree on the separator sizes (Prim).
+	 * Cliques of different components are joined by empty separators.
+	 */
+	private void buildTree() {
+		int c = cliques.length;
+		int[][] sepSize = new int[c][c];
+		for (int a = 0; a < c; a++) {
+			for (int b = a + 1; b < c; b++) {
+				sepSize[a][b] = sepSize[b][a] = intersect(cliques[a], cliques[b]).length;
+			}
+		}
+		boolean[] inTree = new boolean[c];
+		int[] bestLink = new int[c];
+		int[] bestSize = new int[c];
+		Arrays.fill(bestSize, -1);
+		Vector[] nbrs = new Vector[c];
+		Vector[] nbrEdges = new Vector[c];
+		for (int a = 0; a < c; a++) {
+			nbrs[a] = new Vector();
+			nbrEdges[a] = new Vector();
+		}
+		edgeEnds = new int[Math.max(0, c - 1)][];
+		bfsOrder = new int[c];
+		parentEdge = new int[c];
+		inTree[0] = true;
+		bfsOrder[0] = 0;
+		parentEdge[0] = -1;
+		for (int b = 1; b < c; b++) {
+			bestLink[b] = 0;
+			bestSize[b] = sepSize[0][b];
+		}
+		for (int e = 0; e < c - 1; e++) {
+			int next = -1;
+			for (int b = 0; b < c; b++) {
+				if (!inTree[b] && (next < 0 || bestSize[b] > bestSize[next]))
+					next = b;
+			}
+			inTree[next] = true;
+			edgeEnds[e] = new int[]{bestLink[next], next};
+			nbrs[bestLink[next]].addElement(Integer.valueOf(next));
+			nbrEdges[bestLink[next]].addElement(Integer.valueOf(e));
+			nbrs[next].addElement(Integer.valueOf(bestLink[next]));
+			nbrEdges[next].addElement(Integer.valueOf(e));
+			for (int b = 0; b < c; b++) {
+				if (!inTree[b] && sepSize[next][b] > bestSize[b]) {
+					bestSize[b] = sepSize[next][b];
+					bestLink[b] = next;
+				}
+			}
+		}
+		neighbors = new int[c][];
+		neighborEdges = new int[c][];
+		for (int a = 0; a < c; a++) {
+			neighbors[a] = new int[nbrs[a].size()];
+			neighborEdges[a] = new int[nbrs[a].size()];
+			for (int k = 0; k < neighbors[a].length; k++) {
+				neighbors[a][k] = ((Integer) nbrs[a].get(k)).intValue();
+				neighborEdges[a][k] = ((Integer) nbrEdges[a].get(k)).intValue();
+			}
+		}
+		edgeMaps = new int[edgeEnds.length][2][];
+		separators = new double[edgeEnds.length][];
+		spareSeparators = new double[edgeEnds.length][];
+		for (int e = 0; e < edgeEnds.length; e++) {
+			int[] sep = intersect(cliques[edgeEnds[e][0]], cliques[edgeEnds[e][1]]);
+			edgeMaps[e][0] = indexMap(cliques[edgeEnds[e][0]], sep);
+			edgeMaps[e][1] = indexMap(cliques[edgeEnds[e][1]], sep);
+			separators[e] = new double[tableSize(sep)];
+			spareSeparators[e] = new double[separators[e].length];
+		}
+		//breadth-first order from the root, for the collect and distribute passes
+		boolean[] visited = new boolean[c];
+		visited[0] = true;
+		int tail = 1;
+		for (int head = 0; head < tail; head++) {
+			int a = bfsOrder[head];
+			for (int k = 0; k < neighbors[a].length; k++) {
+				if (!visited[neighbors[a][k]]) {
+					visited[neighbors[a][k]] = true;
+					parentEdge[neighbors[a][k]] = neighborEdges[a][k];
+					bfsOrder[tail++] = neighbors[a][k];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the variables two sorted lists have in common.
+	 *
+	 * @param a	sorted variable ids
+	 * @param b	sorted variable ids
+	 * @return	sorted common variable ids
+	 */
+	private static int[] intersect(int[] a, int[] b) {
+		int[] common = new int[Math.min(a.length, b.length)];
+		int k = 0;
+		for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+			if (a[i] == b[j]) {
+				common[k++] = a[i];
+				i++;
+				j++;
+			}
+			else if (a[i] < b[j]) {
+				i++;
+			}
+			else {
+				j++;
+			}
+		}
+		int[] result = new int[k];
+		System.arraycopy(common, 0, result, 0, k);
+		return result;
+	}
+
+	/**
+	 * Gets the number of entries of a table over the given variables.
+	 *
+	 * @param vars	variable ids
+	 * @return	number of entries
+	 */
+	private int tableSize(int[] vars) {
+		int size = 1;
+		for (int i = 0; i < vars.length; i++)
+			size *= model.getNumOfStates(vars[i]);
+		return size;
+	}
+
+	/**
+	 * Maps each entry of a clique to the entry of a table over some of its variables.
+	 *
+	 * @param cliqueVars	sorted variable ids of the clique
+	 * @param subVars	variable ids of the table, in its row-major order
+	 * @return	for each clique entry, the table offset
+	 */
+	private int[] indexMap(int[] cliqueVars, int[] subVars) {
+		int[] strideOf = new int[cliqueVars.length];	//stride in the table of each clique variable, 0 if absent
+		int stride = 1;
+		for (int j = subVars.length - 1; j >= 0; --j) {
+			int pos = Arrays.binarySearch(cliqueVars, subVars[j]);
+			if (pos < 0) {
+				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.JunctionTree.java: Node " + model.getName(subVars[j]) + " is not in the clique!");
+			}
+			strideOf[pos] = stride;
+			stride *= model.getNumOfStates(subVars[j]);
+		}
+		int[] map = new int[tableSize(cliqueVars)];
+		int[] x = new int[cliqueVars.length];
+		int offset = 0;
+		for (int i = 0; i < map.length; i++) {
+			map[i] = offset;
+			for (int k = cliqueVars.length - 1; k >= 0; --k) {
+				if (++x[k] < model.getNumOfStates(cliqueVars[k])) {
+					offset += strideOf[k];
+					break;
+				}
+				offset -= (x[k] - 1) * strideOf[k];
+				x[k] = 0;
+			}
+		}
+		return map;
+	}
+
+	/**
+	 * Finds a clique containing all the given variables.
+	 *
+	 * @param vars	variable ids
+	 * @return	clique index, -1 if no clique contains them all
+	 */
+	public int findClique(int[] vars) {
+		int best = -1;
+		for (int c = 0; c < cliques.length; c++) {
+			boolean contained = true;
+			for (int i = 0; i < vars.length && contained; i++)
+				contained = Arrays.binarySearch(cliques[c], vars[i]) >= 0;
+			if (contained && (best < 0 || cliques[c].length < cliques[best].length))
+				best = c;
+		}
+		return best;
+	}
+
+	/**
+	 * Initializes the clique potentials with the CPTs and findings, and calibrates the tree.
+	 */
+	public void calibrate() {
+		int n = net.getNumOfNodes();
+		int numOfNodes = model.getNumOfNodes();
+		potentials = new double[cliques.length][];
+		for (int c = 0; c < cliques.length; c++) {
+			potentials[c] = new double[tableSize(cliques[c])];
+			Arrays.fill(potentials[c], 1.0);
+		}
+		for (int v = 0; v < numOfNodes; v++) {
+			int[] parents = model.getParents(v);
+			int[] family = new int[parents.length + 1];
+			System.arraycopy(parents, 0, family, 0, parents.length);
+			family[parents.length] = v;
+			//the CPTs of the L-Nodes and summary nodes never change, the others are read from the network
+			double[] cpt = v < n && net.getLogicFunction(v) == null ? net.getCPT(v) : model.getCPT(v);
+			double[] pot = potentials[homeOfFamily[v]];
+			int[] map = indexMap(cliques[homeOfFamily[v]], family);
+			int finding = v < n ? net.getFinding(v) : -1;
+			int d = model.getNumOfStates(v);
+			for (int i = 0; i < pot.length; i++) {
+				//the family's offset ends with the state of v
+				if (finding >= 0 && map[i] % d != finding)
+					pot[i] = 0.0;
+				else
+					pot[i] *= cpt[map[i]];
+			}
+		}
+		for (int e = 0; e < separators.length; e++)
+			Arrays.fill(separators[e], 1.0);
+		propagate(potentials, separators, spareSeparators);
+		calibrated = true;
+	}
+
+	/**
+	 * Calibrates the given potentials, by one collect and one distribute pass.
+	 *
+	 * @param pots	clique potentials
+	 * @param seps	separator potentials
+	 * @param spare	scratch space, as large as the separators
+	 */
+	private void propagate(double[][] pots, double[][] seps, double[][] spare) {
+		for (int i = bfsOrder.length - 1; i > 0; --i)
+			pass(parentEdge[bfsOrder[i]], bfsOrder[i], pots, seps, spare);
+		for (int i = 1; i < bfsOrder.length; i++) {
+			int e = parentEdge[bfsOrder[i]];
+			pass(e, edgeEnds[e][0] == bfsOrder[i] ? edgeEnds[e][1] : edgeEnds[e][0], pots, seps, spare);
+		}
+	}
+
+	/**
+	 * Passes the message over an edge, from the given clique to the other end (Hugin update).
+	 * The new separator potential is built in the spare array, which then takes the old one.
+	 *
+	 * @param e	edge
+	 * @param from	sending clique
+	 * @param pots	clique potentials
+	 * @param seps	separator potentials
+	 * @param spare	scratch space, as large as the separators
+	 */
+	private void pass(int e, int from, double[][] pots, double[][] seps, double[][] spare) {
+		int fromEnd = edgeEnds[e][0] == from ? 0 : 1;
+		int to = edgeEnds[e][1 - fromEnd];
+		double[] sep = spare[e];
+		Arrays.fill(sep, 0.0);
+		int[] fromMap = edgeMaps[e][fromEnd];
+		double[] fromPot = pots[from];
+		for (int i = 0; i < fromPot.length; i++)
+			sep[fromMap[i]] += fromPot[i];
+		double[] ratio = seps[e];	//the old separator potential is not needed any more
+		for (int s = 0; s < sep.length; s++)
+			ratio[s] = ratio[s] == 0.0 ? 0.0 : sep[s] / ratio[s];
+		int[] toMap = edgeMaps[e][1 - fromEnd];
+		double[] toPot = pots[to];
+		for (int i = 0; i < toPot.length; i++)
+			toPot[i] *= ratio[toMap[i]];
+		seps[e] = sep;
+		spare[e] = ratio;
+	}
+
+	/**
+	 * Distributes from one clique to all the others, after its potential changed.
+	 *
+	 * @param root	changed clique
+	 */
+	private void distributeFrom(int root) {
+		boolean[] visited = new boolean[cliques.length];
+		int[] queue = new int[cliques.length];
+		visited[root] = true;
+		queue[0] = root;
+		int tail = 1;
+		for (int head = 0; head < tail; head++) {
+			int a = queue[head];
+			for (int k = 0; k < neighbors[a].length; k++) {
+				if (!visited[neighbors[a][k]]) {
+					visited[neighbors[a][k]] = true;
+					pass(neighborEdges[a][k], a, potentials, separators, spareSeparators);
+					queue[tail++] = neighbors[a][k];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Multiplies a factor into the tree, and calibrates it again.
+	 * The factor's variables must fall inside one clique (e.g. be one of the extra scopes).
+	 *
+	 * @param vars	variable ids of the factor, in its row-major order
+	 * @param factor	factor values
+	 */
+	public void multiplyFactor(int[] vars, double[] factor) {
+		if (!calibrated)
+			calibrate();
+		int c = findClique(vars);
+		if (c < 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.JunctionTree.java: No clique contains the factor's variables!");
+		}
+		int[] map = indexMap(cliques[c], vars);
+		double[] pot = potentials[c];
+		for (int i = 0; i < pot.length; i++)
+			pot[i] *= factor[map[i]];
+		distributeFrom(c);
+	}
+
+	/**
+	 * Gets the normalized marginal of variables inside one clique.
+	 *
+	 * @param vars	variable ids, in the row-major order of the result
+	 * @return	marginal, null if no clique contains the variables
+	 */
+	public double[] getMarginal(int[] vars) {
+		if (!calibrated)
+			calibrate();
+		int c = findClique(vars);
+		if (c < 0)
+			return null;
+		double[] marginal = new double[tableSize(vars)];
+		int[] map = indexMap(cliques[c], vars);
+		double[] pot = potentials[c];
+		double sum = 0.0;
+		for (int i = 0; i < pot.length; i++) {
+			marginal[map[i]] += pot[i];
+			sum += pot[i];
+		}
+		if (sum > 0) {
+			for (int i = 0; i < marginal.length; i++)
+				marginal[i] /= sum;
+		}
+		return marginal;
+	}
+
+	/**
+	 * Gets the total mass of the tree, i.e., the sum of the potential of any clique.
+	 *
+	 * @return	total mass
+	 */
+	private double getMass() {
+		double sum = 0.0;
+		for (int i = 0; i < potentials[0].length; i++)
+			sum += potentials[0][i];
+		return sum;
+	}
+
+	/**
+	 * Makes a workspace for "enterEvidence", calibrating the tree first if needed.
+	 *
+	 * @return	workspace
+	 */
+	Workspace newWorkspace() {
+		if (!calibrated)
+			calibrate();
+		Workspace w = new Workspace();
+		w.potentials = new double[potentials.length][];
+		for (int c = 0; c < potentials.length; c++)
+			w.potentials[c] = new double[potentials[c].length];
+		w.separators = new double[separators.length][];
+		w.spare = new double[separators.length][];
+		for (int e = 0; e < separators.length; e++) {
+			w.separators[e] = new double[separators[e].length];
+			w.spare[e] = new double[separators[e].length];
+		}
+		return w;
+	}
+
+	/**
+	 * Copies the calibrated potentials into a workspace, enters hard findings there, and calibrates it.
+	 * The tree itself is not changed, so several workspaces can be used at once.
+	 *
+	 * @param w	workspace
+	 * @param findings	state index of each node, -1 for no finding
+	 */
+	void enterEvidence(Workspace w, int[] findings) {
+		for (int c = 0; c < potentials.length; c++)
+			System.arraycopy(potentials[c], 0, w.potentials[c], 0, potentials[c].length);
+		for (int e = 0; e < separators.length; e++)
+			System.arraycopy(separators[e], 0, w.separators[e], 0, separators[e].length);
+		for (int v = 0; v < findings.length; v++) {
+			if (findings[v] >= 0) {
+				double[] pot = w.potentials[homeOfNode[v]];
+				int[] map = nodeStateMaps[v];
+				for (int i = 0; i < pot.length; i++) {
+					if (map[i] != findings[v])
+						pot[i] = 0.0;
+				}
+			}
+		}
+		propagate(w.potentials, w.separators, w.spare);
+	}
+
+	/**
+	 * Gets the normalized beliefs of a node from a calibrated workspace.
+	 *
+	 * @param w	workspace
+	 * @param node	node id
+	 * @return	beliefs, null if the findings have probability 0
+	 */
+	double[] getBeliefs(Workspace w, int node) {
+		double[] beliefs = new double[net.getNumOfStates(node)];
+		double[] pot = w.potentials[homeOfNode[node]];
+		int[] map = nodeStateMaps[node];
+		double sum = 0.0;
+		for (int i = 0; i < pot.length; i++) {
+			beliefs[map[i]] += pot[i];
+			sum += pot[i];
+		}
+		if (sum <= 0.0)
+			return null;
+		for (int x = 0; x < beliefs.length; x++)
+			beliefs[x] /= sum;
+		return beliefs;
+	}
+
+	/**
+	 * Gets the probability of the findings entered into a workspace, relative to the tree's total mass.
+	 *
+	 * @param w	workspace
+	 * @return	probability of the findings
+	 */
+	double getEvidenceProbability(Workspace w) {
+		double sum = 0.0;
+		for (int i = 0; i < w.potentials[0].length; i++)
+			sum += w.potentials[0][i];
+		double mass = getMass();
+		return mass > 0.0 ? sum / mass : 0.0;
+	}
+
+	/**
+	 * Gets the number of cliques.
+	 *
+	 * @return	number of cliques
+	 */
+	public int getNumOfCliques() {
+		return cliques.length;
+	}
+
+	/**
+	 * Gets the number of entries of the largest clique.
+	 *
+	 * @return	number of entries
+	 */
+	public int getMaxCliqueSize() {
+		int max = 0;
+		for (int c = 0; c < cliques.length; c++)
+			max = Math.max(max, tableSize(cliques[c]));
+		return max;
+	}
+
+	public DiscreteNet getNet() {
+		return net;
+	}
+
+	public void invalidate() {
+		calibrated = false;
+	}
+
+	public double[] getBeliefs(int node) {
+		return getMarginal(new int[]{node});
+	}
+
+	public double getJointProbability(int[] nodes, int[] states) {
+		if (nodes == null || states == null || nodes.length != states.length) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.JunctionTree.java: Wrong query provided!");
+		}
+		if (!calibrated)
+			calibrate();
+		if (findClique(nodes) >= 0) {
+			int offset = 0;
+			for (int i = 0; i < nodes.length; i++)
+				offset = offset * net.getNumOfStates(nodes[i]) + states[i];
+			return getMarginal(nodes)[offset];
+		}
+		//otherwise enter the states one by one as likelihoods, the mass left is the joint probability
+		double mass = getMass();
+		if (mass <= 0)
+			return 0.0;
+		for (int i = 0; i < nodes.length; i++) {
+			double[] indicator = new double[net.getNumOfStates(nodes[i])];
+			indicator[states[i]] = 1.0;
+			multiplyFactor(new int[]{nodes[i]}, indicator);
+		}
+		double p = getMass() / mass;
+		calibrated = false;
+		return p;
+	}
+
+}
@@ -0,0 +1,385 @@
+/**
+ * LikelihoodWeighting.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+
+package umbc.ebiquity.BayesOWL.commonMethod;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+
+/**
+ * This class implements likelihood weighting as an approximate inference backend, for
+ * networks Netica can not compile. Samples are drawn in parallel by several threads,
+ * each with its own random generator and workspace.<br>
+ * <br>
+ * Samples are drawn in rounds (one chunk per thread) until the largest standard error of
+ * the beliefs is below the error budget, or the sample or time budget is used up. The
+ * standard error of a belief p is estimated as sqrt(p(1-p)/ESS), where ESS is the effective
+ * sample size of the weights.<br>
+ * <br>
+ * Only the weighted counts of each node state are kept, not the samples, so the memory does not
+ * grow with the number of samples. A joint probability of several nodes is answered from the joint
+ * table of those nodes, sampled once with the same seeds and budgets (until the largest standard
+ * error of its entries is below the error budget) and kept until the next invalidate, so the other
+ * entries of the same nodes cost no sampling.<br>
+ *
+ */
+public class LikelihoodWeighting implements InferenceEngine {
+	DiscreteNet net;
+	int maxSamples;			//sample budget of one sampling
+	double errorBound;		//error budget: the largest standard error of the beliefs
+	long timeBudget;		//time budget of one sampling in milliseconds, 0 means no limit
+	int numOfThreads;
+	int chunkSize;			//samples drawn by one thread in one round
+	long seed;
+	ExecutorService pool;
+	double[][] beliefSums;	//sum of the weights of the samples with node = state
+	double weightSum, weightSquareSum;
+	int numOfSamples;
+	boolean sampled;
+	double stdError;
+	Hashtable jointTables;	//normalized joint of each sampled query scope, keyed by its sorted node ids
+
+	/**
+	 * The sums of the samples drawn by one thread in one round, or by a whole sampling.
+	 */
+	static class Chunk {
+		int numOfSamples;
+		double[][] beliefSums;	//null when a joint query is sampled
+		double[] jointSums;		//sum of the weights of the samples in each entry of the joint query, null for the beliefs
+		double weightSum, weightSquareSum;
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param dn	network
+	 * @param maxNum	max number of samples of one sampling
+	 * @param error	max standard error of the beliefs
+	 * @param timeLimit	max milliseconds of one sampling, 0 means no limit
+	 * @param threads	number of sampling threads
+	 */
+	public LikelihoodWeighting(DiscreteNet dn, int maxNum, double error, long timeLimit, int threads) {
+		if (dn == null || maxNum <= 0 || error < 0 || timeLimit < 0 || threads <= 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.LikelihoodWeighting.java: Wrong network or budgets provided!");
+		}
+		else {
+			net = dn;
+			maxSamples = maxNum;
+			errorBound = error;
+			timeBudget = timeLimit;
+			numOfThreads = threads;
+			chunkSize = Math.max(1, Math.min(1000, maxNum / threads));
+			seed = 0;
+			sampled = false;
+			jointTables = new Hashtable();
+		}
+	}
+
+	/**
+	 * Sets the seed of the random generators, so that a sampling can be repeated.
+	 *
+	 * @param s	seed
+	 */
+	public void setSeed(long s) {
+		seed = s;
+		invalidate();
+	}
+
+	public DiscreteNet getNet() {
+		return net;
+	}
+
+	public void invalidate() {
+		sampled = false;
+		jointTables.clear();
+	}
+
+	/**
+	 * Stops the sampling threads. The engine can still be used, a new pool is started when needed.
+	 */
+	public void shutdown() {
+		if (pool != null) {
+			pool.shutdown();
+			pool = null;
+		}
+	}
+
+	/**
+	 * Draws samples for the beliefs until the error, sample or time budget is reached.
+	 */
+	private void sample() {
+		Chunk total = draw(null);
+		beliefSums = total.beliefSums;
+		weightSum = total.weightSum;
+		weightSquareSum = total.weightSquareSum;
+		numOfSamples = total.numOfSamples;
+		stdError = estimateStdError(total);
+		sampled = true;
+	}
+
+	/**
+	 * Draws samples in rounds until the error, sample or time budget is reached, and sums them.
+	 *
+	 * @param query	nodes of a joint query, null to sum the beliefs of all the nodes
+	 * @return	sums of all the samples drawn
+	 */
+	private Chunk draw(final int[] query) {
+		long deadline = timeBudget > 0 ? System.currentTimeMillis() + timeBudget : Long.MAX_VALUE;
+		if (pool == null) {
+			pool = Executors.newFixedThreadPool(numOfThreads, new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "LikelihoodWeighting");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		int n = net.getNumOfNodes();
+		Chunk total = newChunk(query);
+		int round = 0;
+		double error = Double.MAX_VALUE;
+		try {
+			do {
+				Vector tasks = new Vector();
+				for (int t = 0; t < numOfThreads; t++) {
+					final int size = Math.min(chunkSize, maxSamples - total.numOfSamples - t * chunkSize);
+					if (size <= 0)
+						break;
+					final Random random = new Random(seed + (long) round * numOfThreads + t);
+					tasks.addElement(new Callable() {
+						public Object call() {
+							return drawChunk(size, random, query);
+						}
+					});
+				}
+				List results = pool.invokeAll(tasks);
+				for (int t = 0; t < results.size(); t++) {
+					Chunk c = (Chunk) ((Future) results.get(t)).get();
+					total.numOfSamples += c.numOfSamples;
+					total.weightSum += c.weightSum;
+					total.weightSquareSum += c.weightSquareSum;
+					for (int i = 0; query == null && i < n; i++) {
+						for (int x = 0; x < total.beliefSums[i].length; x++)
+							total.beliefSums[i][x] += c.beliefSums[i][x];
+					}
+					for (int x = 0; query != null && x < total.jointSums.length; x++)
+						total.jointSums[x] += c.jointSums[x];
+				}
+				round++;
+				error = estimateStdError(total);
+			}
+			while (error > errorBound && total.numOfSamples < maxSamples && System.currentTimeMillis() < deadline);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+		}
+		return total;
+	}
+
+	/**
+	 * Makes an empty chunk.
+	 *
+	 * @param query	nodes of a joint query, null to sum the beliefs of all the nodes
+	 * @return	chunk
+	 */
+	private Chunk newChunk(int[] query) {
+		Chunk c = new Chunk();
+		if (query == null) {
+			c.beliefSums = new double[net.getNumOfNodes()][];
+			for (int i = 0; i < c.beliefSums.length; i++)
+				c.beliefSums[i] = new double[net.getNumOfStates(i)];
+		}
+		else {
+			int size = 1;
+			for (int i = 0; i < query.length; i++)
+				size *= net.getNumOfStates(query[i]);
+			c.jointSums = new double[size];
+		}
+		return c;
+	}
+
+	/**
+	 * Draws one chunk of weighted samples, in topological order, and sums them.
+	 *
+	 * @param size	number of samples
+	 * @param random	random generator of this thread
+	 * @param query	nodes of a joint query, null to sum the beliefs of all the nodes
+	 * @return	chunk
+	 */
+	private Chunk drawChunk(int size, Random random, int[] query) {
+		int n = net.getNumOfNodes();
+		int[] order = net.getTopologicalOrder();
+		int[] findings = net.getFindings();
+		Chunk c = newChunk(query);
+		c.numOfSamples = size;
+		int[] x = new int[n];
+		for (int s = 0; s < size; s++) {
+			double w = 1.0;
+			for (int i = 0; i < n; i++) {
+				int v = order[i];
+				if (net.getLogicFunction(v) != null) {
+					//an L-Node is a function of its parents, no table is read
+					int state = LogicFunction.stateOf(net.getLogicFunction(v), net.getParents(v), x);
+					if (findings[v] >= 0 && findings[v] != state)
+						w = 0.0;
+					x[v] = state;
+					continue;
+				}
+				int d = net.getNumOfStates(v);
+				int base = net.getRowIndexOf(v, x) * d;
+				double[] cpt = net.getCPT(v);
+				if (findings[v] >= 0) {
+					x[v] = findings[v];
+					w *= cpt[base + x[v]];
+				}
+				else {
+					double u = random.nextDouble();
+					int state = d - 1;
+					for (int k = 0; k < d - 1; k++) {
+						u -= cpt[base + k];
+						if (u < 0) {
+							state = k;
+							break;
+						}
+					}
+					x[v] = state;
+				}
+			}
+			c.weightSum += w;
+			c.weightSquareSum += w * w;
+			if (query == null) {
+				for (int v = 0; v < n; v++)
+					c.beliefSums[v][x[v]] += w;
+			}
+			else {
+				c.jointSums[getJointIndex(query, x)] += w;
+			}
+		}
+		return c;
+	}
+
+	/**
+	 * Gets the row-major index of the states of the query nodes in their joint table.
+	 *
+	 * @param query	nodes of a joint query
+	 * @param x	state of each node of the net
+	 * @return	index
+	 */
+	private int getJointIndex(int[] query, int[] x) {
+		int idx = 0;
+		for (int i = 0; i < query.length; i++)
+			idx = idx * net.getNumOfStates(query[i]) + x[query[i]];
+		return idx;
+	}
+
+	/**
+	 * Estimates the largest standard error of the beliefs of the nodes without findings,
+	 * or of the entries of the joint table when a joint query is sampled.
+	 *
+	 * @param total	sums of the samples
+	 * @return	standard error
+	 */
+	private double estimateStdError(Chunk total) {
+		double maxError = 0.0;
+		if (total.jointSums != null) {
+			for (int x = 0; x < total.jointSums.length; x++)
+				maxError = Math.max(maxError, estimateStdError(total, total.jointSums[x]));
+			return maxError;
+		}
+		for (int i = 0; i < total.beliefSums.length; i++) {
+			if (net.getFinding(i) < 0) {
+				for (int x = 0; x < total.beliefSums[i].length; x++)
+					maxError = Math.max(maxError, estimateStdError(total, total.beliefSums[i][x]));
+			}
+		}
+		return maxError;
+	}
+
+	/**
+	 * Estimates the standard error of one probability, sqrt(p(1-p)/ESS).
+	 *
+	 * @param total	sums of the samples
+	 * @param sum	sum of the weights of the samples counted in p
+	 * @return	standard error
+	 */
+	private double estimateStdError(Chunk total, double sum) {
+		if (total.weightSum <= 0)
+			return Double.MAX_VALUE;
+		double ess = total.weightSum * total.weightSum / total.weightSquareSum;
+		double p = sum / total.weightSum;
+		return Math.sqrt(p * (1 - p) / ess);
+	}
+
+	public double[] getBeliefs(int node) {
+		if (!sampled)
+			sample();
+		int d = net.getNumOfStates(node);
+		double[] b = new double[d];
+		for (int x = 0; x < d; x++)
+			b[x] = weightSum > 0 ? beliefSums[node][x] / weightSum : 1.0 / d;
+		return b;
+	}
+
+	public double getJointProbability(int[] nodes, int[] states) {
+		if (nodes == null || states == null || nodes.length != states.length) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.LikelihoodWeighting.java: Wrong query provided!");
+		}
+		if (nodes.length == 0)
+			return 1.0;
+		if (nodes.length == 1)
+			return getBeliefs(nodes[0])[states[0]];
+		//the scope is sorted, so that one table answers the queries of the same nodes in any order
+		int[] scope = (int[]) nodes.clone();
+		Arrays.sort(scope);
+		int[] x = new int[net.getNumOfNodes()];
+		for (int i = 0; i < nodes.length; i++)
+			x[nodes[i]] = states[i];
+		String key = Arrays.toString(scope);
+		double[] table = (double[]) jointTables.get(key);
+		if (table == null) {
+			//sampled on demand, the samples of the beliefs are not kept
+			Chunk total = draw(scope);
+			table = new double[total.jointSums.length];
+			for (int i = 0; i < table.length; i++)
+				table[i] = total.weightSum > 0 ? total.jointSums[i] / total.weightSum : 0.0;
+			jointTables.put(key, table);
+		}
+		return table[getJointIndex(scope, x)];
+	}
+
+
+	/**
+	 * Gets the number of samples drawn by the last sampling.
+	 *
+	 * @return	number of samples
+	 */
+	public int getNumOfSamples() {
+		return numOfSamples;
+	}
+
+	/**
+	 * Gets the estimated largest standard error of the beliefs after the last sampling.
+	 *
+	 * @return	standard error
+	 */
+	public double getStdError() {
+		return stdError;
+	}
+
+	/**
+	 * Whether the last sampling reached the error budget before the sample or time budget ran out.
+	 *
+	 * @return	true: within the error budget
+	 * 			false: stopped by the sample or time budget
+	 */
+	public boolean isConverged() {
+		return stdError <= errorBound;
+	}
+
+}
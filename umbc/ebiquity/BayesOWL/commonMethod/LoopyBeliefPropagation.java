@@ -0,0 +1,413 @@
+/**
+ * LoopyBeliefPropagation.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+
+package umbc.ebiquity.BayesOWL.commonMethod;
+
+import java.util.*;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+
+/**
+ * This class implements loopy belief propagation (sum-product on the factor graph of the CPTs)
+ * as an approximate inference backend, for networks Netica can not compile.<br>
+ * <br>
+ * Every node v gives one factor, P(v|parents of v). Messages are passed factor by factor in
+ * topological order until the largest change of a message is below the tolerance, or the
+ * iteration or time budget is used up. Messages are kept between propagations, so a
+ * propagation after a small CPT change (one D-IPFP step) starts from the previous fixed point.<br>
+ * <br>
+ * The joint probability of nodes inside one family is read from the factor belief; otherwise
+ * it is computed by the chain rule, P(y1,y2,...) = P(y1) * P(y2|y1) * ..., entering each
+ * state as a finding and propagating again.<br>
+ * <br>
+ * The messages are passed on the network with its L-Nodes expanded into chains of summary nodes
+ * (see DiscreteNet.expandLogicNodes()), so the factor of an L-Node is linear in its number of
+ * parents and no 2^k table is built. The CPTs of the other nodes are read from the network itself,
+ * so the changes made to it are seen after "invalidate".<br>
+ *
+ */
+public class LoopyBeliefPropagation implements InferenceEngine {
+	DiscreteNet net;
+	DiscreteNet model;		//the network the messages are passed on, with L-Nodes expanded
+	int maxIterations;		//iteration budget of one propagation
+	double tolerance;		//error budget: the largest change of a message at convergence
+	long timeBudget;		//time budget of one propagation in milliseconds, 0 means no limit
+	double damping;			//weight of the old message, 0 means no damping
+	int[][] scopes;			//scope of each factor: parents of the node, then the node
+	int[][][] adjacency;	//for each node, {factor, position in the scope} of each factor containing it
+	double[][][] msgVF;		//message from the k-th scope variable to factor f: msgVF[f][k]
+	double[][][] msgFV;		//message from factor f to its k-th scope variable: msgFV[f][k]
+	boolean propagated;
+	int iterationsUsed;
+	double residual;
+	boolean converged;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param dn	network
+	 * @param maxIter	max iterations of one propagation
+	 * @param tol	tolerance of the message changes
+	 * @param timeLimit	max milliseconds of one propagation, 0 means no limit
+	 */
+	public LoopyBeliefPropagation(DiscreteNet dn, int maxIter, double tol, long timeLimit) {
+		if (dn == null || maxIter <= 0 || tol < 0 || timeLimit < 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.LoopyBeliefPropagation.java: Wrong network or budgets provided!");
+		}
+		else {
+			net = dn;
+			maxIterations = maxIter;
+			tolerance = tol;
+			timeBudget = timeLimit;
+			damping = 0.0;
+			model = dn.hasLogicNodes() ? dn.expandLogicNodes() : dn;
+			buildFactorGraph();
+			reset();
+		}
+	}
+
+	/**
+	 * Builds the scopes of the factors and the node-factor adjacency.
+	 */
+	private void buildFactorGraph() {
+		int n = model.getNumOfNodes();
+		scopes = new int[n][];
+		int[] degree = new int[n];
+		for (int f = 0; f < n; f++) {
+			int[] parents = model.getParents(f);
+			scopes[f] = new int[parents.length + 1];
+			System.arraycopy(parents, 0, scopes[f], 0, parents.length);
+			scopes[f][parents.length] = f;
+			for (int k = 0; k < scopes[f].length; k++)
+				degree[scopes[f][k]]++;
+		}
+		adjacency = new int[n][][];
+		for (int v = 0; v < n; v++)
+			adjacency[v] = new int[degree[v]][];
+		int[] filled = new int[n];
+		for (int f = 0; f < n; f++) {
+			for (int k = 0; k < scopes[f].length; k++) {
+				int v = scopes[f][k];
+				adjacency[v][filled[v]++] = new int[]{f, k};
+			}
+		}
+	}
+
+	/**
+	 * Resets all the messages to uniform.
+	 */
+	public void reset() {
+		int n = model.getNumOfNodes();
+		msgVF = new double[n][][];
+		msgFV = new double[n][][];
+		for (int f = 0; f < n; f++) {
+			msgVF[f] = new double[scopes[f].length][];
+			msgFV[f] = new double[scopes[f].length][];
+			for (int k = 0; k < scopes[f].length; k++) {
+				int d = model.getNumOfStates(scopes[f][k]);
+				msgVF[f][k] = new double[d];
+				msgFV[f][k] = new double[d];
+				Arrays.fill(msgVF[f][k], 1.0 / d);
+				Arrays.fill(msgFV[f][k], 1.0 / d);
+			}
+		}
+		propagated = false;
+	}
+
+	/**
+	 * Sets the damping of the message updates.
+	 *
+	 * @param d	weight of the old message, in [0, 1)
+	 */
+	public void setDamping(double d) {
+		if (d < 0 || d >= 1) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.LoopyBeliefPropagation.java: Damping must be in [0, 1)!");
+		}
+		else {
+			damping = d;
+		}
+	}
+
+	public DiscreteNet getNet() {
+		return net;
+	}
+
+	public void invalidate() {
+		propagated = false;
+	}
+
+	/**
+	 * Passes messages until convergence or until a budget is used up.
+	 */
+	private void propagate() {
+		long deadline = timeBudget > 0 ? System.currentTimeMillis() + timeBudget : Long.MAX_VALUE;
+		int[] order = model.getTopologicalOrder();
+		int[] findings = new int[model.getNumOfNodes()];
+		Arrays.fill(findings, -1);	//no finding on the summary nodes
+		System.arraycopy(net.getFindings(), 0, findings, 0, net.getNumOfNodes());
+		converged = false;
+		iterationsUsed = 0;
+		do {
+			residual = 0.0;
+			for (int i = 0; i < order.length; i++)
+				residual = Math.max(residual, updateFactor(order[i], findings));
+			//and backwards, so evidence at the leaves reaches the roots in one iteration
+			for (int i = order.length - 1; i >= 0; --i)
+				residual = Math.max(residual, updateFactor(order[i], findings));
+			iterationsUsed++;
+			converged = residual <= tolerance;
+		}
+		while (!converged && iterationsUsed < maxIterations && System.currentTimeMillis() < deadline);
+		propagated = true;
+	}
+
+	/**
+	 * Recomputes the messages into and out of one factor.
+	 *
+	 * @param f	factor (node) id
+	 * @param findings	finding of each node
+	 * @return	largest change of the outgoing messages
+	 */
+	private double updateFactor(int f, int[] findings) {
+		int[] scope = scopes[f];
+		int s = scope.length;
+		// 1. messages from the scope variables into the factor
+		for (int k = 0; k < s; k++) {
+			int v = scope[k];
+			double[] m = msgVF[f][k];
+			int d = m.length;
+			for (int x = 0; x < d; x++)
+				m[x] = (findings[v] < 0 || findings[v] == x) ? 1.0 : 0.0;
+			int[][] adj = adjacency[v];
+			for (int a = 0; a < adj.length; a++) {
+				if (adj[a][0] != f) {
+					double[] in = msgFV[adj[a][0]][adj[a][1]];
+					for (int x = 0; x < d; x++)
+						m[x] *= in[x];
+				}
+			}
+			normalize(m);
+		}
+		// 2. messages from the factor out to the scope variables
+		double[][] out = new double[s][];
+		for (int k = 0; k < s; k++)
+			out[k] = new double[msgFV[f][k].length];
+		double[] cpt = getFactor(f);
+		int[] states = new int[s];
+		double[] prefix = new double[s + 1];
+		for (int e = 0; e < cpt.length; e++) {
+			if (cpt[e] > 0) {
+				//product of the incoming messages except the k-th one = prefix[k] * suffix
+				prefix[0] = 1.0;
+				for (int k = 0; k < s; k++)
+					prefix[k + 1] = prefix[k] * msgVF[f][k][states[k]];
+				double suffix = cpt[e];
+				for (int k = s - 1; k >= 0; --k) {
+					out[k][states[k]] += prefix[k] * suffix;
+					suffix *= msgVF[f][k][states[k]];
+				}
+			}
+			//next entry, the node state changes fastest, then the last parent
+			for (int k = s - 1; k >= 0; --k) {
+				if (++states[k] < msgVF[f][k].length)
+					break;
+				states[k] = 0;
+			}
+		}
+		double change = 0.0;
+		for (int k = 0; k < s; k++) {
+			normalize(out[k]);
+			double[] old = msgFV[f][k];
+			for (int x = 0; x < old.length; x++) {
+				double updated = damping * old[x] + (1 - damping) * out[k][x];
+				change = Math.max(change, Math.abs(updated - old[x]));
+				old[x] = updated;
+			}
+		}
+		return change;
+	}
+
+	/**
+	 * Gets the table of a factor: the CPT of a node of the network, or of an expanded L-Node
+	 * or summary node (at most 3 nodes each).
+	 *
+	 * @param f	factor id
+	 * @return	table, in the order of the factor's scope
+	 */
+	private double[] getFactor(int f) {
+		return f < net.getNumOfNodes() && net.getLogicFunction(f) == null ? net.getCPT(f) : model.getCPT(f);
+	}
+
+	/**
+	 * Normalizes a vector to sum 1; a vector of zeros (conflicting findings) becomes uniform.
+	 *
+	 * @param m	vector
+	 */
+	private static void normalize(double[] m) {
+		double sum = 0.0;
+		for (int x = 0; x < m.length; x++)
+			sum += m[x];
+		for (int x = 0; x < m.length; x++)
+			m[x] = sum > 0 ? m[x] / sum : 1.0 / m.length;
+	}
+
+	public double[] getBeliefs(int node) {
+		if (!propagated)
+			propagate();
+		int d = net.getNumOfStates(node);
+		double[] b = new double[d];
+		int finding = net.getFinding(node);
+		for (int x = 0; x < d; x++)
+			b[x] = (finding < 0 || finding == x) ? 1.0 : 0.0;
+		int[][] adj = adjacency[node];
+		for (int a = 0; a < adj.length; a++) {
+			double[] in = msgFV[adj[a][0]][adj[a][1]];
+			for (int x = 0; x < d; x++)
+				b[x] *= in[x];
+		}
+		normalize(b);
+		return b;
+	}
+
+	public double getJointProbability(int[] nodes, int[] states) {
+		if (nodes == null || states == null || nodes.length != states.length) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.LoopyBeliefPropagation.java: Wrong query provided!");
+		}
+		if (nodes.length == 0)
+			return 1.0;
+		if (nodes.length == 1)
+			return getBeliefs(nodes[0])[states[0]];
+		int f = findFamily(nodes);
+		if (f >= 0)
+			return getFamilyProbability(f, nodes, states);
+		//chain rule, entering the queried states one by one as findings
+		int[] saved = (int[]) net.getFindings().clone();
+		double p = 1.0;
+		for (int i = 0; i < nodes.length && p > 0; i++) {
+			int finding = net.getFinding(nodes[i]);
+			if (finding >= 0) {
+				if (finding != states[i])
+					p = 0.0;
+			}
+			else {
+				p *= getBeliefs(nodes[i])[states[i]];
+				net.setFinding(nodes[i], states[i]);
+				propagated = false;
+			}
+		}
+		for (int i = 0; i < saved.length; i++)
+			net.setFinding(i, saved[i]);
+		propagated = false;
+		return p;
+	}
+
+	/**
+	 * Finds a factor whose scope contains all the given nodes.
+	 *
+	 * @param nodes	node ids
+	 * @return	factor id, -1 if none
+	 */
+	private int findFamily(int[] nodes) {
+		int[][] adj = adjacency[nodes[0]];
+		for (int a = 0; a < adj.length; a++) {
+			int f = adj[a][0];
+			boolean contained = true;
+			for (int i = 1; i < nodes.length && contained; i++)
+				contained = positionInScope(f, nodes[i]) >= 0;
+			if (contained)
+				return f;
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the position of a node in the scope of a factor.
+	 *
+	 * @param f	factor id
+	 * @param node	node id
+	 * @return	position, -1 if the node is not in the scope
+	 */
+	private int positionInScope(int f, int node) {
+		for (int k = 0; k < scopes[f].length; k++) {
+			if (scopes[f][k] == node)
+				return k;
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the joint probability of nodes in the scope of one factor from the factor belief.
+	 *
+	 * @param f	factor id
+	 * @param nodes	node ids
+	 * @param states	state index of each node
+	 * @return	joint probability
+	 */
+	private double getFamilyProbability(int f, int[] nodes, int[] states) {
+		if (!propagated)
+			propagate();
+		int[] scope = scopes[f];
+		int s = scope.length;
+		int[] wanted = new int[s];
+		Arrays.fill(wanted, -1);
+		for (int i = 0; i < nodes.length; i++) {
+			int k = positionInScope(f, nodes[i]);
+			if (wanted[k] >= 0 && wanted[k] != states[i])
+				return 0.0;
+			wanted[k] = states[i];
+		}
+		double[] cpt = getFactor(f);
+		int[] st = new int[s];
+		double total = 0.0, match = 0.0;
+		for (int e = 0; e < cpt.length; e++) {
+			double b = cpt[e];
+			for (int k = 0; k < s && b > 0; k++)
+				b *= msgVF[f][k][st[k]];
+			total += b;
+			boolean matched = true;
+			for (int k = 0; k < s && matched; k++)
+				matched = wanted[k] < 0 || wanted[k] == st[k];
+			if (matched)
+				match += b;
+			for (int k = s - 1; k >= 0; --k) {
+				if (++st[k] < msgVF[f][k].length)
+					break;
+				st[k] = 0;
+			}
+		}
+		return total > 0 ? match / total : 0.0;
+	}
+
+	/**
+	 * Gets the number of iterations used by the last propagation.
+	 *
+	 * @return	number of iterations
+	 */
+	public int getIterationsUsed() {
+		return iterationsUsed;
+	}
+
+	/**
+	 * Gets the largest message change in the last iteration of the last propagation.
+	 *
+	 * @return	residual
+	 */
+	public double getResidual() {
+		return residual;
+	}
+
+	/**
+	 * Whether the last propagation converged within the tolerance before a budget ran out.
+	 *
+	 * @return	true: converged
+	 * 			false: stopped by the iteration or time budget
+	 */
+	public boolean isConverged() {
+		return converged;
+	}
+
+}
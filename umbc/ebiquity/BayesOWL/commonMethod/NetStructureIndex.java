@@ -0,0 +1,370 @@
+/**
+ * NetStructureIndex.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+
+package umbc.ebiquity.BayesOWL.commonMethod;
+
+import java.util.*;
+
+import norsys.netica.*;
+
+/**
+ * This class indexes the structure (DAG) of a given BBN once, so that structural questions are
+ * answered without walking the net through Netica again:<br>
+ * 	(1) node ids, in the order of net.getNodes(), and a name to id map;<br>
+ * 	(2) parent and children adjacency arrays;<br>
+ * 	(3) a topological order;<br>
+ * 	(4) the ancestors of every node, as a bitset.<br>
+ * <br>
+ * Indexes are shared: "getIndex(net)" returns the index of the net's current structure version.
+ * Whoever adds or removes nodes or links of a net must call "invalidate(net)" afterwards, which
+ * starts a new structure version. Loose and strict closures are cached per (variables, version),
+ * since D-IPFP asks for the same closures in every loop.<br>
+ *
+ */
+public class NetStructureIndex {
+	static WeakHashMap indexes = new WeakHashMap();	//key: Net, value: NetStructureIndex
+	static int numOfVersions = 0;
+
+	int version;			//structure version of this index
+	String[] names;			//node names, the index in this array is the node id
+	Hashtable name_idx_map;	//key: node name, value: node id
+	int[][] parents;
+	int[][] children;
+	int[] topoOrder;		//parents before children
+	BitSet[] ancestors;		//ancestors[v].get(u): u is an ancestor of v
+	Hashtable looseClosures;	//key: variable names, value: String[]
+	Hashtable strictClosures;	//key: variable names, value: String[][] {closure, updated variables}
+
+	/**
+	 * Gets the index of the current structure of a net, building it if needed.
+	 *
+	 * @param net	Bayesian Net
+	 * @return	structure index
+	 * @throws NeticaException
+	 */
+	public static synchronized NetStructureIndex getIndex(Net net) throws NeticaException {
+		NetStructureIndex index = (NetStructureIndex) indexes.get(net);
+		//a different number of nodes means the structure changed without invalidate()
+		if (index == null || index.names.length != net.getNodes().size()) {
+			index = new NetStructureIndex(net, ++numOfVersions);
+			indexes.put(net, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Tells that the structure of a net changed; the next "getIndex(net)" builds a new version.
+	 *
+	 * @param net	Bayesian Net
+	 */
+	public static synchronized void invalidate(Net net) {
+		indexes.remove(net);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param net	Bayesian Net
+	 * @param v	structure version
+	 * @throws NeticaException
+	 */
+	private NetStructureIndex(Net net, int v) throws NeticaException {
+		version = v;
+		NodeList nodes = net.getNodes();
+		int n = nodes.size();
+		names = new String[n];
+		name_idx_map = new Hashtable();
+		for (int i = 0; i < n; i++) {
+			names[i] = ((Node) nodes.elementAt(i)).getName();
+			name_idx_map.put(names[i], Integer.valueOf(i));
+		}
+		parents = new int[n][];
+		int[] numOfChildren = new int[n];
+		for (int i = 0; i < n; i++) {
+			NodeList nodeList = ((Node) nodes.elementAt(i)).getParents();
+			parents[i] = new int[nodeList.size()];
+			for (int j = 0; j < parents[i].length; j++) {
+				parents[i][j] = getNodeIndex(nodeList.getNode(j).getName());
+				numOfChildren[parents[i][j]]++;
+			}
+		}
+		children = new int[n][];
+		for (int i = 0; i < n; i++)
+			children[i] = new int[numOfChildren[i]];
+		int[] filled = new int[n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < parents[i].length; j++)
+				children[parents[i][j]][filled[parents[i][j]]++] = i;
+		}
+		//Kahn's algorithm, then the ancestors in topological order
+		topoOrder = new int[n];
+		int[] inDegree = new int[n];
+		int head = 0, tail = 0;
+		for (int i = 0; i < n; i++) {
+			inDegree[i] = parents[i].length;
+			if (inDegree[i] == 0)
+				topoOrder[tail++] = i;
+		}
+		while (head < tail) {
+			int u = topoOrder[head++];
+			for (int j = 0; j < children[u].length; j++) {
+				if (--inDegree[children[u][j]] == 0)
+					topoOrder[tail++] = children[u][j];
+			}
+		}
+		ancestors = new BitSet[n];
+		for (int i = 0; i < n; i++) {
+			int u = topoOrder[i];
+			ancestors[u] = new BitSet(n);
+			for (int j = 0; j < parents[u].length; j++) {
+				ancestors[u].set(parents[u][j]);
+				ancestors[u].or(ancestors[parents[u][j]]);
+			}
+		}
+		looseClosures = new Hashtable();
+		strictClosures = new Hashtable();
+	}
+
+	/**
+	 * Gets the structure version of this index.
+	 *
+	 * @return	version
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Gets the number of nodes.
+	 *
+	 * @return	number of nodes
+	 */
+	public int getNumOfNodes() {
+		return names.length;
+	}
+
+	/**
+	 * Gets the name of a node.
+	 *
+	 * @param node	node id
+	 * @return	node name
+	 */
+	public String getName(int node) {
+		return names[node];
+	}
+
+	/**
+	 * Gets the id of a node given its name.
+	 *
+	 * @param name	node name
+	 * @return	node id, -1 if there is no such node
+	 */
+	public int getNodeIndex(String name) {
+		Integer obj = (Integer) name_idx_map.get(name);
+		if (obj == null) {
+			return -1;
+		}
+		else {
+			return obj.intValue();
+		}
+	}
+
+	/**
+	 * Gets the parent ids of a node, in the net's order.
+	 *
+	 * @param node	node id
+	 * @return	parent ids
+	 */
+	public int[] getParents(int node) {
+		return parents[node];
+	}
+
+	/**
+	 * Gets the children ids of a node.
+	 *
+	 * @param node	node id
+	 * @return	children ids
+	 */
+	public int[] getChildren(int node) {
+		return children[node];
+	}
+
+	/**
+	 * Gets all node ids in a topological order (every parent before its children).
+	 *
+	 * @return	topological order
+	 */
+	public int[] getTopologicalOrder() {
+		return topoOrder;
+	}
+
+	/**
+	 * Gets the ancestors of a node. The returned bitset is the one stored, do not modify it.
+	 *
+	 * @param node	node id
+	 * @return	ancestors
+	 */
+	public BitSet getAncestors(int node) {
+		return ancestors[node];
+	}
+
+	/**
+	 * Test whether a given node is a descendant of another given node.
+	 *
+	 * @param descendant	descendant node id
+	 * @param ancestor	ancestor node id
+	 * @return	true: descendant is a descendant
+	 * 			false: otherwise
+	 */
+	public boolean isDescendant(int descendant, int ancestor) {
+		return ancestors[descendant].get(ancestor);
+	}
+
+	/**
+	 * Gets the ids of the given variables.
+	 *
+	 * @param vars	variable names
+	 * @return	node ids
+	 */
+	private int[] getNodeIndices(String[] vars) {
+		int[] ids = new int[vars.length];
+		for (int i = 0; i < vars.length; i++) {
+			ids[i] = getNodeIndex(vars[i]);
+			if (ids[i] < 0) {
+				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.NetStructureIndex.java: The BBN does not contain a node named " + vars[i] + " !");
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * Makes the cache key of a list of variables.
+	 *
+	 * @param vars	variable names
+	 * @return	key
+	 */
+	private static String keyOf(String[] vars) {
+		StringBuffer key = new StringBuffer();
+		for (int i = 0; i < vars.length; i++)
+			key.append(vars[i]).append('\n');
+		return key.toString();
+	}
+
+	/**
+	 * Gets the loose closure "S = {Pi(V1), ..., Pi(Vn)}\Y" of "Y = {V1, ..., Vn}", see RetrieveLooseClosure.
+	 *
+	 * @param vars	variable names
+	 * @return	closure, in the order the parents are first met
+	 */
+	public synchronized String[] getLooseClosure(String[] vars) {
+		String key = keyOf(vars);
+		String[] result = (String[]) looseClosures.get(key);
+		if (result == null) {
+			int[] ids = getNodeIndices(vars);
+			BitSet ys = new BitSet(names.length);
+			for (int i = 0; i < ids.length; i++)
+				ys.set(ids[i]);
+			BitSet inClosure = new BitSet(names.length);
+			Vector closure = new Vector();
+			for (int i = 0; i < ids.length; i++) {
+				for (int j = 0; j < parents[ids[i]].length; j++) {
+					int p = parents[ids[i]][j];
+					if (!ys.get(p) && !inClosure.get(p)) {
+						inClosure.set(p);
+						closure.addElement(names[p]);
+					}
+				}
+			}
+			result = new String[closure.size()];
+			closure.copyInto(result);
+			looseClosures.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the strict closure of "Y = {V1, ..., Vn}" and the updated variables, see RetrieveStrictClosure.
+	 *
+	 * @param vars	variable names
+	 * @return	{closure, updated variables}
+	 */
+	public synchronized String[][] getStrictClosure(String[] vars) {
+		String key = keyOf(vars);
+		String[][] result = (String[][]) strictClosures.get(key);
+		if (result == null) {
+			int n = names.length;
+			int[] ids = getNodeIndices(vars);
+			Vector updated = new Vector();	//Integer
+			BitSet inUpdated = new BitSet(n);
+			for (int i = 0; i < ids.length; i++) {
+				updated.addElement(Integer.valueOf(ids[i]));
+				inUpdated.set(ids[i]);
+			}
+			//the loose closure
+			Vector closure = new Vector();	//Integer
+			BitSet inClosure = new BitSet(n);
+			for (int i = 0; i < ids.length; i++) {
+				for (int j = 0; j < parents[ids[i]].length; j++) {
+					int p = parents[ids[i]][j];
+					if (!inClosure.get(p) && !inUpdated.get(p)) {
+						inClosure.set(p);
+						closure.addElement(Integer.valueOf(p));
+					}
+				}
+			}
+			//the strict closure: move every Si which is a descendant of a newly added Yi into Y
+			int[] newVars = (int[]) ids.clone();
+			do {
+				Vector newClosure = new Vector();
+				BitSet inNewClosure = new BitSet(n);
+				Vector newAddedVars = new Vector();
+				for (int i = 0; i < closure.size(); i++) {
+					int s = ((Integer) closure.get(i)).intValue();
+					boolean isDescendant = false;
+					for (int j = 0; j < newVars.length; j++) {
+						if (ancestors[s].get(newVars[j])) {
+							//Y = Y + Si
+							updated.addElement(Integer.valueOf(s));
+							inUpdated.set(s);
+							newAddedVars.addElement(Integer.valueOf(s));
+							//S = S - {Si} + Pi(Si)\Y
+							for (int k = 0; k < parents[s].length; k++) {
+								int sp = parents[s][k];
+								if (!(inClosure.get(sp) || inUpdated.get(sp) || inNewClosure.get(sp))) {
+									inNewClosure.set(sp);
+									newClosure.addElement(Integer.valueOf(sp));
+								}
+							}
+							isDescendant = true;
+							break;
+						}
+					}
+					if (!isDescendant) {
+						inNewClosure.set(s);
+						newClosure.addElement(Integer.valueOf(s));
+					}
+				}
+				closure = newClosure;
+				inClosure = inNewClosure;
+				newVars = new int[newAddedVars.size()];
+				for (int i = 0; i < newVars.length; i++)
+					newVars[i] = ((Integer) newAddedVars.get(i)).intValue();
+			}
+			while (newVars.length > 0);
+			result = new String[2][];
+			result[0] = new String[closure.size()];
+			for (int i = 0; i < result[0].length; i++)
+				result[0][i] = names[((Integer) closure.get(i)).intValue()];
+			result[1] = new String[updated.size()];
+			for (int i = 0; i < result[1].length; i++)
+				result[1][i] = names[((Integer) updated.get(i)).intValue()];
+			strictClosures.put(key, result);
+		}
+		return result;
+	}
+
+}
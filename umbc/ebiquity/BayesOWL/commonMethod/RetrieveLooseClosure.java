@@ -47,32 +47,19 @@ public class RetrieveLooseClosure {
 	}
 
 	/**
-	 * Retrieves the closure.
+	 * Retrieves the closure, from the structure index of the net (built once, cached per variables).
 	 */
 	private void retrieve() {
 		try {
-			//Gets the union set of Pi(Vi), with i from 1 to n, and no duplicates.
+			NetStructureIndex index = NetStructureIndex.getIndex(net);
 			for (int i=0; i<variables.length; i++) {
-				Node node = net.getNode(variables[i]);
-				if (node == null) {
+				if (index.getNodeIndex(variables[i]) < 0)
 					throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.RetrieveLooseClosure.java: The BBN does not contain a node named " + variables[i] + " !");
-				}
-				else {
-					NodeList nodeList = node.getParents();
-					int numOfParents = nodeList.size();
-					for (int j=0; j<numOfParents; j++) {
-						Node pnode = nodeList.getNode(j);
-						String pname = pnode.getName();
-						if (!closure.contains(pname))
-							closure.addElement(pname);
-					}
-				}
-			}
-			//Removes those variables in {Pi(Vi)} which are also in the set of provided variables.
-			for (int i=0; i<variables.length; i++) {
-				if (closure.contains(variables[i]))
-					closure.removeElement(variables[i]);
 			}
+			//Gets the union set of Pi(Vi), with i from 1 to n, no duplicates, without the provided variables.
+			String[] names = index.getLooseClosure(variables);
+			for (int i=0; i<names.length; i++)
+				closure.addElement(names[i]);
 		}
 		catch (NeticaException e) {
 			System.out.println("Class umbc.ebiquity.BayesOWL.commonMethod.RetrieveLooseClosure.java: Error occurs when trying to retrieve the loose closure of a given set of random variables!");
@@ -51,69 +51,22 @@ public class RetrieveStrictClosure {
 	}
 	
 	/**
-	 * Retrieves the closure.
+	 * Retrieves the closure, from the structure index of the net (built once, cached per variables).
 	 */
 	private void retrieve() {
 		try {
-			//Gets the loose closure.
+			NetStructureIndex index = NetStructureIndex.getIndex(net);
 			for (int i = 0; i < variables.length; i++) {
-				Node node = net.getNode(variables[i]);
-				if (node == null) {
+				if (index.getNodeIndex(variables[i]) < 0)
 					throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.commonMethod.RetrieveStrictClosure.java: The BBN does not contain a node named " + variables[i] + " !");
-				}
-				else {
-					NodeList nodeList = node.getParents();
-					int numOfParents = nodeList.size();
-					for (int j=0; j<numOfParents; j++) {
-						Node pnode = nodeList.getNode(j);
-						String pname = pnode.getName();
-						if (!(closure.contains(pname) || variablesUpdated.contains(pname)))
-							closure.addElement(pname);						
-					}
-				}
 			}
-			//Gets the strict closure.
-			Vector newVarsToBeProcessed = new Vector();
-			for (int i = 0; i < variables.length; i++)
-				newVarsToBeProcessed.addElement(variables[i]);
-			do {
-				Vector newClosureToBeProcessed = new Vector();
-				Vector newAddedVarsToBeProcessed = new Vector();
-				for (int i=0; i<closure.size(); i++) {
-					String sname = (String)closure.get(i);
-					boolean isDescendant = false;
-					for (int j=0; j<newVarsToBeProcessed.size(); j++) {
-						String yname = (String)newVarsToBeProcessed.get(j);
-						if (isDescendantInDAG(sname,yname)) {
-							//Y = Y + Si
-							variablesUpdated.addElement(sname);				
-							newAddedVarsToBeProcessed.addElement(sname);
-							//S = S - {Si} + Pi(Si)\Y
-							Node snode = net.getNode(sname);
-							NodeList snodeList = snode.getParents();
-							int numOfSParents = snodeList.size();
-							for (int k=0; k<numOfSParents; k++) {
-								Node spnode = snodeList.getNode(k);
-								String spname = spnode.getName();
-								if (!(closure.contains(spname) || variablesUpdated.contains(spname) || newClosureToBeProcessed.contains(spname)))
-									newClosureToBeProcessed.addElement(spname);
-							}
-							isDescendant = true;
-							break;
-						}
-					}
-					if (!isDescendant) {
-						newClosureToBeProcessed.addElement(sname);
-					}
-				}
-				closure.clear();
-				newVarsToBeProcessed.clear();
-				for (int i=0; i<newClosureToBeProcessed.size(); i++)
-					closure.addElement((String)newClosureToBeProcessed.get(i));
-				for (int i=0; i<newAddedVarsToBeProcessed.size(); i++)
-					newVarsToBeProcessed.addElement((String)newAddedVarsToBeProcessed.get(i));
-			}
-			while (newVarsToBeProcessed.size()>0);
+			//Gets the strict closure, descendants are tested against the ancestor bitsets.
+			String[][] result = index.getStrictClosure(variables);
+			for (int i = 0; i < result[0].length; i++)
+				closure.addElement(result[0][i]);
+			variablesUpdated.clear();
+			for (int i = 0; i < result[1].length; i++)
+				variablesUpdated.addElement(result[1][i]);
 		}
 		catch (NeticaException e) {
 			System.out.println("Class umbc.ebiquity.BayesOWL.commonMethod.RetrieveStrictClosure.java: " +
@@ -122,44 +75,6 @@ public class RetrieveStrictClosure {
 		}
 	}
 	
-	/**
-	 * Test whether a given variable node is a descendant of another given variable node in the corresponding Bayesian Belief Network.
-	 * 
-	 * @param descendant	desdendant node
-	 * @param ancestor	ancestor node
-	 * @return	true: descendant is a descendant
-	 * 			false: otherwise
-	 */
-	private boolean isDescendantInDAG(String descendant, String ancestor) {
-		try {
-			Node descendantNode = net.getNode(descendant);
-			NodeList parentNodeList = descendantNode.getParents();
-			int numOfParents = parentNodeList.size();
-			if (numOfParents == 0) {//no parents at all
-				return false;
-			}
-			else {
-				for (int i = 0; i < numOfParents; i++) {
-					Node pnode = parentNodeList.getNode(i);
-					String pname = pnode.getName();
-					if (ancestor.equals(pname)) {
-						return true;
-					}
-					else {
-						boolean isDescendant = isDescendantInDAG(pname,ancestor);
-						if (isDescendant) return true;
-					}
-				}
-				return false;
-			}
-		}
-		catch (NeticaException e) {
-			System.out.println("Class umbc.ebiquity.BayesOWL.commonMethod.RetrieveStrictClosure.java: Error occurs when trying to judge whether one node is an ancestor of another node in a given Bayesian Belief Networks!");
-			e.printStackTrace();	
-			return false;
-		}
-	}
-	
 	/**
 	 * Gets the variables in the closure.
 	 * 
@@ -4,17 +4,45 @@
  */
 package umbc.ebiquity.BayesOWL.constructor;
 
+import umbc.ebiquity.BayesOWL.commonDefine.DiscreteNet;
 import umbc.ebiquity.BayesOWL.commonDefine.ExNode;
+import umbc.ebiquity.BayesOWL.commonMethod.BN2DiscreteNet;
+import umbc.ebiquity.BayesOWL.commonMethod.CPTBatch;
+import java.util.Hashtable;
+import java.util.Vector;
 import norsys.netica.*;
 
 /**
  * BNConstructor is BayesOWL's structure constructor.<br>
  * It takes taxonomy parsing result as inputs (see constructBN method). 
+ * The parents can be given by names, or by node ids in compressed sparse
+ * rows, which builds the BN in time and memory linear in the number of links.<br>
+ * <br>
+ * A node with more parents than the max number of parents (see setMaxParents)
+ * is divorced from them: its parents are grouped under binary AND / OR gate
+ * nodes, in trees of at most that many parents per node, and the node gets
+ * the gates as parents:<br>
+ *  NORMALNODE, DISJOINT: AND(all parents)<br>
+ *  INTERSECTION: C0, AND(other parents)<br>
+ *  UNION: C0, OR(other parents)<br>
+ *  COMPLEMENT, EQUIVALENT: AND(all parents), OR(all parents)<br>
+ * (C0 is the first parent.) The gates are deterministic and the rules of
+ * InitializeCPT on the new parents give the same joint distribution of the
+ * original nodes, while no CPT has more than 2^maxParents rows.<br>
+ * <br>
+ * With more than one thread (see setNumOfThreads), the CPTs are computed
+ * in parallel without Netica (see ParallelCPTInitializer), and written into
+ * the net in one batch.
  * 
  */
 public class BNConstructor {
 	private Net net;
 	private ExNode[] exNode;
+	private int maxParents = Integer.MAX_VALUE;
+	private int numOfThreads = 1;
+	private boolean[] divorced;		// nodes whose parents are gates
+	private Vector gateNames;		// gate node names
+	private Vector gateKinds;		// Boolean, true for AND gates
 	
 	/**
 	 * Constructor.
@@ -23,6 +51,33 @@ public class BNConstructor {
 	public BNConstructor(){		
 	}
 	
+	/**
+	 * Set the max number of parents of one node; nodes with more parents
+	 * are divorced from them by gate nodes. Must be at least 2.
+	 * 
+	 * @param max	max number of parents, no limit by default
+	 */
+	public void setMaxParents(int max){
+		if(max < 2){
+			System.out.println("BNTranslator: WRONG MAX NUMBER OF PARENTS!!");
+		}else{
+			maxParents = max;
+		}
+	}
+	
+	/**
+	 * Set the number of threads computing the CPTs.
+	 * 
+	 * @param threads	number of threads, 1 by default
+	 */
+	public void setNumOfThreads(int threads){
+		if(threads < 1){
+			System.out.println("BNTranslator: WRONG NUMBER OF THREADS!!");
+		}else{
+			numOfThreads = threads;
+		}
+	}
+	
 	/**
 	 * Method to construct BN structure.
 	 * 
@@ -32,6 +87,49 @@ public class BNConstructor {
 	 */
 	public void constructBN(String[] nodeNames, ExNode.TAG[] tags, String[][] relationship){
 		if(nodeNames.length == tags.length && tags.length  == relationship.length){
+			// node ids of the parents, in compressed sparse rows
+			Hashtable ids = new Hashtable();
+			int numOfLinks = 0;
+			for(int i = 0; i < nodeNames.length; i++){
+				ids.put(nodeNames[i], Integer.valueOf(i));
+				numOfLinks += relationship[i].length;
+			}
+			int[] parentStart = new int[nodeNames.length + 1];
+			int[] parentIds = new int[numOfLinks];
+			for(int i = 0; i < relationship.length; i++){
+				parentStart[i + 1] = parentStart[i];
+				if(relationship[i].length > 0 && relationship[i][0] != null){
+					for(int j = 0; j < relationship[i].length; j++){
+						if(relationship[i][j] != null){
+							Integer id = (Integer)ids.get(relationship[i][j]);
+							if(id == null){
+								System.out.println("BNTranslator: UNKNOWN PARENT " + relationship[i][j] + " OF " + nodeNames[i] + "!!");
+							}else{
+								parentIds[parentStart[i + 1]++] = id.intValue();
+							}
+						}
+					}
+				}
+			}
+			constructBN(nodeNames, tags, parentStart, parentIds);
+		}else{
+			System.out.println("BNTranslator: WRONG INPUTS FOR TRANSLATING!!");
+		}
+	}
+	
+	/**
+	 * Method to construct BN structure in one pass, from node ids.
+	 * The parents of node i are parentIds[parentStart[i]], ...,
+	 * parentIds[parentStart[i + 1] - 1], in CPT order (compressed sparse rows).
+	 * 
+	 * @param nodeNames	String[]
+	 * @param tags	ExNode.TAG[]
+	 * @param parentStart	int[], one more than the number of nodes
+	 * @param parentIds	int[]
+	 */
+	public void constructBN(String[] nodeNames, ExNode.TAG[] tags, int[] parentStart, int[] parentIds){
+		if(nodeNames.length == tags.length && parentStart.length == nodeNames.length + 1
+				&& parentStart[nodeNames.length] <= parentIds.length){
 			try{
 				// create ExNode (with tags)
 				exNode = new ExNode[nodeNames.length]; 
@@ -39,11 +137,21 @@ public class BNConstructor {
 				
 				// create BN net
 				net = new Net();
-				createBNNodes(nodeNames);
-				addLinks(nodeNames, relationship);
-				for(int i = 0; i < exNode.length; i++){			
+				divorced = new boolean[nodeNames.length];
+				gateNames = new Vector();
+				gateKinds = new Vector();
+				Node[] nodes = createBNNodes(nodeNames);
+				addLinks(nodes, nodeNames, parentStart, parentIds);
+				if(numOfThreads > 1){
+					initializeCPTs(nodes);
+				}else{
 					InitializeCPT initCPT = new InitializeCPT();
-					initCPT.fillCPT(net, exNode[i]);
+					for(int i = 0; i < exNode.length; i++){			
+						initCPT.fillCPT(net, exNode[i]);
+					}
+					for(int i = 0; i < gateNames.size(); i++){
+						initCPT.fillGateCPT(net, (String)gateNames.get(i), ((Boolean)gateKinds.get(i)).booleanValue());
+					}
 				}
 				net.compile();
 				net.setAutoUpdate(1);
@@ -69,15 +177,18 @@ public class BNConstructor {
 	/**
 	 * Create BN nodes.
 	 * @param names	nodes name list
+	 * @return	nodes, in the order of the names
 	 */
-	private void createBNNodes(String[] names){
+	private Node[] createBNNodes(String[] names){
+		Node[] nodes = new Node[names.length];
 		try{
 			for(int i = 0; i < names.length; i++){
-				new Node(names[i], "True, False", net);
+				nodes[i] = new Node(names[i], "True, False", net);
 			}
 		}catch(NeticaException ne){
 			ne.printStackTrace();
 		}
+		return nodes;
 	}
 	
 	/**
@@ -90,21 +201,28 @@ public class BNConstructor {
 	
 	/**
 	 * Add links in BN.
+	 * @param nodes	nodes, by id
 	 * @param names	node name list
-	 * @param relations	parent-child relationship
+	 * @param parentStart	first parent of each node in parentIds
+	 * @param parentIds	parent ids
 	 */
-	private void addLinks(String[] names, String[][] relations){
+	private void addLinks(Node[] nodes, String[] names, int[] parentStart, int[] parentIds){
 		try{
-			for(int i = 0; i < relations.length; i++){
-				if(relations[i].length > 0){
-					if(relations[i][0] != null){
-						Node node = net.getNode(names[i]);
-						for(int j = 0; j < relations[i].length; j++){
-							if(relations[i][j] != null){
-								Node pNode = net.getNode(relations[i][j]);
-								node.addLink(pNode);
-							}
-						}
+			for(int i = 0; i < nodes.length; i++){
+				int numOfParents = parentStart[i + 1] - parentStart[i];
+				if(numOfParents > maxParents){
+					String[] parentNames = new String[numOfParents];
+					for(int j = 0; j < numOfParents; j++){
+						parentNames[j] = names[parentIds[parentStart[i] + j]];
+					}
+					parentNames = divorce(exNode[i].getNodeTag(), parentNames);
+					divorced[i] = true;
+					for(int j = 0; j < parentNames.length; j++){
+						nodes[i].addLink(net.getNode(parentNames[j]));
+					}
+				}else{
+					for(int j = parentStart[i]; j < parentStart[i + 1]; j++){
+						nodes[i].addLink(nodes[parentIds[j]]);
 					}
 				}
 			}
@@ -113,6 +231,102 @@ public class BNConstructor {
 		}
 	}
 	
+	/**
+	 * Compute the CPTs of all nodes (and gates) in parallel, write them
+	 * into the net in one batch, and set the L-Nodes as hard evidence.
+	 * @param nodes	nodes, by id
+	 * @throws NeticaException
+	 */
+	private void initializeCPTs(Node[] nodes) throws NeticaException{
+		int numOfNodes = nodes.length + gateNames.size();
+		Node[] allNodes = new Node[numOfNodes];
+		ExNode.TAG[] tags = new ExNode.TAG[numOfNodes];
+		boolean[] conjunctions = new boolean[numOfNodes];
+		int[] numOfParents = new int[numOfNodes];
+		for(int i = 0; i < nodes.length; i++){
+			allNodes[i] = nodes[i];
+			tags[i] = exNode[i].getNodeTag();
+		}
+		for(int i = 0; i < gateNames.size(); i++){
+			allNodes[nodes.length + i] = net.getNode((String)gateNames.get(i));
+			conjunctions[nodes.length + i] = ((Boolean)gateKinds.get(i)).booleanValue();
+		}
+		for(int i = 0; i < numOfNodes; i++){
+			numOfParents[i] = allNodes[i].getParents().size();
+		}
+		float[][] tables = new ParallelCPTInitializer(numOfThreads).computeCPTs(numOfParents, tags, conjunctions);
+		CPTBatch batch = new CPTBatch(net);
+		batch.beginBatch();
+		for(int i = 0; i < numOfNodes; i++){
+			batch.setCPT(allNodes[i], tables[i]);
+		}
+		batch.flush();
+		// set L-Node as hard evidence
+		for(int i = 0; i < nodes.length; i++){
+			if(tags[i] != ExNode.TAG.NORMALNODE){
+				nodes[i].enterFinding("True");
+			}
+		}
+	}
+	
+	/**
+	 * Get the new parents of a node divorced from its parents.
+	 * @param tag	node tag
+	 * @param parents	parent names
+	 * @return	new parent names
+	 * @throws NeticaException
+	 */
+	private String[] divorce(ExNode.TAG tag, String[] parents) throws NeticaException{
+		String[] others = new String[parents.length - 1];
+		System.arraycopy(parents, 1, others, 0, others.length);
+		switch(tag){
+		case INTERSECTION:
+			return new String[]{parents[0], addGates(others, true)};
+		case UNION:
+			return new String[]{parents[0], addGates(others, false)};
+		case COMPLEMENT:
+		case EQUIVALENT:
+			return new String[]{addGates(parents, true), addGates(parents, false)};
+		default:	// NORMALNODE, DISJOINT
+			return new String[]{addGates(parents, true)};
+		}
+	}
+	
+	/**
+	 * Add a tree of gates over some nodes, at most maxParents parents per gate.
+	 * @param inputs	node names
+	 * @param conjunction	true for AND gates, false for OR gates
+	 * @return	name of the root gate (the input itself if only one)
+	 * @throws NeticaException
+	 */
+	private String addGates(String[] inputs, boolean conjunction) throws NeticaException{
+		while(inputs.length > 1){
+			int numOfGroups = (inputs.length + maxParents - 1) / maxParents;
+			String[] outputs = new String[numOfGroups];
+			for(int g = 0; g < numOfGroups; g++){
+				int from = inputs.length * g / numOfGroups;
+				int to = inputs.length * (g + 1) / numOfGroups;
+				if(to - from == 1){
+					outputs[g] = inputs[from];
+				}else{
+					String name = (conjunction ? "AND_" : "OR_") + gateNames.size();
+					for(int k = 0; net.getNode(name) != null; k++){
+						name = (conjunction ? "AND_" : "OR_") + gateNames.size() + "_" + k;
+					}
+					Node gate = new Node(name, "True, False", net);
+					for(int j = from; j < to; j++){
+						gate.addLink(net.getNode(inputs[j]));
+					}
+					gateNames.add(name);
+					gateKinds.add(Boolean.valueOf(conjunction));
+					outputs[g] = name;
+				}
+			}
+			inputs = outputs;
+		}
+		return inputs[0];
+	}
+	
 	/**
 	 * Get constructed net.
 	 * 
@@ -122,6 +336,33 @@ public class BNConstructor {
 		return net;
 	}
 
+	/**
+	 * Get constructed net as a DiscreteNet, whose L-Nodes are logic functions
+	 * of their parents instead of tables (see LogicFunction). The L-Nodes
+	 * divorced from their parents keep their (small) tables.
+	 * 
+	 * @return	network
+	 */
+	public DiscreteNet getDiscreteNet(){
+		return new BN2DiscreteNet(net, getLogicNodes()).getDiscreteNet();
+	}
+
+	/**
+	 * Get the ExNodes whose CPTs are logic functions of their parents, i.e.
+	 * all but the L-Nodes divorced from their parents by gate nodes.
+	 * 
+	 * @return	ExNodes, for BN2DiscreteNet(net, nodes)
+	 */
+	public ExNode[] getLogicNodes(){
+		Vector functional = new Vector();
+		for(int i = 0; i < exNode.length; i++){
+			if(!divorced[i]){
+				functional.add(exNode[i]);
+			}
+		}
+		return (ExNode[])functional.toArray(new ExNode[functional.size()]);
+	}
+
 	/**
 	 * Save the BN net.
 	 * @param filePath	file path with file extension
@@ -9,6 +9,9 @@ package umbc.ebiquity.BayesOWL.constructor;
 import norsys.netica.*;
 import umbc.ebiquity.BayesOWL.coreAlgorithms.DIPFP;
 import umbc.ebiquity.BayesOWL.commonDefine.Constraint;
+import umbc.ebiquity.BayesOWL.commonDefine.ExNode;
+import umbc.ebiquity.BayesOWL.commonMethod.ArithmeticCircuit;
+import umbc.ebiquity.BayesOWL.commonMethod.BN2DiscreteNet;
 
 /**
  * CPTConstructor implements BayesOWL's Conditional Probability Table Constructor.<br>
@@ -62,6 +65,21 @@ public class CPTConstructor {
 		return net;
 	}
 	
+	/**
+	 * Compile result BN into an arithmetic circuit, for repeated queries
+	 * on the final net. Findings of the net (e.g. "True" on the logic nodes)
+	 * are the circuit's default findings. The given L-Nodes are compiled
+	 * from their logic functions, so that their factors stay linear in
+	 * their number of parents instead of dense tables.
+	 * 
+	 * @param nodes	L-Nodes whose CPTs are logic functions of their parents,
+	 * 				e.g. BNConstructor.getLogicNodes()
+	 * @return	arithmetic circuit
+	 */
+	public ArithmeticCircuit compileCircuit(ExNode[] nodes){
+		return new ArithmeticCircuit(new BN2DiscreteNet(net, nodes).getDiscreteNet());
+	}
+	
 	/**
 	 * Save result BN.
 	 * 
@@ -0,0 +1,428 @@
+/**
+ * IncrementalTranslator.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+package umbc.ebiquity.BayesOWL.constructor;
+
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.Vector;
+
+import umbc.ebiquity.BayesOWL.commonDefine.Constraint;
+import umbc.ebiquity.BayesOWL.commonDefine.ExNode;
+import umbc.ebiquity.BayesOWL.commonDefine.LocalConditionalConstraint;
+import umbc.ebiquity.BayesOWL.commonDefine.LocalMarginalConstraint;
+import umbc.ebiquity.BayesOWL.commonDefine.ConditionalConstraint;
+import umbc.ebiquity.BayesOWL.commonDefine.MarginalConstraint;
+import umbc.ebiquity.BayesOWL.commonMethod.NetStructureIndex;
+import umbc.ebiquity.BayesOWL.coreAlgorithms.ParallelDIPFP;
+import norsys.netica.*;
+
+/**
+ * IncrementalTranslator keeps a translated BN up to date when the source ontology changes.<br>
+ * The first call of translate builds the net with BNConstructor. The next calls diff the new
+ * taxonomy (e.g. from TaxoParser.getIndex()) against the previous one, and only patch the net:<br>
+ *  - C-Nodes are matched by name, L-Nodes by tag and parents, so that the renumbering of
+ * the L-Node names ("LNodeUnion_3") does not count as a change; matched L-Nodes are renamed;<br>
+ *  - unmatched old nodes are deleted, unmatched new nodes are added;<br>
+ *  - a node whose parents changed is relinked and its CPT initialized again (see InitializeCPT);<br>
+ *  - every other CPT, fitted or not, is kept.<br>
+ * <br>
+ * fit then runs D-IPFP (see ParallelDIPFP) only on the groups of interacting constraints
+ * touched by the changes since the last fit: the groups with a new or changed constraint,
+ * or with a constraint reading the CPT of a changed node. The nodes written by a removed
+ * constraint get their initial CPT back and count as changed.<br>
+ * Nodes are not divorced (see BNConstructor.setMaxParents).
+ *
+ */
+public class IncrementalTranslator {
+	private Net net;
+	private int numOfThreads = 1;
+	private String[] names;			// previous translation
+	private ExNode.TAG[] tags;
+	private String[][] parents;
+	private Hashtable changed = new Hashtable();	// names of the nodes changed since the last fit
+	private Hashtable fitted;		// Constraint by its string form, of the last fit
+	private Vector addedNodes = new Vector();	// names, by the last translate
+	private Vector removedNodes = new Vector();
+	private Vector relinkedNodes = new Vector();
+	private int numOfRefitted;
+	private long timeElapsed;
+
+	/**
+	 * Constructor.
+	 *
+	 */
+	public IncrementalTranslator(){
+	}
+
+	/**
+	 * Set the number of threads computing the CPTs of the first translation
+	 * and running the constraint groups.
+	 *
+	 * @param threads	number of threads, 1 by default
+	 */
+	public void setNumOfThreads(int threads){
+		if(threads < 1){
+			System.out.println("BNTranslator: WRONG NUMBER OF THREADS!!");
+		}else{
+			numOfThreads = threads;
+		}
+	}
+
+	/**
+	 * Translate a taxonomy: build the net the first time, patch it afterwards.
+	 * The parents of node i are parentIds[parentStart[i]], ..., parentIds[parentStart[i + 1] - 1].
+	 *
+	 * @param nodeNames	String[]
+	 * @param nodeTags	ExNode.TAG[]
+	 * @param parentStart	int[], one more than the number of nodes
+	 * @param parentIds	int[]
+	 */
+	public void translate(String[] nodeNames, ExNode.TAG[] nodeTags, int[] parentStart, int[] parentIds){
+		if(nodeNames.length != nodeTags.length || parentStart.length != nodeNames.length + 1
+				|| parentStart[nodeNames.length] > parentIds.length){
+			System.out.println("BNTranslator: WRONG INPUTS FOR TRANSLATING!!");
+			return;
+		}
+		long startTime = new Date().getTime();
+		String[][] nodeParents = new String[nodeNames.length][];
+		for(int i = 0; i < nodeNames.length; i++){
+			nodeParents[i] = new String[parentStart[i + 1] - parentStart[i]];
+			for(int j = 0; j < nodeParents[i].length; j++){
+				nodeParents[i][j] = nodeNames[parentIds[parentStart[i] + j]];
+			}
+		}
+		addedNodes = new Vector();
+		removedNodes = new Vector();
+		relinkedNodes = new Vector();
+		try{
+			if(net == null){
+				BNConstructor constructor = new BNConstructor();
+				constructor.setNumOfThreads(numOfThreads);
+				constructor.constructBN(nodeNames, nodeTags, parentStart, parentIds);
+				net = constructor.getNet();
+				for(int i = 0; i < nodeNames.length; i++){
+					addedNodes.add(nodeNames[i]);
+				}
+			}else{
+				patch(nodeNames, nodeTags, nodeParents);
+			}
+			for(int i = 0; i < addedNodes.size(); i++){
+				changed.put(addedNodes.get(i), Boolean.TRUE);
+			}
+			for(int i = 0; i < relinkedNodes.size(); i++){
+				changed.put(relinkedNodes.get(i), Boolean.TRUE);
+			}
+			names = nodeNames;
+			tags = nodeTags;
+			parents = nodeParents;
+		}catch(NeticaException ne){
+			ne.printStackTrace();
+		}
+		timeElapsed = new Date().getTime() - startTime;
+	}
+
+	/**
+	 * Diff the new taxonomy against the previous one and patch the net.
+	 *
+	 * @param nodeNames	new node names
+	 * @param nodeTags	new node tags
+	 * @param nodeParents	new parent names of each node
+	 * @throws NeticaException
+	 */
+	private void patch(String[] nodeNames, ExNode.TAG[] nodeTags, String[][] nodeParents) throws NeticaException{
+		// old nodes by key, in order (identical L-Nodes share a key)
+		Hashtable oldNodes = new Hashtable();
+		for(int i = 0; i < names.length; i++){
+			String key = getKey(names[i], tags[i], parents[i]);
+			Vector v = (Vector)oldNodes.get(key);
+			if(v == null){
+				v = new Vector();
+				oldNodes.put(key, v);
+			}
+			v.add(Integer.valueOf(i));
+		}
+		int[] match = new int[nodeNames.length];		// old node of each new node, -1 if none
+		boolean[] kept = new boolean[names.length];
+		for(int i = 0; i < nodeNames.length; i++){
+			Vector v = (Vector)oldNodes.get(getKey(nodeNames[i], nodeTags[i], nodeParents[i]));
+			if(v == null || v.isEmpty()){
+				match[i] = -1;
+			}else{
+				match[i] = ((Integer)v.remove(0)).intValue();
+				kept[match[i]] = true;
+			}
+		}
+
+		net.retractFindings();
+		// delete the old nodes not matched
+		Hashtable renamed = new Hashtable();
+		for(int i = 0; i < names.length; i++){
+			if(!kept[i]){
+				net.getNode(names[i]).delete();
+				removedNodes.add(names[i]);
+				changed.remove(names[i]);
+			}
+		}
+		// rename the matched nodes, through temporary names as new and old names may swap
+		Vector moves = new Vector();
+		for(int i = 0; i < nodeNames.length; i++){
+			if(match[i] >= 0 && !names[match[i]].equals(nodeNames[i])){
+				String temp = "T_" + i;
+				for(int k = 0; net.getNode(temp) != null; k++){
+					temp = "T_" + i + "_" + k;
+				}
+				net.getNode(names[match[i]]).setName(temp);
+				moves.add(new String[]{temp, nodeNames[i], names[match[i]]});
+			}
+		}
+		for(int k = 0; k < moves.size(); k++){
+			String[] move = (String[])moves.get(k);
+			net.getNode(move[0]).setName(move[1]);
+			renamed.put(move[2], move[1]);
+		}
+		Hashtable changedBefore = changed;
+		changed = new Hashtable();
+		for(Enumeration e = changedBefore.keys(); e.hasMoreElements();){
+			String name = (String)e.nextElement();
+			changed.put(renamed.containsKey(name) ? renamed.get(name) : name, Boolean.TRUE);
+		}
+		// add the new nodes
+		for(int i = 0; i < nodeNames.length; i++){
+			if(match[i] < 0){
+				new Node(nodeNames[i], "True, False", net);
+				addedNodes.add(nodeNames[i]);
+			}
+		}
+		// relink the new nodes and the nodes whose parents changed, and initialize their CPTs
+		InitializeCPT initCPT = new InitializeCPT();
+		for(int i = 0; i < nodeNames.length; i++){
+			Node node = net.getNode(nodeNames[i]);
+			if(match[i] < 0 || !sameParents(node, nodeParents[i])){
+				while(node.getParents().size() > 0){
+					node.deleteLink(0);
+				}
+				for(int j = 0; j < nodeParents[i].length; j++){
+					node.addLink(net.getNode(nodeParents[i][j]));
+				}
+				initCPT.fillCPT(net, new ExNode(nodeNames[i], nodeTags[i]));
+				if(match[i] >= 0){
+					relinkedNodes.add(nodeNames[i]);
+				}
+			}else if(nodeTags[i] != ExNode.TAG.NORMALNODE){
+				// set L-Node as hard evidence (done by fillCPT for the others)
+				node.enterFinding("True");
+			}
+		}
+		net.compile();
+		NetStructureIndex.invalidate(net);
+	}
+
+	/**
+	 * Get the matching key of a node: its name for a C-Node, its tag and
+	 * parents for an L-Node.
+	 *
+	 * @param name	node name
+	 * @param tag	node tag
+	 * @param nodeParents	parent names
+	 * @return	key
+	 */
+	private static String getKey(String name, ExNode.TAG tag, String[] nodeParents){
+		if(tag == ExNode.TAG.NORMALNODE){
+			return name;
+		}
+		StringBuffer key = new StringBuffer(tag.toString()).append('(');
+		for(int j = 0; j < nodeParents.length; j++){
+			key.append(j == 0 ? "" : ",").append(nodeParents[j]);
+		}
+		return key.append(')').toString();
+	}
+
+	/**
+	 * Tell if a node has the given parents, in this order.
+	 *
+	 * @param node	node
+	 * @param nodeParents	parent names
+	 * @return	true if same parents
+	 * @throws NeticaException
+	 */
+	private static boolean sameParents(Node node, String[] nodeParents) throws NeticaException{
+		NodeList current = node.getParents();
+		if(current.size() != nodeParents.length){
+			return false;
+		}
+		for(int j = 0; j < nodeParents.length; j++){
+			if(!((Node)current.get(j)).getName().equals(nodeParents[j])){
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Fit the net to the constraints: all of them the first time, afterwards only
+	 * the groups of constraints touched by the changes since the last fit.
+	 *
+	 * @param constraints	all the constraints
+	 * @param maxLoops	algorithm max iteration steps
+	 * @param threshold	threshold
+	 */
+	public void fit(Constraint[] constraints, int maxLoops, double threshold){
+		if(net == null || constraints == null || constraints.length < 1){
+			System.out.println("BNTranslator: WRONG INPUTS FOR FITTING!!");
+			return;
+		}
+		long startTime = new Date().getTime();
+		try{
+			Hashtable current = new Hashtable();
+			boolean[] changedConstraints = new boolean[constraints.length];
+			for(int j = 0; j < constraints.length; j++){
+				String key = constraints[j].toString();
+				current.put(key, constraints[j]);
+				changedConstraints[j] = fitted == null || !fitted.containsKey(key);
+			}
+			if(fitted != null){
+				// nodes written by removed constraints get their initial CPTs back
+				resetWrittenNodes(current);
+			}
+			ParallelDIPFP dipfp = new ParallelDIPFP(net, constraints, numOfThreads);
+			if(fitted == null){
+				dipfp.run(maxLoops, threshold);
+			}else{
+				String[] changedNodes = new String[changed.size()];
+				int k = 0;
+				for(Enumeration e = changed.keys(); e.hasMoreElements();){
+					changedNodes[k++] = (String)e.nextElement();
+				}
+				dipfp.run(maxLoops, threshold, changedNodes, changedConstraints);
+			}
+			numOfRefitted = dipfp.getNumOfPartitions();
+			fitted = current;
+			changed = new Hashtable();
+		}catch(NeticaException ne){
+			ne.printStackTrace();
+		}
+		timeElapsed = new Date().getTime() - startTime;
+	}
+
+	/**
+	 * Initialize again the CPTs of the nodes written by the constraints of the last fit
+	 * which are not in the current ones, and mark the nodes as changed.
+	 *
+	 * @param current	current constraints by string form
+	 * @throws NeticaException
+	 */
+	private void resetWrittenNodes(Hashtable current) throws NeticaException{
+		InitializeCPT initCPT = new InitializeCPT();
+		boolean reset = false;
+		Hashtable logicNodes = null;	// names of the L-Nodes, built if needed
+		for(Enumeration e = fitted.keys(); e.hasMoreElements();){
+			String key = (String)e.nextElement();
+			if(current.containsKey(key)){
+				continue;
+			}
+			String[] written = getWrittenNodes((Constraint)fitted.get(key));
+			for(int i = 0; i < written.length; i++){
+				Node node = net.getNode(written[i]);
+				if(node != null && !changed.containsKey(written[i])){
+					if(logicNodes == null){
+						logicNodes = new Hashtable();
+						for(int k = 0; k < names.length; k++){
+							if(tags[k] != ExNode.TAG.NORMALNODE){
+								logicNodes.put(names[k], tags[k]);
+							}
+						}
+					}
+					if(logicNodes.containsKey(written[i])){
+						// the CPT of an L-Node is never fitted
+						continue;
+					}
+					initCPT.fillCPT(net, new ExNode(written[i], ExNode.TAG.NORMALNODE));
+					changed.put(written[i], Boolean.TRUE);
+					reset = true;
+				}
+			}
+		}
+		if(reset){
+			net.compile();
+		}
+	}
+
+	/**
+	 * Get the nodes whose CPTs a constraint writes: the concept of a local
+	 * constraint, all the variables of another one (see ParallelDIPFP).
+	 *
+	 * @param constraint	constraint
+	 * @return	node names
+	 */
+	private static String[] getWrittenNodes(Constraint constraint){
+		if(constraint instanceof LocalMarginalConstraint){
+			return new String[]{((LocalMarginalConstraint)constraint).getConceptName()};
+		}else if(constraint instanceof LocalConditionalConstraint){
+			return new String[]{((LocalConditionalConstraint)constraint).getConceptName()};
+		}else if(constraint instanceof MarginalConstraint){
+			return ((MarginalConstraint)constraint).getVariableNames();
+		}else if(constraint instanceof ConditionalConstraint){
+			return ((ConditionalConstraint)constraint).getVariableNames();
+		}
+		return new String[0];
+	}
+
+	/**
+	 * Get the net.
+	 *
+	 * @return	BN net
+	 */
+	public Net getNet(){
+		return net;
+	}
+
+	/**
+	 * Get the nodes added by the last translate.
+	 *
+	 * @return	node names
+	 */
+	public String[] getAddedNodes(){
+		return (String[])addedNodes.toArray(new String[addedNodes.size()]);
+	}
+
+	/**
+	 * Get the nodes removed by the last translate.
+	 *
+	 * @return	node names
+	 */
+	public String[] getRemovedNodes(){
+		return (String[])removedNodes.toArray(new String[removedNodes.size()]);
+	}
+
+	/**
+	 * Get the nodes relinked by the last translate.
+	 *
+	 * @return	node names
+	 */
+	public String[] getRelinkedNodes(){
+		return (String[])relinkedNodes.toArray(new String[relinkedNodes.size()]);
+	}
+
+	/**
+	 * Get the number of constraint groups run by the last fit.
+	 *
+	 * @return	number of groups
+	 */
+	public int getNumOfRefitted(){
+		return numOfRefitted;
+	}
+
+	/**
+	 * Get the time of the last translate or fit.
+	 *
+	 * @return	time in milliseconds
+	 */
+	public long getExecTime(){
+		return timeElapsed;
+	}
+}
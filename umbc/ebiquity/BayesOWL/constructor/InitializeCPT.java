@@ -6,6 +6,7 @@
 package umbc.ebiquity.BayesOWL.constructor;
 
 import umbc.ebiquity.BayesOWL.commonDefine.ExNode;
+import umbc.ebiquity.BayesOWL.commonDefine.LogicFunction;
 import norsys.netica.*;
 import norsys.neticaEx.NodeListEx;
 
@@ -45,6 +46,90 @@ public class InitializeCPT {
 		}
 	}
 	
+	/**
+	 * This method fill the CPT of a gate node (inserted by BNConstructor when
+	 * divorcing parents): an AND gate is true iff all its parents are true,
+	 * an OR gate is true iff any of its parents is true.
+	 * 
+	 * @param net
+	 * @param name	gate node name
+	 * @param conjunction	true for an AND gate, false for an OR gate
+	 * @throws NeticaException
+	 */
+	public void fillGateCPT(Net net, String name, boolean conjunction) throws NeticaException{
+		Node node = net.getNode(name);
+		NodeList parentNodes = node.getParents();
+		int[] parentStates = new int[parentNodes.size()];
+		while(true){
+			// state 0 is True
+			boolean allTrue = true, anyTrue = false;
+			for(int j = 0; j < parentStates.length; j++){
+				allTrue = allTrue && parentStates[j] == 0;
+				anyTrue = anyTrue || parentStates[j] == 0;
+			}
+			boolean value = conjunction ? allTrue : anyTrue;
+			node.setCPTable(parentStates, value ? new float[]{1.0f, 0.0f} : new float[]{0.0f, 1.0f});
+			if(NodeListEx.nextStates(parentStates, parentNodes))
+				break;
+		}
+	}
+	
+	/**
+	 * Compute the CPT of a node without the net, with the same rules as
+	 * fillCPT. The table is in row-major order: row 0 is all parents True,
+	 * the last parent changes fastest (see CPTBatch.setCPT).
+	 * Safe to call from several threads, each with its own buffer.
+	 * 
+	 * @param tag	node tag
+	 * @param numOfParents	number of (binary) parents
+	 * @param parentStates	buffer of at least numOfParents entries
+	 * @param table	result, 2^(numOfParents + 1) values
+	 */
+	public void computeCPT(ExNode.TAG tag, int numOfParents, int[] parentStates, float[] table){
+		int numOfRows = table.length / 2;
+		for(int row = 0; row < numOfRows; row++){
+			int state;
+			if(tag == ExNode.TAG.NORMALNODE){
+				if(row == 0){
+					table[0] = 0.5f;
+					table[1] = 0.5f;
+					continue;
+				}
+				state = LogicFunction.FALSE;
+			}else if(numOfParents == 0){
+				// all (no) parents are both true and false
+				state = tag == ExNode.TAG.EQUIVALENT ? LogicFunction.TRUE : LogicFunction.FALSE;
+			}else{
+				for(int j = 0; j < numOfParents; j++){
+					parentStates[j] = (row >> (numOfParents - 1 - j)) & 1;
+				}
+				int summary = LogicFunction.EMPTY;
+				for(int j = 1; j < numOfParents; j++){
+					summary = LogicFunction.summarize(summary, parentStates[j]);
+				}
+				state = LogicFunction.stateOf(tag, parentStates[0], summary);
+			}
+			table[row * 2 + state] = 1.0f;
+			table[row * 2 + 1 - state] = 0.0f;
+		}
+	}
+	
+	/**
+	 * Compute the CPT of a gate node without the net, in the order of computeCPT.
+	 * 
+	 * @param conjunction	true for an AND gate, false for an OR gate
+	 * @param table	result, 2^(numOfParents + 1) values
+	 */
+	public void computeGateCPT(boolean conjunction, float[] table){
+		int numOfRows = table.length / 2;
+		for(int row = 0; row < numOfRows; row++){
+			// row 0: all parents true, last row: all parents false
+			boolean value = conjunction ? row == 0 : row != numOfRows - 1;
+			table[row * 2] = value ? 1.0f : 0.0f;
+			table[row * 2 + 1] = value ? 0.0f : 1.0f;
+		}
+	}
+	
 	/**
 	 * Compute CPTable for all nodes in BN net.
 	 * @param oNode	ExNode
@@ -0,0 +1,135 @@
+/**
+ * ParallelCPTInitializer.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+package umbc.ebiquity.BayesOWL.constructor;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import umbc.ebiquity.BayesOWL.commonDefine.ExNode;
+
+/**
+ * ParallelCPTInitializer computes the initial CPTs of all the nodes of a
+ * BN structure at once, with the rules of InitializeCPT.<br>
+ * Every node's table only depends on its tag and its number of parents,
+ * so the nodes are shared out among threads, in blocks taken from a shared
+ * counter. Each thread reuses one InitializeCPT and one parent state buffer.
+ * Netica is not touched: the tables are committed afterwards in one batch
+ * (see CPTBatch.setCPT).
+ *
+ */
+public class ParallelCPTInitializer {
+	static final int NODES_PER_TASK = 64;
+
+	private int numOfThreads;
+	private long timeElapsed;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param threads	number of threads
+	 */
+	public ParallelCPTInitializer(int threads){
+		if(threads <= 0){
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.constructor.ParallelCPTInitializer.java: Wrong number of threads provided!");
+		}
+		numOfThreads = threads;
+	}
+
+	/**
+	 * Compute the CPTs of all the nodes (binary nodes with binary parents).
+	 *
+	 * @param numOfParents	number of parents of each node
+	 * @param tags	tag of each node, null for a gate node
+	 * @param conjunctions	for each gate node, true for AND, false for OR; may be null if no gate
+	 * @return	CPT of each node, in the order of InitializeCPT.computeCPT
+	 */
+	public float[][] computeCPTs(final int[] numOfParents, final ExNode.TAG[] tags, final boolean[] conjunctions){
+		if(numOfParents == null || tags == null || tags.length != numOfParents.length){
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.constructor.ParallelCPTInitializer.java: Wrong nodes provided!");
+		}
+		long startTime = new Date().getTime();
+		final float[][] tables = new float[numOfParents.length][];
+		final int[] next = new int[]{0};	// next node to take, shared by the threads
+		int threads = Math.max(1, Math.min(numOfThreads, (numOfParents.length + NODES_PER_TASK - 1) / NODES_PER_TASK));
+		if(threads == 1){
+			computeNodes(numOfParents, tags, conjunctions, tables, next);
+		}else{
+			ExecutorService pool = Executors.newFixedThreadPool(threads);
+			try{
+				Vector tasks = new Vector();
+				for(int t = 0; t < threads; t++){
+					tasks.addElement(new Callable(){
+						public Object call(){
+							computeNodes(numOfParents, tags, conjunctions, tables, next);
+							return null;
+						}
+					});
+				}
+				List futures = pool.invokeAll(tasks);
+				for(int t = 0; t < futures.size(); t++){
+					((Future)futures.get(t)).get();
+				}
+			}catch(Exception e){
+				e.printStackTrace();
+			}finally{
+				pool.shutdown();
+			}
+		}
+		timeElapsed = new Date().getTime() - startTime;
+		return tables;
+	}
+
+	/**
+	 * Compute the CPTs of the nodes taken one block at a time from the shared counter.
+	 *
+	 * @param numOfParents	number of parents of each node
+	 * @param tags	tag of each node, null for a gate node
+	 * @param conjunctions	kind of each gate node
+	 * @param tables	CPT of each node, filled
+	 * @param next	shared counter of the next node
+	 */
+	private void computeNodes(int[] numOfParents, ExNode.TAG[] tags, boolean[] conjunctions, float[][] tables, int[] next){
+		InitializeCPT initCPT = new InitializeCPT();
+		int[] parentStates = new int[0];
+		while(true){
+			int start;
+			synchronized(next){
+				start = next[0];
+				next[0] += NODES_PER_TASK;
+			}
+			if(start >= tables.length){
+				break;
+			}
+			int end = Math.min(tables.length, start + NODES_PER_TASK);
+			for(int v = start; v < end; v++){
+				if(numOfParents[v] > parentStates.length){
+					parentStates = new int[numOfParents[v]];
+				}
+				tables[v] = new float[2 << numOfParents[v]];
+				if(tags[v] == null){
+					initCPT.computeGateCPT(conjunctions[v], tables[v]);
+				}else{
+					initCPT.computeCPT(tags[v], numOfParents[v], parentStates, tables[v]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the time of the last computeCPTs.
+	 *
+	 * @return	time in milliseconds
+	 */
+	public long getExecTime(){
+		return timeElapsed;
+	}
+}
@@ -30,6 +30,7 @@ public class CIPFP {
 	ProbDistribution[] R;			//the given constraints, in the form of either {R(Si)} when Li is empty; or {R(Si|Li)} when Li is not empty
 	long timeElapsed;
 	int loopsUsed;
+	FeasibilityAnalyzer analyzer;	//checks the constraints before fitting, null if none
 	
 	/**
 	 * Constructor.
@@ -49,6 +50,16 @@ public class CIPFP {
 		}
 	}
 	
+	/**
+	 * Sets an analyzer (e.g. FeasibilityAnalyzer(q), with the initial distribution) to check the
+	 * marginal and conditional constraints first: "run" then fails at once with the conflicting ones.
+	 * 
+	 * @param a	feasibility analyzer, null for no check
+	 */
+	public void setFeasibilityAnalyzer(FeasibilityAnalyzer a) {
+		analyzer = a;
+	}
+
 	/**
 	 * The loop process of conditional iterative proportional fitting procedure (CIPFP).
 	 * 
@@ -56,6 +67,8 @@ public class CIPFP {
 	 * @param threshold if the difference between two iterations is smaller than the threshold we think the algorithm converges.
 	 */
 	public void run (int maxLoops, double threshold) {
+		if (analyzer != null)
+			analyzer.check(R);
 		// trace the time
 		Date startDate = new Date();
 		long startTime = startDate.getTime();
@@ -0,0 +1,648 @@
+/**
+ * ConstraintPreprocessor.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+
+package umbc.ebiquity.BayesOWL.coreAlgorithms;
+
+import java.util.*;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+import umbc.ebiquity.BayesOWL.commonMethod.*;
+
+import norsys.netica.*;
+
+/**
+ * This class reduces a set of constraints before it is fitted (by DIPFP, ParallelDIPFP, ...),
+ * so that fewer single-constraint steps are run in every sweep.<br>
+ * <br>
+ * Every constraint is first put in a canonical form: its variables sorted by name (condition
+ * variables first for a conditional constraint), and its table in the row-major order of the sorted
+ * variables. Two constraints have the same scope when they have the same variables, with the same
+ * states. Then, in this order:<br>
+ * 	(1) duplicates: a constraint with the same scope and the same table as an earlier one is dropped;<br>
+ * 	(2) joins, only if set by setJoinConstraints: a conditional constraint R(Y|X) and a marginal
+ * 		constraint R(X) on the same X are merged into one non-local marginal constraint
+ * 		R(X,Y) = R(X) * R(Y|X), which holds iff both hold;<br>
+ * 	(3) implied constraints: a constraint whose table is the marginal (or conditional) of the table of
+ * 		a marginal constraint on a larger scope is dropped;<br>
+ * 	(4) satisfied constraints: a constraint already satisfied by the initial CPTs is dropped, if no
+ * 		kept constraint writes the CPT of a node its queries read (the nodes of its scope, the findings,
+ * 		and all their ancestors), so that its step would change nothing in any sweep.<br>
+ * Conflicting constraints (same scope, different tables) are all kept.<br>
+ * The kept constraints are returned in the order of their first appearance.<br>
+ *
+ */
+public class ConstraintPreprocessor {
+	DiscreteNet dn;
+	InferenceEngine engine;
+	double tolerance = 1e-6;
+	boolean joinConstraints = false;
+	int maxScopeSize = 12;	//implied constraints are looked for in the subsets of scopes up to this size
+	int numOfDuplicates;
+	int numOfJoined;
+	int numOfImplied;
+	int numOfSatisfied;
+	long timeElapsed;
+
+	/**
+	 * A constraint in canonical form.
+	 */
+	static class Item {
+		Constraint constraint;
+		RandomVariable[] prior;	//sorted by name
+		RandomVariable[] cond;	//sorted by name, empty for a marginal constraint
+		double[] table;			//row-major over cond, then prior
+		String scopeKey;		//all the variables, sorted, with their states
+		String key;				//scopeKey, with the condition variables marked
+		boolean dropped;
+	}
+
+	/**
+	 * Constructor - 1:
+	 * Takes the network with its initial CPTs and findings, e.g. from BN2DiscreteNet.
+	 *
+	 * @param dn	network, null to skip the satisfied constraints stage
+	 */
+	public ConstraintPreprocessor(DiscreteNet dn) {
+		this.dn = dn;
+	}
+
+	/**
+	 * Constructor - 2:
+	 * Takes a BN built by BNConstructor, with its initial CPTs, and the tags of its nodes.
+	 *
+	 * @param bbn	Bayesian Net
+	 * @param exNodes	tagged nodes, e.g. BNConstructor.getNodes()
+	 */
+	public ConstraintPreprocessor(Net bbn, ExNode[] exNodes) {
+		this(new BN2DiscreteNet(bbn, exNodes).getDiscreteNet());
+	}
+
+	/**
+	 * Sets the engine answering the queries of the satisfied constraints stage, a JunctionTree
+	 * of the network by default.
+	 *
+	 * @param e	inference engine on the network
+	 */
+	public void setInferenceEngine(InferenceEngine e) {
+		engine = e;
+	}
+
+	/**
+	 * Sets the largest difference between two probabilities taken as equal, 1e-6 by default.
+	 *
+	 * @param t	tolerance
+	 */
+	public void setTolerance(double t) {
+		if (t < 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.ConstraintPreprocessor.java: Wrong tolerance provided!");
+		}
+		tolerance = t;
+	}
+
+	/**
+	 * Sets whether a conditional constraint R(Y|X) and a marginal constraint R(X) are merged into
+	 * one non-local marginal constraint, false by default.<br>
+	 * The merged constraint has the same solutions, but D-IPFP fits it differently: instead of two
+	 * local steps, each writing one CPT, it runs one non-local step, which computes Q(X,Y) and writes
+	 * the CPTs of all of X and Y. The fitted net, and the time, may then differ from fitting the
+	 * original constraints.
+	 *
+	 * @param join	true to merge them
+	 */
+	public void setJoinConstraints(boolean join) {
+		joinConstraints = join;
+	}
+
+	/**
+	 * Reduces a set of constraints.
+	 *
+	 * @param r	constraints
+	 * @return	kept constraints, may be empty if all of them are already satisfied
+	 */
+	public Constraint[] run(Constraint[] r) {
+		if (r == null) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.ConstraintPreprocessor.java: No constraints provided!");
+		}
+		long startTime = new Date().getTime();
+		numOfDuplicates = 0;
+		numOfJoined = 0;
+		numOfImplied = 0;
+		numOfSatisfied = 0;
+		Item[] items = new Item[r.length];
+		for (int j = 0; j < r.length; j++)
+			items[j] = canonicalize(r[j]);
+		dropDuplicates(items);
+		if (joinConstraints)
+			join(items);
+		dropImplied(items);
+		if (dn != null)
+			dropSatisfied(items);
+		Vector kept = new Vector();
+		for (int j = 0; j < items.length; j++) {
+			if (!items[j].dropped)
+				kept.addElement(items[j].constraint);
+		}
+		Constraint[] result = new Constraint[kept.size()];
+		kept.copyInto(result);
+		timeElapsed = new Date().getTime() - startTime;
+		return result;
+	}
+
+	/**
+	 * Puts a constraint in canonical form.
+	 *
+	 * @param c	constraint
+	 * @return	item
+	 */
+	private Item canonicalize(Constraint c) {
+		Item item = new Item();
+		item.constraint = c;
+		RandomVariable[] vars;
+		double[] table;
+		if (c instanceof MarginalConstraint) {
+			JointProbDistribution jpd = ((MarginalConstraint) c).getDistribution();
+			vars = new RandomVariable[jpd.getNumOfVariables()];
+			for (int i = 0; i < vars.length; i++)
+				vars[i] = jpd.getVariable(i);
+			table = new double[jpd.getNumOfEntries()];
+			for (int k = 0; k < table.length; k++)
+				table[k] = jpd.getProbEntry(k);
+			item.prior = sortByName(vars);
+			item.cond = new RandomVariable[0];
+		}
+		else if (c instanceof ConditionalConstraint) {
+			CondProbDistribution cpd = ((ConditionalConstraint) c).getDistribution();
+			int numOfCond = cpd.getNumOfCondVariables();
+			vars = new RandomVariable[numOfCond + cpd.getNumOfPriorVariables()];
+			for (int i = 0; i < numOfCond; i++)
+				vars[i] = cpd.getCondVariable(i);
+			for (int i = numOfCond; i < vars.length; i++)
+				vars[i] = cpd.getPriorVariable(i - numOfCond);
+			table = new double[cpd.getNumOfEntries()];
+			for (int k = 0; k < table.length; k++)
+				table[k] = cpd.getCondProbEntry(k);
+			RandomVariable[] prior = new RandomVariable[vars.length - numOfCond];
+			RandomVariable[] cond = new RandomVariable[numOfCond];
+			System.arraycopy(vars, numOfCond, prior, 0, prior.length);
+			System.arraycopy(vars, 0, cond, 0, numOfCond);
+			item.prior = sortByName(prior);
+			item.cond = sortByName(cond);
+		}
+		else {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.ConstraintPreprocessor.java: Wrong constraints provided!");
+		}
+		item.table = project(vars, table, concat(item.cond, item.prior));
+		item.scopeKey = getKey(sortByName(concat(item.cond, item.prior)));
+		item.key = getKey(item.cond) + "|" + getKey(item.prior);
+		return item;
+	}
+
+	/**
+	 * Drops the constraints with the same scope and the same table as an earlier one.
+	 *
+	 * @param items	constraints
+	 */
+	private void dropDuplicates(Item[] items) {
+		Hashtable byKey = new Hashtable();	//key: canonical key, value: Vector of the kept items
+		for (int j = 0; j < items.length; j++) {
+			Vector same = (Vector) byKey.get(items[j].key);
+			if (same == null) {
+				same = new Vector();
+				byKey.put(items[j].key, same);
+			}
+			for (int k = 0; k < same.size() && !items[j].dropped; k++) {
+				if (isClose(((Item) same.elementAt(k)).table, items[j].table)) {
+					items[j].dropped = true;
+					numOfDuplicates++;
+				}
+			}
+			if (!items[j].dropped)
+				same.addElement(items[j]);
+		}
+	}
+
+	/**
+	 * Merges each conditional constraint R(Y|X) with a marginal constraint R(X), if any, into R(X,Y).
+	 * A marginal constraint is merged once; the result takes the place of the first of the two.
+	 *
+	 * @param items	constraints
+	 */
+	private void join(Item[] items) {
+		Hashtable marginals = new Hashtable();	//key: scope key, value: index of a marginal item not merged yet
+		for (int j = 0; j < items.length; j++) {
+			if (!items[j].dropped && items[j].cond.length == 0 && !marginals.containsKey(items[j].scopeKey))
+				marginals.put(items[j].scopeKey, Integer.valueOf(j));
+		}
+		for (int j = 0; j < items.length; j++) {
+			if (items[j].dropped || items[j].cond.length == 0)
+				continue;
+			Integer obj = (Integer) marginals.remove(getKey(items[j].cond));
+			if (obj == null)
+				continue;
+			int m = obj.intValue();
+			Item marginal = items[m];
+			Item conditional = items[j];
+			int numOfRows = marginal.table.length;
+			int numOfCols = conditional.table.length / numOfRows;
+			RandomVariable[] vars = concat(conditional.cond, conditional.prior);
+			double[] table = new double[conditional.table.length];
+			for (int x = 0; x < numOfRows; x++) {
+				for (int y = 0; y < numOfCols; y++)
+					table[x * numOfCols + y] = marginal.table[x] * conditional.table[x * numOfCols + y];
+			}
+			JointProbDistribution jpd = new JointProbDistribution(sortByName(vars));
+			double[] sorted = project(vars, table, sortByName(vars));
+			for (int k = 0; k < sorted.length; k++)
+				jpd.addProbEntry(k, sorted[k]);
+			Item joined = canonicalize(new NonlocalMarginalConstraint(jpd));
+			items[Math.min(m, j)] = joined;
+			items[Math.max(m, j)].dropped = true;
+			numOfJoined++;
+		}
+	}
+
+	/**
+	 * Drops the constraints implied by a marginal constraint on a larger scope.
+	 *
+	 * @param items	constraints
+	 */
+	private void dropImplied(Item[] items) {
+		Hashtable byScope = new Hashtable();	//key: scope key, value: Vector of item indices
+		for (int j = 0; j < items.length; j++) {
+			if (items[j].dropped)
+				continue;
+			Vector same = (Vector) byScope.get(items[j].scopeKey);
+			if (same == null) {
+				same = new Vector();
+				byScope.put(items[j].scopeKey, same);
+			}
+			same.addElement(Integer.valueOf(j));
+		}
+		for (int j = 0; j < items.length; j++) {
+			Item m = items[j];
+			if (m.dropped || m.cond.length > 0 || m.prior.length < 2 || m.prior.length > maxScopeSize)
+				continue;
+			//every non-empty subset of the scope (the scope itself for the conditional constraints on it)
+			for (int mask = 1; mask < (1 << m.prior.length); mask++) {
+				RandomVariable[] subset = new RandomVariable[Integer.bitCount(mask)];
+				for (int i = 0, k = 0; i < m.prior.length; i++) {
+					if ((mask & (1 << i)) != 0)
+						subset[k++] = m.prior[i];
+				}
+				Vector same = (Vector) byScope.get(getKey(subset));
+				for (int k = 0; same != null && k < same.size(); k++) {
+					Item c = items[((Integer) same.elementAt(k)).intValue()];
+					if (c != m && !c.dropped && isImplied(m, c)) {
+						c.dropped = true;
+						numOfImplied++;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks whether a constraint is implied by a marginal constraint on a larger (or the same) scope.
+	 *
+	 * @param m	marginal constraint
+	 * @param c	constraint, on a subset of the scope of m
+	 * @return	true if the table of c is the marginal or conditional of the table of m
+	 */
+	private boolean isImplied(Item m, Item c) {
+		if (c.cond.length == 0)
+			return c.prior.length < m.prior.length && isClose(project(m.prior, m.table, c.prior), c.table);
+		double[] expected = conditional(project(m.prior, m.table, concat(c.cond, c.prior)), c.table.length / getSize(c.cond));
+		return expected != null && isClose(expected, c.table);
+	}
+
+	/**
+	 * Drops the constraints already satisfied by the initial CPTs, whose queries read no CPT
+	 * a kept constraint writes.
+	 *
+	 * @param items	constraints
+	 */
+	private void dropSatisfied(Item[] items) {
+		if (engine == null) {
+			try {
+				engine = new JunctionTree(dn, null, Integer.MAX_VALUE);
+			}
+			catch (IllegalArgumentException e) {
+				System.out.println("Class umbc.ebiquity.BayesOWL.coreAlgorithms.ConstraintPreprocessor.java: No junction tree for the network, satisfied constraints are kept!");
+				return;
+			}
+		}
+		int n = dn.getNumOfNodes();
+		BitSet findings = new BitSet(n);
+		for (int i = 0; i < n; i++) {
+			if (dn.getFinding(i) >= 0)
+				findings.set(i);
+		}
+		BitSet[] written = new BitSet[items.length];
+		BitSet[] read = new BitSet[items.length];
+		boolean[] candidate = new boolean[items.length];
+		for (int j = 0; j < items.length; j++) {
+			if (items[j].dropped)
+				continue;
+			written[j] = new BitSet(n);
+			BitSet scope = (BitSet) findings.clone();
+			RandomVariable[] vars = concat(items[j].cond, items[j].prior);
+			boolean known = true;
+			for (int i = 0; i < vars.length; i++) {
+				int v = dn.getNodeIndex(vars[i].getName());
+				if (v < 0) {
+					known = false;
+					continue;
+				}
+				scope.set(v);
+				written[j].set(v);
+			}
+			String concept = null;
+			if (items[j].constraint instanceof LocalMarginalConstraint)
+				concept = ((LocalMarginalConstraint) items[j].constraint).getConceptName();
+			else if (items[j].constraint instanceof LocalConditionalConstraint)
+				concept = ((LocalConditionalConstraint) items[j].constraint).getConceptName();
+			if (concept != null && dn.getNodeIndex(concept) >= 0) {
+				written[j].clear();
+				written[j].set(dn.getNodeIndex(concept));
+			}
+			read[j] = ancestors(scope);
+			if (known) {
+				double[] q = query(items[j]);
+				candidate[j] = q != null && isClose(q, items[j].table);
+			}
+		}
+		//a candidate is kept if a kept constraint writes what it reads, until no more is kept
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int j = 0; j < items.length; j++) {
+				if (!candidate[j])
+					continue;
+				for (int k = 0; k < items.length; k++) {
+					if (k != j && written[k] != null && !candidate[k] && written[k].intersects(read[j])) {
+						candidate[j] = false;
+						changed = true;
+						break;
+					}
+				}
+			}
+		}
+		for (int j = 0; j < items.length; j++) {
+			if (candidate[j]) {
+				items[j].dropped = true;
+				numOfSatisfied++;
+			}
+		}
+	}
+
+	/**
+	 * Computes the table of a constraint from the network, in canonical form.
+	 *
+	 * @param item	constraint
+	 * @return	table, null if a state is not in the network or a condition has probability 0
+	 */
+	private double[] query(Item item) {
+		RandomVariable[] vars = concat(item.cond, item.prior);
+		int[] nodes = new int[vars.length];
+		int[][] stateMaps = new int[vars.length][];
+		for (int i = 0; i < vars.length; i++) {
+			nodes[i] = dn.getNodeIndex(vars[i].getName());
+			String[] states = dn.getStates(nodes[i]);
+			if (states.length != vars[i].getNumOfStates())
+				return null;
+			stateMaps[i] = new int[states.length];
+			for (int s = 0; s < states.length; s++) {
+				stateMaps[i][s] = -1;
+				for (int t = 0; t < states.length; t++) {
+					if (states[t].equals(vars[i].getState(s)))
+						stateMaps[i][s] = t;
+				}
+				if (stateMaps[i][s] < 0)
+					return null;
+			}
+		}
+		double[] joint = new double[item.table.length];
+		int[] indices = new int[vars.length];
+		int[] states = new int[vars.length];
+		for (int k = 0; k < joint.length; k++) {
+			for (int i = 0; i < vars.length; i++)
+				states[i] = stateMaps[i][indices[i]];
+			joint[k] = engine.getJointProbability(nodes, states);
+			for (int i = vars.length - 1; i >= 0; --i) {
+				if (++indices[i] < vars[i].getNumOfStates())
+					break;
+				indices[i] = 0;
+			}
+		}
+		if (item.cond.length == 0)
+			return joint;
+		return conditional(joint, joint.length / getSize(item.cond));
+	}
+
+	/**
+	 * Divides each row of a joint table by its sum.
+	 *
+	 * @param joint	joint table, row-major
+	 * @param numOfCols	number of entries of a row
+	 * @return	conditional table, null if a row sums to 0
+	 */
+	private double[] conditional(double[] joint, int numOfCols) {
+		double[] result = new double[joint.length];
+		for (int row = 0; row < joint.length; row += numOfCols) {
+			double sum = 0.0;
+			for (int y = 0; y < numOfCols; y++)
+				sum += joint[row + y];
+			if (sum <= tolerance)
+				return null;
+			for (int y = 0; y < numOfCols; y++)
+				result[row + y] = joint[row + y] / sum;
+		}
+		return result;
+	}
+
+	/**
+	 * Sums a table over the variables not kept, and orders the rest as asked.
+	 *
+	 * @param vars	variables of the table
+	 * @param table	table, row-major over vars
+	 * @param keep	variables of the result, a subset of vars
+	 * @return	table, row-major over keep
+	 */
+	private static double[] project(RandomVariable[] vars, double[] table, RandomVariable[] keep) {
+		int[] strides = new int[vars.length];	//stride of each variable of the table in the result, 0 if summed out
+		for (int j = 0; j < keep.length; j++) {
+			int stride = 1;
+			for (int l = j + 1; l < keep.length; l++)
+				stride *= keep[l].getNumOfStates();
+			for (int i = 0; i < vars.length; i++) {
+				if (vars[i].getName().equals(keep[j].getName()))
+					strides[i] = stride;
+			}
+		}
+		double[] result = new double[getSize(keep)];
+		int[] indices = new int[vars.length];
+		int offset = 0;
+		for (int k = 0; k < table.length; k++) {
+			result[offset] += table[k];
+			for (int i = vars.length - 1; i >= 0; --i) {
+				offset += strides[i];
+				if (++indices[i] < vars[i].getNumOfStates())
+					break;
+				offset -= strides[i] * indices[i];
+				indices[i] = 0;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the nodes and all their ancestors.
+	 *
+	 * @param nodes	nodes
+	 * @return	ancestral set
+	 */
+	private BitSet ancestors(BitSet nodes) {
+		BitSet result = (BitSet) nodes.clone();
+		Stack stack = new Stack();
+		for (int v = nodes.nextSetBit(0); v >= 0; v = nodes.nextSetBit(v + 1))
+			stack.push(Integer.valueOf(v));
+		while (!stack.isEmpty()) {
+			int[] parents = dn.getParents(((Integer) stack.pop()).intValue());
+			for (int j = 0; j < parents.length; j++) {
+				if (!result.get(parents[j])) {
+					result.set(parents[j]);
+					stack.push(Integer.valueOf(parents[j]));
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether two tables are equal, up to the tolerance.
+	 *
+	 * @param a	table
+	 * @param b	table
+	 * @return	true if equal
+	 */
+	private boolean isClose(double[] a, double[] b) {
+		if (a.length != b.length)
+			return false;
+		for (int k = 0; k < a.length; k++) {
+			if (Math.abs(a[k] - b[k]) > tolerance)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the key of a list of variables: their names and states.
+	 *
+	 * @param vars	variables
+	 * @return	key
+	 */
+	private static String getKey(RandomVariable[] vars) {
+		StringBuffer key = new StringBuffer();
+		for (int i = 0; i < vars.length; i++) {
+			key.append(vars[i].getName()).append('(');
+			for (int s = 0; s < vars[i].getNumOfStates(); s++)
+				key.append(s == 0 ? "" : ",").append(vars[i].getState(s));
+			key.append(')');
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Sorts variables by name.
+	 *
+	 * @param vars	variables
+	 * @return	sorted copy
+	 */
+	private static RandomVariable[] sortByName(RandomVariable[] vars) {
+		RandomVariable[] sorted = new RandomVariable[vars.length];
+		System.arraycopy(vars, 0, sorted, 0, vars.length);
+		Arrays.sort(sorted, new Comparator() {
+			public int compare(Object a, Object b) {
+				return ((RandomVariable) a).getName().compareTo(((RandomVariable) b).getName());
+			}
+		});
+		return sorted;
+	}
+
+	/**
+	 * Concatenates two lists of variables.
+	 *
+	 * @param a	first variables
+	 * @param b	last variables
+	 * @return	a, then b
+	 */
+	private static RandomVariable[] concat(RandomVariable[] a, RandomVariable[] b) {
+		RandomVariable[] result = new RandomVariable[a.length + b.length];
+		System.arraycopy(a, 0, result, 0, a.length);
+		System.arraycopy(b, 0, result, a.length, b.length);
+		return result;
+	}
+
+	/**
+	 * Gets the number of joint states of variables.
+	 *
+	 * @param vars	variables
+	 * @return	table size
+	 */
+	private static int getSize(RandomVariable[] vars) {
+		int size = 1;
+		for (int i = 0; i < vars.length; i++)
+			size *= vars[i].getNumOfStates();
+		return size;
+	}
+
+	/**
+	 * Gets the number of duplicate constraints dropped by the last run.
+	 *
+	 * @return	number of constraints
+	 */
+	public int getNumOfDuplicates() {
+		return numOfDuplicates;
+	}
+
+	/**
+	 * Gets the number of (conditional, marginal) pairs merged into one constraint by the last run.
+	 *
+	 * @return	number of pairs
+	 */
+	public int getNumOfJoined() {
+		return numOfJoined;
+	}
+
+	/**
+	 * Gets the number of implied constraints dropped by the last run.
+	 *
+	 * @return	number of constraints
+	 */
+	public int getNumOfImplied() {
+		return numOfImplied;
+	}
+
+	/**
+	 * Gets the number of satisfied constraints dropped by the last run.
+	 *
+	 * @return	number of constraints
+	 */
+	public int getNumOfSatisfied() {
+		return numOfSatisfied;
+	}
+
+	/**
+	 * Gets the execution time of the last run.
+	 *
+	 * @return	time in milliseconds
+	 */
+	public long getExecTime() {
+		return timeElapsed;
+	}
+
+}
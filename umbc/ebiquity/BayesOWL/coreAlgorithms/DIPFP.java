@@ -23,11 +23,25 @@ import norsys.netica.*;
  * to "DIPFPMarginalOneR.java" and "DIPFPConditionalOneR.java" for details.<br>
  */
 public class DIPFP {
+	public static final int CONVERGE_BY_TOTAL_VARIANCE = 0;	//|tv - tv_prev| of DiffBN, enumerates the joint
+	public static final int CONVERGE_BY_MAX_ROW_CHANGE = 1;	//largest change of a CPT row, see CPTDelta
+	public static final int CONVERGE_BY_KL_BOUND = 2;		//KL bound summed over the families, see CPTDelta
+	public static final int CONVERGE_BY_SAMPLED_TV = 3;		//upper confidence bound of a sampled total variation, see CPTDelta
+
 	Net net;
 	Constraint[] constraints;
 	int choice;
 	long timeElapsed;
 	int loopsUsed;
+	InferenceEngine engine;	//null: Netica's exact inference
+	String tempFileName = "temp.dne";	//where the net is remembered before each iteration
+	int convergence = CONVERGE_BY_TOTAL_VARIANCE;
+	int numOfTVSamples = 10000;
+	double tvDelta = 0.05;
+	double lastDifference;
+	int snapshotBatchVersion;	//CPT versions of the batch and of the engine's network at the last snapshot, -1 before the first
+	int snapshotEngineVersion;
+	FeasibilityAnalyzer analyzer;	//checks the constraints before fitting, null if none
 
 	/**
 	 * Constructor - 1: 
@@ -91,6 +105,108 @@ public class DIPFP {
 		}
 	}
 
+	/**
+	 * Sets an approximate inference engine (e.g. LoopyBeliefPropagation or LikelihoodWeighting on
+	 * a copy of the net made by BN2DiscreteNet) to answer the queries instead of compiling the net,
+	 * for nets whose junction tree is too large. The convergence is then measured by the beliefs.
+	 * 
+	 * @param e	inference engine, null for Netica's exact inference
+	 */
+	public void setInferenceEngine(InferenceEngine e) {
+		engine = e;
+	}
+
+	/**
+	 * Sets the file where the net is remembered before each iteration, "temp.dne" by default.
+	 * Instances running at the same time need different files.
+	 * 
+	 * @param fname	file name
+	 */
+	public void setTempFileName(String fname) {
+		if (fname == null || fname.equals("")) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.DIPFP.java: Wrong temporary file name provided!");
+		}
+		tempFileName = fname;
+	}
+
+	/**
+	 * Sets how the difference between two iterations is measured, one of the CONVERGE_BY_ constants.
+	 * Except CONVERGE_BY_TOTAL_VARIANCE (the default), the difference is computed from the CPTs
+	 * before and after the iteration, and compared with the threshold directly.
+	 * 
+	 * @param metric	convergence metric
+	 */
+	public void setConvergenceMetric(int metric) {
+		if (metric < CONVERGE_BY_TOTAL_VARIANCE || metric > CONVERGE_BY_SAMPLED_TV) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.DIPFP.java: Wrong convergence metric provided!");
+		}
+		convergence = metric;
+	}
+
+	/**
+	 * Sets the sampling of CONVERGE_BY_SAMPLED_TV: the number of samples, and the confidence
+	 * parameter delta (the bound holds with probability 1 - delta).
+	 * The number of samples is raised in "run" when it is too small for the threshold, see getTVSampleSize.
+	 * 
+	 * @param numOfSamples	least number of samples
+	 * @param delta	confidence parameter
+	 */
+	public void setTVSampling(int numOfSamples, double delta) {
+		if (numOfSamples <= 0 || delta <= 0 || delta >= 1) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.DIPFP.java: Wrong sampling parameters provided!");
+		}
+		numOfTVSamples = numOfSamples;
+		tvDelta = delta;
+	}
+
+	/**
+	 * Gets the number of samples of CONVERGE_BY_SAMPLED_TV for a threshold: at least the number set by
+	 * setTVSampling, and enough to keep the half-width sqrt(ln(2/delta) / 2N) of the bound within half
+	 * of the threshold. With fewer samples the bound might never fall below the threshold.
+	 * 
+	 * @param threshold	threshold of run
+	 * @return	number of samples
+	 */
+	private int getTVSampleSize(double threshold) {
+		double n = Math.ceil(2 * Math.log(2 / tvDelta) / (threshold * threshold));
+		if (threshold <= 0 || n > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.DIPFP.java: Wrong threshold provided for the sampled total variation!");
+		}
+		return Math.max(numOfTVSamples, (int) n);
+	}
+
+	/**
+	 * Takes a snapshot of the CPTs, from the engine's network if there is one.
+	 * If the batch changed CPTs since the last snapshot but the engine's network did not change,
+	 * the two snapshots would be equal and the run would stop at once, so this is an error.
+	 * 
+	 * @param batch	CPT batch of the run
+	 * @return	snapshot
+	 * @throws NeticaException
+	 */
+	private DiscreteNet snapshotCPTs(CPTBatch batch) throws NeticaException {
+		batch.flush();
+		if (engine == null)
+			return new BN2DiscreteNet(net).getDiscreteNet();
+		DiscreteNet dn = engine.getNet();
+		if (snapshotBatchVersion >= 0 && batch.getCPTVersion() != snapshotBatchVersion && dn.getCPTVersion() == snapshotEngineVersion) {
+			throw new IllegalStateException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.DIPFP.java: The CPT updates did not reach the network of the inference engine!");
+		}
+		snapshotBatchVersion = batch.getCPTVersion();
+		snapshotEngineVersion = dn.getCPTVersion();
+		return new DiscreteNet(dn);
+	}
+
+	/**
+	 * Sets an analyzer (e.g. on BN2DiscreteNet of the initial net, with its tagged nodes) to check the
+	 * constraints first, instead of running until 'maxLoops' on constraints which can not be satisfied together.
+	 * 
+	 * @param a	feasibility analyzer, null for no check
+	 */
+	public void setFeasibilityAnalyzer(FeasibilityAnalyzer a) {
+		analyzer = a;
+	}
+
 	/**
 	 * Implements the main idea of the D-IPFP algorithm.	 * 
      * If this procedure does not converge in 'maxLoops' number of loops, we think it will not converge at all. 
@@ -101,9 +217,18 @@ public class DIPFP {
 	 */
 	public void run (int maxLoops, double threshold) {
 		try {
+			if (analyzer != null)
+				analyzer.check(constraints);
+			int numOfSamples = convergence == CONVERGE_BY_SAMPLED_TV ? getTVSampleSize(threshold) : numOfTVSamples;
 			/* begin of procedure */
-			net.compile();
+			//CPT writes of all the constraint steps go through one batch, the net is compiled lazily right before each query
+			CPTBatch batch = new CPTBatch(net);
+			batch.setInferenceEngine(engine);
+			batch.beginBatch();
+			batch.ensureCompiled();
+			snapshotBatchVersion = -1;
 			int counter = 0;
+
 			boolean success = true;
 			//double diff_sum = 1.0;
 			double tv_prev = 0.0, tv_abs = 1.0;
@@ -117,17 +242,29 @@ public class DIPFP {
 					break;
 				}
 
-				// 1. remember down the net before this iteration of updating
-				net.setAutoUpdate(1);
-				net.write(new Streamer("temp.dne"));
-				Net net_orig = new Net(new Streamer("temp.dne"));
+				// 1. remember down the net (or its beliefs, with an approximate engine) before this iteration of updating
+				Net net_orig = null;
+				double[][] beliefs_orig = null;
+				DiscreteNet cpts_orig = null;
+				if (convergence != CONVERGE_BY_TOTAL_VARIANCE) {
+					cpts_orig = snapshotCPTs(batch);
+				}
+				else if (engine == null) {
+					net.setAutoUpdate(1);
+					net.write(new Streamer(tempFileName));
+					net_orig = new Net(new Streamer(tempFileName));
+				}
+				else {
+					batch.ensureCompiled();
+					beliefs_orig = DiffBN.getAllBeliefs(engine);
+				}
 				// 2. process each constraint one by one for this iteration
 				for (int j = 0; j < constraints.length; j++) { 
 					String constraintType = constraints[j].getConstraintType();
 					//constraint with form R(Y), Y={C1, C2, ..., Cn}
 					if (constraintType.equals("marginal")) { 
 						MarginalConstraint thisR = (MarginalConstraint) constraints[j];
-						DIPFPMarginalOneR one_step = new DIPFPMarginalOneR(net,thisR,choice);
+						DIPFPMarginalOneR one_step = new DIPFPMarginalOneR(batch,thisR,choice);
 						one_step.computation();
 						net = one_step.getNet();
 						timeElapsed = timeElapsed + one_step.getExecTime();
@@ -135,7 +272,7 @@ public class DIPFP {
 					//constraint with form R(A|B), A and B are disjoint, A={C1,C2,...,Cn), B={P1, P2, ..., Pm}
 					else if (constraintType.equals("conditional")) {
 						ConditionalConstraint thisR = (ConditionalConstraint) constraints[j];
-						DIPFPConditionalOneR one_step = new DIPFPConditionalOneR(net,thisR,choice);
+						DIPFPConditionalOneR one_step = new DIPFPConditionalOneR(batch,thisR,choice);
 						one_step.computation();
 						net = one_step.getNet();						
 						timeElapsed = timeElapsed + one_step.getExecTime();
@@ -147,12 +284,35 @@ public class DIPFP {
 				}
 				//end-for-j
 				// 3. compute the difference between old BBN and modified BBN after this interation				
-				DiffBN diff = new DiffBN(net_orig, net, null);
-				//diff_sum = diff.getDifference();
-				tv = diff.getTotalVariance();
-				
-				tv_abs = Math.abs(tv - tv_prev);
-				tv_prev = tv;
+				if (convergence != CONVERGE_BY_TOTAL_VARIANCE) {
+					CPTDelta delta = new CPTDelta(cpts_orig, snapshotCPTs(batch));
+					if (convergence == CONVERGE_BY_MAX_ROW_CHANGE) {
+						tv_abs = delta.getMaxRowChange();
+					}
+					else if (convergence == CONVERGE_BY_KL_BOUND) {
+						tv_abs = delta.getKLBound();
+					}
+					else {
+						tv_abs = delta.sampleTotalVariance(numOfSamples, tvDelta, counter)
+ + delta.getSampledTVError();
+					}
+				}
+				else {
+					DiffBN diff;
+					if (engine == null) {
+						diff = new DiffBN(net_orig, net, null);
+					}
+					else {
+						batch.ensureCompiled();
+						diff = new DiffBN(beliefs_orig, DiffBN.getAllBeliefs(engine), engine.getNet());
+					}
+					//diff_sum = diff.getDifference();
+					tv = diff.getTotalVariance();
+					
+					tv_abs = Math.abs(tv - tv_prev);
+					tv_prev = tv;
+				}
+				lastDifference = tv_abs;
 				// 4. increase the counter 
 				counter++;
 				
@@ -207,6 +367,7 @@ public class DIPFP {
 			//while (diff_sum>threshold);
 			while (tv_abs > threshold);
 			/* end of procedure */
+			batch.endBatch();
 			loopsUsed = counter;
 			
 			//step 2	(added by Shenyong, Dec. 04, 2008)
@@ -238,6 +399,15 @@ public class DIPFP {
 		return loopsUsed;
 	}
 		
+	/**
+	 * Gets the difference between the last two iterations, as compared with the threshold.
+	 * 
+	 * @return	difference
+	 */
+	public double getLastDifference() {
+		return lastDifference;
+	}
+		
 	/**
 	 * Saves the revised BBN obtained into a file.
 	 * 
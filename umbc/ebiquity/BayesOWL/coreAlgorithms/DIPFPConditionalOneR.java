@@ -96,6 +96,7 @@ import norsys.netica.*;
  */
 public class DIPFPConditionalOneR {
 	Net net;
+	CPTBatch batch;
 	ConditionalConstraint constraint;
 	int variation;
 	long timeElapsed;
@@ -108,11 +109,24 @@ public class DIPFPConditionalOneR {
 	 * @param choice	implementation #
 	 */
 	public DIPFPConditionalOneR (Net bbn, ConditionalConstraint r, int choice) {
-		if (bbn == null || r == null || choice > 8 || choice < 1) {
+		this(bbn == null ? null : new CPTBatch(bbn), r, choice);
+	}
+
+	/**
+	 * Constructor.
+	 * CPT writes go through the given batch, so that the caller decides when the net is compiled.
+	 *
+	 * @param b	CPT batch of the Bayesian Net
+	 * @param r	conditional constraint
+	 * @param choice	implementation #
+	 */
+	public DIPFPConditionalOneR (CPTBatch b, ConditionalConstraint r, int choice) {
+		if (b == null || r == null || choice > 8 || choice < 1) {
 			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.DIPFPConditionalOneR.java: Wrong BBN or Conditional Constraint or Implementation Choice provided!");
 		}
 		else {
-			net = bbn;
+			batch = b;
+			net = b.getNet();
 			constraint = r;
 			variation = choice;
 			timeElapsed = 0;
@@ -145,7 +159,7 @@ public class DIPFPConditionalOneR {
 			// trace the time
 			Date startDate = new Date();
 			long startTime = startDate.getTime();			
-			net.compile();
+			batch.ensureCompiled();
 			String scopeType = constraint.getScopeType();
 			//local conditional constraint R(C|L)
 			if (scopeType.equals("local")) { 
@@ -202,8 +216,8 @@ public class DIPFPConditionalOneR {
 						int[] indicesOfL = new int[numOfParentsInvolved];
 						for (int j=0; j<numOfParentsInvolved; j++)
 							indicesOfL[j] = indicesOfCL[j];
-						double v1 = net.getJointProbability(nodeListCL,indicesOfCL);
-						double v2 = net.getJointProbability(nodeListL, indicesOfL);
+						double v1 = batch.getJointProbability(nodeListCL,indicesOfCL);
+						double v2 = batch.getJointProbability(nodeListL, indicesOfL);
 						double v = 0;
 						if (v1>0)
 							v = v1/v2; //note that if v1>0, then v2>0 too
@@ -240,9 +254,9 @@ public class DIPFPConditionalOneR {
 						}						
 						for (int t=0; t<numOfNodeStates; t++) //normalization
 							newTable[t] = newTable[t]/sum;
-						node.setCPTable(indices_of_parents,newTable);
+						batch.setCPTable(node, indices_of_parents,newTable);
 					}
-					net.compile();
+					batch.commit();
 				}
 				//when C has no parents: |L|=0, wrong case
 				else { 
@@ -301,7 +315,7 @@ public class DIPFPConditionalOneR {
 				JointProbDistribution jpdOfYS = new JointProbDistribution(YSVars);
 				int numOfYSEntries = jpdOfYS.getNumOfEntries();
 				for (int i=0; i<numOfYSEntries; i++) {
-					jpdOfYS.addProbEntry(jpdOfYS.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS.getIndices(i)));
+					jpdOfYS.addProbEntry(jpdOfYS.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS.getIndices(i)));
 				}
 				//calling CIPFPOneR.java to get Q_(k)(Y,S)
 				CIPFPOneR algo = new CIPFPOneR(jpdOfYS, constraint.getDistribution());
@@ -348,7 +362,7 @@ public class DIPFPConditionalOneR {
 							}
 							for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 								newTable[t] = newTable[t]/sum;
-							node.setCPTable(indices_of_parents,newTable);
+							batch.setCPTable(node, indices_of_parents,newTable);
 						} //end-for-j					
 					}
 					else { //|Pi(Cj)|=0
@@ -360,11 +374,10 @@ public class DIPFPConditionalOneR {
 						}	
 						for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 							newTable[t] = newTable[t]/sum;						
-						node.setCPTable("",newTable);
+						batch.setCPTable(node, "",newTable);
 					}					
-					net.compile();
 				}//end-for-i
-				net.compile();				
+				batch.commit();
 			}
 			else { //otherwise
 				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.DIPFPConditionalOneR.java (method variation1()): Wrong conditional constraint provided!");				
@@ -387,7 +400,7 @@ public class DIPFPConditionalOneR {
 			// trace the time
 			Date startDate = new Date();
 			long startTime = startDate.getTime();
-			net.compile();
+			batch.ensureCompiled();
 			String scopeType = constraint.getScopeType();
 			//local conditional constraint R(C|L)
 			if (scopeType.equals("local")) { 
@@ -444,8 +457,8 @@ public class DIPFPConditionalOneR {
 						int[] indicesOfL = new int[numOfParentsInvolved];
 						for (int j=0; j<numOfParentsInvolved; j++)
 							indicesOfL[j] = indicesOfCL[j];
-						double v1 = net.getJointProbability(nodeListCL,indicesOfCL);
-						double v2 = net.getJointProbability(nodeListL, indicesOfL);
+						double v1 = batch.getJointProbability(nodeListCL,indicesOfCL);
+						double v2 = batch.getJointProbability(nodeListL, indicesOfL);
 						double v = 0;
 						if (v1>0)
 							v = v1/v2; //note that if v1>0, then v2>0 too
@@ -482,9 +495,9 @@ public class DIPFPConditionalOneR {
 						}						
 						for (int t=0; t<numOfNodeStates; t++) //normalization
 							newTable[t] = newTable[t]/sum;
-						node.setCPTable(indices_of_parents,newTable);
+						batch.setCPTable(node, indices_of_parents,newTable);
 					}
-					net.compile();
+					batch.commit();
 				}
 				//when C has no parents: |L|=0, wrong case
 				else { 
@@ -543,7 +556,7 @@ public class DIPFPConditionalOneR {
 				JointProbDistribution jpdOfYS_old = new JointProbDistribution(YSVars);
 				int numOfYSEntries = jpdOfYS_old.getNumOfEntries();
 				for (int i=0; i<numOfYSEntries; i++) {
-					jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
+					jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
 				}
 				double totalVariance = 0;
 				do {
@@ -594,7 +607,7 @@ public class DIPFPConditionalOneR {
 								}
 								for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 									newTable[t] = newTable[t]/sum;								
-								node.setCPTable(indices_of_parents,newTable);
+								batch.setCPTable(node, indices_of_parents,newTable);
 							} //end-for-j					
 						}
 						else { //|Pi(Cj)|=0
@@ -606,14 +619,13 @@ public class DIPFPConditionalOneR {
 							}
 							for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 								newTable[t] = newTable[t]/sum;							
-							node.setCPTable("",newTable);
+							batch.setCPTable(node, "",newTable);
 						}		
-						net.compile();
 					}//end-for-i
-					net.compile();
+					batch.ensureCompiled();
 					//getting Q_(k)(Y,S)
 					for (int i=0; i<numOfYSEntries; i++) {
-						jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
+						jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
 					}
 					TotalVariance obj = new TotalVariance(jpdOfYS, jpdOfYS_old);
 					totalVariance = obj.getTotalVariance();		
@@ -641,7 +653,7 @@ public class DIPFPConditionalOneR {
 			// trace the time
 			Date startDate = new Date();
 			long startTime = startDate.getTime();
-			net.compile();
+			batch.ensureCompiled();
 			String scopeType = constraint.getScopeType();
 			//local conditional constraint R(C|L)
 			if (scopeType.equals("local")) { 
@@ -698,8 +710,8 @@ public class DIPFPConditionalOneR {
 						int[] indicesOfL = new int[numOfParentsInvolved];
 						for (int j=0; j<numOfParentsInvolved; j++)
 							indicesOfL[j] = indicesOfCL[j];
-						double v1 = net.getJointProbability(nodeListCL,indicesOfCL);
-						double v2 = net.getJointProbability(nodeListL, indicesOfL);
+						double v1 = batch.getJointProbability(nodeListCL,indicesOfCL);
+						double v2 = batch.getJointProbability(nodeListL, indicesOfL);
 						double v = 0;
 						if (v1>0)
 							v = v1/v2; //note that if v1>0, then v2>0 too
@@ -735,9 +747,9 @@ public class DIPFPConditionalOneR {
 						}						
 						for (int t=0; t<numOfNodeStates; t++) //normalization
 							newTable[t] = newTable[t]/sum;
-						node.setCPTable(indices_of_parents,newTable);
+						batch.setCPTable(node, indices_of_parents,newTable);
 					}
-					net.compile();
+					batch.commit();
 				}
 				//when C has no parents: |L|=0, wrong case
 				else { 
@@ -804,7 +816,7 @@ public class DIPFPConditionalOneR {
 				JointProbDistribution jpdOfYS = new JointProbDistribution(YSVars);
 				int numOfYSEntries = jpdOfYS.getNumOfEntries();
 				for (int i=0; i<numOfYSEntries; i++) {
-					jpdOfYS.addProbEntry(jpdOfYS.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS.getIndices(i)));
+					jpdOfYS.addProbEntry(jpdOfYS.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS.getIndices(i)));
 				}
 				//calling IPFPOneR.java to get Q_(k)(Y',S)
 				CIPFPOneR algo = new CIPFPOneR(jpdOfYS, constraint.getDistribution());
@@ -851,7 +863,7 @@ public class DIPFPConditionalOneR {
 							}
 							for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 								newTable[t] = newTable[t]/sum;							
-							node.setCPTable(indices_of_parents,newTable);
+							batch.setCPTable(node, indices_of_parents,newTable);
 						} //end-for-j					
 					}
 					else { //|Pi(Cj)|=0
@@ -863,11 +875,10 @@ public class DIPFPConditionalOneR {
 						}
 						for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 							newTable[t] = newTable[t]/sum;						
-						node.setCPTable("",newTable);
+						batch.setCPTable(node, "",newTable);
 					}					
-					net.compile();
 				}//end-for-i
-				net.compile();								
+				batch.commit();
 			}
 			else { //otherwise
 				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.DIPFPConditionalOneR.java (method variation3()): Wrong conditional constraint provided!");				
@@ -890,7 +901,7 @@ public class DIPFPConditionalOneR {
 			// trace the time
 			Date startDate = new Date();
 			long startTime = startDate.getTime();
-			net.compile();
+			batch.ensureCompiled();
 			String scopeType = constraint.getScopeType();
 			//local conditional constraint R(C|L)
 			if (scopeType.equals("local")) { 
@@ -947,8 +958,8 @@ public class DIPFPConditionalOneR {
 						int[] indicesOfL = new int[numOfParentsInvolved];
 						for (int j=0; j<numOfParentsInvolved; j++)
 							indicesOfL[j] = indicesOfCL[j];
-						double v1 = net.getJointProbability(nodeListCL,indicesOfCL);
-						double v2 = net.getJointProbability(nodeListL, indicesOfL);
+						double v1 = batch.getJointProbability(nodeListCL,indicesOfCL);
+						double v2 = batch.getJointProbability(nodeListL, indicesOfL);
 						double v = 0;
 						if (v1>0)
 							v = v1/v2; //note that if v1>0, then v2>0 too
@@ -984,9 +995,9 @@ public class DIPFPConditionalOneR {
 						}						
 						for (int t=0; t<numOfNodeStates; t++) //normalization
 							newTable[t] = newTable[t]/sum;
-						node.setCPTable(indices_of_parents,newTable);
+						batch.setCPTable(node, indices_of_parents,newTable);
 					}
-					net.compile();
+					batch.commit();
 				}
 				//when C has no parents: |L|=0, wrong case
 				else { 
@@ -1053,7 +1064,7 @@ public class DIPFPConditionalOneR {
 				JointProbDistribution jpdOfYS_old = new JointProbDistribution(YSVars);
 				int numOfYSEntries = jpdOfYS_old.getNumOfEntries();
 				for (int i=0; i<numOfYSEntries; i++) {
-					jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
+					jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
 				}
 				double totalVariance = 0;
 				do {
@@ -1104,7 +1115,7 @@ public class DIPFPConditionalOneR {
 								}
 								for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 									newTable[t] = newTable[t]/sum;								
-								node.setCPTable(indices_of_parents,newTable);
+								batch.setCPTable(node, indices_of_parents,newTable);
 							} //end-for-j					
 						}
 						else { //|Pi(Cj)|=0
@@ -1116,14 +1127,13 @@ public class DIPFPConditionalOneR {
 							}
 							for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 								newTable[t] = newTable[t]/sum;							
-							node.setCPTable("",newTable);
+							batch.setCPTable(node, "",newTable);
 						}						
-						net.compile();
 					}//end-for-i
-					net.compile();		
+					batch.ensureCompiled();
 					//getting Q_(k)(Y',S)
 					for (int i=0; i<numOfYSEntries; i++) {
-						jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
+						jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
 					}
 					TotalVariance obj = new TotalVariance(jpdOfYS, jpdOfYS_old);
 					totalVariance = obj.getTotalVariance();									
@@ -1151,7 +1161,7 @@ public class DIPFPConditionalOneR {
 			// trace the time
 			Date startDate = new Date();
 			long startTime = startDate.getTime();
-			net.compile();
+			batch.ensureCompiled();
 			//getting Y and S
 			String[] YNames = constraint.getVariableNames();
 			int numOfYVars = constraint.getNumOfVariables();
@@ -1202,7 +1212,7 @@ public class DIPFPConditionalOneR {
 			JointProbDistribution jpdOfYS = new JointProbDistribution(YSVars);
 			int numOfYSEntries = jpdOfYS.getNumOfEntries();
 			for (int i=0; i<numOfYSEntries; i++) {
-				jpdOfYS.addProbEntry(jpdOfYS.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS.getIndices(i)));
+				jpdOfYS.addProbEntry(jpdOfYS.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS.getIndices(i)));
 			}
 			//calling CIPFPOneR.java to get Q_(k)(Y,S)
 			CIPFPOneR algo = new CIPFPOneR(jpdOfYS, constraint.getDistribution());
@@ -1249,7 +1259,7 @@ public class DIPFPConditionalOneR {
 						}
 						for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 							newTable[t] = newTable[t]/sum;						
-						node.setCPTable(indices_of_parents,newTable);
+						batch.setCPTable(node, indices_of_parents,newTable);
 					} //end-for-j					
 				}
 				else { //|Pi(Cj)|=0
@@ -1261,11 +1271,10 @@ public class DIPFPConditionalOneR {
 					}
 					for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 						newTable[t] = newTable[t]/sum;					
-					node.setCPTable("",newTable);
+					batch.setCPTable(node, "",newTable);
 				}				
-				net.compile();
 			}//end-for-i
-			net.compile();							
+			batch.commit();
 			// trace the time
 			Date endDate = new Date();
 			long endTime = endDate.getTime();
@@ -1284,7 +1293,7 @@ public class DIPFPConditionalOneR {
 			// trace the time
 			Date startDate = new Date();
 			long startTime = startDate.getTime();
-			net.compile();
+			batch.ensureCompiled();
 			//getting Y and S
 			String[] YNames = constraint.getVariableNames();
 			int numOfYVars = constraint.getNumOfVariables();
@@ -1335,7 +1344,7 @@ public class DIPFPConditionalOneR {
 			JointProbDistribution jpdOfYS_old = new JointProbDistribution(YSVars);
 			int numOfYSEntries = jpdOfYS_old.getNumOfEntries();
 			for (int i=0; i<numOfYSEntries; i++) {
-				jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
+				jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
 			}
 			double totalVariance = 0;
 			do {
@@ -1386,7 +1395,7 @@ public class DIPFPConditionalOneR {
 							}
 							for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 								newTable[t] = newTable[t]/sum;							
-							node.setCPTable(indices_of_parents,newTable);
+							batch.setCPTable(node, indices_of_parents,newTable);
 						} //end-for-j					
 					}
 					else { //|Pi(Cj)|=0
@@ -1398,14 +1407,13 @@ public class DIPFPConditionalOneR {
 						}
 						for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 							newTable[t] = newTable[t]/sum;						
-						node.setCPTable("",newTable);
+						batch.setCPTable(node, "",newTable);
 					}					
-					net.compile();
 				}//end-for-i
-				net.compile();
+				batch.ensureCompiled();
 				//getting Q_(k)(Y,S)
 				for (int i=0; i<numOfYSEntries; i++) {
-					jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
+					jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
 				}
 				TotalVariance obj = new TotalVariance(jpdOfYS, jpdOfYS_old);
 				totalVariance = obj.getTotalVariance();								
@@ -1429,7 +1437,7 @@ public class DIPFPConditionalOneR {
 			// trace the time
 			Date startDate = new Date();
 			long startTime = startDate.getTime();
-			net.compile();
+			batch.ensureCompiled();
 			//getting Y' and S
 			String[] YNamesOld = constraint.getVariableNames();
 			RetrieveStrictClosure rtc = new RetrieveStrictClosure(YNamesOld,net);
@@ -1488,7 +1496,7 @@ public class DIPFPConditionalOneR {
 			JointProbDistribution jpdOfYS = new JointProbDistribution(YSVars);
 			int numOfYSEntries = jpdOfYS.getNumOfEntries();
 			for (int i=0; i<numOfYSEntries; i++) {
-				jpdOfYS.addProbEntry(jpdOfYS.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS.getIndices(i)));
+				jpdOfYS.addProbEntry(jpdOfYS.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS.getIndices(i)));
 			}
 			//calling IPFPOneR.java to get Q_(k)(Y',S)
 			CIPFPOneR algo = new CIPFPOneR(jpdOfYS, constraint.getDistribution());
@@ -1535,7 +1543,7 @@ public class DIPFPConditionalOneR {
 						}
 						for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 							newTable[t] = newTable[t]/sum;						
-						node.setCPTable(indices_of_parents,newTable);
+						batch.setCPTable(node, indices_of_parents,newTable);
 					} //end-for-j					
 				}
 				else { //|Pi(Cj)|=0
@@ -1547,11 +1555,10 @@ public class DIPFPConditionalOneR {
 					}	
 					for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 						newTable[t] = newTable[t]/sum;					
-					node.setCPTable("",newTable);
+					batch.setCPTable(node, "",newTable);
 				}				
-				net.compile();
 			}//end-for-i
-			net.compile();											
+			batch.commit();
 			// trace the time
 			Date endDate = new Date();
 			long endTime = endDate.getTime();
@@ -1570,7 +1577,7 @@ public class DIPFPConditionalOneR {
 			// trace the time
 			Date startDate = new Date();
 			long startTime = startDate.getTime();
-			net.compile();
+			batch.ensureCompiled();
 			//getting Y' and S
 			String[] YNamesOld = constraint.getVariableNames();
 			RetrieveStrictClosure rtc = new RetrieveStrictClosure(YNamesOld, net);
@@ -1629,7 +1636,7 @@ public class DIPFPConditionalOneR {
 			JointProbDistribution jpdOfYS_old = new JointProbDistribution(YSVars);
 			int numOfYSEntries = jpdOfYS_old.getNumOfEntries();
 			for (int i = 0; i < numOfYSEntries; i++) {
-				jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i), net.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
+				jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i), batch.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
 			}
 			double totalVariance = 0;
 //			do {
@@ -1680,7 +1687,7 @@ public class DIPFPConditionalOneR {
 							}
 							for (int t = 0; t < rv.getNumOfStates(); t++) //normalization
 								newTable[t] = newTable[t]/sum;							
-							node.setCPTable(indices_of_parents,newTable);
+							batch.setCPTable(node, indices_of_parents,newTable);
 						} //end-for-j					
 					}
 					else { //|Pi(Cj)|=0
@@ -1692,14 +1699,13 @@ public class DIPFPConditionalOneR {
 						}
 						for (int t = 0; t < rv.getNumOfStates(); t++) //normalization
 							newTable[t] = newTable[t] / sum;						
-						node.setCPTable("", newTable);
+						batch.setCPTable(node, "", newTable);
 					}					
-					//net.compile();
 				}//end-for-i
-				net.compile();
+				batch.ensureCompiled();
 				//getting Q_(k)(Y',S)
 				for (int i = 0; i < numOfYSEntries; i++) {
-					jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i), net.getJointProbability(nodeListYS, jpdOfYS_old.getIndices(i)));
+					jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i), batch.getJointProbability(nodeListYS, jpdOfYS_old.getIndices(i)));
 				}
 				TotalVariance obj = new TotalVariance(jpdOfYS, jpdOfYS_old);
 				totalVariance = obj.getTotalVariance();								
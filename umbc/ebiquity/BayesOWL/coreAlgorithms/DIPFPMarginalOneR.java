@@ -92,6 +92,7 @@ import umbc.ebiquity.BayesOWL.commonMethod.*;
  */
 public class DIPFPMarginalOneR {
 	Net net;
+	CPTBatch batch;
 	MarginalConstraint constraint;
 	int variation;
 	long timeElapsed;
@@ -104,11 +105,24 @@ public class DIPFPMarginalOneR {
 	 * @param choice	implementation #
 	 */
 	public DIPFPMarginalOneR(Net bbn, MarginalConstraint r, int choice) {
-		if (bbn == null || r == null || choice>8 || choice<1) {
+		this(bbn == null ? null : new CPTBatch(bbn), r, choice);
+	}
+
+	/**
+	 * Constructor.
+	 * CPT writes go through the given batch, so that the caller decides when the net is compiled.
+	 *
+	 * @param b		CPT batch of the Bayesian Net
+	 * @param r		Marginal constraint
+	 * @param choice	implementation #
+	 */
+	public DIPFPMarginalOneR(CPTBatch b, MarginalConstraint r, int choice) {
+		if (b == null || r == null || choice>8 || choice<1) {
 			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.DIPFPMarginalOneR.java: Wrong BBN or Marginal Constraint or Implementation Choice provided!");
 		}
 		else {
-			net = bbn;
+			batch = b;
+			net = b.getNet();
 			constraint = r;
 			variation = choice;
 			timeElapsed = 0;
@@ -141,7 +155,7 @@ public class DIPFPMarginalOneR {
 			// trace the time
 			Date startDate = new Date();
 			long startTime = startDate.getTime();
-			net.compile();
+			batch.ensureCompiled();
 			String scopeType = constraint.getScopeType();
 			//local marginal constraint R(Y): R(C) or R(C,L)
 			if (scopeType.equals("local")) { 
@@ -205,7 +219,7 @@ public class DIPFPMarginalOneR {
 						nodeListY.addElement(net.getNode(YNames[i]));
 					for (int i=0; i<numOfREntries; i++) {
 						int[] indicesInR = localConstraint.getDistribution().getIndices(i);
-						jpdOfY.addProbEntry(indicesInR,net.getJointProbability(nodeListY,indicesInR));
+						jpdOfY.addProbEntry(indicesInR,batch.getJointProbability(nodeListY,indicesInR));
 					}
 					//computing, normalizing, and updating C's CPT entries 
 					for (int i=0; i<numOfEntries; i++) { //iterate over all possible assignments of the parent nodes
@@ -239,9 +253,9 @@ public class DIPFPMarginalOneR {
 						}						
 						for (int t=0; t<numOfNodeStates; t++) //normalization
 							newTable[t] = newTable[t]/sum;
-						node.setCPTable(indices_of_parents,newTable);
+						batch.setCPTable(node, indices_of_parents,newTable);
 					}
-					net.compile();
+					batch.commit();
 				}
 				//when C has no parents: |L|=0, Q_(k)(C) = Q_(k-1)(C) * R(C) / Q_(k-1)(C) -> Q_(k)(C) = R(C)
 				else { 
@@ -254,8 +268,8 @@ public class DIPFPMarginalOneR {
 					}
 					for (int i=0; i<numOfNodeStates; i++) //normalization
 						newTable[i] = newTable[i]/sum;					
-					node.setCPTable("",newTable);
-					net.compile();
+					batch.setCPTable(node, "",newTable);
+					batch.commit();
 				}				
 			}
 			//nonlocal marginal constraint R(Y): R(C1, C2, ..., Cn) and n>=2
@@ -310,7 +324,7 @@ public class DIPFPMarginalOneR {
 				JointProbDistribution jpdOfYS = new JointProbDistribution(YSVars);
 				int numOfYSEntries = jpdOfYS.getNumOfEntries();
 				for (int i=0; i<numOfYSEntries; i++) {
-					jpdOfYS.addProbEntry(jpdOfYS.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS.getIndices(i)));
+					jpdOfYS.addProbEntry(jpdOfYS.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS.getIndices(i)));
 				}
 				//calling IPFPOneR.java to get Q_(k)(Y,S)
 				IPFPOneR algo = new IPFPOneR(jpdOfYS, constraint.getDistribution());
@@ -357,7 +371,7 @@ public class DIPFPMarginalOneR {
 							}
 							for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 								newTable[t] = newTable[t]/sum;												
-							node.setCPTable(indices_of_parents,newTable);
+							batch.setCPTable(node, indices_of_parents,newTable);
 						} //end-for-j					
 					}
 					else { //|Pi(Cj)|=0
@@ -369,11 +383,10 @@ public class DIPFPMarginalOneR {
 						}	
 						for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 							newTable[t] = newTable[t]/sum;												
-						node.setCPTable("",newTable);
+						batch.setCPTable(node, "",newTable);
 					}
-					net.compile();
 				}//end-for-i
-				net.compile();
+				batch.commit();
 			}
 			else { //otherwise
 				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.DIPFPMarginalOneR.java (method variation1()): Wrong marginal constraint provided!");				
@@ -396,7 +409,7 @@ public class DIPFPMarginalOneR {
 			// trace the time
 			Date startDate = new Date();
 			long startTime = startDate.getTime();
-			net.compile();
+			batch.ensureCompiled();
 			String scopeType = constraint.getScopeType();
 			//local marginal constraint R(Y): R(C) or R(C,L)
 			if (scopeType.equals("local")) { 
@@ -460,7 +473,7 @@ public class DIPFPMarginalOneR {
 						nodeListY.addElement(net.getNode(YNames[i]));
 					for (int i=0; i<numOfREntries; i++) {
 						int[] indicesInR = localConstraint.getDistribution().getIndices(i);
-						jpdOfY.addProbEntry(indicesInR,net.getJointProbability(nodeListY,indicesInR));
+						jpdOfY.addProbEntry(indicesInR,batch.getJointProbability(nodeListY,indicesInR));
 					}
 					//computing, normalizing, and updating C's CPT entries 
 					for (int i=0; i<numOfEntries; i++) { //iterate over all possible assignments of the parent nodes
@@ -494,9 +507,9 @@ public class DIPFPMarginalOneR {
 						}						
 						for (int t=0; t<numOfNodeStates; t++) //normalization
 							newTable[t] = newTable[t]/sum;
-						node.setCPTable(indices_of_parents,newTable);
+						batch.setCPTable(node, indices_of_parents,newTable);
 					}
-					net.compile();
+					batch.commit();
 				}
 				//when C has no parents: |L|=0, Q_(k)(C) = Q_(k-1)(C) * R(C) / Q_(k-1)(C) -> Q_(k)(C) = R(C)
 				else { 
@@ -509,8 +522,8 @@ public class DIPFPMarginalOneR {
 					}
 					for (int i=0; i<numOfNodeStates; i++) //normalization
 						newTable[i] = newTable[i]/sum;										
-					node.setCPTable("",newTable);
-					net.compile();
+					batch.setCPTable(node, "",newTable);
+					batch.commit();
 				}				
 			}
 			//nonlocal marginal constraint R(Y): R(C1, C2, ..., Cn) and n>=2
@@ -565,7 +578,7 @@ public class DIPFPMarginalOneR {
 				JointProbDistribution jpdOfYS_old = new JointProbDistribution(YSVars);
 				int numOfYSEntries = jpdOfYS_old.getNumOfEntries();
 				for (int i=0; i<numOfYSEntries; i++) {
-					jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
+					jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
 				}
 				double totalVariance = 0;				
 				do {
@@ -618,10 +631,7 @@ public class DIPFPMarginalOneR {
 								}
 								for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 									newTable[t] = newTable[t]/sum;												
-								node.setCPTable(indices_of_parents,newTable);
-								System.out.println("*******"+newTable[0]);
-								float[] temp = new float[55];
-								System.out.println("*******"+node.getCPTable(indices_of_parents, temp)[0]);
+								batch.setCPTable(node, indices_of_parents,newTable);
 							} //end-for-j					
 						}
 						else { //|Pi(Cj)|=0
@@ -633,14 +643,13 @@ public class DIPFPMarginalOneR {
 							}
 							for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 								newTable[t] = newTable[t]/sum;
-							node.setCPTable("",newTable);
+							batch.setCPTable(node, "",newTable);
 						}				
-						net.compile();
 					}//end-for-i
-					net.compile();					
+					batch.ensureCompiled();
 					//getting Q_(k)(Y,S)
 					for (int i=0; i<numOfYSEntries; i++) {
-						jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
+						jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
 					}
 					TotalVariance obj = new TotalVariance(jpdOfYS, jpdOfYS_old);
 					totalVariance = obj.getTotalVariance();
@@ -669,7 +678,7 @@ public class DIPFPMarginalOneR {
 			// trace the time
 			Date startDate = new Date();
 			long startTime = startDate.getTime();
-			net.compile();
+			batch.ensureCompiled();
 			String scopeType = constraint.getScopeType();
 			//local marginal constraint R(Y): R(C) or R(C,L)
 			if (scopeType.equals("local")) { 
@@ -733,7 +742,7 @@ public class DIPFPMarginalOneR {
 						nodeListY.addElement(net.getNode(YNames[i]));
 					for (int i=0; i<numOfREntries; i++) {
 						int[] indicesInR = localConstraint.getDistribution().getIndices(i);
-						jpdOfY.addProbEntry(indicesInR,net.getJointProbability(nodeListY,indicesInR));
+						jpdOfY.addProbEntry(indicesInR,batch.getJointProbability(nodeListY,indicesInR));
 					}
 					//computing, normalizing, and updating C's CPT entries 
 					for (int i=0; i<numOfEntries; i++) { //iterate over all possible assignments of the parent nodes
@@ -767,9 +776,9 @@ public class DIPFPMarginalOneR {
 						}						
 						for (int t=0; t<numOfNodeStates; t++) //normalization
 							newTable[t] = newTable[t]/sum;
-						node.setCPTable(indices_of_parents,newTable);
+						batch.setCPTable(node, indices_of_parents,newTable);
 					}
-					net.compile();
+					batch.commit();
 				}
 				//when C has no parents: |L|=0, Q_(k)(C) = Q_(k-1)(C) * R(C) / Q_(k-1)(C) -> Q_(k)(C) = R(C)
 				else { 
@@ -782,8 +791,8 @@ public class DIPFPMarginalOneR {
 					}
 					for (int i=0; i<numOfNodeStates; i++) //normalization
 						newTable[i] = newTable[i]/sum;										
-					node.setCPTable("",newTable);
-					net.compile();
+					batch.setCPTable(node, "",newTable);
+					batch.commit();
 				}				
 			}
 			//nonlocal marginal constraint R(Y): R(C1, C2, ..., Cn) and n>=2
@@ -846,7 +855,7 @@ public class DIPFPMarginalOneR {
 				JointProbDistribution jpdOfYS = new JointProbDistribution(YSVars);
 				int numOfYSEntries = jpdOfYS.getNumOfEntries();
 				for (int i=0; i<numOfYSEntries; i++) {
-					jpdOfYS.addProbEntry(jpdOfYS.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS.getIndices(i)));
+					jpdOfYS.addProbEntry(jpdOfYS.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS.getIndices(i)));
 				}
 				//calling IPFPOneR.java to get Q_(k)(Y',S)
 				IPFPOneR algo = new IPFPOneR(jpdOfYS, constraint.getDistribution());
@@ -893,7 +902,7 @@ public class DIPFPMarginalOneR {
 							}
 							for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 								newTable[t] = newTable[t]/sum;
-							node.setCPTable(indices_of_parents,newTable);
+							batch.setCPTable(node, indices_of_parents,newTable);
 						} //end-for-j					
 					}
 					else { //|Pi(Cj)|=0
@@ -905,11 +914,10 @@ public class DIPFPMarginalOneR {
 						}	
 						for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 							newTable[t] = newTable[t]/sum;
-						node.setCPTable("",newTable);
+						batch.setCPTable(node, "",newTable);
 					}					
-					net.compile();
 				}//end-for-i
-				net.compile();				
+				batch.commit();
 			}
 			else { //otherwise
 				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.DIPFPMarginalOneR.java (method variation3()): Wrong marginal constraint provided!");				
@@ -932,7 +940,7 @@ public class DIPFPMarginalOneR {
 			// trace the time
 			Date startDate = new Date();
 			long startTime = startDate.getTime();
-			net.compile();
+			batch.ensureCompiled();
 			String scopeType = constraint.getScopeType();
 			//local marginal constraint R(Y): R(C) or R(C,L)
 			if (scopeType.equals("local")) { 
@@ -996,7 +1004,7 @@ public class DIPFPMarginalOneR {
 						nodeListY.addElement(net.getNode(YNames[i]));
 					for (int i=0; i<numOfREntries; i++) {
 						int[] indicesInR = localConstraint.getDistribution().getIndices(i);
-						jpdOfY.addProbEntry(indicesInR,net.getJointProbability(nodeListY,indicesInR));
+						jpdOfY.addProbEntry(indicesInR,batch.getJointProbability(nodeListY,indicesInR));
 					}
 					//computing, normalizing, and updating C's CPT entries 
 					for (int i=0; i<numOfEntries; i++) { //iterate over all possible assignments of the parent nodes
@@ -1030,9 +1038,9 @@ public class DIPFPMarginalOneR {
 						}						
 						for (int t=0; t<numOfNodeStates; t++) //normalization
 							newTable[t] = newTable[t]/sum;
-						node.setCPTable(indices_of_parents,newTable);
+						batch.setCPTable(node, indices_of_parents,newTable);
 					}
-					net.compile();
+					batch.commit();
 				}
 				//when C has no parents: |L|=0, Q_(k)(C) = Q_(k-1)(C) * R(C) / Q_(k-1)(C) -> Q_(k)(C) = R(C)
 				else { 
@@ -1045,8 +1053,8 @@ public class DIPFPMarginalOneR {
 					}
 					for (int i=0; i<numOfNodeStates; i++) //normalization
 						newTable[i] = newTable[i]/sum;										
-					node.setCPTable("",newTable);
-					net.compile();
+					batch.setCPTable(node, "",newTable);
+					batch.commit();
 				}				
 			}
 			//nonlocal marginal constraint R(Y): R(C1, C2, ..., Cn) and n>=2
@@ -1109,7 +1117,7 @@ public class DIPFPMarginalOneR {
 				JointProbDistribution jpdOfYS_old = new JointProbDistribution(YSVars);
 				int numOfYSEntries = jpdOfYS_old.getNumOfEntries();
 				for (int i=0; i<numOfYSEntries; i++) {
-					jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
+					jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
 				}
 				double totalVariance = 0;
 				do {
@@ -1160,7 +1168,7 @@ public class DIPFPMarginalOneR {
 								}
 								for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 									newTable[t] = newTable[t]/sum;
-								node.setCPTable(indices_of_parents,newTable);
+								batch.setCPTable(node, indices_of_parents,newTable);
 							} //end-for-j					
 						}
 						else { //|Pi(Cj)|=0
@@ -1172,14 +1180,13 @@ public class DIPFPMarginalOneR {
 							}
 							for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 								newTable[t] = newTable[t]/sum;
-							node.setCPTable("",newTable);
+							batch.setCPTable(node, "",newTable);
 						}						
-						net.compile();
 					}//end-for-i
-					net.compile();	
+					batch.ensureCompiled();
 					//getting Q_(k)(Y',S)
 					for (int i=0; i<numOfYSEntries; i++) {
-						jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
+						jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
 					}
 					TotalVariance obj = new TotalVariance(jpdOfYS, jpdOfYS_old);
 					totalVariance = obj.getTotalVariance();					
@@ -1207,7 +1214,7 @@ public class DIPFPMarginalOneR {
 			// trace the time
 			Date startDate = new Date();
 			long startTime = startDate.getTime();
-			net.compile();
+			batch.ensureCompiled();
 			//getting Y and S
 			String[] YNames = constraint.getVariableNames();
 			int numOfYVars = constraint.getNumOfVariables();
@@ -1258,7 +1265,7 @@ public class DIPFPMarginalOneR {
 			JointProbDistribution jpdOfYS = new JointProbDistribution(YSVars);
 			int numOfYSEntries = jpdOfYS.getNumOfEntries();
 			for (int i=0; i<numOfYSEntries; i++) {
-				jpdOfYS.addProbEntry(jpdOfYS.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS.getIndices(i)));
+				jpdOfYS.addProbEntry(jpdOfYS.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS.getIndices(i)));
 			}
 			//calling IPFPOneR.java to get Q_(k)(Y,S)
 			IPFPOneR algo = new IPFPOneR(jpdOfYS, constraint.getDistribution());
@@ -1305,7 +1312,7 @@ public class DIPFPMarginalOneR {
 						}
 						for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 							newTable[t] = newTable[t]/sum;
-						node.setCPTable(indices_of_parents,newTable);
+						batch.setCPTable(node, indices_of_parents,newTable);
 					} //end-for-j					
 				}
 				else { //|Pi(Cj)|=0
@@ -1317,11 +1324,10 @@ public class DIPFPMarginalOneR {
 					}	
 					for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 						newTable[t] = newTable[t]/sum;
-					node.setCPTable("",newTable);
+					batch.setCPTable(node, "",newTable);
 				}				
-				net.compile();
 			}//end-for-i
-			net.compile();			
+			batch.commit();
 			// trace the time
 			Date endDate = new Date();
 			long endTime = endDate.getTime();
@@ -1340,7 +1346,7 @@ public class DIPFPMarginalOneR {
 			// trace the time
 			Date startDate = new Date();
 			long startTime = startDate.getTime();
-			net.compile();
+			batch.ensureCompiled();
 			//getting Y and S
 			String[] YNames = constraint.getVariableNames();
 			int numOfYVars = constraint.getNumOfVariables();
@@ -1391,7 +1397,7 @@ public class DIPFPMarginalOneR {
 			JointProbDistribution jpdOfYS_old = new JointProbDistribution(YSVars);
 			int numOfYSEntries = jpdOfYS_old.getNumOfEntries();
 			for (int i=0; i<numOfYSEntries; i++) {
-				jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
+				jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
 			}
 			double totalVariance = 0;
 			do {
@@ -1442,7 +1448,7 @@ public class DIPFPMarginalOneR {
 							}
 							for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 								newTable[t] = newTable[t]/sum;
-							node.setCPTable(indices_of_parents,newTable);
+							batch.setCPTable(node, indices_of_parents,newTable);
 						} //end-for-j					
 					}
 					else { //|Pi(Cj)|=0
@@ -1454,14 +1460,13 @@ public class DIPFPMarginalOneR {
 						}		
 						for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 							newTable[t] = newTable[t]/sum;
-						node.setCPTable("",newTable);
+						batch.setCPTable(node, "",newTable);
 					}					
-					net.compile();
 				}//end-for-i
-				net.compile();
+				batch.ensureCompiled();
 				//getting Q_(k)(Y,S)
 				for (int i=0; i<numOfYSEntries; i++) {
-					jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
+					jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
 				}
 				TotalVariance obj = new TotalVariance(jpdOfYS, jpdOfYS_old);
 				totalVariance = obj.getTotalVariance();				
@@ -1485,7 +1490,7 @@ public class DIPFPMarginalOneR {
 			// trace the time
 			Date startDate = new Date();
 			long startTime = startDate.getTime();
-			net.compile();
+			batch.ensureCompiled();
 			//getting Y' and S
 			String[] YNamesOld = constraint.getVariableNames();
 			RetrieveStrictClosure rtc = new RetrieveStrictClosure(YNamesOld,net);
@@ -1544,7 +1549,7 @@ public class DIPFPMarginalOneR {
 			JointProbDistribution jpdOfYS = new JointProbDistribution(YSVars);
 			int numOfYSEntries = jpdOfYS.getNumOfEntries();
 			for (int i=0; i<numOfYSEntries; i++) {
-				jpdOfYS.addProbEntry(jpdOfYS.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS.getIndices(i)));
+				jpdOfYS.addProbEntry(jpdOfYS.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS.getIndices(i)));
 			}
 			//calling IPFPOneR.java to get Q_(k)(Y',S)
 			IPFPOneR algo = new IPFPOneR(jpdOfYS, constraint.getDistribution());
@@ -1591,7 +1596,7 @@ public class DIPFPMarginalOneR {
 						}
 						for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 							newTable[t] = newTable[t]/sum;
-						node.setCPTable(indices_of_parents,newTable);
+						batch.setCPTable(node, indices_of_parents,newTable);
 					} //end-for-j
 				}
 				else { //|Pi(Cj)|=0
@@ -1603,11 +1608,10 @@ public class DIPFPMarginalOneR {
 					}	
 					for (int t=0; t<rv.getNumOfStates(); t++) //normalization
 						newTable[t] = newTable[t]/sum;
-					node.setCPTable("",newTable);
+					batch.setCPTable(node, "",newTable);
 				}				
-				net.compile();
 			}//end-for-i
-			net.compile();							
+			batch.commit();
 			// trace the time
 			Date endDate = new Date();
 			long endTime = endDate.getTime();
@@ -1626,7 +1630,7 @@ public class DIPFPMarginalOneR {
 			// trace the time
 			Date startDate = new Date();
 			long startTime = startDate.getTime();
-			net.compile();
+			batch.ensureCompiled();
 			//getting Y' and S
 			String[] YNamesOld = constraint.getVariableNames();
 			RetrieveStrictClosure rtc = new RetrieveStrictClosure(YNamesOld,net);
@@ -1685,7 +1689,7 @@ public class DIPFPMarginalOneR {
 			JointProbDistribution jpdOfYS_old = new JointProbDistribution(YSVars);
 			int numOfYSEntries = jpdOfYS_old.getNumOfEntries();
 			for (int i = 0; i < numOfYSEntries; i++) {
-				jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i), net.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
+				jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i), batch.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
 			}
 			double totalVariance = 0;
 			do {
@@ -1736,7 +1740,7 @@ public class DIPFPMarginalOneR {
 							}
 							for (int t = 0; t < rv.getNumOfStates(); t++) //normalization
 								newTable[t] = newTable[t]/sum;
-							node.setCPTable(indices_of_parents, newTable);
+							batch.setCPTable(node, indices_of_parents, newTable);
 						} //end-for-j					
 					}
 					else { //|Pi(Cj)|=0
@@ -1748,15 +1752,14 @@ public class DIPFPMarginalOneR {
 						}
 						for (int t = 0; t < rv.getNumOfStates(); t++) //normalization
 							newTable[t] = newTable[t] / sum;
-						node.setCPTable("",newTable);
+						batch.setCPTable(node, "",newTable);
 					}					
-					//net.compile();
 				}//end-for-i
-				net.compile();		
+				batch.ensureCompiled();
 				
 				//getting Q_(k)(Y',S)
 				for (int i = 0; i < numOfYSEntries; i++) {
-					jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),net.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
+					jpdOfYS_old.addProbEntry(jpdOfYS_old.getIndices(i),batch.getJointProbability(nodeListYS,jpdOfYS_old.getIndices(i)));
 				}
 				TotalVariance obj = new TotalVariance(jpdOfYS, jpdOfYS_old);
 				totalVariance = obj.getTotalVariance();				
@@ -0,0 +1,455 @@
+/**
+ * DualIPFP.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ * See class IPFP.java, and paper:<br>
+ * 	On the Limited Memory BFGS Method for Large Scale Optimization<br>
+ * 	D. C. Liu and J. Nocedal<br>
+ * 	Mathematical Programming, Vol. 45 (1989), pp. 503-528<br>
+ */
+
+package umbc.ebiquity.BayesOWL.coreAlgorithms;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+
+/**
+ * This class computes the same I-projection as IPFP, by solving its convex dual with L-BFGS.<br>
+ * <br>
+ * Q(X): A joint distribution of random variables in X.<br>
+ * {R(Si)}: A set of constraints to be satisfied and each Si is a non-empty subset of X.<br>
+ * The distribution IPFP converges to has the form<br>
+ * 	P(X) = Q(X) * exp(sum_i L_i(Si)) / Z(L)<br>
+ * with one Lagrange multiplier L_i(s) per entry of each R(Si). The multipliers minimize the convex function<br>
+ * 	f(L) = log Z(L) - sum_i sum_s L_i(s) * R(Si=s),	with gradient	P(Si=s) - R(Si=s),<br>
+ * so that f is minimized exactly when every constraint is satisfied.<br>
+ * Entries where R(Si) = 0 are not given a multiplier: the states of X they cover are set to 0 at once,
+ * as IPFP does in its first cycle. Q(X) = 0 stays 0.<br>
+ * <br>
+ * Each evaluation of f and its gradient is one pass over Q(X), split over a pool of threads,
+ * each of which sums exp(...) and the marginals P(Si) of all the constraints over its part of X.
+ * A pass thus costs about as much as one IPFP cycle (one step for each constraint), not one step.
+ * L-BFGS usually needs several passes per IPFP cycle; a pass is a plain loop over arrays in
+ * parallel, while an IPFP step copies Q(X) and its marginal, so the time may still be lower.<br>
+ * Assume Q(X), {R(Si)} are valid distributions, complete and consistent.<br>
+ *
+ */
+public class DualIPFP {
+	JointProbDistribution Q;		//the joint probability distribution Q(X)
+	JointProbDistribution[] R;		//the given constraints {R(Si)}
+	int numOfThreads;
+	int memory;						//number of correction pairs kept by L-BFGS
+	long timeElapsed;
+	int loopsUsed;
+	FeasibilityAnalyzer analyzer;	//checks the constraints before fitting, null if none
+
+	int[] support;					//offsets in Q(X) of the states that may have a positive probability
+	double[] logQ;					//log Q(x) of each state in 'support'
+	int[][] multiplier;				//for each constraint, the multiplier of each state in 'support'
+	double[] target;				//R(Si=s) of each multiplier
+	double[] chunkMax;				//largest exponent in each part of 'support', of the last pass
+	double[] probs;					//exp(exponent - chunkMax) of each state in 'support', of the last pass
+
+	/**
+	 * Constructor, using one thread per processor.
+	 *
+	 * @param q:	JPD
+	 * @param r:	JPD (constraints)
+	 */
+	public DualIPFP (JointProbDistribution q, JointProbDistribution[] r) {
+		this(q, r, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param q:	JPD
+	 * @param r:	JPD (constraints)
+	 * @param threads:	number of threads of each pass over Q(X)
+	 */
+	public DualIPFP (JointProbDistribution q, JointProbDistribution[] r, int threads) {
+		if (q == null || r == null || r.length == 0 || threads <= 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.DualIPFP.java: Wrong distributions or number of threads provided!");
+		}
+		else {
+			Q = new JointProbDistribution(q);
+			R = new JointProbDistribution[r.length];
+			for (int i = 0; i<r.length; i++) {
+				R[i] = r[i];
+			}
+			numOfThreads = threads;
+			memory = 7;
+			timeElapsed = 0;
+			loopsUsed = 0;
+		}
+	}
+
+	/**
+	 * Sets the number of correction pairs L-BFGS keeps, 7 by default.
+	 *
+	 * @param m	number of pairs, 3 to 20 is usual
+	 */
+	public void setMemory(int m) {
+		if (m <= 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.DualIPFP.java: Wrong memory provided!");
+		}
+		memory = m;
+	}
+
+	/**
+	 * Sets an analyzer (e.g. FeasibilityAnalyzer(q), with the initial distribution) to check the
+	 * constraints first; an infeasible set has no dual minimum, and "run" would use up 'maxLoops'.
+	 *
+	 * @param a	feasibility analyzer, null for no check
+	 */
+	public void setFeasibilityAnalyzer(FeasibilityAnalyzer a) {
+		analyzer = a;
+	}
+
+	/**
+	 * Minimizes the dual with L-BFGS and a backtracking line search.
+	 *
+	 * @param maxLoops if the constraints are not satisfied in 'maxLoops' passes over Q(X), we think they will not be at all.
+	 * @param threshold the constraints are satisfied when the sum over all of them of the total variance |P(Si)-R(Si)| is not larger than the threshold.
+	 */
+	public void run (int maxLoops, double threshold) {
+		if (analyzer != null)
+			analyzer.check(R);
+		long startTime = new Date().getTime();
+		prepare();
+		int n = target.length;
+		double[] x = new double[n];
+		double[] g = new double[n];
+		double[] xNew = new double[n];
+		double[] gNew = new double[n];
+		double[] d = new double[n];
+		double[][] s = new double[memory][n];
+		double[][] y = new double[memory][n];
+		double[] rho = new double[memory];
+		double[] alpha = new double[memory];
+		int numOfPairs = 0;
+		int newest = -1;
+		int counter = 0;
+		boolean success = true;
+
+		ExecutorService pool = Executors.newFixedThreadPool(numOfThreads);
+		try {
+			double f = evaluate(pool, x, g);
+			counter++;
+			while (norm(g) > threshold) {
+				if (counter > maxLoops) {
+					success = false;
+					break;
+				}
+				//two-loop recursion: d = -H * g
+				for (int j = 0; j < n; j++)
+					d[j] = -g[j];
+				for (int k = 0; k < numOfPairs; k++) {
+					int p = (newest - k + memory) % memory;
+					alpha[p] = rho[p] * dot(s[p], d);
+					for (int j = 0; j < n; j++)
+						d[j] -= alpha[p] * y[p][j];
+				}
+				if (numOfPairs > 0) {
+					double gamma = dot(s[newest], y[newest]) / dot(y[newest], y[newest]);
+					for (int j = 0; j < n; j++)
+						d[j] *= gamma;
+				}
+				for (int k = numOfPairs - 1; k >= 0; k--) {
+					int p = (newest - k + memory) % memory;
+					double beta = rho[p] * dot(y[p], d);
+					for (int j = 0; j < n; j++)
+						d[j] += (alpha[p] - beta) * s[p][j];
+				}
+				double slope = dot(d, g);
+				if (!(slope < 0)) {		//not a descent direction, start again from the gradient
+					numOfPairs = 0;
+					for (int j = 0; j < n; j++)
+						d[j] = -g[j];
+					slope = -dot(g, g);
+				}
+				//backtracking line search, sufficient decrease; near the minimum the decrease of f is
+				//lost in rounding, and f being convex along d, a smaller slope is then taken as progress
+				double step = 1.0;
+				double fNew;
+				while (true) {
+					for (int j = 0; j < n; j++)
+						xNew[j] = x[j] + step * d[j];
+					fNew = evaluate(pool, xNew, gNew);
+					counter++;
+					if (fNew <= f + 1e-4 * step * slope || counter > maxLoops)
+						break;
+					if (Math.abs(fNew - f) <= 1e-12 * (1.0 + Math.abs(f)) && Math.abs(dot(gNew, d)) <= 0.9 * -slope)
+						break;
+					step *= 0.5;
+				}
+				newest = (newest + 1) % memory;
+				for (int j = 0; j < n; j++) {
+					s[newest][j] = xNew[j] - x[j];
+					y[newest][j] = gNew[j] - g[j];
+				}
+				double sy = dot(s[newest], y[newest]);
+				if (sy > 1e-10 * dot(y[newest], y[newest])) {
+					rho[newest] = 1.0 / sy;
+					numOfPairs = Math.min(numOfPairs + 1, memory);
+				}
+				else {		//no curvature along this step, drop the pair; its slot held the oldest one
+					newest = (newest - 1 + memory) % memory;
+					numOfPairs = Math.min(numOfPairs, memory - 1);
+				}
+				double[] t = x; x = xNew; xNew = t;
+				t = g; g = gNew; gNew = t;
+				f = fNew;
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+		writeDistribution();	//the last pass is at the last accepted multipliers
+
+		timeElapsed = new Date().getTime() - startTime;
+		loopsUsed = counter;
+		if (!success)
+		{
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.DualIPFP.java: Failure - The set of constraints will not be converged in " + maxLoops + " loops!");
+		}
+	}
+
+	/**
+	 * Finds the states of X which may have a positive probability, and the multiplier each constraint
+	 * gives to each of them.
+	 */
+	private void prepare() {
+		int numOfEntries_Q = Q.getNumOfEntries();
+		int[][] offsets_R = new int[R.length][numOfEntries_Q];	//entry of each constraint for each state of X
+		int numOfMultipliers = 0;
+		for (int i = 0; i < R.length; i++) {
+			int numOfVariables_R = R[i].getNumOfVariables();
+			int[] dims_in_Q = new int[numOfVariables_R];
+			for (int j = 0; j < numOfVariables_R; j++) {
+				String name = R[i].getVariable(j).getName();
+				if (!Q.containsVariable(name)) {
+					throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.DualIPFP.java: Variable " + name + " of a constraint is not in the distribution!");
+				}
+				dims_in_Q[j] = Q.getDimension(name);
+			}
+			for (int x = 0; x < numOfEntries_Q; x++) {
+				int[] indices_Q = Q.getIndices(x);
+				int offset = 0;
+				for (int j = 0; j < numOfVariables_R; j++)		//row-major, as the entries of R(Si)
+					offset = offset * R[i].getVariable(j).getNumOfStates() + indices_Q[dims_in_Q[j]];
+				offsets_R[i][x] = offset;
+			}
+			//one multiplier per positive entry of R(Si)
+			int[] entries = new int[R[i].getNumOfEntries()];
+			for (int e = 0; e < entries.length; e++)
+				entries[e] = R[i].getProbEntry(e) > 0 ? numOfMultipliers++ : -1;
+			offsets_R[i] = remap(offsets_R[i], entries);
+		}
+		target = new double[numOfMultipliers];
+		int m = 0;
+		for (int i = 0; i < R.length; i++) {
+			for (int e = 0; e < R[i].getNumOfEntries(); e++) {
+				if (R[i].getProbEntry(e) > 0)
+					target[m++] = R[i].getProbEntry(e);
+			}
+		}
+
+		int numOfStates = 0;
+		int[] index = new int[numOfEntries_Q];
+		for (int x = 0; x < numOfEntries_Q; x++) {
+			boolean possible = Q.getProbEntry(x) > 0;
+			for (int i = 0; possible && i < R.length; i++)
+				possible = offsets_R[i][x] >= 0;
+			if (possible)
+				index[numOfStates++] = x;
+		}
+		if (numOfStates == 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.DualIPFP.java: Failure - The set of constraints is not consistent with the distribution!");
+		}
+		support = new int[numOfStates];
+		logQ = new double[numOfStates];
+		multiplier = new int[R.length][numOfStates];
+		for (int k = 0; k < numOfStates; k++) {
+			support[k] = index[k];
+			logQ[k] = Math.log(Q.getProbEntry(index[k]));
+			for (int i = 0; i < R.length; i++)
+				multiplier[i][k] = offsets_R[i][index[k]];
+		}
+		probs = new double[numOfStates];
+	}
+
+	/**
+	 * Replaces each entry of a constraint by its multiplier.
+	 *
+	 * @param offsets	entry of the constraint for each state of X
+	 * @param entries	multiplier of each entry, -1 if none
+	 * @return	multiplier for each state of X, -1 if none
+	 */
+	private static int[] remap(int[] offsets, int[] entries) {
+		for (int x = 0; x < offsets.length; x++)
+			offsets[x] = entries[offsets[x]];
+		return offsets;
+	}
+
+	/**
+	 * Computes f(L) and its gradient P(Si=s) - R(Si=s), in one pass over Q(X) split over the pool.
+	 * Each part is summed relative to its own largest exponent, and the parts are combined at the end,
+	 * so that exp(...) never overflows.
+	 *
+	 * @param pool	thread pool
+	 * @param lambda	multipliers
+	 * @param grad	(output) gradient
+	 * @return	f(L)
+	 */
+	private double evaluate(ExecutorService pool, final double[] lambda, double[] grad) {
+		final int numOfStates = support.length;
+		final int n = lambda.length;
+		int numOfChunks = Math.min(numOfThreads, numOfStates);
+		chunkMax = new double[numOfChunks];
+		Vector tasks = new Vector();
+		for (int c = 0; c < numOfChunks; c++) {
+			final int chunk = c;
+			final int from = (int) ((long) numOfStates * c / numOfChunks);
+			final int to = (int) ((long) numOfStates * (c + 1) / numOfChunks);
+			tasks.addElement(new Callable() {
+				public Object call() {
+					double max = Double.NEGATIVE_INFINITY;
+					for (int k = from; k < to; k++) {
+						double e = logQ[k];
+						for (int i = 0; i < multiplier.length; i++)
+							e += lambda[multiplier[i][k]];
+						probs[k] = e;
+						if (e > max)
+							max = e;
+					}
+					double[] sums = new double[n + 1];	//marginals, then the total
+					for (int k = from; k < to; k++) {
+						double p = Math.exp(probs[k] - max);
+						probs[k] = p;
+						for (int i = 0; i < multiplier.length; i++)
+							sums[multiplier[i][k]] += p;
+						sums[n] += p;
+					}
+					chunkMax[chunk] = max;
+					return sums;
+				}
+			});
+		}
+		Vector results = new Vector();
+		try {
+			List futures = pool.invokeAll(tasks);
+			for (int c = 0; c < numOfChunks; c++)
+				results.addElement(((Future) futures.get(c)).get());
+		}
+		catch (InterruptedException e) {
+			throw new IllegalStateException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.DualIPFP.java: Interrupted!");
+		}
+		catch (ExecutionException e) {
+			throw new IllegalStateException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.DualIPFP.java: " + e.getCause());
+		}
+		double max = Double.NEGATIVE_INFINITY;
+		for (int c = 0; c < numOfChunks; c++)
+			max = Math.max(max, chunkMax[c]);
+		double z = 0.0;
+		Arrays.fill(grad, 0.0);
+		for (int c = 0; c < numOfChunks; c++) {
+			double[] sums = (double[]) results.get(c);
+			double scale = Math.exp(chunkMax[c] - max);
+			for (int j = 0; j < n; j++)
+				grad[j] += sums[j] * scale;
+			z += sums[n] * scale;
+		}
+		double f = max + Math.log(z);
+		for (int j = 0; j < n; j++) {
+			grad[j] = grad[j] / z - target[j];
+			f -= lambda[j] * target[j];
+		}
+		return f;
+	}
+
+	/**
+	 * Writes the distribution of the last pass over Q(X) into Q.
+	 */
+	private void writeDistribution() {
+		int numOfChunks = chunkMax.length;
+		double max = Double.NEGATIVE_INFINITY;
+		for (int c = 0; c < numOfChunks; c++)
+			max = Math.max(max, chunkMax[c]);
+		double z = 0.0;
+		double[] scale = new double[numOfChunks];
+		for (int c = 0; c < numOfChunks; c++) {
+			scale[c] = Math.exp(chunkMax[c] - max);
+			int from = (int) ((long) support.length * c / numOfChunks);
+			int to = (int) ((long) support.length * (c + 1) / numOfChunks);
+			for (int k = from; k < to; k++) {
+				probs[k] *= scale[c];
+				z += probs[k];
+			}
+		}
+		for (int x = 0; x < Q.getNumOfEntries(); x++)
+			Q.addProbEntry(x, 0.0);
+		for (int k = 0; k < support.length; k++)
+			Q.addProbEntry(support[k], probs[k] / z);
+	}
+
+	/**
+	 * Computes the inner product of two vectors.
+	 *
+	 * @param a	vector
+	 * @param b	vector
+	 * @return	a * b
+	 */
+	private static double dot(double[] a, double[] b) {
+		double sum = 0.0;
+		for (int j = 0; j < a.length; j++)
+			sum += a[j] * b[j];
+		return sum;
+	}
+
+	/**
+	 * Computes the sum of the absolute values of a vector; for the gradient, the sum over all the
+	 * constraints of |P(Si) - R(Si)|, except the entries where R(Si) = 0, which are 0 in P(Si).
+	 *
+	 * @param a	vector
+	 * @return	|a|
+	 */
+	private static double norm(double[] a) {
+		double sum = 0.0;
+		for (int j = 0; j < a.length; j++)
+			sum += Math.abs(a[j]);
+		return sum;
+	}
+
+	/**
+	 * Returns the joint probability distribution involved in the computation.
+	 *
+	 * @return	JPD
+	 */
+	public JointProbDistribution getDistribution() {
+		return Q;
+	}
+
+	/**
+	 * Returns the execution time of running the algorithm.
+	 *
+	 * @return	execution time
+	 */
+	public long getExecTime() {
+		return timeElapsed;
+	}
+
+	/**
+	 * Returns the number of passes over Q(X) used by the algorithm. Each pass computes the marginals
+	 * of all the constraints, so compare it with the number of IPFP cycles, i.e. IPFP.getExecLoops()
+	 * divided by the number of constraints.
+	 *
+	 * @return	execution iteration
+	 */
+	public int getExecLoops() {
+		return loopsUsed;
+	}
+}
@@ -31,6 +31,8 @@ import norsys.netica.*;
  * 	Modifying Bayesian Networks by Probability Constraints
  * 	Yun Peng, Zhongli Ding
  * 	UAI 2005
+ * 
+ * Each loop builds the full joint of the BN; for larger BNs, see FactoredEIPFP.
  */
 public class EIPFP{
 	Environ env;
@@ -38,6 +40,7 @@ public class EIPFP{
 	ProbDistribution[] cons;
 	long timeElapsed;
 	int loopsUsed;
+	FeasibilityAnalyzer analyzer;	//checks the constraints before fitting, null if none
 	
 	/**
 	 * Constructor - 1: 
@@ -88,6 +91,16 @@ public class EIPFP{
 		}
 	}
 
+	/**
+	 * Sets an analyzer (e.g. on BN2DiscreteNet of the initial net) to check the constraints first,
+	 * instead of running until 'maxLoops' on constraints which can not be satisfied together.
+	 * 
+	 * @param a	feasibility analyzer, null for no check
+	 */
+	public void setFeasibilityAnalyzer(FeasibilityAnalyzer a) {
+		analyzer = a;
+	}
+
 	/**
 	 * Implements the main idea of the E-IPFP algorithm.
 	 * 
@@ -95,6 +108,8 @@ public class EIPFP{
    	 * @param threshold if the difference between two iterations is smaller than the threshold we think the algorithm converges.
 	 */
 	public void run (int maxLoops, double threshold) {
+		if (analyzer != null)
+			analyzer.check(cons);
 		try {
 			// trace the time
 			Date startDate = new Date();
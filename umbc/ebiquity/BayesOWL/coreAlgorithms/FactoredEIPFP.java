@@ -0,0 +1,371 @@
+/**
+ * FactoredEIPFP.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ * See paper:
+ * 	Modifying Bayesian Networks by Probability Constraints
+ * 	Yun Peng, Zhongli Ding
+ * 	UAI 2005
+ */
+
+package umbc.ebiquity.BayesOWL.coreAlgorithms;
+
+import java.util.*;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+import umbc.ebiquity.BayesOWL.commonMethod.*;
+
+import norsys.netica.*;
+
+/**
+ * This class implements the 'EIPFP' algorithm on the factorization of the BN, without the full joint.<br>
+ * <br>
+ * One E-IPFP loop starts from the BN's joint P(X), applies every constraint once by IPFP (or CIPFP),
+ * "Q_k(X) = Q_k-1(X) * R(Si) / Q_k-1(Si)" (or "* R(Si|Li) / Q_k-1(Si|Li)"), and takes the new CPTs
+ * "Q(x|Pi(x))" from the result. Each step only multiplies a factor over the constraint's variables,
+ * so Q is kept as the BN's CPTs times these factors, in a junction tree whose cliques cover every
+ * family and every constraint. The marginals Q_k-1(Si) and the families Q(x, Pi(x)) are read from
+ * the calibrated cliques.<br>
+ * <br>
+ * Convergence is measured on the CPTs: the loops stop when the largest change of a CPT entry in one
+ * loop is below the threshold. The memory needed is the size of the largest clique, not of the joint,
+ * so this works on networks whose joint the class EIPFP could never build.<br>
+ * <br>
+ * As in EIPFP, the joint is conditioned on the findings entered in the BN (e.g. "True" on the
+ * L-Nodes): the junction tree multiplies them into its cliques, and all marginals are normalized.<br>
+ * <br>
+
+ * If the tags of the nodes are given (see setLogicNodes), the L-Nodes are logic functions of their
+ * parents: the tree is built on their chains of summary nodes, and their CPTs are left as they are,
+ * since an IPFP step keeps every zero of Q, hence every deterministic CPT.<br>
+ *
+ */
+public class FactoredEIPFP {
+	static final int DEFAULT_MAX_CLIQUE_SIZE = 1 << 24;
+
+	Environ env;
+	Net net;
+	ProbDistribution[] cons;
+	int maxCliqueSize;
+	ExNode[] logicNodes;
+	long timeElapsed;
+	int loopsUsed;
+	double maxCPTChange;
+
+	/**
+	 * Constructor - 1:
+	 * Given an initial BN and a set of constraints (can be either joint or conditional).
+	 *
+	 * @param n		Bayesian net
+	 * @param rs	constraints
+	 */
+	public FactoredEIPFP (Net n, ProbDistribution[] rs) {
+		if (n == null || rs == null || rs.length == 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FactoredEIPFP.java: Wrong BN or constraints provided!");
+		}
+		else {
+			net = n;
+			init(rs);
+		}
+	}
+
+	/**
+	 * Constructor - 2:
+	 * Given an initial BN file name and a set of constraints (can be either joint or conditional).
+	 *
+	 * @param fname	file name
+	 * @param rs	constraints
+	 */
+	public FactoredEIPFP (String fname, ProbDistribution[] rs) {
+		if (fname == null || fname.equals("") || rs == null || rs.length == 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FactoredEIPFP.java: Wrong BN file name or constraints provided!");
+		}
+		else {
+			try {
+				env = new Environ("+PengY/UMarylandBC/120,310-2-A/27700");
+				net = new Net(new Streamer(fname));
+				init(rs);
+			}
+			catch (Exception ex) {
+				System.out.println("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FactoredEIPFP.java: Invalid BN provided!");
+				ex.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Copies the constraints and sets the defaults.
+	 *
+	 * @param rs	constraints
+	 */
+	private void init (ProbDistribution[] rs) {
+		cons = new ProbDistribution[rs.length];
+		for (int i = 0; i<rs.length; i++)
+			cons[i] = rs[i];
+		maxCliqueSize = DEFAULT_MAX_CLIQUE_SIZE;
+		timeElapsed = 0;
+		loopsUsed = 0;
+		maxCPTChange = 0.0;
+	}
+
+	/**
+	 * Sets the max number of entries of one clique of the junction tree; a BN (with the constraints)
+	 * which needs a larger clique is rejected.
+	 *
+	 * @param size	max clique size
+	 */
+	public void setMaxCliqueSize (int size) {
+		maxCliqueSize = size;
+	}
+
+	/**
+	 * Sets the tags of the BN's nodes, e.g. BNConstructor.getNodes(), so that the L-Nodes are
+	 * handled as logic functions instead of tables.
+	 *
+	 * @param exNodes	tagged nodes
+	 */
+	public void setLogicNodes (ExNode[] exNodes) {
+		logicNodes = exNodes;
+	}
+
+	/**
+	 * Gets the node ids of the variables of a constraint, in the row-major order of its table
+	 * (for a conditional constraint, the condition variables first).
+	 *
+	 * @param dn	network
+	 * @param r	constraint
+	 * @return	node ids
+	 */
+	private int[] getScope (DiscreteNet dn, ProbDistribution r) {
+		RandomVariable[] vars;
+		if (r.getDistributionType().equals("JPD")) {
+			JointProbDistribution thisR = (JointProbDistribution) r;
+			vars = new RandomVariable[thisR.getNumOfVariables()];
+			for (int i = 0; i < vars.length; i++)
+				vars[i] = thisR.getVariable(i);
+		}
+		else if (r.getDistributionType().equals("CPD")) {
+			CondProbDistribution thisR = (CondProbDistribution) r;
+			int numOfConds = thisR.getNumOfCondVariables();
+			vars = new RandomVariable[numOfConds + thisR.getNumOfPriorVariables()];
+			for (int i = 0; i < numOfConds; i++)
+				vars[i] = thisR.getCondVariable(i);
+			for (int i = 0; i < thisR.getNumOfPriorVariables(); i++)
+				vars[numOfConds + i] = thisR.getPriorVariable(i);
+		}
+		else { //otherwise
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FactoredEIPFP.java: Wrong constraints provided!");
+		}
+		int[] scope = new int[vars.length];
+		for (int i = 0; i < vars.length; i++) {
+			scope[i] = dn.getNodeIndex(vars[i].getName());
+			if (scope[i] < 0 || dn.getNumOfStates(scope[i]) != vars[i].getNumOfStates()) {
+				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FactoredEIPFP.java: Variable " + vars[i].getName() + " does not match the BN!");
+			}
+		}
+		return scope;
+	}
+
+	/**
+	 * Makes the IPFP factor "R(Si) / Q(Si)", or the CIPFP factor "R(Si|Li) / Q(Si|Li)", of a constraint,
+	 * 0 where Q is 0.
+	 *
+	 * @param r	constraint
+	 * @param q	marginal of the constraint's variables in Q, in the order of the constraint's table
+	 * @return	factor
+	 */
+	private double[] getFactor (ProbDistribution r, double[] q) {
+		double[] factor = new double[q.length];
+		if (r.getDistributionType().equals("JPD")) {
+			JointProbDistribution thisR = (JointProbDistribution) r;
+			for (int i = 0; i < q.length; i++)
+				factor[i] = q[i] > 0.0 ? thisR.getProbEntry(i) / q[i] : 0.0;
+		}
+		else {
+			CondProbDistribution thisR = (CondProbDistribution) r;
+			int numOfPriorEntries = 1;
+			for (int i = 0; i < thisR.getNumOfPriorVariables(); i++)
+				numOfPriorEntries *= thisR.getPriorVariable(i).getNumOfStates();
+			for (int row = 0; row < q.length / numOfPriorEntries; row++) {
+				double qCond = 0.0;	//Q(Li)
+				for (int t = 0; t < numOfPriorEntries; t++)
+					qCond += q[row * numOfPriorEntries + t];
+				for (int t = 0; t < numOfPriorEntries; t++) {
+					int i = row * numOfPriorEntries + t;
+					factor[i] = q[i] > 0.0 ? thisR.getCondProbEntry(i) * qCond / q[i] : 0.0;
+				}
+			}
+		}
+		return factor;
+	}
+
+	/**
+	 * Implements the main idea of the E-IPFP algorithm, on the factorization of the BN.
+	 *
+     * @param maxLoops if this procedure does not converge in 'maxLoops' number of loops, we think it will not converge at all.
+   	 * @param threshold if the largest change of a CPT entry in one loop is smaller than the threshold we think the algorithm converges.
+	 */
+	public void run (int maxLoops, double threshold) {
+		try {
+			// trace the time
+			Date startDate = new Date();
+			long startTime = startDate.getTime();
+			/* begin of procedure */
+			//the findings of the BN (e.g. "True" on the L-Nodes) are kept, as in the joint of EIPFP
+			DiscreteNet dn = (logicNodes == null ? new BN2DiscreteNet(net) : new BN2DiscreteNet(net, logicNodes)).getDiscreteNet();
+			int n = dn.getNumOfNodes();
+			int[][] scopes = new int[cons.length][];
+			for (int j = 0; j < cons.length; j++)
+				scopes[j] = getScope(dn, cons[j]);
+			JunctionTree jt = new JunctionTree(dn, scopes, maxCliqueSize);
+			int counter = 0;
+			boolean success = true;
+			do {
+				if (counter>maxLoops){
+					success = false;
+					break;
+				}
+				// 1. start from the joint of the BN
+				jt.invalidate();
+				// 2. run the IPFP (CIPFP) step of each constraint, once
+				for (int j = 0; j < cons.length; j++)
+					jt.multiplyFactor(scopes[j], getFactor(cons[j], jt.getMarginal(scopes[j])));
+				// 3. revise the CPTs by the families of the new distribution, and measure the change
+				double[][] tables = new double[n][];
+				maxCPTChange = 0.0;
+				for (int v = 0; v < n; v++) {
+					if (dn.getLogicFunction(v) != null)
+						continue;
+					int[] parents = dn.getParents(v);
+					int[] family = new int[parents.length + 1];
+					System.arraycopy(parents, 0, family, 0, parents.length);
+					family[parents.length] = v;
+					tables[v] = jt.getMarginal(family);
+					int d = dn.getNumOfStates(v);
+					double[] old = dn.getCPT(v);
+					for (int row = 0; row < tables[v].length / d; row++) {
+						double sum = 0.0;
+						for (int t = 0; t < d; t++)
+							sum += tables[v][row * d + t];
+						for (int t = 0; t < d; t++) {
+							int i = row * d + t;
+							tables[v][i] = sum > 0.0 ? tables[v][i] / sum : 1.0 / d;
+							maxCPTChange = Math.max(maxCPTChange, Math.abs(tables[v][i] - old[i]));
+						}
+					}
+				}
+				for (int v = 0; v < n; v++) {
+					if (tables[v] != null)
+						dn.setCPT(v, tables[v]);
+				}
+				// 4. increase the counter
+				counter++;
+			}
+			while (maxCPTChange>threshold);
+			// 5. write the CPTs obtained into the BN, compiled once
+			CPTBatch batch = new CPTBatch(net);
+			batch.beginBatch();
+			NodeList nodes = net.getNodes();
+			for (int v = 0; v < n; v++) {
+				if (dn.getLogicFunction(v) != null)
+					continue;
+				Node node = (Node) nodes.elementAt(v);
+				int[] parents = dn.getParents(v);
+				int d = dn.getNumOfStates(v);
+				double[] cpt = dn.getCPT(v);
+				for (int row = 0; row < dn.getNumOfRows(v); row++) {
+					float[] table = new float[d];
+					for (int t = 0; t < d; t++)
+						table[t] = (float) cpt[row * d + t];
+					if (parents.length == 0) {
+						batch.setCPTable(node, "", table);
+					}
+					else {
+						int[] parentStates = new int[parents.length];
+						int offset = row;
+						for (int j = parents.length - 1; j >= 0; --j) {
+							parentStates[j] = offset % dn.getNumOfStates(parents[j]);
+							offset = offset / dn.getNumOfStates(parents[j]);
+						}
+						batch.setCPTable(node, parentStates, table);
+					}
+				}
+			}
+			batch.endBatch();
+			/* end of procedure */
+			// trace the time
+			Date endDate = new Date();
+			long endTime = endDate.getTime();
+			timeElapsed = endTime - startTime;
+			loopsUsed = counter;
+			if (!success)
+				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FactoredEIPFP.java: Failure - The set of constraints will not be converged in " + maxLoops + " loops!");
+		}
+		catch (Exception rex) {
+			System.out.println("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FactoredEIPFP.java: Invalid BN provided!");
+			rex.printStackTrace();
+		}
+	}
+
+	/**
+	 * Returns the execution time of running the algorithm.
+	 *
+	 * @return	algorithm execution time
+	 */
+	public long getExecTime() {
+		return timeElapsed;
+	}
+
+	/**
+	 * Returns the number of iteration steps of running the algorithm.
+	 *
+	 * @return	execution iteration number
+	 */
+	public int getExecLoops() {
+		return loopsUsed;
+	}
+
+	/**
+	 * Returns the largest change of a CPT entry in the last loop.
+	 *
+	 * @return	CPT change
+	 */
+	public double getMaxCPTChange() {
+		return maxCPTChange;
+	}
+
+	/**
+	 * Saves the revised BBN obtained into a file.
+	 *
+	 * @param fname	file name
+	 */
+	public void saveNet (String fname) {
+		try {
+			if (fname == null || fname.equals("")) {
+				throw new NullPointerException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FactoredEIPFP.java: Please give a valid BN file name to save with!");
+			}
+			else {
+				net.setAutoUpdate(1);
+				net.write(new Streamer(fname));
+				net.finalize();   // not strictly necessary, but a good habit
+				if (!(env==null))
+					env.finalize();
+			}
+		}
+		catch (Exception e) {
+			System.out.println("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FactoredEIPFP.java: Error in saving the BN to file!");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Returns the revised BBN obtained.
+	 *
+	 * @return	Bayesian Net
+	 */
+	public Net getNet () {
+		return net;
+	}
+
+}
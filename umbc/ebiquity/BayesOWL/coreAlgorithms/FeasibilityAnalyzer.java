@@ -0,0 +1,694 @@
+/**
+ * FeasibilityAnalyzer.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+
+package umbc.ebiquity.BayesOWL.coreAlgorithms;
+
+import java.util.*;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+import umbc.ebiquity.BayesOWL.commonMethod.*;
+
+/**
+ * This class checks, before fitting, that a set of marginal and conditional constraints can be
+ * satisfied at all, so that IPFP, CIPFP, EIPFP or DIPFP do not loop until 'maxLoops' on a set
+ * which will never converge.<br>
+ * <br>
+ * The proportional fitting procedures keep the zeros of the initial distribution (e.g. the logic of
+ * the L-Nodes and of the subclass relations in a BN built by BNConstructor), so the constraints are
+ * consistent iff some distribution Q with the support of the initial one satisfies all of them.<br>
+ * The constraints are grouped by shared variables. For each group, over the joint states x of its
+ * variables U allowed by the initial distribution, this is the linear program:<br>
+ * 	Q(x) >= 0, sum Q(x) = 1,<br>
+ * 	for a marginal constraint R(S):	sum Q(x) over x[S]=s equals R(s), for each s;<br>
+ * 	for a conditional constraint R(A|B):	sum Q(x) over x[A,B]=(a,b) equals R(a|b) * sum Q(x) over x[B]=b, for each (a,b);<br>
+ * whose feasibility is decided by the first phase of the simplex method.<br>
+ * When a group is infeasible, its constraints are removed one by one as long as the rest stays
+ * infeasible (deletion filter), which leaves a minimal conflicting subset to report; this is repeated
+ * on the rest of the group, so disjoint conflicts are all reported.<br>
+ * A group with more than 'maxVariables' variables is only checked constraint by constraint and
+ * pair by pair, which is necessary but not sufficient (see isComplete()).<br>
+ *
+ */
+public class FeasibilityAnalyzer {
+	DiscreteNet dn;				//support from a BN with its findings, or
+	JointProbDistribution q;	//support from a joint distribution; full support if both are null
+	InferenceEngine engine;
+	double tolerance = 1e-6;
+	int maxVariables = 12;
+	Vector conflicts;			//Vector of int[]: minimal conflicting subsets found by the last analysis
+	boolean complete;
+	long timeElapsed;
+	Hashtable supports;			//key: variable names, value: double[] support over their joint states
+
+	/**
+	 * A constraint: its variables (conditions first) and its table, row-major over them.
+	 */
+	static class Item {
+		RandomVariable[] vars;
+		int numOfCond;			//0 for a marginal constraint
+		double[] table;
+		String description;
+	}
+
+	/**
+	 * Constructor - 1:
+	 * Every joint state of the constrained variables is allowed.
+	 */
+	public FeasibilityAnalyzer() {
+	}
+
+	/**
+	 * Constructor - 2:
+	 * The support is the one of a joint distribution, as for IPFP and CIPFP.
+	 *
+	 * @param q	initial joint distribution
+	 */
+	public FeasibilityAnalyzer(JointProbDistribution q) {
+		if (q == null) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FeasibilityAnalyzer.java: NULL is provided!");
+		}
+		this.q = q;
+	}
+
+	/**
+	 * Constructor - 3:
+	 * The support is the one of a BN given its findings, as for EIPFP and DIPFP (e.g. from BN2DiscreteNet).
+	 *
+	 * @param dn	initial network
+	 */
+	public FeasibilityAnalyzer(DiscreteNet dn) {
+		if (dn == null) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FeasibilityAnalyzer.java: NULL is provided!");
+		}
+		this.dn = dn;
+	}
+
+	/**
+	 * Sets the engine answering the support queries on the network, a JunctionTree of it by default.
+	 *
+	 * @param e	inference engine on the network
+	 */
+	public void setInferenceEngine(InferenceEngine e) {
+		engine = e;
+	}
+
+	/**
+	 * Sets how far from satisfied the constraints may be and still be taken as feasible, 1e-6 by default.
+	 *
+	 * @param t	tolerance
+	 */
+	public void setTolerance(double t) {
+		if (t < 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FeasibilityAnalyzer.java: Wrong tolerance provided!");
+		}
+		tolerance = t;
+	}
+
+	/**
+	 * Sets the largest number of variables of a group checked as a whole, 12 by default.
+	 *
+	 * @param n	number of variables
+	 */
+	public void setMaxVariables(int n) {
+		if (n <= 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FeasibilityAnalyzer.java: Wrong number of variables provided!");
+		}
+		maxVariables = n;
+	}
+
+	/**
+	 * Checks the constraints of D-IPFP.
+	 *
+	 * @param r	constraints
+	 * @return	true if no conflict is found
+	 */
+	public boolean analyze(Constraint[] r) {
+		return analyze(getDistributions(r));
+	}
+
+	/**
+	 * Checks the constraints of IPFP, CIPFP or E-IPFP.
+	 *
+	 * @param r	constraints, joint or conditional distributions
+	 * @return	true if no conflict is found
+	 */
+	public boolean analyze(ProbDistribution[] r) {
+		if (r == null) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FeasibilityAnalyzer.java: No constraints provided!");
+		}
+		long startTime = new Date().getTime();
+		Item[] items = new Item[r.length];
+		for (int j = 0; j < r.length; j++)
+			items[j] = toItem(r[j]);
+		conflicts = new Vector();
+		complete = true;
+		supports = new Hashtable();
+
+		//groups of constraints sharing variables
+		Vector groups = group(items);
+		for (int g = 0; g < groups.size(); g++) {
+			int[] group = (int[]) groups.elementAt(g);
+			if (getVariables(items, group).length <= maxVariables) {
+				//one conflict at a time, until the rest of the group is consistent
+				while (group.length > 0 && !isFeasible(items, group)) {
+					int[] conflict = minimize(items, group);
+					conflicts.addElement(conflict);
+					group = remove(group, conflict);
+				}
+				continue;
+			}
+			complete = false;
+			for (int a = 0; a < group.length; a++) {
+				int[] single = new int[]{group[a]};
+				if (!isFeasible(items, single)) {
+					conflicts.addElement(single);
+					continue;
+				}
+				for (int b = a + 1; b < group.length; b++) {
+					int[] pair = new int[]{group[a], group[b]};
+					if (shareVariables(items[group[a]], items[group[b]]) && getVariables(items, pair).length <= maxVariables && !isFeasible(items, pair))
+						conflicts.addElement(minimize(items, pair));
+				}
+			}
+		}
+		supports = null;
+		timeElapsed = new Date().getTime() - startTime;
+		return conflicts.size() == 0;
+	}
+
+	/**
+	 * Checks the constraints of D-IPFP, and fails if a conflict is found.
+	 *
+	 * @param r	constraints
+	 */
+	public void check(Constraint[] r) {
+		check(getDistributions(r));
+	}
+
+	/**
+	 * Checks the constraints of IPFP, CIPFP or E-IPFP, and fails if a conflict is found.
+	 *
+	 * @param r	constraints, joint or conditional distributions
+	 */
+	public void check(ProbDistribution[] r) {
+		if (!analyze(r)) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FeasibilityAnalyzer.java: Failure - The set of constraints is not consistent: " + getReport(r) + "!");
+		}
+	}
+
+	/**
+	 * Describes the conflicts found by the last analysis.
+	 *
+	 * @param r	constraints of the last analysis
+	 * @return	one "{#i R(..), #j R(..|..)}" for each conflicting subset
+	 */
+	private String getReport(ProbDistribution[] r) {
+		String s = "";
+		for (int c = 0; c < conflicts.size(); c++) {
+			int[] conflict = (int[]) conflicts.elementAt(c);
+			s = s + (c == 0 ? "{" : ", {");
+			for (int k = 0; k < conflict.length; k++)
+				s = s + (k == 0 ? "" : ", ") + "#" + conflict[k] + " " + toItem(r[conflict[k]]).description;
+			s = s + "}";
+		}
+		return s;
+	}
+
+	/**
+	 * Gets the distributions of constraints.
+	 *
+	 * @param r	constraints
+	 * @return	distributions
+	 */
+	private static ProbDistribution[] getDistributions(Constraint[] r) {
+		if (r == null) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FeasibilityAnalyzer.java: No constraints provided!");
+		}
+		ProbDistribution[] dists = new ProbDistribution[r.length];
+		for (int j = 0; j < r.length; j++) {
+			if (r[j] instanceof MarginalConstraint)
+				dists[j] = ((MarginalConstraint) r[j]).getDistribution();
+			else if (r[j] instanceof ConditionalConstraint)
+				dists[j] = ((ConditionalConstraint) r[j]).getDistribution();
+			else
+				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FeasibilityAnalyzer.java: Wrong constraints provided!");
+		}
+		return dists;
+	}
+
+	/**
+	 * Reads a constraint.
+	 *
+	 * @param r	joint or conditional distribution
+	 * @return	item
+	 */
+	private static Item toItem(ProbDistribution r) {
+		Item item = new Item();
+		if (r instanceof JointProbDistribution) {
+			JointProbDistribution jpd = (JointProbDistribution) r;
+			item.vars = new RandomVariable[jpd.getNumOfVariables()];
+			for (int i = 0; i < item.vars.length; i++)
+				item.vars[i] = jpd.getVariable(i);
+			item.table = new double[jpd.getNumOfEntries()];
+			for (int k = 0; k < item.table.length; k++)
+				item.table[k] = jpd.getProbEntry(k);
+			item.description = "R(" + getNames(item.vars, 0, item.vars.length) + ")";
+		}
+		else if (r instanceof CondProbDistribution) {
+			CondProbDistribution cpd = (CondProbDistribution) r;
+			item.numOfCond = cpd.getNumOfCondVariables();
+			item.vars = new RandomVariable[item.numOfCond + cpd.getNumOfPriorVariables()];
+			for (int i = 0; i < item.numOfCond; i++)
+				item.vars[i] = cpd.getCondVariable(i);
+			for (int i = item.numOfCond; i < item.vars.length; i++)
+				item.vars[i] = cpd.getPriorVariable(i - item.numOfCond);
+			item.table = new double[cpd.getNumOfEntries()];
+			for (int k = 0; k < item.table.length; k++)
+				item.table[k] = cpd.getCondProbEntry(k);
+			item.description = "R(" + getNames(item.vars, item.numOfCond, item.vars.length) + "|" + getNames(item.vars, 0, item.numOfCond) + ")";
+		}
+		else {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FeasibilityAnalyzer.java: Wrong constraints provided!");
+		}
+		return item;
+	}
+
+	/**
+	 * Joins the names of some variables.
+	 *
+	 * @param vars	variables
+	 * @param from	first variable
+	 * @param to	one after the last variable
+	 * @return	names, separated by ","
+	 */
+	private static String getNames(RandomVariable[] vars, int from, int to) {
+		String s = "";
+		for (int i = from; i < to; i++)
+			s = s + (i == from ? "" : ",") + vars[i].getName();
+		return s;
+	}
+
+	/**
+	 * Groups the constraints which share variables, directly or through other constraints.
+	 *
+	 * @param items	constraints
+	 * @return	Vector of int[], constraint indices of each group, in the given order
+	 */
+	private static Vector group(Item[] items) {
+		int[] group = new int[items.length];
+		for (int j = 0; j < items.length; j++)
+			group[j] = j;
+		Hashtable owner = new Hashtable();	//key: variable name, value: first constraint with it
+		for (int j = 0; j < items.length; j++) {
+			for (int i = 0; i < items[j].vars.length; i++) {
+				Integer first = (Integer) owner.get(items[j].vars[i].getName());
+				if (first == null)
+					owner.put(items[j].vars[i].getName(), Integer.valueOf(j));
+				else
+					group[find(group, j)] = find(group, first.intValue());
+			}
+		}
+		Vector groups = new Vector();
+		Hashtable index = new Hashtable();	//key: root, value: Vector of members
+		for (int j = 0; j < items.length; j++) {
+			Integer root = Integer.valueOf(find(group, j));
+			Vector members = (Vector) index.get(root);
+			if (members == null) {
+				members = new Vector();
+				index.put(root, members);
+				groups.addElement(members);
+			}
+			members.addElement(Integer.valueOf(j));
+		}
+		for (int g = 0; g < groups.size(); g++) {
+			Vector members = (Vector) groups.elementAt(g);
+			int[] ids = new int[members.size()];
+			for (int k = 0; k < ids.length; k++)
+				ids[k] = ((Integer) members.elementAt(k)).intValue();
+			groups.setElementAt(ids, g);
+		}
+		return groups;
+	}
+
+	/**
+	 * Finds the root of a constraint in the union-find forest, compressing the path.
+	 *
+	 * @param group	parent of each constraint
+	 * @param j	constraint
+	 * @return	root
+	 */
+	private static int find(int[] group, int j) {
+		while (group[j] != j) {
+			group[j] = group[group[j]];
+			j = group[j];
+		}
+		return j;
+	}
+
+	/**
+	 * Checks whether two constraints have a variable in common.
+	 *
+	 * @param a	constraint
+	 * @param b	constraint
+	 * @return	true if they share a variable
+	 */
+	private static boolean shareVariables(Item a, Item b) {
+		for (int i = 0; i < a.vars.length; i++) {
+			for (int k = 0; k < b.vars.length; k++) {
+				if (a.vars[i].getName().equals(b.vars[k].getName()))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the variables of some constraints, sorted by name.
+	 *
+	 * @param items	constraints
+	 * @param subset	indices of the constraints
+	 * @return	variables
+	 */
+	private static RandomVariable[] getVariables(Item[] items, int[] subset) {
+		TreeMap vars = new TreeMap();
+		for (int k = 0; k < subset.length; k++) {
+			RandomVariable[] v = items[subset[k]].vars;
+			for (int i = 0; i < v.length; i++) {
+				if (!vars.containsKey(v[i].getName()))
+					vars.put(v[i].getName(), v[i]);
+			}
+		}
+		RandomVariable[] result = new RandomVariable[vars.size()];
+		vars.values().toArray(result);
+		return result;
+	}
+
+	/**
+	 * Removes the constraints of an infeasible subset one by one, as long as the rest stays infeasible.
+	 *
+	 * @param items	constraints
+	 * @param subset	indices of infeasible constraints
+	 * @return	indices of a minimal infeasible subset
+	 */
+	private int[] minimize(Item[] items, int[] subset) {
+		Vector kept = new Vector();
+		for (int k = 0; k < subset.length; k++)
+			kept.addElement(Integer.valueOf(subset[k]));
+		for (int k = 0; k < subset.length && kept.size() > 1; k++) {
+			Integer candidate = Integer.valueOf(subset[k]);
+			kept.removeElement(candidate);
+			int[] rest = new int[kept.size()];
+			for (int l = 0; l < rest.length; l++)
+				rest[l] = ((Integer) kept.elementAt(l)).intValue();
+			if (isFeasible(items, rest))
+				kept.addElement(candidate);
+		}
+		int[] result = new int[kept.size()];
+		for (int l = 0; l < result.length; l++)
+			result[l] = ((Integer) kept.elementAt(l)).intValue();
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Removes some constraints from a set.
+	 *
+	 * @param subset	indices of constraints
+	 * @param removed	indices of the constraints to remove, sorted
+	 * @return	indices of the other constraints, in the same order
+	 */
+	private static int[] remove(int[] subset, int[] removed) {
+		int[] rest = new int[subset.length - removed.length];
+		for (int k = 0, l = 0; k < subset.length; k++) {
+			if (Arrays.binarySearch(removed, subset[k]) < 0)
+				rest[l++] = subset[k];
+		}
+		return rest;
+	}
+
+	/**
+	 * Decides whether some constraints can be satisfied together, by the linear program over the
+	 * allowed joint states of their variables.
+	 *
+	 * @param items	constraints
+	 * @param subset	indices of the constraints
+	 * @return	true if feasible
+	 */
+	private boolean isFeasible(Item[] items, int[] subset) {
+		RandomVariable[] vars = getVariables(items, subset);
+		double[] support = getSupport(vars);
+		int numOfColumns = 0;
+		for (int x = 0; x < support.length; x++) {
+			if (support[x] > 0)
+				numOfColumns++;
+		}
+		if (numOfColumns == 0)
+			return false;
+		int[] states = new int[numOfColumns];	//joint state of each column
+		for (int x = 0, c = 0; x < support.length; x++) {
+			if (support[x] > 0)
+				states[c++] = x;
+		}
+
+		//rows: normalization, then one per entry of each constraint
+		int numOfRows = 1;
+		for (int k = 0; k < subset.length; k++)
+			numOfRows += items[subset[k]].table.length;
+		double[][] a = new double[numOfRows][numOfColumns];
+		double[] b = new double[numOfRows];
+		Arrays.fill(a[0], 1.0);
+		b[0] = 1.0;
+		int row = 1;
+		for (int k = 0; k < subset.length; k++) {
+			Item item = items[subset[k]];
+			int[] local = getLocalOffsets(item, vars, states);
+			int numOfCols = 1;
+			for (int i = item.numOfCond; i < item.vars.length; i++)
+				numOfCols *= item.vars[i].getNumOfStates();
+			for (int e = 0; e < item.table.length; e++, row++) {
+				if (item.numOfCond == 0) {
+					for (int c = 0; c < numOfColumns; c++)
+						a[row][c] = local[c] == e ? 1.0 : 0.0;
+					b[row] = item.table[e];
+				}
+				else {
+					for (int c = 0; c < numOfColumns; c++) {
+						if (local[c] / numOfCols == e / numOfCols)
+							a[row][c] = (local[c] == e ? 1.0 : 0.0) - item.table[e];
+					}
+				}
+			}
+		}
+		return solvePhaseOne(a, b) <= tolerance;
+	}
+
+	/**
+	 * Gets, for each joint state of the variables, the offset of its restriction in a constraint table.
+	 *
+	 * @param item	constraint
+	 * @param vars	variables, sorted by name
+	 * @param states	joint states, row-major over vars
+	 * @return	offset in the constraint table of each joint state
+	 */
+	private static int[] getLocalOffsets(Item item, RandomVariable[] vars, int[] states) {
+		int[] strides = new int[vars.length];	//stride of each variable in the joint state number
+		int stride = 1;
+		for (int i = vars.length - 1; i >= 0; --i) {
+			strides[i] = stride;
+			stride *= vars[i].getNumOfStates();
+		}
+		int[] position = new int[item.vars.length];	//position in vars of each variable of the constraint
+		int[][] stateMaps = new int[item.vars.length][];	//state of the constraint variable of each state in vars
+		for (int i = 0; i < item.vars.length; i++) {
+			for (int k = 0; k < vars.length; k++) {
+				if (vars[k].getName().equals(item.vars[i].getName()))
+					position[i] = k;
+			}
+			RandomVariable v = vars[position[i]];
+			if (v.getNumOfStates() != item.vars[i].getNumOfStates()) {
+				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FeasibilityAnalyzer.java: Variable " + v.getName() + " has different states in two constraints!");
+			}
+			stateMaps[i] = new int[v.getNumOfStates()];
+			for (int s = 0; s < stateMaps[i].length; s++) {
+				stateMaps[i][s] = item.vars[i].getStateIndex(v.getState(s));
+				if (stateMaps[i][s] < 0) {
+					throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FeasibilityAnalyzer.java: Variable " + v.getName() + " has different states in two constraints!");
+				}
+			}
+		}
+		int[] local = new int[states.length];
+		for (int c = 0; c < states.length; c++) {
+			int offset = 0;
+			for (int i = 0; i < item.vars.length; i++) {
+				int s = (states[c] / strides[position[i]]) % vars[position[i]].getNumOfStates();
+				offset = offset * item.vars[i].getNumOfStates() + stateMaps[i][s];
+			}
+			local[c] = offset;
+		}
+		return local;
+	}
+
+	/**
+	 * Gets the probability of each joint state of some variables under the initial distribution,
+	 * only its zeros matter.
+	 *
+	 * @param vars	variables, sorted by name
+	 * @return	probability of each joint state, row-major over vars
+	 */
+	private double[] getSupport(RandomVariable[] vars) {
+		String key = getNames(vars, 0, vars.length);
+		double[] support = (double[]) supports.get(key);
+		if (support != null)
+			return support;
+		int size = 1;
+		for (int i = 0; i < vars.length; i++)
+			size *= vars[i].getNumOfStates();
+		support = new double[size];
+		Arrays.fill(support, 1.0);
+		if (q != null) {
+			JointProbDistribution marginal = q.getMarginalDist(vars);
+			for (int x = 0; x < size; x++)
+				support[x] = marginal.getProbEntry(x);
+		}
+		else if (dn != null) {
+			int[] nodes = new int[vars.length];
+			int[][] stateMaps = new int[vars.length][];
+			for (int i = 0; i < vars.length; i++) {
+				nodes[i] = dn.getNodeIndex(vars[i].getName());
+				if (nodes[i] < 0) {
+					throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FeasibilityAnalyzer.java: Node " + vars[i].getName() + " in the constraints is not in the BBN!");
+				}
+				String[] states = dn.getStates(nodes[i]);
+				stateMaps[i] = new int[vars[i].getNumOfStates()];
+				for (int s = 0; s < stateMaps[i].length; s++) {
+					stateMaps[i][s] = -1;
+					for (int t = 0; t < states.length; t++) {
+						if (states[t].equals(vars[i].getState(s)))
+							stateMaps[i][s] = t;
+					}
+					if (stateMaps[i][s] < 0) {
+						throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.FeasibilityAnalyzer.java: State " + vars[i].getState(s) + " of " + vars[i].getName() + " is not in the BBN!");
+					}
+				}
+			}
+			if (engine == null)
+				engine = new JunctionTree(dn, null, Integer.MAX_VALUE);
+			int[] indices = new int[vars.length];
+			int[] states = new int[vars.length];
+			for (int x = 0; x < size; x++) {
+				for (int i = 0; i < vars.length; i++)
+					states[i] = stateMaps[i][indices[i]];
+				support[x] = engine.getJointProbability(nodes, states);
+				for (int i = vars.length - 1; i >= 0; --i) {
+					if (++indices[i] < vars[i].getNumOfStates())
+						break;
+					indices[i] = 0;
+				}
+			}
+		}
+		supports.put(key, support);
+		return support;
+	}
+
+	/**
+	 * Runs the first phase of the simplex method on "a x = b, x >= 0": minimizes the sum of
+	 * one artificial variable per row. Dantzig's rule is used, and Bland's rule after a run of
+	 * degenerate pivots, so that the method can not cycle.
+	 *
+	 * @param a	coefficients, one row per equation
+	 * @param b	right-hand sides
+	 * @return	smallest sum of the violations, 0 if feasible
+	 */
+	private static double solvePhaseOne(double[][] a, double[] b) {
+		final double eps = 1e-12;
+		int m = a.length;
+		int n = a[0].length;
+		int width = n + m + 1;	//columns, artificials, right-hand side
+		double[][] t = new double[m + 1][width];
+		int[] basis = new int[m];
+		for (int i = 0; i < m; i++) {
+			double sign = b[i] < 0 ? -1.0 : 1.0;
+			for (int j = 0; j < n; j++)
+				t[i][j] = sign * a[i][j];
+			t[i][n + i] = 1.0;
+			t[i][width - 1] = sign * b[i];
+			basis[i] = n + i;
+			for (int j = 0; j < n; j++)
+				t[m][j] -= t[i][j];
+			t[m][width - 1] -= t[i][width - 1];
+		}
+		int degenerate = 0;
+		for (int iteration = 0; iteration < 50 * (n + m); iteration++) {
+			boolean bland = degenerate > m;
+			int enter = -1;
+			for (int j = 0; j < n + m; j++) {
+				if (t[m][j] < -1e-10 && (enter < 0 || (!bland && t[m][j] < t[m][enter]))) {
+					enter = j;
+					if (bland)
+						break;
+				}
+			}
+			if (enter < 0)
+				break;
+			int leave = -1;
+			double ratio = 0.0;
+			for (int i = 0; i < m; i++) {
+				if (t[i][enter] > eps) {
+					double r = t[i][width - 1] / t[i][enter];
+					if (leave < 0 || r < ratio - eps || (Math.abs(r - ratio) <= eps && basis[i] < basis[leave])) {
+						leave = i;
+						ratio = r;
+					}
+				}
+			}
+			if (leave < 0)
+				break;	//can not happen in phase one, the objective is bounded
+			degenerate = ratio <= eps ? degenerate + 1 : 0;
+			double pivot = t[leave][enter];
+			for (int j = 0; j < width; j++)
+				t[leave][j] /= pivot;
+			for (int i = 0; i <= m; i++) {
+				double factor = t[i][enter];
+				if (i == leave || factor == 0.0)
+					continue;
+				for (int j = 0; j < width; j++)
+					t[i][j] -= factor * t[leave][j];
+			}
+			basis[leave] = enter;
+		}
+		return -t[m][width - 1];
+	}
+
+	/**
+	 * Returns the minimal conflicting subsets found by the last analysis.
+	 *
+	 * @return	Vector of int[], indices of the constraints of each conflict
+	 */
+	public Vector getConflicts() {
+		return conflicts;
+	}
+
+	/**
+	 * Tells whether every group of constraints was checked as a whole by the last analysis.
+	 * If not, a set found consistent may still be inconsistent.
+	 *
+	 * @return	true if the analysis was complete
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+	/**
+	 * Gets the execution time of the last analysis.
+	 *
+	 * @return	time in milliseconds
+	 */
+	public long getExecTime() {
+		return timeElapsed;
+	}
+
+}
@@ -42,6 +42,7 @@ public class IPFP {
 	JointProbDistribution[] R;		//the given constraints {R(Si)}
 	long timeElapsed;
 	int loopsUsed;
+	FeasibilityAnalyzer analyzer;	//checks the constraints before fitting, null if none
 	
 	/**
 	 * Constructor.
@@ -64,6 +65,16 @@ public class IPFP {
 		}
 	}
 	
+	/**
+	 * Sets an analyzer (e.g. FeasibilityAnalyzer(q), with the initial distribution) to check the
+	 * constraints first: "run" then fails at once with the conflicting constraints.
+	 * 
+	 * @param a	feasibility analyzer, null for no check
+	 */
+	public void setFeasibilityAnalyzer(FeasibilityAnalyzer a) {
+		analyzer = a;
+	}
+
 	/**
 	 * The loop process of iterative proportional fitting procedure (IPFP).
 	 * 
@@ -71,6 +82,8 @@ public class IPFP {
 	 * @param threshold if the difference between two iterations is smaller than the threshold we think the algorithm converges.
 	 */
 	public void run (int maxLoops, double threshold) {
+		if (analyzer != null)
+			analyzer.check(R);
 		// begin of procedure
 		double totalVariance = 1.0;
 		int counter = 0;
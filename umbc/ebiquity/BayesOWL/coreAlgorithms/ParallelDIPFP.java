@@ -0,0 +1,514 @@
+/**
+ * ParallelDIPFP.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ * See class DIPFP.java
+ */
+
+package umbc.ebiquity.BayesOWL.coreAlgorithms;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+import umbc.ebiquity.BayesOWL.commonMethod.*;
+
+import norsys.netica.*;
+
+/**
+ * This class runs the 'DIPFP' algorithm on groups of constraints that do not interact, in parallel.<br>
+ * <br>
+ * A constraint step writes the CPTs of some nodes W (C for a local constraint, Y for a non-local one),
+ * and its queries Q(Y,S|findings) read the CPTs of the ancestors R of Y and of the findings connected to Y.
+ * Two constraints interact if one writes a CPT the other reads. Constraints are partitioned into the
+ * connected groups of this relation, so that constraints in different connected components of the
+ * DAG, or in regions no query of the other group depends on, go to different partitions.<br>
+ * <br>
+ * No step of a partition changes what the steps of another partition see, so every partition is
+ * run as its own D-IPFP, on its own copy of the net reduced to the nodes it reads, in its own
+ * thread (Netica allows different nets to be used from different threads). The CPTs a partition
+ * writes are then merged back into the net, and the net is compiled once.<br>
+ * Each partition converges on its own, so getExecLoops() is the largest number of loops used.<br>
+ */
+public class ParallelDIPFP {
+	Net net;
+	Constraint[] constraints;
+	int numOfThreads;
+	long timeElapsed;
+	int loopsUsed;
+	Vector partitions;		//Vector of int[]: constraint indices of each partition, in the given order
+
+	/**
+	 * Constructor.
+	 *
+	 * @param bbn	Bayesian Net
+	 * @param r		Constraint
+	 * @param threads	number of partitions run at the same time
+	 */
+	public ParallelDIPFP(Net bbn, Constraint[] r, int threads) {
+		if (bbn == null || r == null || r.length == 0 || threads <= 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.ParallelDIPFP.java: Wrong BN or Constraints or number of threads provided!");
+		}
+		else {
+			net = bbn;
+			constraints = new Constraint[r.length];
+			for (int i = 0; i < r.length; i++)
+				constraints[i] = r[i];
+			numOfThreads = threads;
+			timeElapsed = 0;
+			loopsUsed = 0;
+		}
+	}
+
+	/**
+	 * Partitions the constraints, runs D-IPFP on each partition in parallel and merges the CPTs.
+	 *
+	 * @param maxLoops	max iteration loops of each partition
+	 * @param threshold	threshold
+	 */
+	public void run (int maxLoops, double threshold) {
+		run(maxLoops, threshold, null, null);
+	}
+
+	/**
+	 * Partitions the constraints, and runs D-IPFP again only on the partitions touched by a change:
+	 * a partition is run if one of its constraints is new or changed, or reads the CPT of a changed node.
+	 * The other partitions keep their CPTs, since no step of them depends on the changed ones.
+	 *
+	 * @param maxLoops	max iteration loops of each partition
+	 * @param threshold	threshold
+	 * @param changedNodes	names of the nodes whose family changed, null if all
+	 * @param changedConstraints	for each constraint, true if it is new or changed; null if none
+	 */
+	public void run (int maxLoops, double threshold, String[] changedNodes, boolean[] changedConstraints) {
+		long startTime = new Date().getTime();
+		try {
+			DiscreteNet dn = new BN2DiscreteNet(net).getDiscreteNet();
+			BitSet[] written = new BitSet[constraints.length];
+			BitSet[] read = new BitSet[constraints.length];
+			findAffectedNodes(dn, written, read);
+			partitions = partition(dn, written, read);
+			if (changedNodes != null)
+				partitions = selectPartitions(dn, read, changedNodes, changedConstraints);
+			if (partitions.size() == 1) {
+				int[] idx = (int[]) partitions.get(0);
+				Constraint[] r = new Constraint[idx.length];
+				for (int i = 0; i < idx.length; i++)
+					r[i] = constraints[idx[i]];
+				DIPFP dipfp = new DIPFP(net, r);
+				dipfp.run(maxLoops, threshold);
+				loopsUsed = dipfp.getExecLoops();
+			}
+			else if (partitions.size() > 1) {
+				runPartitions(dn, written, read, maxLoops, threshold);
+			}
+		}
+		catch (NeticaException ex) {
+			System.out.println("Invalid BBN provided!");
+			ex.printStackTrace();
+		}
+		timeElapsed = new Date().getTime() - startTime;
+	}
+
+	/**
+	 * Finds the nodes whose CPTs each constraint writes, and the nodes whose CPTs its queries read.
+	 *
+	 * @param dn	the net
+	 * @param written	(output) nodes written by each constraint
+	 * @param read	(output) nodes read by each constraint
+	 */
+	private void findAffectedNodes(DiscreteNet dn, BitSet[] written, BitSet[] read) {
+		int n = dn.getNumOfNodes();
+		//connected components of the DAG, and the findings in each
+		int[] component = new int[n];
+		Arrays.fill(component, -1);
+		int numOfComponents = 0;
+		for (int i = 0; i < n; i++) {
+			if (component[i] < 0) {
+				Stack stack = new Stack();
+				stack.push(Integer.valueOf(i));
+				component[i] = numOfComponents;
+				while (!stack.isEmpty()) {
+					int v = ((Integer) stack.pop()).intValue();
+					int[][] neighbours = {dn.getParents(v), dn.getChildren(v)};
+					for (int k = 0; k < 2; k++) {
+						for (int j = 0; j < neighbours[k].length; j++) {
+							if (component[neighbours[k][j]] < 0) {
+								component[neighbours[k][j]] = numOfComponents;
+								stack.push(Integer.valueOf(neighbours[k][j]));
+							}
+						}
+					}
+				}
+				numOfComponents++;
+			}
+		}
+		BitSet[] findingsOfComponent = new BitSet[numOfComponents];
+		for (int c = 0; c < numOfComponents; c++)
+			findingsOfComponent[c] = new BitSet(n);
+		for (int i = 0; i < n; i++) {
+			if (dn.getFinding(i) >= 0)
+				findingsOfComponent[component[i]].set(i);
+		}
+		for (int j = 0; j < constraints.length; j++) {
+			String[] names;
+			String concept = null;
+			if (constraints[j] instanceof LocalMarginalConstraint) {
+				names = ((MarginalConstraint) constraints[j]).getVariableNames();
+				concept = ((LocalMarginalConstraint) constraints[j]).getConceptName();
+			}
+			else if (constraints[j] instanceof LocalConditionalConstraint) {
+				names = ((ConditionalConstraint) constraints[j]).getVariableNames();
+				concept = ((LocalConditionalConstraint) constraints[j]).getConceptName();
+			}
+			else if (constraints[j] instanceof MarginalConstraint) {
+				names = ((MarginalConstraint) constraints[j]).getVariableNames();
+			}
+			else if (constraints[j] instanceof ConditionalConstraint) {
+				names = ((ConditionalConstraint) constraints[j]).getVariableNames();
+			}
+			else {
+				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.ParallelDIPFP.java: Wrong constraints provided!");
+			}
+			written[j] = new BitSet(n);
+			BitSet scope = new BitSet(n);
+			for (int i = 0; i < names.length; i++) {
+				int v = indexOf(dn, names[i]);
+				scope.set(v);
+				scope.or(findingsOfComponent[component[v]]);
+				if (concept == null)
+					written[j].set(v);
+			}
+			if (concept != null)
+				written[j].set(indexOf(dn, concept));
+			read[j] = ancestors(dn, scope);
+		}
+	}
+
+	/**
+	 * Gets the id of a node in the net.
+	 *
+	 * @param dn	the net
+	 * @param name	node name
+	 * @return	node id
+	 */
+	private int indexOf(DiscreteNet dn, String name) {
+		int v = dn.getNodeIndex(name);
+		if (v < 0) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.ParallelDIPFP.java: Node " + name + " in the constraints is not in the BBN!");
+		}
+		return v;
+	}
+
+	/**
+	 * Gets the given nodes and all their ancestors.
+	 *
+	 * @param dn	the net
+	 * @param nodes	nodes
+	 * @return	ancestral set
+	 */
+	private BitSet ancestors(DiscreteNet dn, BitSet nodes) {
+		BitSet result = (BitSet) nodes.clone();
+		Stack stack = new Stack();
+		for (int v = nodes.nextSetBit(0); v >= 0; v = nodes.nextSetBit(v + 1))
+			stack.push(Integer.valueOf(v));
+		while (!stack.isEmpty()) {
+			int[] parents = dn.getParents(((Integer) stack.pop()).intValue());
+			for (int j = 0; j < parents.length; j++) {
+				if (!result.get(parents[j])) {
+					result.set(parents[j]);
+					stack.push(Integer.valueOf(parents[j]));
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Groups the constraints: a constraint reading a node goes with every constraint writing it.
+	 *
+	 * @param dn	the net
+	 * @param written	nodes written by each constraint
+	 * @param read	nodes read by each constraint
+	 * @return	Vector of int[], constraint indices of each partition
+	 */
+	private Vector partition(DiscreteNet dn, BitSet[] written, BitSet[] read) {
+		int m = constraints.length;
+		int[] group = new int[m];
+		for (int j = 0; j < m; j++)
+			group[j] = j;
+		//the first constraint writing each node
+		int[] writer = new int[dn.getNumOfNodes()];
+		Arrays.fill(writer, -1);
+		for (int j = 0; j < m; j++) {
+			for (int v = written[j].nextSetBit(0); v >= 0; v = written[j].nextSetBit(v + 1)) {
+				if (writer[v] < 0)
+					writer[v] = j;
+				else
+					union(group, writer[v], j);
+			}
+		}
+		for (int j = 0; j < m; j++) {
+			for (int v = read[j].nextSetBit(0); v >= 0; v = read[j].nextSetBit(v + 1)) {
+				if (writer[v] >= 0)
+					union(group, writer[v], j);
+			}
+		}
+		Hashtable members = new Hashtable(); //key: root constraint, value: Vector of constraint indices
+		Vector roots = new Vector();
+		for (int j = 0; j < m; j++) {
+			Integer root = Integer.valueOf(find(group, j));
+			Vector v = (Vector) members.get(root);
+			if (v == null) {
+				v = new Vector();
+				members.put(root, v);
+				roots.addElement(root);
+			}
+			v.addElement(Integer.valueOf(j));
+		}
+		Vector result = new Vector();
+		for (int k = 0; k < roots.size(); k++) {
+			Vector v = (Vector) members.get(roots.get(k));
+			int[] idx = new int[v.size()];
+			for (int i = 0; i < idx.length; i++)
+				idx[i] = ((Integer) v.get(i)).intValue();
+			result.addElement(idx);
+		}
+		return result;
+	}
+
+	/**
+	 * Union-find: gets the representative of a constraint's group.
+	 *
+	 * @param group	parent of each constraint in the union-find forest
+	 * @param j	constraint index
+	 * @return	representative
+	 */
+	private static int find(int[] group, int j) {
+		while (group[j] != j) {
+			group[j] = group[group[j]];
+			j = group[j];
+		}
+		return j;
+	}
+
+	/**
+	 * Union-find: merges the groups of two constraints, the smaller index becomes the representative.
+	 *
+	 * @param group	parent of each constraint in the union-find forest
+	 * @param i	constraint index
+	 * @param j	constraint index
+	 */
+	private static void union(int[] group, int i, int j) {
+		int a = find(group, i);
+		int b = find(group, j);
+		if (a != b)
+			group[Math.max(a, b)] = Math.min(a, b);
+	}
+
+	/**
+	 * Selects the partitions touched by a change.
+	 *
+	 * @param dn	the net
+	 * @param read	nodes read by each constraint
+	 * @param changedNodes	names of the nodes whose family changed; names not in the net are ignored
+	 * @param changedConstraints	for each constraint, true if it is new or changed; null if none
+	 * @return	Vector of int[], constraint indices of each partition to run
+	 */
+	private Vector selectPartitions(DiscreteNet dn, BitSet[] read, String[] changedNodes, boolean[] changedConstraints) {
+		BitSet changed = new BitSet(dn.getNumOfNodes());
+		for (int i = 0; i < changedNodes.length; i++) {
+			int v = dn.getNodeIndex(changedNodes[i]);
+			if (v >= 0)
+				changed.set(v);
+		}
+		Vector result = new Vector();
+		for (int k = 0; k < partitions.size(); k++) {
+			int[] idx = (int[]) partitions.get(k);
+			for (int i = 0; i < idx.length; i++) {
+				if ((changedConstraints != null && changedConstraints[idx[i]]) || read[idx[i]].intersects(changed)) {
+					result.addElement(idx);
+					break;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Runs every partition on its own reduced copy of the net, then merges the CPTs written.
+	 *
+	 * @param dn	the net
+	 * @param written	nodes written by each constraint
+	 * @param read	nodes read by each constraint
+	 * @param maxLoops	max iteration loops of each partition
+	 * @param threshold	threshold
+	 * @throws NeticaException
+	 */
+	private void runPartitions(final DiscreteNet dn, BitSet[] written, BitSet[] read, final int maxLoops, final double threshold) throws NeticaException {
+		final String fname;
+		try {
+			File f = File.createTempFile("ParallelDIPFP", ".dne");
+			f.deleteOnExit();
+			fname = f.getPath();
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.ParallelDIPFP.java: Can not create a temporary file!");
+		}
+		net.setAutoUpdate(1);
+		net.write(new Streamer(fname));
+		int numOfPartitions = partitions.size();
+		final BitSet[] writtenOfPartition = new BitSet[numOfPartitions];
+		Vector tasks = new Vector();
+		for (int k = 0; k < numOfPartitions; k++) {
+			final int[] idx = (int[]) partitions.get(k);
+			final Constraint[] r = new Constraint[idx.length];
+			final BitSet keep = new BitSet(dn.getNumOfNodes());
+			writtenOfPartition[k] = new BitSet(dn.getNumOfNodes());
+			for (int i = 0; i < idx.length; i++) {
+				r[i] = constraints[idx[i]];
+				keep.or(read[idx[i]]);
+				writtenOfPartition[k].or(written[idx[i]]);
+			}
+			final String tempName = fname + "." + k + ".dne";
+			tasks.addElement(new Callable() {
+				public Object call() throws Exception {
+					Net copy = new Net(new Streamer(fname));
+					//nodes no query of this partition depends on are barren for it
+					for (int v = 0; v < dn.getNumOfNodes(); v++) {
+						if (!keep.get(v))
+							copy.getNode(dn.getName(v)).delete();
+					}
+					DIPFP dipfp = new DIPFP(copy, r);
+					dipfp.setTempFileName(tempName);
+					new File(tempName).deleteOnExit();
+					dipfp.run(maxLoops, threshold);
+					return new Object[]{dipfp.getNet(), Integer.valueOf(dipfp.getExecLoops())};
+				}
+			});
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(numOfThreads, numOfPartitions));
+		RuntimeException failure = null;
+		CPTBatch batch = new CPTBatch(net);
+		batch.beginBatch();
+		try {
+			List results = pool.invokeAll(tasks);
+			for (int k = 0; k < numOfPartitions; k++) {
+				try {
+					Object[] result = (Object[]) ((Future) results.get(k)).get();
+					Net copy = (Net) result[0];
+					loopsUsed = Math.max(loopsUsed, ((Integer) result[1]).intValue());
+					mergeCPTs(dn, copy, writtenOfPartition[k], batch);
+				}
+				catch (ExecutionException e) {
+					if (e.getCause() instanceof RuntimeException)
+						failure = (RuntimeException) e.getCause();
+					else
+						e.getCause().printStackTrace();
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+		finally {
+			pool.shutdown();
+		}
+		batch.endBatch();
+		if (failure != null)
+			throw failure;
+	}
+
+	/**
+	 * Copies the CPTs of the written nodes from a partition's net into the net.
+	 *
+	 * @param dn	the net
+	 * @param copy	the partition's net
+	 * @param nodes	nodes written by the partition
+	 * @param batch	CPT batch of the net
+	 * @throws NeticaException
+	 */
+	private void mergeCPTs(DiscreteNet dn, Net copy, BitSet nodes, CPTBatch batch) throws NeticaException {
+		for (int v = nodes.nextSetBit(0); v >= 0; v = nodes.nextSetBit(v + 1)) {
+			Node from = copy.getNode(dn.getName(v));
+			Node to = net.getNode(dn.getName(v));
+			int[] parents = dn.getParents(v);
+			if (parents.length == 0) {
+				batch.setCPTable(to, "", from.getCPTable("", null));
+			}
+			else {
+				for (int row = 0; row < dn.getNumOfRows(v); row++) {
+					int[] parentStates = new int[parents.length];
+					int offset = row;
+					for (int t = parents.length - 1; t >= 0; --t) {
+						parentStates[t] = offset % dn.getNumOfStates(parents[t]);
+						offset = offset / dn.getNumOfStates(parents[t]);
+					}
+					batch.setCPTable(to, parentStates, from.getCPTable(parentStates, null));
+				}
+			}
+		}
+		batch.commit();
+	}
+
+	/**
+	 * Gets the number of partitions run by the last run.
+	 *
+	 * @return	number of partitions
+	 */
+	public int getNumOfPartitions() {
+		return partitions == null ? 0 : partitions.size();
+	}
+
+	/**
+	 * Gets the execution time of running the algorithm.
+	 *
+	 * @return	algorithm execution time
+	 */
+	public long getExecTime() {
+		return timeElapsed;
+	}
+
+	/**
+	 * Gets the largest number of iteration steps used by a partition.
+	 *
+	 * @return	iteration used
+	 */
+	public int getExecLoops() {
+		return loopsUsed;
+	}
+
+	/**
+	 * Saves the revised BBN obtained into a file.
+	 *
+	 * @param fname	file name
+	 */
+	public void saveNet (String fname) {
+		try {
+			if (fname == null || fname.equals("")) {
+				throw new NullPointerException("Invalid BBN file name");
+			}
+			else {
+				net.setAutoUpdate(1);
+				net.write(new Streamer(fname));
+				net.finalize();   // not strictly necessary, but a good habit
+			}
+		}
+		catch (Exception e) {
+			System.out.println("Error in saving the BBN to file!");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Returns the revised BBN obtained.
+	 *
+	 * @return	Bayesian Net
+	 */
+	public Net getNet () {
+		return net;
+	}
+
+}
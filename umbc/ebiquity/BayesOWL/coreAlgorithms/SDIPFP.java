@@ -48,6 +48,7 @@ public class SDIPFP {
 	HardEvidence[] hardEvidences;
 	long timeElapsed;
 	int loopsUsed;
+	InferenceEngine engine;	//null: Netica's exact inference
 	
 	/**
 	 * Constructor - 1: 
@@ -111,6 +112,16 @@ public class SDIPFP {
 		}
 	}
 	
+	/**
+	 * Sets an approximate inference engine (e.g. LoopyBeliefPropagation or LikelihoodWeighting on
+	 * a copy of the net made by BN2DiscreteNet) to answer the belief queries instead of compiling the net.
+	 * 
+	 * @param e	inference engine, null for Netica's exact inference
+	 */
+	public void setInferenceEngine(InferenceEngine e) {
+		engine = e;
+	}
+
 	/**
 	 * The loop process of simplified de-composed iterative proportional fitting procedure (SDIPFP).
 	 * 
@@ -123,7 +134,12 @@ public class SDIPFP {
 			Date startDate = new Date();
 			long startTime = startDate.getTime();
 			/* begin of procedure */			
-			net.compile();
+			CPTBatch batch = new CPTBatch(net);
+			batch.setInferenceEngine(engine);
+			batch.beginBatch();
+			batch.ensureCompiled();
+			//beliefs given the hard evidences, shared by the steps and the difference of each iteration
+			BeliefCache cache = new BeliefCache(batch);
 			int counter = 0;
 			boolean success = true;
 			double diff_sum = 1.0;
@@ -132,20 +148,21 @@ public class SDIPFP {
 					success = false;
 					break;
 				}
-				net.setAutoUpdate(1);
-				net.write(new Streamer("temp.dne"));
-				Net net_orig = new Net(new Streamer("temp.dne"));
+				//the beliefs at the end of the last iteration, no propagation is needed
+				double[][] beliefs_orig = cache.getAllBeliefs(hardEvidences);
+				int batchVersion = batch.getCPTVersion();
+				int engineVersion = engine == null ? 0 : engine.getNet().getCPTVersion();
 				for (int j=0; j<constraints.length; j++) { //iterate over all the given constraints one by one
 					String constraintType = constraints[j].getConstraintType();
 					if (constraintType.equals("marginal")) { // constraint with form R(V)
 						SimpleMarginalConstraint thisR = (SimpleMarginalConstraint) constraints[j];
-						SDIPFPMarginalOneR one_step = new SDIPFPMarginalOneR(net,thisR,hardEvidences);
+						SDIPFPMarginalOneR one_step = new SDIPFPMarginalOneR(cache,thisR,hardEvidences);
 						one_step.computation();
 						net = one_step.getNet();
 					}
 					else if (constraintType.equals("conditional")) { //constraint with form R(V|P1,P2,...)
 						SimpleConditionalConstraint thisR = (SimpleConditionalConstraint) constraints[j];
-						SDIPFPConditionalOneR one_step = new SDIPFPConditionalOneR(net,thisR,hardEvidences);
+						SDIPFPConditionalOneR one_step = new SDIPFPConditionalOneR(cache,thisR,hardEvidences);
 						one_step.computation();
 						net = one_step.getNet();						
 					}
@@ -154,10 +171,19 @@ public class SDIPFP {
 					}
 				} // end-for-j
 				counter++;
-				DiffBN diff = new DiffBN(net_orig,net,hardEvidences);
+				//the engine answers from its own network, which the batch must have updated too (see CPTBatch.flush)
+				if (engine != null) {
+					batch.flush();
+					if (batch.getCPTVersion() != batchVersion && engine.getNet().getCPTVersion() == engineVersion)
+						throw new IllegalStateException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.SDIPFP.java: The CPT updates did not reach the network of the inference engine!");
+				}
+				//the hard evidence nodes have the same beliefs before and after, so they add no difference
+
+				DiffBN diff = new DiffBN(beliefs_orig, cache.getAllBeliefs(hardEvidences), null);
 				diff_sum = diff.getDifference();
 			}
 			while (diff_sum>threshold);
+			batch.endBatch();
 			/* end of process */
 			// trace the time
 			Date endDate = new Date();
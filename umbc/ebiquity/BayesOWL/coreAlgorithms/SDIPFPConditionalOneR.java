@@ -12,6 +12,7 @@
 package umbc.ebiquity.BayesOWL.coreAlgorithms;
 
 import umbc.ebiquity.BayesOWL.commonDefine.*;
+import umbc.ebiquity.BayesOWL.commonMethod.*;
 
 import norsys.netica.*;
 
@@ -22,6 +23,8 @@ import norsys.netica.*;
  */
 public class SDIPFPConditionalOneR {
 	Net net;
+	CPTBatch batch;
+	BeliefCache cache;
 	SimpleConditionalConstraint constraint;
 	HardEvidence[] hardEvidences;
 	
@@ -33,11 +36,39 @@ public class SDIPFPConditionalOneR {
 	 * @param e:	hard evidence
 	 */
 	public SDIPFPConditionalOneR (Net n, SimpleConditionalConstraint r, HardEvidence[] e) {
-		if (n == null || r == null) {
+		this(n == null ? null : new CPTBatch(n), r, e);
+	}
+
+	/**
+	 * Constructor.
+	 * CPT writes, findings and beliefs go through the given batch, so that the caller decides when the net is compiled,
+	 * and which inference engine answers the queries.
+	 * 
+	 * @param b:	CPT batch of the Bayesian Net
+	 * @param r:	simple conditional constraint
+	 * @param e:	hard evidence
+	 */
+	public SDIPFPConditionalOneR (CPTBatch b, SimpleConditionalConstraint r, HardEvidence[] e) {
+		this(b == null ? null : new BeliefCache(b), r, e);
+	}
+
+	/**
+	 * Constructor.
+	 * Beliefs given the hard evidences are read from the given cache, which is shared with the caller
+	 * (e.g. by all the steps of one SDIPFP run) and answers through its CPT batch.
+	 * 
+	 * @param c:	belief cache of the Bayesian Net
+	 * @param r:	simple conditional constraint
+	 * @param e:	hard evidence
+	 */
+	public SDIPFPConditionalOneR (BeliefCache c, SimpleConditionalConstraint r, HardEvidence[] e) {
+		if (c == null || r == null) {
 			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.SDIPFPConditionalOneR.java: Wrong BBN or simple conditional constraint provided!");
 		}
 		else {
-			net = n;
+			cache = c;
+			batch = c.getBatch();
+			net = batch.getNet();
 			constraint = r;
 			if (e != null && e.length>0) {
 				hardEvidences = new HardEvidence[e.length];
@@ -53,7 +84,7 @@ public class SDIPFPConditionalOneR {
 	 */
 	public void computation () {
 		try {
-			net.compile();
+			batch.ensureCompiled();
 			Node node = net.getNode(constraint.getNodeName());
 			int numOfNodeStates = node.getNumStates();
 			int numOfCondVars = constraint.getNumOfConds();
@@ -86,25 +117,12 @@ public class SDIPFPConditionalOneR {
 						offset = offset  / dims_of_parents[t];
 					}								
 					pindices[k] = indices_of_parents;
-					if (hardEvidences != null && hardEvidences.length>0) { //enter hard evidence findings
-						for (int t=0; t<hardEvidences.length; t++) {
-							Node hardEviNode = net.getNode(hardEvidences[t].getName());
-							hardEviNode.enterFinding(hardEvidences[t].getState());
-						}
-					}
-					for (int t = 0; t < numOfCondVars; t++){ //enter the findings of the conditional variables
-						Node condHardEviNode = net.getNode(condVarNames[t]);
-						condHardEviNode.enterFinding(indices_of_parents[locations_of_conds_in_parents[t]]);
-					}
-					double[] pv2s = new double[numOfNodeStates];
-					for (int t = 0; t < numOfNodeStates; t++)
-						pv2s[t] = node.getBelief(node.state(t).getName()); //get Q_k-1(V|P1,P2,...,hard evidences)
-					net.retractFindings();
-					net.compile();
-					double[] rs = new double[numOfNodeStates];
 					int[] indices_of_conds = new int[numOfCondVars];
 					for (int t = 0; t < numOfCondVars; t++)
 						indices_of_conds[t] = indices_of_parents[locations_of_conds_in_parents[t]];
+					//the parent assignments with the same conditional variables share one propagation
+					double[] pv2s = cache.getBeliefs(hardEvidences, condVarNames, indices_of_conds, node.getName()); //get Q_k-1(V|P1,P2,...,hard evidences)
+					double[] rs = new double[numOfNodeStates];
 					for (int t = 0; t < numOfNodeStates; t++)
 						rs[t] = constraint.getNodeProbValueByStateIndex(t, indices_of_conds); //get R(V|P1,P2,...)
 					float sum = 0;
@@ -124,8 +142,8 @@ public class SDIPFPConditionalOneR {
 					newTable[k] = newTableEntry;
 				}
 				for (int k = 0; k < numOfEntries; k++)
-					node.setCPTable(pindices[k],newTable[k]);
-				net.compile();
+					batch.setCPTable(node, pindices[k],newTable[k]);
+				batch.commit();
 			}
 			else { // this node has no parents
 				throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.SDIPFPConditionalOneR.java: Wrong simple conditional constraint provided!");
@@ -12,6 +12,7 @@
 package umbc.ebiquity.BayesOWL.coreAlgorithms;
 
 import umbc.ebiquity.BayesOWL.commonDefine.*;
+import umbc.ebiquity.BayesOWL.commonMethod.*;
 
 import norsys.netica.*;
 
@@ -23,6 +24,8 @@ import norsys.netica.*;
 public class SDIPFPMarginalOneR {
 
 	Net net;
+	CPTBatch batch;
+	BeliefCache cache;
 	SimpleMarginalConstraint constraint;
 	HardEvidence[] hardEvidences;
 	
@@ -34,11 +37,39 @@ public class SDIPFPMarginalOneR {
 	 * @param e:	hard evidence
 	 */
 	public SDIPFPMarginalOneR (Net n, SimpleMarginalConstraint r, HardEvidence[] e) {
-		if (n == null || r == null) {
+		this(n == null ? null : new CPTBatch(n), r, e);
+	}
+
+	/**
+	 * Constructor.
+	 * CPT writes, findings and beliefs go through the given batch, so that the caller decides when the net is compiled,
+	 * and which inference engine answers the queries.
+	 * 
+	 * @param b:	CPT batch of the Bayesian Net
+	 * @param r:	simple marginal constraint
+	 * @param e:	hard evidence
+	 */
+	public SDIPFPMarginalOneR (CPTBatch b, SimpleMarginalConstraint r, HardEvidence[] e) {
+		this(b == null ? null : new BeliefCache(b), r, e);
+	}
+
+	/**
+	 * Constructor.
+	 * Beliefs given the hard evidences are read from the given cache, which is shared with the caller
+	 * (e.g. by all the steps of one SDIPFP run) and answers through its CPT batch.
+	 * 
+	 * @param c:	belief cache of the Bayesian Net
+	 * @param r:	simple marginal constraint
+	 * @param e:	hard evidence
+	 */
+	public SDIPFPMarginalOneR (BeliefCache c, SimpleMarginalConstraint r, HardEvidence[] e) {
+		if (c == null || r == null) {
 			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.coreAlgorithms.SDIPFPMarginalOneR.java: Wrong BBN or simple marginal constraint provided!");
 		}
 		else {
-			net = n;
+			cache = c;
+			batch = c.getBatch();
+			net = batch.getNet();
 			constraint = r;
 			if (e != null && e.length>0) {
 				hardEvidences = new HardEvidence[e.length];
@@ -54,7 +85,7 @@ public class SDIPFPMarginalOneR {
 	 */
 	public void computation () {
 		try {
-			net.compile();
+			batch.ensureCompiled();
 			Node node = net.getNode(constraint.getNodeName());
 			int numOfNodeStates = node.getNumStates();
 			NodeList parents = node.getParents();
@@ -66,17 +97,7 @@ public class SDIPFPMarginalOneR {
 					dims_of_parents[i] = p.getNumStates();
 					numOfEntries *= dims_of_parents[i];
 				}
-				if (hardEvidences != null && hardEvidences.length > 0) { //enter hard evidence findings
-					for (int i = 0; i < hardEvidences.length; i++) {
-						Node hardEviNode = net.getNode(hardEvidences[i].getName());
-						hardEviNode.enterFinding(hardEvidences[i].getState());
-					}
-				}
-				double[] pv2s = new double[numOfNodeStates];
-				for (int i = 0; i < numOfNodeStates; i++)
-					pv2s[i] = node.getBelief(node.state(i).getName()); //get Q_k-1(V|hard evidences)
-				net.retractFindings();
-				net.compile();
+				double[] pv2s = cache.getBeliefs(hardEvidences, node.getName()); //get Q_k-1(V|hard evidences)
 				double[] rs = new double[numOfNodeStates];
 				for (int i = 0; i < numOfNodeStates; i++)
 					rs[i] = constraint.getNodeProbValueByStateName(node.state(i).getName()); //get R(V)
@@ -101,22 +122,17 @@ public class SDIPFPMarginalOneR {
 					}
 					for (int t=0; t<numOfNodeStates; t++) //normalization
 						newTable[t] = newTable[t]/sum;
-					node.setCPTable(indices_of_parents,newTable);
+					batch.setCPTable(node, indices_of_parents,newTable);
 				}
-				net.compile();
+				batch.commit();
 			}
 			else { // this node has no parents: Q_k(V) = Q_k-1(V) * R(V) / Q_k-1(V|hard evidences)
 				float sum = 0;
 				float[] newTable = new float[numOfNodeStates];
-				if (hardEvidences != null && hardEvidences.length>0) { //enter hard evidence findings
-					for (int i = 0; i < hardEvidences.length; i++) {
-						Node hardEviNode = net.getNode(hardEvidences[i].getName());
-						hardEviNode.enterFinding(hardEvidences[i].getState());
-					}
-				}
+				double[] pv2s = cache.getBeliefs(hardEvidences, node.getName());
 				for (int i = 0; i < numOfNodeStates; i++) {
 					double pv1 = node.getCPTable("",null)[i];    //get Q_k-1(V)
-					double pv2 = node.getBelief(node.state(i).getName()); // get Q_k-1(V|hard evidences)
+					double pv2 = pv2s[i]; // get Q_k-1(V|hard evidences)
 					double r = constraint.getNodeProbValueByStateName(node.state(i).getName()); //get R(V)
 					if (r == 0 || pv2 == 0) {
 						newTable[i] = 0; 
@@ -126,11 +142,10 @@ public class SDIPFPMarginalOneR {
 					}
 					sum += newTable[i];
 				}
-				net.retractFindings();
 				for (int i = 0; i < numOfNodeStates; i++) //normalization
 					newTable[i] = newTable[i] / sum;
-				node.setCPTable("", newTable);
-				net.compile();
+				batch.setCPTable(node, "", newTable);
+				batch.commit();
 			}
 		} 
 		catch (Exception e) {
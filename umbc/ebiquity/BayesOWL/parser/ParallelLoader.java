@@ -0,0 +1,288 @@
+/**
+ * ParallelLoader.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+package umbc.ebiquity.BayesOWL.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+
+import norsys.netica.*;
+
+/**
+ * ParallelLoader parses several ontologies and probability files at once, on a
+ * bounded pool of threads, and merges them.<br>
+ * Each ontology is read by a StreamingTaxoParser and each probability file by a
+ * StreamingProbParser; the files are independent, so they are parsed concurrently,
+ * the largest first, and the total time is bound by the largest file rather than the sum.<br>
+ * The taxonomies are then replayed, in the given order, into one TaxonomyIndex: a class
+ * named in several ontologies is one node, and an L-Node given by several ontologies
+ * on the same named classes is kept once.
+ * The probabilities are merged by (Condition, Proposition): a probability missing in one
+ * file is taken from another, and when two files give it, the later file wins.<br>
+ * The time of each file is kept, see getFiles() and getFileTimes().
+ *
+ */
+public class ParallelLoader
+{
+	private int numOfThreads;
+	private TaxonomyIndex index;
+	private LinkedHashMap<String, StreamingProbParser.Slot> slotMap;	//merged, by (condition, proposition)
+	private boolean valid;
+	private String[] files;
+	private long[] fileTimes;
+	private long mergeTime;
+	private long timeElapsed;
+
+	/**
+	 * Constructor.
+	 * @param threads	maximum number of files parsed at once
+	 */
+	public ParallelLoader(int threads)
+	{
+		if(threads <= 0)
+		{
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.parser.ParallelLoader.java: Wrong number of threads provided!");
+		}
+		numOfThreads = threads;
+	}
+
+	/**
+	 * Parse and merge the ontologies and the probability files.
+	 * @param owlFiles	Owl File Directories or URLs
+	 * @param probFiles	Probability File Directories, may be null
+	 * @throws IOException	if a probability file can not be read
+	 */
+	public void load(String[] owlFiles, String[] probFiles) throws IOException
+	{
+		if(owlFiles == null)
+		{
+			throw new IllegalArgumentException("Class umbc.ebiquity.BayesOWL.parser.ParallelLoader.java: No ontology provided!");
+		}
+		long startTime = new Date().getTime();
+		int numOfOwl = owlFiles.length;
+		int numOfFiles = numOfOwl + (probFiles == null ? 0 : probFiles.length);
+		files = new String[numOfFiles];
+		System.arraycopy(owlFiles, 0, files, 0, numOfOwl);
+		if(probFiles != null)
+		{
+			System.arraycopy(probFiles, 0, files, numOfOwl, probFiles.length);
+		}
+		fileTimes = new long[numOfFiles];
+		final Object[] parsers = new Object[numOfFiles];
+
+		//largest files first, so that no large file is started last
+		Integer[] order = new Integer[numOfFiles];
+		final long[] sizes = new long[numOfFiles];
+		for(int f = 0; f < numOfFiles; f++)
+		{
+			order[f] = Integer.valueOf(f);
+			sizes[f] = new File(files[f]).length();	//0 for a URL
+		}
+		Arrays.sort(order, new Comparator<Integer>()
+		{
+			public int compare(Integer a, Integer b)
+			{
+				return sizes[a.intValue()] < sizes[b.intValue()] ? 1 : sizes[a.intValue()] > sizes[b.intValue()] ? -1 : 0;
+			}
+		});
+
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(numOfThreads, numOfFiles)));
+		try
+		{
+			ArrayList<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+			for(int k = 0; k < numOfFiles; k++)
+			{
+				final int f = order[k].intValue();
+				final boolean isOwl = f < numOfOwl;
+				tasks.add(new Callable<Object>()
+				{
+					public Object call() throws IOException
+					{
+						long fileStart = new Date().getTime();
+						if(isOwl)
+						{
+							parsers[f] = new StreamingTaxoParser(files[f]);
+						}
+						else
+						{
+							StreamingProbParser probParser = new StreamingProbParser();
+							probParser.parse(files[f]);
+							parsers[f] = probParser;
+						}
+						fileTimes[f] = new Date().getTime() - fileStart;
+						return null;
+					}
+				});
+			}
+			List<Future<Object>> futures = pool.invokeAll(tasks);
+			for(int k = 0; k < futures.size(); k++)
+			{
+				try
+				{
+					futures.get(k).get();
+				}
+				catch (ExecutionException e)
+				{
+					if(e.getCause() instanceof IOException)
+					{
+						throw (IOException) e.getCause();
+					}
+					throw new RuntimeException(e.getCause());
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			throw new IOException("Class umbc.ebiquity.BayesOWL.parser.ParallelLoader.java: Loading interrupted!");
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+
+		long mergeStart = new Date().getTime();
+		index = new TaxonomyIndex();
+		HashSet<String> logicKeys = new HashSet<String>();
+		for(int f = 0; f < numOfOwl; f++)
+		{
+			((StreamingTaxoParser) parsers[f]).replay(index, logicKeys);
+		}
+		index.build();
+		mergeSlots(parsers, numOfOwl);
+		mergeTime = new Date().getTime() - mergeStart;
+		timeElapsed = new Date().getTime() - startTime;
+	}
+
+	/**
+	 * Merge the given probabilities of all the probability files, by (Condition, Proposition).
+	 * @param parsers	parsers of all the files, the probability files after the ontologies
+	 * @param numOfOwl	number of ontologies
+	 */
+	private void mergeSlots(Object[] parsers, int numOfOwl)
+	{
+		slotMap = new LinkedHashMap<String, StreamingProbParser.Slot>();
+		valid = true;
+		for(int f = numOfOwl; f < parsers.length; f++)
+		{
+			LinkedHashMap<String, StreamingProbParser.Slot> slots = ((StreamingProbParser) parsers[f]).getSlots();
+			if(slots == null)
+			{
+				valid = false;
+				continue;
+			}
+			Iterator<StreamingProbParser.Slot> iter = slots.values().iterator();
+			while(iter.hasNext())
+			{
+				StreamingProbParser.Slot slot = iter.next();
+				String key = ProbParser.getKey(slot.condition, slot.proposition);
+				StreamingProbParser.Slot merged = slotMap.get(key);
+				if(merged == null)
+				{
+					merged = new StreamingProbParser.Slot();
+					merged.condition = slot.condition;
+					merged.proposition = slot.proposition;
+					slotMap.put(key, merged);
+				}
+				for(int x = 0; x < merged.values.length; x++)
+				{
+					if(slot.values[x] != -1)
+					{
+						merged.values[x] = slot.values[x];
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the merged taxonomy.
+	 * @return	taxonomy index, built; null before load
+	 */
+	public TaxonomyIndex getIndex()
+	{
+		return index;
+	}
+
+	/**
+	 * Construct the CPT based on the merged Probability Files.
+	 * @param net	Target BN, e.g. built by BNConstructor from getIndex()
+	 * @return	Array of Constraint, null if the probabilities are not consistent
+	 * @throws NeticaException
+	 */
+	public Constraint[] getConstraint(Net net) throws NeticaException
+	{
+		if(slotMap == null || !valid)
+		{
+			return null;
+		}
+		ProbParser probParser = new ProbParser();
+		Constraint constraint;
+		Constraint[] cons = new Constraint[slotMap.size()];
+		Iterator<StreamingProbParser.Slot> iter = slotMap.values().iterator();
+		for(int i = 0; iter.hasNext(); i++)
+		{
+			StreamingProbParser.Slot slot = iter.next();
+			constraint = probParser.makeConstraint(slot.condition, slot.proposition, slot.values, net);
+			if(constraint == null)
+			{
+				return null;
+			}
+			cons[i] = constraint;
+		}
+		return cons;
+	}
+
+	/**
+	 * Get the files of the last load: the ontologies, then the probability files.
+	 * @return	file names
+	 */
+	public String[] getFiles()
+	{
+		return files;
+	}
+
+	/**
+	 * Get the parsing time of each file of the last load, in the order of getFiles().
+	 * @return	times in milliseconds
+	 */
+	public long[] getFileTimes()
+	{
+		return fileTimes;
+	}
+
+	/**
+	 * Get the time spent merging the parsed files in the last load.
+	 * @return	time in milliseconds
+	 */
+	public long getMergeTime()
+	{
+		return mergeTime;
+	}
+
+	/**
+	 * Get the total time of the last load.
+	 * @return	time in milliseconds
+	 */
+	public long getExecTime()
+	{
+		return timeElapsed;
+	}
+}
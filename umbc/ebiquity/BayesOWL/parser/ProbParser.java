@@ -10,7 +10,8 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 
 import norsys.netica.Net;
 import norsys.netica.NeticaException;
@@ -299,6 +300,19 @@ public class ProbParser {
     	ArrayList<ConPro> conProList = new ArrayList<ConPro>();
     	PropCollection[] propCollectionArray = getPropCollection(OwlFile);
     	CondCollection[] condCollectionArray = getCondCollection(OwlFile);
+    	HashMap<String, String> propCollectionMap = new HashMap<String, String>();
+    	HashMap<String, String> condCollectionMap = new HashMap<String, String>();
+    	
+    	//Index the Collections by Name, the last one wins as before
+    	for(k = 0; k < propCollectionArray.length; k++)
+    	{
+    		propCollectionMap.put(propCollectionArray[k].propCollectionName, propCollectionArray[k].proposition);
+    	}
+    	for(k = 0; k < condCollectionArray.length; k++)
+    	{
+    		condCollectionMap.put(condCollectionArray[k].condCollectionName, condCollectionArray[k].condition);
+    	}
+    	
     	BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(OwlFile)));
        	
     	while((data = br.readLine())!=null)
@@ -317,12 +331,9 @@ public class ProbParser {
     					//Get Proposition for ConProList
     					cpString = data.substring(i+19, j).trim();
     					
-    					for(k = 0; k < propCollectionArray.length; k++)
+    					if(propCollectionMap.containsKey(cpString))
     					{
-    						if(propCollectionArray[k].propCollectionName.equals(cpString))
-    						{
-    							conPro.proposition = propCollectionArray[k].proposition;
-    						}
+    						conPro.proposition = propCollectionMap.get(cpString);
     					}
     				} 				
     				
@@ -334,12 +345,9 @@ public class ProbParser {
     					//Get Condition for ConProList
     					cpString = data.substring(i+19, j).trim();
 
-    					for(k = 0; k < condCollectionArray.length; k++)
+    					if(condCollectionMap.containsKey(cpString))
     					{
-    						if(condCollectionArray[k].condCollectionName.equals(cpString))
-    						{
-    							conPro.condition = condCollectionArray[k].condition;
-    						}
+    						conPro.condition = condCollectionMap.get(cpString);
     					}
     				}
     				
@@ -366,67 +374,57 @@ public class ProbParser {
 	 */
 	public Probability[] getProbability(String OwlFile) throws IOException 
 	{
-    	int i;
-    	int j;
-    	Probability probability;
-    	String condition = null;
-    	String proposition = null;
-    	int conditionState = 0;
-    	int propositionState = 0;
-    	int[] state = null;
-    	ConPro[] conProArray = getConPro(OwlFile);
-    	Proposition[] propositionArray = getProposition(OwlFile);
-    	Probability[] probabilityArray = new Probability[conProArray.length];
-      	
-    	for(i = 0;i < conProArray.length; i++)
-    	{
-    		probability = new Probability();
-    		//Get Condition for ProbabilityList
-    		if(conProArray[i].condition != null)
-    		{   			
-    			for(j = 0;j < propositionArray.length; j++)
-    			{
-    				if(propositionArray[j].proposition.equals(conProArray[i].condition))
-    				{
-    					condition = propositionArray[j].variable;
-    					conditionState = propositionArray[j].state;
-    				}
-    			}
-    		}
-    		
-    		//Get Proposition for ProbabilityList			
-			for(j = 0; j < propositionArray.length; j++)
+		int i;
+		Probability probability;
+		Proposition condition;
+		Proposition proposition;
+		ConPro[] conProArray = getConPro(OwlFile);
+		Proposition[] propositionArray = getProposition(OwlFile);
+		Probability[] probabilityArray = new Probability[conProArray.length];
+		HashMap<String, Proposition> propositionMap = new HashMap<String, Proposition>();
+		
+		//Index the Propositions by Name, the last one wins as before
+		for(i = 0; i < propositionArray.length; i++)
+		{
+			propositionMap.put(propositionArray[i].proposition, propositionArray[i]);
+		}
+		
+		for(i = 0; i < conProArray.length; i++)
+		{
+			probability = new Probability();
+			condition = null;
+			
+			//Get Condition for ProbabilityList
+			if(conProArray[i].condition != null)
 			{
-				if(propositionArray[j].proposition.equals(conProArray[i].proposition))
-				{
-					proposition = propositionArray[j].variable;
-					propositionState = propositionArray[j].state;
-				}
+				condition = propositionMap.get(conProArray[i].condition);
 			}
-    		
-    		//Get State for ProbabilityList
-    		if(conProArray[i].condition != null)
+			
+			//Get Proposition for ProbabilityList
+			proposition = propositionMap.get(conProArray[i].proposition);
+			
+			//Get State for ProbabilityList
+			if(condition != null)
 			{
-    			state = new int[2];
-    			state[0] = conditionState;
-    			state[1] = propositionState;
+				probability.condition = condition.variable;
+				probability.state = new int[]{condition.state, proposition == null ? 0 : proposition.state};
 			}
-    		else
-    		{
-    			state = new int[1];
-    			state[0] = propositionState;
-    		}
-    		 
-    		probability.condition = condition;
-    		probability.proposition = proposition;
-    		probability.state = state;
-    		//Get Value for ProbabilityList
-    		probability.value = conProArray[i].value;
-    		probabilityArray[i]=probability;
-    	}   	
-    	
-    	return probabilityArray;
-    }
+			else
+			{
+				probability.state = new int[]{proposition == null ? 0 : proposition.state};
+			}
+			
+			if(proposition != null)
+			{
+				probability.proposition = proposition.variable;
+			}
+			//Get Value for ProbabilityList
+			probability.value = conProArray[i].value;
+			probabilityArray[i] = probability;
+		}
+		
+		return probabilityArray;
+	}
 	
 	/**
 	 * Make a Condition Proposition List for the Probability File.
@@ -435,62 +433,54 @@ public class ProbParser {
 	 * @return	Array of ConProList
 	 */
 	public ConProList[] getConProList(String OwlFile) throws IOException
+	{
+		return getConProList(getProbability(OwlFile));
+	}
+	
+	/**
+	 * Make a Condition Proposition List from the Probabilities, in order of first appearance.
+	 * Pairs are deduplicated through a hash index on (Condition, Proposition).
+	 * @param probabilityArray	Array of Probability
+	 * @return	Array of ConProList
+	 */
+	ConProList[] getConProList(Probability[] probabilityArray)
 	{
 		int i;
-		int flag;
-		ConProList cpList1;
-		ConProList cpList2;
-		Probability[] probabilityArray = getProbability(OwlFile);
-		ArrayList<ConProList> conProList = new ArrayList<ConProList>();
+		String key;
+		ConProList cpList;
+		LinkedHashMap<String, ConProList> conProMap = new LinkedHashMap<String, ConProList>();
 		
-		for(i = 0;i < probabilityArray.length; i++)
+		for(i = 0; i < probabilityArray.length; i++)
 		{
-			cpList1 = new ConProList();
-			cpList1.condition = probabilityArray[i].condition;
-			cpList1.proposition = probabilityArray[i].proposition;
-			
-			if(conProList.isEmpty())
-			{
-				conProList.add(cpList1);
-			}
-			else
+			key = getKey(probabilityArray[i].condition, probabilityArray[i].proposition);
+			if(!conProMap.containsKey(key))
 			{
-				flag = 0;
-				Iterator<ConProList> iter = conProList.iterator();
-				while(iter.hasNext())
-				{
-					cpList2 = new ConProList();
-					cpList2 = iter.next();
-					if((cpList2.condition != null) && (cpList1.condition != null))
-					{
-						if(cpList2.condition.equals(cpList1.condition) && cpList2.proposition.equals(cpList1.proposition))
-						{
-							flag = 1;
-							break;					
-						}
-					}
-					else if((cpList2.condition == null) && (cpList1.condition == null))
-					{
-						if(cpList2.proposition.equals(cpList2.proposition))
-						{
-							flag = 1;
-							break;
-						}
-					}
-				}
-				
-				if(flag == 0)
-				{
-					conProList.add(cpList1);
-				}
+				cpList = new ConProList();
+				cpList.condition = probabilityArray[i].condition;
+				cpList.proposition = probabilityArray[i].proposition;
+				conProMap.put(key, cpList);
 			}
 		}
 		
-		return (ConProList[]) conProList.toArray(new ConProList[0]);		
+		return (ConProList[]) conProMap.values().toArray(new ConProList[0]);
+	}
+	
+	/**
+	 * Get the Hash Key of a (Condition, Proposition) pair.
+	 * Variable names are OWL IDs, so they can not contain "|".
+	 * @param condition	Condition Variable, null for a marginal
+	 * @param proposition	Proposition Variable
+	 * @return	Key
+	 */
+	static String getKey(String condition, String proposition)
+	{
+		return condition == null ? "|" + proposition : condition + "|" + proposition;
 	}
 	
 	/**
 	 * Construct the CPT based on the Probability File.
+	 * The Probabilities are parsed once and gathered by (Condition, Proposition) in one scan,
+	 * so the assembly is linear in the number of Probabilities.
 	 * @param OwlFile	Owl File Directory
 	 * @throws IOException
 	 * @return	Array of Constraint
@@ -499,276 +489,253 @@ public class ProbParser {
 	public Constraint[] getConstraint(String OwlFile, Net net) throws IOException, NeticaException
 	{
 		int i;
-		int j;
+		double[] values;
+		Constraint constraint;
 		ArrayList<Constraint> cons = new ArrayList<Constraint>();
-		ConProList[] conProListArray = getConProList(OwlFile);
 		Probability[] probabilityArray = getProbability(OwlFile);
+		ConProList[] conProListArray = getConProList(probabilityArray);
+		HashMap<String, double[]> valueMap = new HashMap<String, double[]>();
 		
 		for(i = 0; i < conProListArray.length; i++)
 		{
-			if(conProListArray[i].condition == null)
+			valueMap.put(getKey(conProListArray[i].condition, conProListArray[i].proposition), new double[]{-1, -1, -1, -1});
+		}
+		
+		for(i = 0; i < probabilityArray.length; i++)
+		{
+			if(!checkValue(probabilityArray[i].proposition, probabilityArray[i].value))
 			{
-				RandomVariable[] rvs0 = new RandomVariable[1];
-				rvs0[0] = new RandomVariable(conProListArray[i].proposition, new String[]{"True", "False"});;
-								
-				JointProbDistribution con0 = new JointProbDistribution(rvs0);
-				
-				double value0 = -1;
-				double value1 = -1;
-				
-				for(j = 0; j < probabilityArray.length; j++)
-				{	
-					if((probabilityArray[j].condition == null) && conProListArray[i].proposition.equals(probabilityArray[j].proposition))
-					{
-						if(probabilityArray[j].state[0] == 0)
-						{
-							value0 = probabilityArray[j].value;
-							if(value0 < 0 || value0 > 1)
-							{
-								System.out.print("Probability of ");
-								System.out.print(probabilityArray[j].proposition);
-								System.out.print(" ");
-								System.out.println("should be between 0 and 1.");
-								return null;
-							}
-						}
-						else 
-						{
-							value1 = probabilityArray[j].value;
-							if(value1 < 0 || value1 > 1)
-							{
-								System.out.print("Probability of ");
-								System.out.print(probabilityArray[j].proposition);
-								System.out.print(" ");
-								System.out.println("should be between 0 and 1.");
-								return null;
-							}
-						}
-					}
-				}
-				
-				if(value0 == -1)
-				{
-					value0 = 1 - value1;
-				}
-				else if(value1 == -1)
-				{
-					value1 = 1 - value0;
-				}			
-				else if(value0 + value1 != 1)
-				{
-					System.out.print("Probability of ");
-					System.out.print(conProListArray[i].proposition);
-					System.out.print(" ");					
-					System.out.print("and Probability of NOT ");
-					System.out.print(conProListArray[i].proposition);
-					System.out.print(" ");
-					System.out.println("should add to 1.");
-					return null;
-				}
-				
-				con0.addProbEntry(new int[]{0}, value0);
-				con0.addProbEntry(new int[]{1}, value1);
-				cons.add(new LocalMarginalConstraint(con0, conProListArray[i].proposition));
+				return null;
+			}
+			values = valueMap.get(getKey(probabilityArray[i].condition, probabilityArray[i].proposition));
+			if(probabilityArray[i].condition == null)
+			{
+				values[probabilityArray[i].state[0] == 0 ? 0 : 1] = probabilityArray[i].value;
 			}
-				
 			else
 			{
-				RandomVariable[] rvs1Prior = new RandomVariable[1];
-				rvs1Prior[0] = new RandomVariable(conProListArray[i].proposition, new String[]{"True", "False"});;
-				
-				RandomVariable[] rvs1Cond = new RandomVariable[1];
-				rvs1Cond[0] = new RandomVariable(conProListArray[i].condition, new String[]{"True", "False"});;
-				
-				CondProbDistribution con = new CondProbDistribution(rvs1Prior, rvs1Cond);
-				
-				double value11 = -1;
-				double value01 = -1;
-				double value10 = -1;
-				double value00 = -1;
-				
-				for(j = 0; j < probabilityArray.length; j++)
-				{
-					if(conProListArray[i].condition.equals(probabilityArray[j].condition) && conProListArray[i].proposition.equals(probabilityArray[j].proposition))
-					{
-						if((probabilityArray[j].state[0] == 1) && (probabilityArray[j].state[1] == 1))
-						{
-							value11 = probabilityArray[j].value;
+				values[probabilityArray[i].state[0] * 2 + probabilityArray[i].state[1]] = probabilityArray[i].value;
+			}
+		}
+		
+		for(i = 0; i < conProListArray.length; i++)
+		{
+			values = valueMap.get(getKey(conProListArray[i].condition, conProListArray[i].proposition));
+			constraint = makeConstraint(conProListArray[i].condition, conProListArray[i].proposition, values, net);
+			if(constraint == null)
+			{
+				return null;
+			}
+			cons.add(constraint);
+		}
+		
+		return (Constraint[]) cons.toArray(new Constraint[0]);	
+	}
+	
+	/**
+	 * Check that a given probability is between 0 and 1.
+	 * @param proposition	Proposition Variable of the Probability
+	 * @param value	Probability
+	 * @return	true if the Probability is valid
+	 */
+	boolean checkValue(String proposition, double value)
+	{
+		if(value < 0 || value > 1)
+		{
+			System.out.print("Probability of ");
+			System.out.print(proposition);
+			System.out.print(" ");
+			System.out.println("should be between 0 and 1.");
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Make the Constraint of one (Condition, Proposition) pair from its given probabilities.
+	 * Missing probabilities are -1 and are completed when possible.
+	 * For a marginal (Condition is null), values[0] is P(Proposition) and values[1] is P(NOT Proposition).
+	 * For a conditional, values[conditionState * 2 + propositionState] is the probability
+	 * of this Proposition state given this Condition state (state 0 is "True", 1 is "False").
+	 * @param condition	Condition Variable, null for a marginal
+	 * @param proposition	Proposition Variable
+	 * @param values	Given probabilities, -1 if missing
+	 * @param net	Target BN, to know if Condition is a parent of Proposition
+	 * @return	Constraint, null if the probabilities are not consistent
+	 * @throws NeticaException 
+	 */
+	Constraint makeConstraint(String condition, String proposition, double[] values, Net net) throws NeticaException
+	{
+		if(condition == null)
+		{
+			RandomVariable[] rvs0 = new RandomVariable[1];
+			rvs0[0] = new RandomVariable(proposition, new String[]{"True", "False"});
 							
-							if(value11 < 0 || value11 > 1)
-							{
-								System.out.print("Probability of ");
-								System.out.print(probabilityArray[j].proposition);
-								System.out.print(" ");
-								System.out.println("should be between 0 and 1.");
-								return null;
-							}
-						}
-						else if((probabilityArray[j].state[0] == 0) && (probabilityArray[j].state[1] == 1))
-						{
-							value01 = probabilityArray[j].value;
-							if(value01 < 0 || value01 > 1)
-							{
-								System.out.print("Probability of ");
-								System.out.print(probabilityArray[j].proposition);
-								System.out.print(" ");
-								System.out.println("should be between 0 and 1.");
-								return null;
-							}
-						}
-						else if((probabilityArray[j].state[0] == 1) && (probabilityArray[j].state[1] == 0))
-						{
-							value10 = probabilityArray[j].value;
-							if(value10 < 0 || value10 > 1)
-							{
-								System.out.print("Probability of ");
-								System.out.print(probabilityArray[j].proposition);
-								System.out.print(" ");
-								System.out.println("should be between 0 and 1.");
-								return null;
-							}
-						}
-						else if((probabilityArray[j].state[0] == 0) && (probabilityArray[j].state[1] == 0))
-						{
-							value00 = probabilityArray[j].value;
-							if(value00 < 0 || value00 > 1)
-							{
-								System.out.print("Probability of ");
-								System.out.print(probabilityArray[j].proposition);
-								System.out.print(" ");
-								System.out.println("should be between 0 and 1.");
-								return null;
-							}
-						}
-					}
-				}
-				
-				if((value00 == -1) && (value10 == -1))
-				{
-					System.out.print("Probability of (");
-					System.out.print(conProListArray[i].proposition);
-					System.out.print("|");				
-					System.out.print(conProListArray[i].condition);
-					System.out.print(")or Probability of (NOT ");
-					System.out.print(conProListArray[i].proposition);
-					System.out.print("|");				
-					System.out.print(conProListArray[i].condition);
-					System.out.print(") ");
-					System.out.println("should be given.");
-					return null;
-				}
-				else if(value00 == -1)
-				{
-					value00 = 1 - value10;
-				}
-				else if(value10 == -1)
-				{
-					value10 = 1 - value00;
-				}
-				else if((value00 + value10 != 1))
-				{
-					System.out.print("Probability of (");
-					System.out.print(conProListArray[i].proposition);
-					System.out.print("|");				
-					System.out.print(conProListArray[i].condition);
-					System.out.print(")or Probability of (NOT ");
-					System.out.print(conProListArray[i].proposition);
-					System.out.print("|");				
-					System.out.print(conProListArray[i].condition);
-					System.out.print(") ");
-					System.out.println("should add to 1.");
-					return null;
-				}
+			JointProbDistribution con0 = new JointProbDistribution(rvs0);
+			
+			double value0 = values[0];
+			double value1 = values[1];
+			
+			if(value0 == -1)
+			{
+				value0 = 1 - value1;
+			}
+			else if(value1 == -1)
+			{
+				value1 = 1 - value0;
+			}			
+			else if(value0 + value1 != 1)
+			{
+				System.out.print("Probability of ");
+				System.out.print(proposition);
+				System.out.print(" ");					
+				System.out.print("and Probability of NOT ");
+				System.out.print(proposition);
+				System.out.print(" ");
+				System.out.println("should add to 1.");
+				return null;
+			}
+			
+			con0.addProbEntry(new int[]{0}, value0);
+			con0.addProbEntry(new int[]{1}, value1);
+			return new LocalMarginalConstraint(con0, proposition);
+		}
+			
+		RandomVariable[] rvs1Prior = new RandomVariable[1];
+		rvs1Prior[0] = new RandomVariable(proposition, new String[]{"True", "False"});
+		
+		RandomVariable[] rvs1Cond = new RandomVariable[1];
+		rvs1Cond[0] = new RandomVariable(condition, new String[]{"True", "False"});
+		
+		CondProbDistribution con = new CondProbDistribution(rvs1Prior, rvs1Cond);
+		
+		double value00 = values[0];
+		double value01 = values[1];
+		double value10 = values[2];
+		double value11 = values[3];
+		
+		if((value00 == -1) && (value10 == -1))
+		{
+			System.out.print("Probability of (");
+			System.out.print(proposition);
+			System.out.print("|");				
+			System.out.print(condition);
+			System.out.print(")or Probability of (NOT ");
+			System.out.print(proposition);
+			System.out.print("|");				
+			System.out.print(condition);
+			System.out.print(") ");
+			System.out.println("should be given.");
+			return null;
+		}
+		else if(value00 == -1)
+		{
+			value00 = 1 - value10;
+		}
+		else if(value10 == -1)
+		{
+			value10 = 1 - value00;
+		}
+		else if((value00 + value10 != 1))
+		{
+			System.out.print("Probability of (");
+			System.out.print(proposition);
+			System.out.print("|");				
+			System.out.print(condition);
+			System.out.print(")or Probability of (NOT ");
+			System.out.print(proposition);
+			System.out.print("|");				
+			System.out.print(condition);
+			System.out.print(") ");
+			System.out.println("should add to 1.");
+			return null;
+		}
 
-				norsys.netica.Node node = net.getNode(conProListArray[i].proposition);
-				NodeList nodeList = node.getParents();
-				
-				if(nodeList.contains(net.getNode(conProListArray[i].condition)))
-				{
-					if(value01 == -1)
-					{
-						value01 = 0;
-					}
-					else if(value01 != 0)
-					{
-						System.out.print("Probability of (");
-						System.out.print(conProListArray[i].proposition);
-						System.out.print("| NOT ");				
-						System.out.print(conProListArray[i].condition);
-						System.out.print(") ");
-						System.out.println("should be 0.");
-						return null;
-					}
-					
-					if(value11 == -1)
-					{
-						value11 = 1;
-					}
-					else if(value11 != 1)
-					{
-						System.out.print("Probability of (NOT ");
-						System.out.print(conProListArray[i].proposition);
-						System.out.print("|");				
-						System.out.print(conProListArray[i].condition);
-						System.out.print(") ");
-						System.out.println("should be 1.");
-						return null;
-					}	
-				}
-				else
-				{
-					if((value01 == -1) && (value11 == -1))
-					{
-						System.out.print("Probability of (");
-						System.out.print(conProListArray[i].proposition);
-						System.out.print("|NOT ");				
-						System.out.print(conProListArray[i].condition);
-						System.out.print(")or Probability of (NOT ");
-						System.out.print(conProListArray[i].proposition);
-						System.out.print("|NOT ");				
-						System.out.print(conProListArray[i].condition);
-						System.out.print(") ");
-						System.out.println("should be given.");
-						return null;
-					}
-					else if(value01 == -1)
-					{
-						value01 = 1 - value11;
-					}
-					else if(value11 == -1)
-					{
-						value11 = 1 - value01;
-					}
-					else if((value01 + value11 != 1))
-					{
-						System.out.print("Probability of (");
-						System.out.print(conProListArray[i].proposition);
-						System.out.print("|NOT ");				
-						System.out.print(conProListArray[i].condition);
-						System.out.print(")or Probability of (NOT ");
-						System.out.print(conProListArray[i].proposition);
-						System.out.print("|NOT ");				
-						System.out.print(conProListArray[i].condition);
-						System.out.print(") ");
-						System.out.println("should add to 1.");
-						return null;
-					}
-				}
-				
-				con.addCondProbEntry(new int[]{1,1}, value11);	
-				//original
-				//con.addCondProbEntry(new int[]{0,1}, value01);	
-				//con.addCondProbEntry(new int[]{1,0}, value10);
-				//changed by Shenyong, Dec. 15, 2008
-				con.addCondProbEntry(new int[]{1,0}, value01);	
-				con.addCondProbEntry(new int[]{0,1}, value10);	
-				
-				con.addCondProbEntry(new int[]{0,0}, value00);	
-				cons.add(new LocalConditionalConstraint(con)); 
+		norsys.netica.Node node = net.getNode(proposition);
+		NodeList nodeList = node.getParents();
+		
+		if(nodeList.contains(net.getNode(condition)))
+		{
+			if(value01 == -1)
+			{
+				value01 = 0;
+			}
+			else if(value01 != 0)
+			{
+				System.out.print("Probability of (");
+				System.out.print(proposition);
+				System.out.print("| NOT ");				
+				System.out.print(condition);
+				System.out.print(") ");
+				System.out.println("should be 0.");
+				return null;
+			}
+			
+			if(value11 == -1)
+			{
+				value11 = 1;
+			}
+			else if(value11 != 1)
+			{
+				System.out.print("Probability of (NOT ");
+				System.out.print(proposition);
+				System.out.print("|");				
+				System.out.print(condition);
+				System.out.print(") ");
+				System.out.println("should be 1.");
+				return null;
+			}	
+		}
+		else
+		{
+			if((value01 == -1) && (value11 == -1))
+			{
+				System.out.print("Probability of (");
+				System.out.print(proposition);
+				System.out.print("|NOT ");				
+				System.out.print(condition);
+				System.out.print(")or Probability of (NOT ");
+				System.out.print(proposition);
+				System.out.print("|NOT ");				
+				System.out.print(condition);
+				System.out.print(") ");
+				System.out.println("should be given.");
+				return null;
+			}
+			else if(value01 == -1)
+			{
+				value01 = 1 - value11;
+			}
+			else if(value11 == -1)
+			{
+				value11 = 1 - value01;
+			}
+			else if((value01 + value11 != 1))
+			{
+				System.out.print("Probability of (");
+				System.out.print(proposition);
+				System.out.print("|NOT ");				
+				System.out.print(condition);
+				System.out.print(")or Probability of (NOT ");
+				System.out.print(proposition);
+				System.out.print("|NOT ");				
+				System.out.print(condition);
+				System.out.print(") ");
+				System.out.println("should add to 1.");
+				return null;
 			}
 		}
 		
-		return (Constraint[]) cons.toArray(new Constraint[0]);	
+		con.addCondProbEntry(new int[]{1,1}, value11);	
+		//original
+		//con.addCondProbEntry(new int[]{0,1}, value01);	
+		//con.addCondProbEntry(new int[]{1,0}, value10);
+		//changed by Shenyong, Dec. 15, 2008
+		con.addCondProbEntry(new int[]{1,0}, value01);	
+		con.addCondProbEntry(new int[]{0,1}, value10);	
+		
+		con.addCondProbEntry(new int[]{0,0}, value00);	
+		return new LocalConditionalConstraint(con);
 	}
 	
-}
\ No newline at end of file
+}
@@ -0,0 +1,489 @@
+/**
+ * StreamingProbParser.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+package umbc.ebiquity.BayesOWL.parser;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import norsys.netica.Net;
+import norsys.netica.NeticaException;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+
+/**
+ * StreamingProbParser parses a probability file in a single pass, with a StAX reader.<br>
+ * It reads the same structures as ProbParser (owl:Variable, owl:Proposition, owl:CondCollection,
+ * owl:PropCollection and owl:Probability) in any order, and emits the variables, propositions
+ * and probabilities as their elements end. The given probabilities of each (Condition, Proposition)
+ * pair are collected while reading, so the Constraints are made right after the last element.<br>
+ * Only the parsed records are kept, never the text of the file. A Probability whose collections
+ * or propositions come later in the file waits until the end of the document.<br>
+ * <br>
+ * The results of the last parsed file are kept, so the getters of ProbParser called
+ * with the same file do not read it again.
+ *
+ */
+public class StreamingProbParser extends ProbParser
+{
+	static final String RDF_NS = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+
+	/**
+	 * Given probabilities of one (Condition, Proposition) pair, see ProbParser.makeConstraint.
+	 */
+	static class Slot
+	{
+		String condition;
+		String proposition;
+		double[] values = new double[]{-1, -1, -1, -1};
+	}
+
+	private String parsedFile;
+	private boolean valid;
+	private ArrayList<Class> classList;
+	private ArrayList<Proposition> propositionList;
+	private HashMap<String, Proposition> propositionMap;	//by proposition name
+	private LinkedHashMap<String, String> condCollectionMap;	//collection name to condition
+	private LinkedHashMap<String, String> propCollectionMap;	//collection name to proposition
+	private ArrayList<ConPro> conProList;
+	private ArrayList<Probability> probabilityList;
+	private ArrayList<String[]> pendingList;	//probabilities waiting for their collections: condCollection, propCollection, value
+	private LinkedHashMap<String, Slot> slotMap;	//by (condition, proposition)
+
+	/**
+	 * Parse a probability file, unless it is the last parsed one.
+	 * @param OwlFile	Owl File Directory
+	 * @throws IOException
+	 */
+	public void parse(String OwlFile) throws IOException
+	{
+		if(OwlFile.equals(parsedFile))
+		{
+			return;
+		}
+		InputStream in = new FileInputStream(OwlFile);
+		try
+		{
+			parse(in);
+		}
+		finally
+		{
+			in.close();
+		}
+		parsedFile = OwlFile;
+	}
+
+	/**
+	 * Parse a probability document in one pass.
+	 * @param in	Probability Document
+	 * @throws IOException
+	 */
+	public void parse(InputStream in) throws IOException
+	{
+		String record = null;
+		String id = null;
+		String name;
+		HashMap<String, String> properties = new HashMap<String, String>();
+
+		parsedFile = null;
+		valid = true;
+		classList = new ArrayList<Class>();
+		propositionList = new ArrayList<Proposition>();
+		propositionMap = new HashMap<String, Proposition>();
+		condCollectionMap = new LinkedHashMap<String, String>();
+		propCollectionMap = new LinkedHashMap<String, String>();
+		conProList = new ArrayList<ConPro>();
+		probabilityList = new ArrayList<Probability>();
+		pendingList = new ArrayList<String[]>();
+		slotMap = new LinkedHashMap<String, Slot>();
+
+		try
+		{
+			XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
+			try
+			{
+				while(reader.hasNext())
+				{
+					int event = reader.next();
+					if(event == XMLStreamConstants.START_ELEMENT)
+					{
+						name = reader.getLocalName();
+						if(record == null)
+						{
+							if(isRecord(name))
+							{
+								record = name;
+								id = getID(reader);
+								properties.clear();
+							}
+						}
+						else if(name.startsWith("has"))
+						{
+							//Get the Property of the current Record
+							properties.put(name, reader.getElementText().trim());
+						}
+					}
+					else if(event == XMLStreamConstants.END_ELEMENT)
+					{
+						if(record != null && reader.getLocalName().equals(record))
+						{
+							emit(record, id, properties);
+							record = null;
+						}
+					}
+				}
+			}
+			finally
+			{
+				reader.close();
+			}
+		}
+		catch(XMLStreamException e)
+		{
+			throw new IOException("StreamingProbParser: " + e.getMessage());
+		}
+
+		//Probabilities given before their collections or propositions
+		for(int i = 0; i < pendingList.size(); i++)
+		{
+			String[] pending = (String[]) pendingList.get(i);
+			if(!addProbability(pending[0], pending[1], Double.parseDouble(pending[2])))
+			{
+				System.out.print("Probability of ");
+				System.out.print(pending[1]);
+				System.out.print(" ");
+				System.out.println("refers to an undefined collection or proposition.");
+				valid = false;
+			}
+		}
+		pendingList.clear();
+	}
+
+	/**
+	 * Tell if an element is one of the records of a probability file.
+	 * @param name	Element Local Name
+	 * @return	true for a record
+	 */
+	private boolean isRecord(String name)
+	{
+		return name.equals("Variable") || name.equals("Proposition") || name.equals("CondCollection")
+			|| name.equals("PropCollection") || name.equals("Probability");
+	}
+
+	/**
+	 * Get the rdf:ID (or rdf:about) of the current element.
+	 * @param reader	Reader on a Start Element
+	 * @return	ID, null if none
+	 */
+	private String getID(XMLStreamReader reader)
+	{
+		String id = reader.getAttributeValue(RDF_NS, "ID");
+		if(id == null)
+		{
+			id = reader.getAttributeValue(RDF_NS, "about");
+			if(id != null && id.indexOf('#') >= 0)
+			{
+				id = id.substring(id.lastIndexOf('#') + 1);
+			}
+		}
+		if(id == null && reader.getAttributeCount() > 0)
+		{
+			id = reader.getAttributeValue(0);
+		}
+		return id;
+	}
+
+	/**
+	 * Emit a complete record.
+	 * @param record	Record Local Name
+	 * @param id	Record ID
+	 * @param properties	Properties of the Record, by Local Name
+	 */
+	private void emit(String record, String id, HashMap<String, String> properties)
+	{
+		if(record.equals("Variable"))
+		{
+			Class className = new Class();
+			className.variable = id;
+			className.className = properties.get("hasClass");
+			classList.add(className);
+		}
+		else if(record.equals("Proposition"))
+		{
+			Proposition proposition = new Proposition();
+			proposition.proposition = id;
+			proposition.variable = properties.get("hasVariable");
+			proposition.state = "False".equals(properties.get("hasState")) ? 1 : 0;
+			propositionList.add(proposition);
+			propositionMap.put(id, proposition);
+		}
+		else if(record.equals("CondCollection"))
+		{
+			condCollectionMap.put(id, properties.get("hasCondition"));
+		}
+		else if(record.equals("PropCollection"))
+		{
+			propCollectionMap.put(id, properties.get("hasProposition"));
+		}
+		else
+		{
+			String condCollection = properties.get("hasCondCollection");
+			String propCollection = properties.get("hasPropCollection");
+			String value = properties.get("hasValue");
+			if(!addProbability(condCollection, propCollection, Double.parseDouble(value)))
+			{
+				pendingList.add(new String[]{condCollection, propCollection, value});
+			}
+		}
+	}
+
+	/**
+	 * Resolve a probability through its collections and propositions, and add it to its Slot.
+	 * @param condCollection	Condition Collection Name, null for a marginal
+	 * @param propCollection	Proposition Collection Name
+	 * @param value	Probability
+	 * @return	false if a collection or a proposition is not known yet
+	 */
+	private boolean addProbability(String condCollection, String propCollection, double value)
+	{
+		String conditionName = null;
+		Proposition condition = null;
+		String propositionName = propCollectionMap.get(propCollection);
+		Proposition proposition = propositionMap.get(propositionName);
+
+		if(proposition == null)
+		{
+			return false;
+		}
+		if(condCollection != null)
+		{
+			conditionName = condCollectionMap.get(condCollection);
+			condition = propositionMap.get(conditionName);
+			if(condition == null)
+			{
+				return false;
+			}
+		}
+
+		ConPro conPro = new ConPro();
+		conPro.condition = conditionName;
+		conPro.proposition = propositionName;
+		conPro.value = value;
+		conProList.add(conPro);
+
+		Probability probability = new Probability();
+		probability.proposition = proposition.variable;
+		probability.value = value;
+		String key;
+		if(condition == null)
+		{
+			probability.state = new int[]{proposition.state};
+			key = getKey(null, proposition.variable);
+		}
+		else
+		{
+			probability.condition = condition.variable;
+			probability.state = new int[]{condition.state, proposition.state};
+			key = getKey(condition.variable, proposition.variable);
+		}
+		probabilityList.add(probability);
+
+		if(!checkValue(probability.proposition, value))
+		{
+			valid = false;
+			return true;
+		}
+		Slot slot = slotMap.get(key);
+		if(slot == null)
+		{
+			slot = new Slot();
+			slot.condition = probability.condition;
+			slot.proposition = probability.proposition;
+			slotMap.put(key, slot);
+		}
+		if(condition == null)
+		{
+			slot.values[proposition.state] = value;
+		}
+		else
+		{
+			slot.values[condition.state * 2 + proposition.state] = value;
+		}
+		return true;
+	}
+
+	/**
+	 * Get All the Variable and Corresponding ClassName Sets.
+	 * @param OwlFile	Owl File Directory
+	 * @throws IOException
+	 * @return	Array of Class
+	 */
+	public Class[] getClass(String OwlFile) throws IOException
+	{
+		parse(OwlFile);
+		return (Class[]) classList.toArray(new Class[0]);
+	}
+
+	/**
+	 * Get All the Proposition Name, Variable and State Sets.
+	 * @param OwlFile	Owl File Directory
+	 * @throws IOException
+	 * @return	Array of Proposition
+	 */
+	public Proposition[] getProposition(String OwlFile) throws IOException
+	{
+		parse(OwlFile);
+		return (Proposition[]) propositionList.toArray(new Proposition[0]);
+	}
+
+	/**
+	 * Get All the Condition Collection Name and Corresponding Condition Collection.
+	 * @param OwlFile	Owl File Directory
+	 * @throws IOException
+	 * @return	Array of CondCollection
+	 */
+	public CondCollection[] getCondCollection(String OwlFile) throws IOException
+	{
+		parse(OwlFile);
+		ArrayList<CondCollection> list = new ArrayList<CondCollection>();
+		Iterator<String> iter = condCollectionMap.keySet().iterator();
+		while(iter.hasNext())
+		{
+			CondCollection condCollection = new CondCollection();
+			condCollection.condCollectionName = iter.next();
+			condCollection.condition = condCollectionMap.get(condCollection.condCollectionName);
+			list.add(condCollection);
+		}
+		return (CondCollection[]) list.toArray(new CondCollection[0]);
+	}
+
+	/**
+	 * Get All the Proposition Collection Name and Corresponding Proposition Collection.
+	 * @param OwlFile	Owl File Directory
+	 * @throws IOException
+	 * @return	Array of PropCollection
+	 */
+	public PropCollection[] getPropCollection(String OwlFile) throws IOException
+	{
+		parse(OwlFile);
+		ArrayList<PropCollection> list = new ArrayList<PropCollection>();
+		Iterator<String> iter = propCollectionMap.keySet().iterator();
+		while(iter.hasNext())
+		{
+			PropCollection propCollection = new PropCollection();
+			propCollection.propCollectionName = iter.next();
+			propCollection.proposition = propCollectionMap.get(propCollection.propCollectionName);
+			list.add(propCollection);
+		}
+		return (PropCollection[]) list.toArray(new PropCollection[0]);
+	}
+
+	/**
+	 * Get All the Condition, Proposition and Value Sets.
+	 * @param OwlFile	Owl File Directory
+	 * @throws IOException
+	 * @return	Array of ConPro
+	 */
+	public ConPro[] getConPro(String OwlFile) throws IOException
+	{
+		parse(OwlFile);
+		return (ConPro[]) conProList.toArray(new ConPro[0]);
+	}
+
+	/**
+	 * Get All the Condition, Proposition, State and Value Sets.
+	 * @param OwlFile	Owl File Directory
+	 * @throws IOException
+	 * @return	Array of Probability
+	 */
+	public Probability[] getProbability(String OwlFile) throws IOException
+	{
+		parse(OwlFile);
+		return (Probability[]) probabilityList.toArray(new Probability[0]);
+	}
+
+	/**
+	 * Make a Condition Proposition List for the Probability File.
+	 * @param OwlFile	Owl File Directory
+	 * @throws IOException
+	 * @return	Array of ConProList
+	 */
+	public ConProList[] getConProList(String OwlFile) throws IOException
+	{
+		parse(OwlFile);
+		ArrayList<ConProList> list = new ArrayList<ConProList>();
+		Iterator<Slot> iter = slotMap.values().iterator();
+		while(iter.hasNext())
+		{
+			Slot slot = iter.next();
+			ConProList cpList = new ConProList();
+			cpList.condition = slot.condition;
+			cpList.proposition = slot.proposition;
+			list.add(cpList);
+		}
+		return (ConProList[]) list.toArray(new ConProList[0]);
+	}
+
+	/**
+	 * Construct the CPT based on the Probability File.
+	 * @param OwlFile	Owl File Directory
+	 * @throws IOException
+	 * @return	Array of Constraint
+	 * @throws NeticaException
+	 */
+	public Constraint[] getConstraint(String OwlFile, Net net) throws IOException, NeticaException
+	{
+		parse(OwlFile);
+		return getConstraint(net);
+	}
+
+	/**
+	 * Construct the CPT based on the last parsed Probability Document.
+	 * @param net	Target BN
+	 * @return	Array of Constraint, null if the probabilities are not consistent
+	 * @throws NeticaException
+	 */
+	public Constraint[] getConstraint(Net net) throws NeticaException
+	{
+		if(slotMap == null || !valid)
+		{
+			return null;
+		}
+		Constraint constraint;
+		Constraint[] cons = new Constraint[slotMap.size()];
+		Iterator<Slot> iter = slotMap.values().iterator();
+		for(int i = 0; iter.hasNext(); i++)
+		{
+			Slot slot = iter.next();
+			constraint = makeConstraint(slot.condition, slot.proposition, slot.values, net);
+			if(constraint == null)
+			{
+				return null;
+			}
+			cons[i] = constraint;
+		}
+		return cons;
+	}
+
+	/**
+	 * Get the given probabilities of the last parsed Probability Document, by (Condition, Proposition).
+	 * @return	slots in order of first appearance, keyed by ProbParser.getKey; null if not parsed or not consistent
+	 */
+	LinkedHashMap<String, Slot> getSlots()
+	{
+		return valid ? slotMap : null;
+	}
+}
@@ -0,0 +1,479 @@
+/**
+ * StreamingTaxoParser.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+package umbc.ebiquity.BayesOWL.parser;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.xml.sax.SAXException;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+
+import com.hp.hpl.jena.rdf.arp.ALiteral;
+import com.hp.hpl.jena.rdf.arp.ARP;
+import com.hp.hpl.jena.rdf.arp.AResource;
+import com.hp.hpl.jena.rdf.arp.StatementHandler;
+
+/**
+ * StreamingTaxoParser extracts the taxonomy of an OWL ontology (RDF/XML) without
+ * building a Jena OntModel.<br>
+ * The triples are streamed from the Jena ARP parser, and only the ones BayesOWL
+ * needs are kept, as int arrays over resource ids: rdf:type owl:Class, rdfs:subClassOf,
+ * owl:unionOf, owl:intersectionOf, owl:complementOf, owl:disjointWith, owl:equivalentClass
+ * and the rdf:first / rdf:rest cells of the operand lists. Every other triple is dropped
+ * as soon as it is read.<br>
+ * The kept axioms are then given to a TaxonomyIndex with the rules of TaxoParser.getIndex(),
+ * the classes in order of declaration.<br>
+ * Super classes are the asserted ones: no reasoner is run, so a super class implied by
+ * another asserted one is kept, where Jena's listSuperClasses(true) may drop it.
+ *
+ */
+public class StreamingTaxoParser
+{
+	static final String RDF = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+	static final String RDFS = "http://www.w3.org/2000/01/rdf-schema#";
+	static final String OWL = "http://www.w3.org/2002/07/owl#";
+	static final String ANONYMOUS = "_:";	//key prefix of blank nodes
+
+	//per resource properties, -1 if none
+	static final int DECLARED = 0;	//position of the class in order of declaration
+	static final int DISJOINT_WITH = 1;
+	static final int EQUIVALENT_CLASS = 2;
+	static final int UNION_OF = 3;
+	static final int INTERSECTION_OF = 4;
+	static final int COMPLEMENT_OF = 5;
+	static final int FIRST = 6;
+	static final int REST = 7;
+	static final int NUM_OF_PROPERTIES = 8;
+
+	private HashMap<String, Integer> ids = new HashMap<String, Integer>();	//by URI, or "_:" + blank node id
+	private ArrayList<String> uris = new ArrayList<String>();	//null for blank nodes
+	private int[][] properties = new int[NUM_OF_PROPERTIES][0];
+	private int nilId;
+
+	private int[] classOrder = new int[16];	//class resources in order of declaration
+	private int numOfClasses;
+	private int[][] subClassOf = new int[][]{new int[16], new int[16]};
+	private int numOfSubClassOf;
+	private long numOfTriples;
+
+	private TaxonomyIndex index;
+
+	/**
+	 * Constructor. Streams the ontology.
+	 *
+	 * @param OwlFile	Owl File Directory or URL
+	 */
+	public StreamingTaxoParser(String OwlFile)
+	{
+		nilId = getId(RDF + "nil");
+		try
+		{
+			InputStream in;
+			String base;
+			if(!OwlFile.contains("http"))
+			{
+				in = new FileInputStream(OwlFile);
+				base = "";
+			}
+			else
+			{
+				in = new URL(OwlFile).openStream();
+				base = OwlFile;
+			}
+			try
+			{
+				read(in, base);
+			}
+			finally
+			{
+				in.close();
+			}
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+		catch (SAXException e)
+		{
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Stream the triples of an RDF/XML document.
+	 * @param in	RDF/XML document
+	 * @param base	base URI
+	 * @throws IOException
+	 * @throws SAXException
+	 */
+	private void read(InputStream in, String base) throws IOException, SAXException
+	{
+		ARP arp = new ARP();
+		arp.getHandlers().setStatementHandler(new StatementHandler()
+		{
+			public void statement(AResource subject, AResource predicate, AResource object)
+			{
+				StreamingTaxoParser.this.statement(getKey(subject), predicate.getURI(), getKey(object));
+			}
+
+			public void statement(AResource subject, AResource predicate, ALiteral literal)
+			{
+				numOfTriples++;
+			}
+		});
+		arp.load(in, base);
+	}
+
+	/**
+	 * Get the key of a resource.
+	 * @param r	resource
+	 * @return	URI, or "_:" + blank node id
+	 */
+	private static String getKey(AResource r)
+	{
+		return r.isAnonymous() ? ANONYMOUS + r.getAnonymousID() : r.getURI();
+	}
+
+	/**
+	 * Keep one triple if BayesOWL needs it.
+	 * @param subject	subject key
+	 * @param predicate	predicate URI
+	 * @param object	object key
+	 */
+	void statement(String subject, String predicate, String object)
+	{
+		numOfTriples++;
+		if(predicate.equals(RDF + "type"))
+		{
+			if(object.equals(OWL + "Class"))
+			{
+				int s = getId(subject);
+				if(properties[DECLARED][s] < 0)
+				{
+					if(numOfClasses == classOrder.length)
+					{
+						classOrder = grow(classOrder, 0);
+					}
+					properties[DECLARED][s] = numOfClasses;
+					classOrder[numOfClasses++] = s;
+				}
+			}
+		}
+		else if(predicate.equals(RDFS + "subClassOf"))
+		{
+			int s = getId(subject);
+			int o = getId(object);
+			if(s != o)
+			{
+				if(numOfSubClassOf == subClassOf[0].length)
+				{
+					subClassOf[0] = grow(subClassOf[0], 0);
+					subClassOf[1] = grow(subClassOf[1], 0);
+				}
+				subClassOf[0][numOfSubClassOf] = s;
+				subClassOf[1][numOfSubClassOf++] = o;
+			}
+		}
+		else if(predicate.equals(RDF + "first"))
+		{
+			setOnce(FIRST, subject, object);
+		}
+		else if(predicate.equals(RDF + "rest"))
+		{
+			setOnce(REST, subject, object);
+		}
+		else if(predicate.equals(OWL + "unionOf"))
+		{
+			setOnce(UNION_OF, subject, object);
+		}
+		else if(predicate.equals(OWL + "intersectionOf"))
+		{
+			setOnce(INTERSECTION_OF, subject, object);
+		}
+		else if(predicate.equals(OWL + "complementOf"))
+		{
+			setOnce(COMPLEMENT_OF, subject, object);
+		}
+		else if(predicate.equals(OWL + "disjointWith"))
+		{
+			setOnce(DISJOINT_WITH, subject, object);
+		}
+		else if(predicate.equals(OWL + "equivalentClass"))
+		{
+			setOnce(EQUIVALENT_CLASS, subject, object);
+		}
+	}
+
+	/**
+	 * Set a property of a resource, keeping the first value (as the single-valued getters of Jena).
+	 * @param property	property index
+	 * @param subject	subject key
+	 * @param object	object key
+	 */
+	private void setOnce(int property, String subject, String object)
+	{
+		int s = getId(subject);
+		int o = getId(object);
+		if(properties[property][s] < 0)
+		{
+			properties[property][s] = o;
+		}
+	}
+
+	/**
+	 * Get the id of a resource, assigned the first time it is seen.
+	 * @param key	resource key
+	 * @return	id
+	 */
+	private int getId(String key)
+	{
+		Integer id = ids.get(key);
+		if(id == null)
+		{
+			id = Integer.valueOf(uris.size());
+			ids.put(key, id);
+			uris.add(key.startsWith(ANONYMOUS) ? null : key);
+			if(uris.size() > properties[0].length)
+			{
+				for(int k = 0; k < NUM_OF_PROPERTIES; k++)
+				{
+					properties[k] = grow(properties[k], -1);
+				}
+			}
+		}
+		return id.intValue();
+	}
+
+	/**
+	 * Get the Node Names, Tags and Parents from the streamed axioms.
+	 * The classes are visited in order of declaration, with the rules of TaxoParser.getIndex().
+	 * @return	taxonomy index, built
+	 */
+	public TaxonomyIndex getIndex()
+	{
+		if(index != null)
+		{
+			return index;
+		}
+		index = new TaxonomyIndex();
+		replay(index, null);
+		index.build();
+		return index;
+	}
+
+	/**
+	 * Give the streamed axioms to a taxonomy index, not built yet.
+	 * Several ontologies can be replayed into one index: their classes are merged by node name.
+	 * @param index	taxonomy index
+	 * @param logicKeys	keys of the L-Nodes already in the index, to skip an L-Node given twice; null to keep them all
+	 */
+	void replay(TaxonomyIndex index, HashSet<String> logicKeys)
+	{
+		int i;
+		int k;
+		int c;
+
+		//group the super classes by class, in compressed sparse rows
+		int[] superStart = new int[uris.size() + 1];
+		for(k = 0; k < numOfSubClassOf; k++)
+		{
+			superStart[subClassOf[0][k] + 1]++;
+		}
+		for(c = 0; c < uris.size(); c++)
+		{
+			superStart[c + 1] += superStart[c];
+		}
+		int[] next = new int[uris.size()];
+		System.arraycopy(superStart, 0, next, 0, uris.size());
+		int[] supers = new int[numOfSubClassOf];
+		for(k = 0; k < numOfSubClassOf; k++)
+		{
+			supers[next[subClassOf[0][k]]++] = subClassOf[1][k];
+		}
+
+		for(i = 0; i < numOfClasses; i++)
+		{
+			c = classOrder[i];
+			int id = index.getId((String) uris.get(c));
+
+			//CNode and its super classes
+			if(id >= 0)
+			{
+				index.declareClass(id);
+				for(k = superStart[c]; k < superStart[c + 1]; k++)
+				{
+					index.addSubClassOf(id, index.getId((String) uris.get(supers[k])));
+				}
+			}
+
+			//LNode
+			if(properties[DISJOINT_WITH][c] >= 0)
+			{
+				int other = index.getId((String) uris.get(properties[DISJOINT_WITH][c]));
+				if(isNewLogicNode(logicKeys, ExNode.TAG.DISJOINT, id, new int[]{other}))
+				{
+					index.addDisjoint(id, other);
+				}
+			}
+			else if(properties[EQUIVALENT_CLASS][c] >= 0)
+			{
+				int other = index.getId((String) uris.get(properties[EQUIVALENT_CLASS][c]));
+				if(isNewLogicNode(logicKeys, ExNode.TAG.EQUIVALENT, id, new int[]{other}))
+				{
+					index.addEquivalent(id, other);
+				}
+			}
+			else if(properties[UNION_OF][c] >= 0)
+			{
+				int[] operands = getOperandIds(index, properties[UNION_OF][c]);
+				if(isNewLogicNode(logicKeys, ExNode.TAG.UNION, id, operands))
+				{
+					index.addUnion(id, operands);
+				}
+			}
+			else if(properties[INTERSECTION_OF][c] >= 0)
+			{
+				int[] operands = getOperandIds(index, properties[INTERSECTION_OF][c]);
+				if(isNewLogicNode(logicKeys, ExNode.TAG.INTERSECTION, id, operands))
+				{
+					index.addIntersection(id, operands);
+				}
+			}
+			else if(properties[COMPLEMENT_OF][c] >= 0)
+			{
+				int[] operands = new int[]{index.getId((String) uris.get(properties[COMPLEMENT_OF][c]))};
+				if(isNewLogicNode(logicKeys, ExNode.TAG.COMPLEMENT, id, operands))
+				{
+					index.addComplement(id, operands);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Check that an L-Node on named classes is not in the index yet, and record it.
+	 * @param logicKeys	keys of the L-Nodes already in the index, null to keep them all
+	 * @param tag	L-Node tag
+	 * @param id	class id
+	 * @param operandIds	other class or operand ids
+	 * @return	true if the L-Node has to be added
+	 */
+	private static boolean isNewLogicNode(HashSet<String> logicKeys, ExNode.TAG tag, int id, int[] operandIds)
+	{
+		if(logicKeys == null || id < 0)
+		{
+			return true;
+		}
+		StringBuilder key = new StringBuilder(tag.name()).append(':').append(id);
+		for(int k = 0; k < operandIds.length; k++)
+		{
+			if(operandIds[k] < 0)
+			{
+				return true;	//an anonymous operand can not be matched
+			}
+			key.append(',').append(operandIds[k]);
+		}
+		return logicKeys.add(key.toString());
+	}
+
+	/**
+	 * Get the Ids of the members of an rdf:List of classes.
+	 * @param index	taxonomy index
+	 * @param list	list head
+	 * @return	operand ids, -1 for an anonymous operand
+	 */
+	private int[] getOperandIds(TaxonomyIndex index, int list)
+	{
+		int[] operandIds = new int[4];
+		int numOfOperands = 0;
+		//a list can not be longer than the number of resources, this also stops on a cycle
+		for(int steps = 0; list >= 0 && list != nilId && steps < uris.size(); steps++)
+		{
+			if(properties[FIRST][list] >= 0)
+			{
+				if(numOfOperands == operandIds.length)
+				{
+					operandIds = grow(operandIds, 0);
+				}
+				operandIds[numOfOperands++] = index.getId((String) uris.get(properties[FIRST][list]));
+			}
+			list = properties[REST][list];
+		}
+		int[] operands = new int[numOfOperands];
+		System.arraycopy(operandIds, 0, operands, 0, numOfOperands);
+		return operands;
+	}
+
+	/**
+	 * Get Number of Nodes.
+	 * @return	number of nodes
+	 */
+	public int getLength()
+	{
+		return getIndex().getLength();
+	}
+
+	/**
+	 * Get All the Node Names.
+	 * @return	all the node names
+	 */
+	public String[] getNames()
+	{
+		return getIndex().getNames();
+	}
+
+	/**
+	 * Get All the Node Tags.
+	 * @return	all the node tags
+	 */
+	public ExNode.TAG[] getTags()
+	{
+		return getIndex().getTags();
+	}
+
+	/**
+	 * Get All the Node Parents.
+	 * for LNode, its first parent is its operation result.
+	 * @return	all the node parents
+	 */
+	public String[][] getParents()
+	{
+		return getIndex().getParents();
+	}
+
+	/**
+	 * Get the number of triples read.
+	 * @return	number of triples
+	 */
+	public long getNumOfTriples()
+	{
+		return numOfTriples;
+	}
+
+	/**
+	 * Double the size of an array.
+	 * @param array	array
+	 * @param fill	value of the new entries
+	 * @return	larger copy
+	 */
+	private static int[] grow(int[] array, int fill)
+	{
+		int[] larger = new int[Math.max(16, array.length * 2)];
+		System.arraycopy(array, 0, larger, 0, array.length);
+		for(int k = array.length; k < larger.length; k++)
+		{
+			larger[k] = fill;
+		}
+		return larger;
+	}
+}
@@ -196,6 +196,59 @@ public class TaxoParser
 	}
 	
 
+	/**
+	 * Get the Node Names, Tags and Parents in one visit of the ontology.
+	 * Classes get integer ids through a hash map, and the parents are given
+	 * in compressed sparse rows, for BNConstructor.constructBN(names, tags, parentStart, parentIds).
+	 * Time and memory are linear in the number of classes and axioms.
+	 * @return	taxonomy index, built
+	 */
+	public TaxonomyIndex getIndex()
+	{
+		TaxonomyIndex index = new TaxonomyIndex();
+		
+        for (Iterator i = m.listClasses(); i.hasNext(); ) 
+        {
+        	OntClass c = (OntClass) i.next();
+        	int id = index.getId(c.getURI());
+        	
+        	//CNode and its direct super classes
+        	if(id >= 0)
+        	{
+        		index.declareClass(id);
+        		for (Iterator j = c.listSuperClasses( true ); j.hasNext(); ) 
+        		{
+        			index.addSubClassOf(id, index.getId(((OntClass) j.next()).getURI()));
+        		}
+        	}
+        	
+        	//LNode
+        	if (c.getDisjointWith() != null) 
+        	{
+        		index.addDisjoint(id, index.getId(c.getDisjointWith().getURI()));
+        	}
+        	else if (c.getEquivalentClass() != null) 
+        	{
+        		index.addEquivalent(id, index.getId(c.getEquivalentClass().getURI()));
+        	}
+        	else if (c.isUnionClass()) 
+        	{
+        		index.addUnion(id, getOperandIds(c.asUnionClass(), index));
+        	}
+        	else if (c.isIntersectionClass()) 
+        	{
+        		index.addIntersection(id, getOperandIds(c.asIntersectionClass(), index));
+        	}
+        	else if (c.isComplementClass()) 
+        	{
+        		index.addComplement(id, getOperandIds(c.asComplementClass(), index));
+        	}
+        }
+        
+        index.build();
+        return index;
+	}
+	
 	
     // Internal implementation methods
     //////////////////////////////////
@@ -344,6 +397,28 @@ public class TaxoParser
     	return parents;
     }
     
+	/**
+	 * Get the Ids of the Operands of a Boolean Class.
+	 * @param boolClass, boolean class description; index, taxonomy index
+	 * @return	operand ids, -1 for an anonymous operand
+	 */
+    private int[] getOperandIds(BooleanClassDescription boolClass, TaxonomyIndex index) 
+    {
+    	ArrayList<Integer> operands = new ArrayList<Integer>();
+    	
+	    for (Iterator i = boolClass.listOperands(); i.hasNext(); ) 
+	    {
+	    	operands.add(Integer.valueOf(index.getId(((OntClass) i.next()).getURI())));
+	    }
+	    
+	    int[] operandIds = new int[operands.size()];
+	    for(int k = 0; k < operandIds.length; k++)
+	    {
+	    	operandIds[k] = ((Integer) operands.get(k)).intValue();
+	    }
+        return operandIds;
+    }
+    
 	/**
 	 * Get All the Parents in Disjoint and Equivalent Relations.
 	 * @param op, operation name; c, the first ontology class; d, the second ontology class; length, number of nodes; names, all the node names; parents, all the node parents
@@ -0,0 +1,139 @@
+/**
+ * TaxoParserBenchmark.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+package umbc.ebiquity.BayesOWL.parser;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * TaxoParserBenchmark compares the OntModel path (TaxoParser.getIndex()) with the
+ * streaming path (StreamingTaxoParser.getIndex()) on a synthetic ontology.<br>
+ * Every class has a random earlier class as super class; one class in 10 is also
+ * a union, intersection or complement of earlier classes, and one in 50 is disjoint
+ * with an earlier class.<br>
+ * Usage: TaxoParserBenchmark [number of classes] [seed]
+ *
+ */
+public class TaxoParserBenchmark
+{
+	/**
+	 * Run the benchmark.
+	 * @param args	number of classes (default 50000), random seed (default 1)
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException
+	{
+		int numOfClasses = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+		File file = File.createTempFile("taxonomy", ".owl");
+		file.deleteOnExit();
+		writeOntology(file, numOfClasses, new Random(seed));
+		System.out.println("Synthetic ontology: " + numOfClasses + " classes, " + file.length() / 1024 + " KB");
+
+		//OntModel path
+		long memory = usedMemory();
+		long startTime = new Date().getTime();
+		TaxoParser taxoParser = new TaxoParser(file.getPath());
+		TaxonomyIndex modelIndex = taxoParser.getIndex();
+		long modelTime = new Date().getTime() - startTime;
+		long modelMemory = usedMemory() - memory;
+		report("OntModel ", modelIndex, modelTime, modelMemory);
+		taxoParser = null;
+		modelIndex = null;
+
+		//streaming path
+		memory = usedMemory();
+		startTime = new Date().getTime();
+		StreamingTaxoParser streamingParser = new StreamingTaxoParser(file.getPath());
+		TaxonomyIndex streamIndex = streamingParser.getIndex();
+		long streamTime = new Date().getTime() - startTime;
+		long streamMemory = usedMemory() - memory;
+		report("Streaming", streamIndex, streamTime, streamMemory);
+		System.out.println("Triples read by the streaming path: " + streamingParser.getNumOfTriples());
+	}
+
+	/**
+	 * Print the result of one path.
+	 * @param path	name of the path
+	 * @param index	result
+	 * @param time	time in milliseconds
+	 * @param memory	retained heap in bytes
+	 */
+	private static void report(String path, TaxonomyIndex index, long time, long memory)
+	{
+		System.out.println(path + ": " + index.getLength() + " nodes, " + index.getParentIds().length
+			+ " links, " + time + " ms, " + memory / (1024 * 1024) + " MB retained");
+	}
+
+	/**
+	 * Get the used heap after a garbage collection.
+	 * @return	used heap in bytes
+	 */
+	private static long usedMemory()
+	{
+		Runtime runtime = Runtime.getRuntime();
+		for(int k = 0; k < 3; k++)
+		{
+			runtime.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Write a synthetic ontology in RDF/XML.
+	 * @param file	output file
+	 * @param numOfClasses	number of named classes
+	 * @param random	random generator
+	 * @throws IOException
+	 */
+	private static void writeOntology(File file, int numOfClasses, Random random) throws IOException
+	{
+		BufferedWriter out = new BufferedWriter(new FileWriter(file));
+		out.write("<?xml version=\"1.0\"?>\n");
+		out.write("<rdf:RDF xmlns:rdf=\"" + StreamingTaxoParser.RDF + "\" xmlns:rdfs=\"" + StreamingTaxoParser.RDFS
+			+ "\" xmlns:owl=\"" + StreamingTaxoParser.OWL + "\" xml:base=\"http://example.org/synthetic\">\n");
+		out.write("<owl:Ontology rdf:about=\"\"/>\n");
+		for(int i = 0; i < numOfClasses; i++)
+		{
+			out.write("<owl:Class rdf:ID=\"C" + i + "\">\n");
+			if(i > 0)
+			{
+				out.write("\t<rdfs:subClassOf rdf:resource=\"#C" + random.nextInt(i) + "\"/>\n");
+			}
+			if(i > 2 && i % 50 == 0)
+			{
+				out.write("\t<owl:disjointWith rdf:resource=\"#C" + random.nextInt(i) + "\"/>\n");
+			}
+			else if(i > 2 && i % 10 == 0)
+			{
+				int kind = random.nextInt(3);
+				if(kind == 2)
+				{
+					out.write("\t<owl:complementOf rdf:resource=\"#C" + random.nextInt(i) + "\"/>\n");
+				}
+				else
+				{
+					String op = kind == 0 ? "owl:unionOf" : "owl:intersectionOf";
+					out.write("\t<" + op + " rdf:parseType=\"Collection\">\n");
+					int numOfOperands = 2 + random.nextInt(3);
+					for(int k = 0; k < numOfOperands; k++)
+					{
+						out.write("\t\t<owl:Class rdf:about=\"#C" + random.nextInt(i) + "\"/>\n");
+					}
+					out.write("\t</" + op + ">\n");
+				}
+			}
+			out.write("</owl:Class>\n");
+		}
+		out.write("</rdf:RDF>\n");
+		out.close();
+	}
+}
@@ -0,0 +1,481 @@
+/**
+ * TaxonomyIndex.java
+ *
+ * Created on Oct. 18, 2026
+ *
+ */
+package umbc.ebiquity.BayesOWL.parser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import umbc.ebiquity.BayesOWL.commonDefine.*;
+
+/**
+ * TaxonomyIndex collects the taxonomy axioms of an OWL ontology with integer ids,
+ * and gives the node names, tags and parents of the BN in one go.<br>
+ * Every class name gets an id through a hash map the first time it is seen; the
+ * axioms are kept as arrays of ids. "build()" then numbers the nodes as TaxoParser.getNames()
+ * does: the declared classes in order of declaration, then the L-Nodes in order of creation,
+ * and gives the parents in compressed sparse rows, ready for BNConstructor.constructBN.<br>
+ * A parent which is never declared as a class is dropped.<br>
+ * <br>
+ * The parents follow the rules of TaxoParser.getParents():<br>
+ * 	(1) the direct super classes of a class, then the links added by union and intersection<br>
+ * 	(2) Disjoint / Equivalent L-Node: the other class, then the class<br>
+ * 	(3) Union / Intersection / Complement L-Node: the result class, then the operands<br>
+ * 	(4) a union adds its result as parent of each operand, an intersection adds each operand
+ * as parent of its result<br>
+ *
+ */
+public class TaxonomyIndex
+{
+	private HashMap<String, Integer> ids = new HashMap<String, Integer>();
+	private ArrayList<String> classNames = new ArrayList<String>();
+	private int[] declared = new int[16];	//class ids in order of declaration
+	private int numOfDeclared;
+	private HashSet<Integer> declaredSet = new HashSet<Integer>();
+
+	//edges between classes: subclass edges come before links in the parents of a class
+	private int[][] subClassEdges = new int[][]{new int[16], new int[16]};
+	private int numOfSubClassEdges;
+	private int[][] linkEdges = new int[][]{new int[16], new int[16]};
+	private int numOfLinkEdges;
+	private HashSet<Long> edgeSet = new HashSet<Long>();
+
+	//L-Nodes, with their parents in compressed sparse rows
+	private ArrayList<ExNode.TAG> logicTags = new ArrayList<ExNode.TAG>();
+	private int[] logicStart = new int[17];
+	private int[] logicParents = new int[16];
+	private int union;	//record the number of different operations, for L-node naming use
+	private int intersection;
+	private int complement;
+	private int disjoint;
+	private int equivalent;
+
+	//results of build()
+	private String[] names;
+	private ExNode.TAG[] tags;
+	private int[] parentStart;
+	private int[] parentIds;
+
+	/**
+	 * Get the node name of a class URI: the local name, "-" replaced by "_",
+	 * cut to 29 characters when longer than 30 (as TaxoParser.getCName).
+	 * @param uri	class URI, may be null
+	 * @return	node name, null for an anonymous class
+	 */
+	public static String toNodeName(String uri)
+	{
+		if(uri == null)
+		{
+			return null;
+		}
+		String name = uri.substring(uri.indexOf("#")+1).replaceAll("-", "_");
+		if(name.length() > 30)
+		{
+			name = name.substring(0, 29);
+		}
+		return name;
+	}
+
+	/**
+	 * Get the id of a class URI, assigned the first time it is seen.
+	 * @param uri	class URI, may be null
+	 * @return	id, -1 for an anonymous class
+	 */
+	public int getId(String uri)
+	{
+		String name = toNodeName(uri);
+		if(name == null)
+		{
+			return -1;
+		}
+		Integer id = ids.get(name);
+		if(id == null)
+		{
+			id = Integer.valueOf(classNames.size());
+			ids.put(name, id);
+			classNames.add(name);
+		}
+		return id.intValue();
+	}
+
+	/**
+	 * Declare a class as a node of the BN. A class declared twice keeps its first position.
+	 * @param id	class id, ignored if -1
+	 */
+	public void declareClass(int id)
+	{
+		if(id < 0 || !declaredSet.add(Integer.valueOf(id)))
+		{
+			return;
+		}
+		if(numOfDeclared == declared.length)
+		{
+			declared = grow(declared);
+		}
+		declared[numOfDeclared++] = id;
+	}
+
+	/**
+	 * Add a direct super class.
+	 * @param id	class id
+	 * @param superId	super class id
+	 */
+	public void addSubClassOf(int id, int superId)
+	{
+		if(id < 0 || superId < 0 || !edgeSet.add(Long.valueOf(((long) id << 32) | superId)))
+		{
+			return;
+		}
+		if(numOfSubClassEdges == subClassEdges[0].length)
+		{
+			subClassEdges[0] = grow(subClassEdges[0]);
+			subClassEdges[1] = grow(subClassEdges[1]);
+		}
+		subClassEdges[0][numOfSubClassEdges] = id;
+		subClassEdges[1][numOfSubClassEdges++] = superId;
+	}
+
+	/**
+	 * Add a link between an operation result class and an operand, if not there yet.
+	 * @param id	class id
+	 * @param parentId	parent class id
+	 */
+	private void addLink(int id, int parentId)
+	{
+		if(id < 0 || parentId < 0 || !edgeSet.add(Long.valueOf(((long) id << 32) | parentId)))
+		{
+			return;
+		}
+		if(numOfLinkEdges == linkEdges[0].length)
+		{
+			linkEdges[0] = grow(linkEdges[0]);
+			linkEdges[1] = grow(linkEdges[1]);
+		}
+		linkEdges[0][numOfLinkEdges] = id;
+		linkEdges[1][numOfLinkEdges++] = parentId;
+	}
+
+	/**
+	 * Add a Disjoint L-Node.
+	 * @param id	class id
+	 * @param otherId	id of the disjoint class
+	 */
+	public void addDisjoint(int id, int otherId)
+	{
+		addPairNode(ExNode.TAG.DISJOINT, id, otherId);
+	}
+
+	/**
+	 * Add an Equivalent L-Node.
+	 * @param id	class id
+	 * @param otherId	id of the equivalent class
+	 */
+	public void addEquivalent(int id, int otherId)
+	{
+		addPairNode(ExNode.TAG.EQUIVALENT, id, otherId);
+	}
+
+	/**
+	 * Add a Union L-Node, and the result class as parent of each operand.
+	 * @param id	result class id
+	 * @param operandIds	operand ids, -1 for an anonymous operand
+	 */
+	public void addUnion(int id, int[] operandIds)
+	{
+		addOperationNode(ExNode.TAG.UNION, id, operandIds);
+		for(int k = 0; id >= 0 && k < operandIds.length; k++)
+		{
+			addLink(operandIds[k], id);
+		}
+	}
+
+	/**
+	 * Add an Intersection L-Node, and each operand as parent of the result class.
+	 * @param id	result class id
+	 * @param operandIds	operand ids, -1 for an anonymous operand
+	 */
+	public void addIntersection(int id, int[] operandIds)
+	{
+		addOperationNode(ExNode.TAG.INTERSECTION, id, operandIds);
+		for(int k = 0; id >= 0 && k < operandIds.length; k++)
+		{
+			addLink(id, operandIds[k]);
+		}
+	}
+
+	/**
+	 * Add a Complement L-Node.
+	 * @param id	result class id
+	 * @param operandIds	operand ids, -1 for an anonymous operand
+	 */
+	public void addComplement(int id, int[] operandIds)
+	{
+		addOperationNode(ExNode.TAG.COMPLEMENT, id, operandIds);
+	}
+
+	/**
+	 * Add a Disjoint or Equivalent L-Node; its parents are the other class, then the class.
+	 * @param tag	DISJOINT or EQUIVALENT
+	 * @param id	class id
+	 * @param otherId	other class id
+	 */
+	private void addPairNode(ExNode.TAG tag, int id, int otherId)
+	{
+		addLogicNode(tag);
+		if(otherId >= 0)
+		{
+			addLogicParent(otherId);
+			addLogicParent(id);
+		}
+	}
+
+	/**
+	 * Add a Union, Intersection or Complement L-Node; its parents are the result class, then the operands.
+	 * @param tag	UNION, INTERSECTION or COMPLEMENT
+	 * @param id	result class id
+	 * @param operandIds	operand ids
+	 */
+	private void addOperationNode(ExNode.TAG tag, int id, int[] operandIds)
+	{
+		addLogicNode(tag);
+		if(id >= 0)
+		{
+			addLogicParent(id);
+			for(int k = 0; k < operandIds.length; k++)
+			{
+				addLogicParent(operandIds[k]);
+			}
+		}
+	}
+
+	/**
+	 * Start a new L-Node.
+	 * @param tag	L-Node tag
+	 */
+	private void addLogicNode(ExNode.TAG tag)
+	{
+		logicTags.add(tag);
+		if(logicTags.size() + 1 > logicStart.length)
+		{
+			logicStart = grow(logicStart);
+		}
+		logicStart[logicTags.size()] = logicStart[logicTags.size() - 1];
+	}
+
+	/**
+	 * Add a parent to the last L-Node.
+	 * @param id	parent class id, ignored if -1
+	 */
+	private void addLogicParent(int id)
+	{
+		if(id < 0)
+		{
+			return;
+		}
+		int end = logicStart[logicTags.size()];
+		if(end == logicParents.length)
+		{
+			logicParents = grow(logicParents);
+		}
+		logicParents[end] = id;
+		logicStart[logicTags.size()]++;
+	}
+
+	/**
+	 * Get the name of an L-Node, as TaxoParser.getLName.
+	 * @param tag	L-Node tag
+	 * @return	L-Node name
+	 */
+	private String getLName(ExNode.TAG tag)
+	{
+		switch(tag)
+		{
+		case DISJOINT:
+			return "LNode" + "Disjoint" + "_" + Integer.toString(++disjoint);
+		case EQUIVALENT:
+			return "LNode" + "Equivalent" + "_" + Integer.toString(++equivalent);
+		case UNION:
+			return "LNode" + "Union" + "_" + Integer.toString(++union);
+		case INTERSECTION:
+			return "LNode" + "Intersection" + "_" + Integer.toString(++intersection);
+		default:
+			return "LNode" + "Complement" + "_" + Integer.toString(++complement);
+		}
+	}
+
+	/**
+	 * Number the nodes and build the names, tags and parents.
+	 * Linear in the number of classes and axioms.
+	 */
+	public void build()
+	{
+		int i;
+		int k;
+		int numOfLogic = logicTags.size();
+		int length = numOfDeclared + numOfLogic;
+		int[] nodeId = new int[classNames.size()];
+
+		union = 0;
+		intersection = 0;
+		complement = 0;
+		disjoint = 0;
+		equivalent = 0;
+		names = new String[length];
+		tags = new ExNode.TAG[length];
+		for(i = 0; i < nodeId.length; i++)
+		{
+			nodeId[i] = -1;
+		}
+		for(i = 0; i < numOfDeclared; i++)
+		{
+			nodeId[declared[i]] = i;
+			names[i] = (String) classNames.get(declared[i]);
+			tags[i] = ExNode.TAG.NORMALNODE;
+		}
+		for(i = 0; i < numOfLogic; i++)
+		{
+			tags[numOfDeclared + i] = (ExNode.TAG) logicTags.get(i);
+			names[numOfDeclared + i] = getLName(tags[numOfDeclared + i]);
+		}
+
+		//count the parents of each node
+		parentStart = new int[length + 1];
+		for(k = 0; k < numOfSubClassEdges; k++)
+		{
+			if(nodeId[subClassEdges[0][k]] >= 0 && nodeId[subClassEdges[1][k]] >= 0)
+			{
+				parentStart[nodeId[subClassEdges[0][k]] + 1]++;
+			}
+		}
+		for(k = 0; k < numOfLinkEdges; k++)
+		{
+			if(nodeId[linkEdges[0][k]] >= 0 && nodeId[linkEdges[1][k]] >= 0)
+			{
+				parentStart[nodeId[linkEdges[0][k]] + 1]++;
+			}
+		}
+		for(i = 0; i < numOfLogic; i++)
+		{
+			for(k = logicStart[i]; k < logicStart[i + 1]; k++)
+			{
+				if(nodeId[logicParents[k]] >= 0)
+				{
+					parentStart[numOfDeclared + i + 1]++;
+				}
+			}
+		}
+		for(i = 0; i < length; i++)
+		{
+			parentStart[i + 1] += parentStart[i];
+		}
+
+		//fill them in, in order
+		int[] next = new int[length];
+		System.arraycopy(parentStart, 0, next, 0, length);
+		parentIds = new int[parentStart[length]];
+		for(k = 0; k < numOfSubClassEdges; k++)
+		{
+			if(nodeId[subClassEdges[0][k]] >= 0 && nodeId[subClassEdges[1][k]] >= 0)
+			{
+				parentIds[next[nodeId[subClassEdges[0][k]]]++] = nodeId[subClassEdges[1][k]];
+			}
+		}
+		for(k = 0; k < numOfLinkEdges; k++)
+		{
+			if(nodeId[linkEdges[0][k]] >= 0 && nodeId[linkEdges[1][k]] >= 0)
+			{
+				parentIds[next[nodeId[linkEdges[0][k]]]++] = nodeId[linkEdges[1][k]];
+			}
+		}
+		for(i = 0; i < numOfLogic; i++)
+		{
+			for(k = logicStart[i]; k < logicStart[i + 1]; k++)
+			{
+				if(nodeId[logicParents[k]] >= 0)
+				{
+					parentIds[next[numOfDeclared + i]++] = nodeId[logicParents[k]];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get Number of Nodes.
+	 * @return	number of nodes
+	 */
+	public int getLength()
+	{
+		return names.length;
+	}
+
+	/**
+	 * Get All the Node Names.
+	 * @return	all the node names
+	 */
+	public String[] getNames()
+	{
+		return names;
+	}
+
+	/**
+	 * Get All the Node Tags.
+	 * @return	all the node tags
+	 */
+	public ExNode.TAG[] getTags()
+	{
+		return tags;
+	}
+
+	/**
+	 * Get the start of the parents of each node in getParentIds(), one more than the number of nodes.
+	 * @return	parent starts
+	 */
+	public int[] getParentStart()
+	{
+		return parentStart;
+	}
+
+	/**
+	 * Get the parent ids of all the nodes, in compressed sparse rows.
+	 * For LNode, its first parent is its operation result.
+	 * @return	parent ids
+	 */
+	public int[] getParentIds()
+	{
+		return parentIds;
+	}
+
+	/**
+	 * Get All the Node Parents by name, as TaxoParser.getParents().
+	 * @return	all the node parents
+	 */
+	public String[][] getParents()
+	{
+		String[][] parents = new String[names.length][];
+		for(int i = 0; i < names.length; i++)
+		{
+			parents[i] = new String[parentStart[i + 1] - parentStart[i]];
+			for(int k = 0; k < parents[i].length; k++)
+			{
+				parents[i][k] = names[parentIds[parentStart[i] + k]];
+			}
+		}
+		return parents;
+	}
+
+	/**
+	 * Double the size of an array.
+	 * @param array	array
+	 * @return	larger copy
+	 */
+	private static int[] grow(int[] array)
+	{
+		int[] larger = new int[array.length * 2];
+		System.arraycopy(array, 0, larger, 0, array.length);
+		return larger;
+	}
+}